@@ -1,118 +1,201 @@
 package com.shanthigear.bank;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import org.apache.hc.client5.http.classic.methods.HttpGet;
-import org.apache.hc.client5.http.classic.methods.HttpPost;
-import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
-import org.apache.hc.client5.http.impl.classic.HttpClients;
-import org.apache.hc.core5.http.HttpEntity;
-import org.apache.hc.core5.http.io.entity.EntityUtils;
-import org.apache.hc.core5.http.io.entity.StringEntity;
+import com.shanthigear.config.BankApiConfig;
+import com.shanthigear.config.BankCallPolicy;
+import com.shanthigear.exception.BankApiException;
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.async.methods.SimpleRequestBuilder;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.ContentType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
 
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.function.Function;
 
 /**
  * Client for interacting with the bank's payment API.
- * This is a template that needs to be implemented based on your bank's specific API.
+ * <p>
+ * Calls are non-blocking and share the application's async bank client, so many of them can be
+ * in flight over a few connections (multiplexed over one when the bank speaks HTTP/2). Every
+ * method returns at once; its future completes when the bank answers, or exceptionally when the
+ * call fails: with a {@link BankApiException} carrying the status of a non-2xx response, or a
+ * ResourceAccessException if the bank could not be reached in time. Calls run under the
+ * {@link BankCallPolicy}, and cancelling a future aborts its request.
  */
+@Component
 public class BankApiClient {
     private static final Logger logger = LoggerFactory.getLogger(BankApiClient.class);
     private static final ObjectMapper objectMapper = new ObjectMapper();
-    
-    // These should be moved to application.properties
-    private final String apiBaseUrl = "https://api.yourbank.com/v1";
-    private final String apiKey = "your-api-key";
-    private final String clientId = "your-client-id";
-    
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    private final CloseableHttpAsyncClient httpClient;
+    private final BankCallPolicy bankCallPolicy;
+    private final String apiBaseUrl;
+    private final String apiKey;
+    private final String clientId;
+
+    public BankApiClient(@Qualifier("bankAsyncHttpClient") CloseableHttpAsyncClient httpClient,
+                         BankApiConfig bankApiConfig,
+                         BankCallPolicy bankCallPolicy) {
+        this.httpClient = httpClient;
+        this.bankCallPolicy = bankCallPolicy;
+        this.apiBaseUrl = bankApiConfig.getBaseUrl();
+        this.apiKey = bankApiConfig.getApiKey();
+        this.clientId = bankApiConfig.getClientId();
+    }
+
     /**
      * Initiates a payment through the bank's API.
+     * <p>
+     * The request carries an idempotency key derived from the payment, so a retry of a payment
+     * the bank already received does not pay it twice.
+     * @return The bank's transaction ID of the payment
      */
-    public String initiatePayment(String beneficiaryAccount, double amount, String paymentReference) throws Exception {
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
-            HttpPost request = new HttpPost(apiBaseUrl + "/payments");
-            
-            // Set headers
-            addCommonHeaders(request);
-            
-            // Prepare request body
-            Map<String, Object> paymentRequest = new HashMap<>();
-            paymentRequest.put("beneficiaryAccount", beneficiaryAccount);
-            paymentRequest.put("amount", amount);
-            paymentRequest.put("currency", "INR");
-            paymentRequest.put("reference", paymentReference);
-            paymentRequest.put("paymentType", "IMMEDIATE");
-            
-            String jsonBody = objectMapper.writeValueAsString(paymentRequest);
-            request.setEntity(new StringEntity(jsonBody, StandardCharsets.UTF_8));
-            
-            // Execute request
-            return httpClient.execute(request, response -> {
-                int statusCode = response.getCode();
-                HttpEntity entity = response.getEntity();
-                String responseBody = EntityUtils.toString(entity, StandardCharsets.UTF_8);
-                
-                if (statusCode == 200) {
-                    @SuppressWarnings("unchecked")
-                    Map<String, Object> responseMap = objectMapper.readValue(responseBody, Map.class);
-                    Object transactionId = responseMap.get("transactionId");
-                    if (transactionId == null) {
-                        throw new RuntimeException("No transaction ID in response");
-                    }
-                    return transactionId.toString();
-                } else {
-                    logger.error("Failed to initiate payment. Status: {}, Response: {}", statusCode, responseBody);
-                    throw new RuntimeException("Failed to initiate payment: " + responseBody);
-                }
-            });
-        } catch (Exception e) {
+    public CompletableFuture<String> initiatePayment(String beneficiaryAccount, double amount, String paymentReference) {
+        // Prepare request body
+        Map<String, Object> paymentRequest = new HashMap<>();
+        paymentRequest.put("beneficiaryAccount", beneficiaryAccount);
+        paymentRequest.put("amount", amount);
+        paymentRequest.put("currency", "INR");
+        paymentRequest.put("reference", paymentReference);
+        paymentRequest.put("paymentType", "IMMEDIATE");
+
+        String jsonBody;
+        try {
+            jsonBody = objectMapper.writeValueAsString(paymentRequest);
+        } catch (JsonProcessingException e) {
             logger.error("Error initiating payment", e);
-            throw new RuntimeException("Error initiating payment", e);
+            return CompletableFuture.failedFuture(new RuntimeException("Error initiating payment", e));
         }
+        SimpleHttpRequest request = withCommonHeaders(SimpleRequestBuilder.post(apiBaseUrl + "/payments"))
+            .setHeader(IDEMPOTENCY_KEY_HEADER, generateIdempotencyKey(beneficiaryAccount, amount, paymentReference))
+            .setBody(jsonBody, ContentType.APPLICATION_JSON)
+            .build();
+
+        return bankCallPolicy.executeAsync("payments.initiate", () -> execute(request, "Error initiating payment", response -> {
+            String responseBody = response.getBodyText();
+            if (!isSuccessful(response)) {
+                logger.error("Failed to initiate payment. Status: {}, Response: {}", response.getCode(), responseBody);
+                throw new BankApiException("Failed to initiate payment: " + responseBody,
+                    HttpStatusCode.valueOf(response.getCode()));
+            }
+            Object transactionId = readBody(responseBody).get("transactionId");
+            if (transactionId == null) {
+                throw new RuntimeException("No transaction ID in response");
+            }
+            return transactionId.toString();
+        }));
     }
-    
+
+    /**
+     * Checks the status of a payment.
+     * @return The bank's status of the payment
+     */
+    public CompletableFuture<BankPaymentStatus> checkPaymentStatus(String transactionId) {
+        SimpleHttpRequest request = withCommonHeaders(SimpleRequestBuilder.get(apiBaseUrl + "/payments/" + transactionId))
+            .build();
+
+        return bankCallPolicy.executeAsync("payments.status", () -> execute(request, "Error checking payment status", response -> {
+            String responseBody = response.getBodyText();
+            if (!isSuccessful(response)) {
+                logger.error("Failed to check payment status. Status: {}, Response: {}", response.getCode(), responseBody);
+                throw new BankApiException("Failed to check payment status: " + responseBody,
+                    HttpStatusCode.valueOf(response.getCode()));
+            }
+            Object statusObj = readBody(responseBody).get("status");
+            if (statusObj == null) {
+                throw new RuntimeException("No status in response");
+            }
+            return BankPaymentStatus.fromString(statusObj.toString());
+        }));
+    }
+
     /**
      * Adds common headers to the HTTP request.
      * @param request The HTTP request to add headers to
      */
-    private void addCommonHeaders(org.apache.hc.core5.http.ClassicHttpRequest request) {
-        request.setHeader("Authorization", "Bearer " + apiKey);
-        request.setHeader("Content-Type", "application/json");
-        request.setHeader("X-Client-ID", clientId);
+    private SimpleRequestBuilder withCommonHeaders(SimpleRequestBuilder request) {
+        return request
+            .setHeader("Authorization", "Bearer " + apiKey)
+            .setHeader("Accept", "application/json")
+            .setHeader("X-Client-ID", clientId);
     }
 
     /**
-     * Checks the status of a payment.
+     * Sends a request without blocking the caller; one attempt of a call.
+     * @param request The request to send
+     * @param errorMessage Message of the exception the future fails with if the request cannot be sent
+     * @param reader Reads the result from the bank's response
+     * @return The result; cancelling it aborts the request
      */
-    public BankPaymentStatus checkPaymentStatus(String transactionId) throws Exception {
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
-            HttpGet request = new HttpGet(apiBaseUrl + "/payments/" + transactionId);
-            addCommonHeaders(request);
-            
-            // Execute request
-            return httpClient.execute(request, response -> {
-                int statusCode = response.getCode();
-                String responseBody = EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8);
-                
-                if (statusCode == 200) {
-                    @SuppressWarnings("unchecked")
-                    Map<String, Object> statusMap = objectMapper.readValue(responseBody, Map.class);
-                    Object statusObj = statusMap.get("status");
-                    if (statusObj == null) {
-                        throw new RuntimeException("No status in response");
-                    }
-                    return BankPaymentStatus.fromString(statusObj.toString());
-                } else {
-                    logger.error("Failed to check payment status. Status: {}, Response: {}", statusCode, responseBody);
-                    throw new RuntimeException("Failed to check payment status: " + responseBody);
+    private <T> CompletableFuture<T> execute(SimpleHttpRequest request, String errorMessage,
+                                             Function<SimpleHttpResponse, T> reader) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<SimpleHttpResponse> exchange = httpClient.execute(request, new FutureCallback<>() {
+            @Override
+            public void completed(SimpleHttpResponse response) {
+                try {
+                    result.complete(reader.apply(response));
+                } catch (RuntimeException e) {
+                    result.completeExceptionally(e);
                 }
-            });
-        } catch (Exception e) {
-            logger.error("Error checking payment status", e);
-            throw new RuntimeException("Error checking payment status", e);
+            }
+
+            @Override
+            public void failed(Exception e) {
+                logger.error(errorMessage, e);
+                result.completeExceptionally(new ResourceAccessException(errorMessage + ": " + e.getMessage(),
+                    e instanceof IOException ioException ? ioException : new IOException(e)));
+            }
+
+            @Override
+            public void cancelled() {
+                result.completeExceptionally(new CancellationException(errorMessage + ": request cancelled"));
+            }
+        });
+        result.whenComplete((response, error) -> {
+            if (result.isCancelled()) {
+                exchange.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    private static boolean isSuccessful(SimpleHttpResponse response) {
+        return response.getCode() >= 200 && response.getCode() < 300;
+    }
+
+    /**
+     * Generates the idempotency key of a payment; the same payment always gets the same key.
+     */
+    private static String generateIdempotencyKey(String beneficiaryAccount, double amount, String paymentReference) {
+        String uniqueId = String.format("%s-%s-%s", beneficiaryAccount, amount, paymentReference);
+        return UUID.nameUUIDFromBytes(uniqueId.getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    private static Map<String, Object> readBody(String responseBody) {
+        try {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> body = objectMapper.readValue(responseBody, Map.class);
+            return body;
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Invalid response from bank: " + e.getOriginalMessage(), e);
         }
     }
 }
@@ -25,6 +25,7 @@ public class BankApiConfig {
     private String verifyPaymentEndpoint;
     private int connectTimeout = 5000; // 5 seconds
     private int readTimeout = 30000;    // 30 seconds
+    private long deadline = 90000;      // whole call, retries included
     
     // SSL Configuration
     private SslConfig ssl = new SslConfig();
@@ -32,6 +33,18 @@ public class BankApiConfig {
     // Retry configuration
     private RetryConfig retry = new RetryConfig();
     
+    // Circuit breaker of each bank endpoint
+    private CircuitBreakerConfig circuitBreaker = new CircuitBreakerConfig();
+    
+    // Bulk payment submission
+    private BulkConfig bulk = new BulkConfig();
+    
+    // Payment status polling
+    private StatusPollingConfig statusPolling = new StatusPollingConfig();
+    
+    // Pooled HTTP client configuration, shared by all bank clients
+    private HttpClientConfig httpClient = new HttpClientConfig();
+    
     // HTTP headers
     private Map<String, String> headers = new HashMap<>();
     
@@ -104,6 +117,133 @@ public class BankApiConfig {
         public void setMaxInterval(long maxInterval) { this.maxInterval = maxInterval; }
     }
 
+    /**
+     * Circuit breaker of each bank endpoint: it opens when {@code failureRateThreshold} percent
+     * of the last {@code slidingWindowSize} calls failed (once {@code minimumNumberOfCalls} were
+     * made), and lets {@code permittedCallsInHalfOpenState} trial calls through after
+     * {@code waitDurationInOpenState} milliseconds.
+     */
+    public static class CircuitBreakerConfig {
+        private float failureRateThreshold = 50;
+        private int slidingWindowSize = 20;
+        private int minimumNumberOfCalls = 10;
+        private long waitDurationInOpenState = 30000;
+        private int permittedCallsInHalfOpenState = 3;
+        
+        // Getters and Setters
+        public float getFailureRateThreshold() { return failureRateThreshold; }
+        public void setFailureRateThreshold(float failureRateThreshold) { this.failureRateThreshold = failureRateThreshold; }
+        public int getSlidingWindowSize() { return slidingWindowSize; }
+        public void setSlidingWindowSize(int slidingWindowSize) { this.slidingWindowSize = slidingWindowSize; }
+        public int getMinimumNumberOfCalls() { return minimumNumberOfCalls; }
+        public void setMinimumNumberOfCalls(int minimumNumberOfCalls) { this.minimumNumberOfCalls = minimumNumberOfCalls; }
+        public long getWaitDurationInOpenState() { return waitDurationInOpenState; }
+        public void setWaitDurationInOpenState(long waitDurationInOpenState) { this.waitDurationInOpenState = waitDurationInOpenState; }
+        public int getPermittedCallsInHalfOpenState() { return permittedCallsInHalfOpenState; }
+        public void setPermittedCallsInHalfOpenState(int permittedCallsInHalfOpenState) { this.permittedCallsInHalfOpenState = permittedCallsInHalfOpenState; }
+    }
+
+    /**
+     * Bulk payment submission: payments are sent in chunks of {@code chunkSize} to the bank's
+     * bulk endpoint, with at most {@code maxInFlight} chunks at the bank at a time.
+     */
+    public static class BulkConfig {
+        private String endpoint = "/api/v1/payments/bulk";
+        // Bulk status lookup; when blank, statuses are looked up one payment at a time
+        private String statusEndpoint = "/api/v1/payments/status";
+        private int chunkSize = 100;
+        private int maxInFlight = 4;
+        
+        // Getters and Setters
+        public String getEndpoint() { return endpoint; }
+        public void setEndpoint(String endpoint) { this.endpoint = endpoint; }
+        public String getStatusEndpoint() { return statusEndpoint; }
+        public void setStatusEndpoint(String statusEndpoint) { this.statusEndpoint = statusEndpoint; }
+        public int getChunkSize() { return chunkSize; }
+        public void setChunkSize(int chunkSize) { this.chunkSize = chunkSize; }
+        public int getMaxInFlight() { return maxInFlight; }
+        public void setMaxInFlight(int maxInFlight) { this.maxInFlight = maxInFlight; }
+    }
+
+    /**
+     * Payment status polling (times in milliseconds). Lookups arriving within {@code batchWindow}
+     * of each other are sent as one bulk status call of up to {@code batchSize} payments. Pending
+     * payments are polled again after {@code initialDelay}, doubling up to {@code maxDelay}, for
+     * at most {@code maxAttempts} polls. Status calls run on {@code threads} threads of their own;
+     * a caller waiting for a status gives up after {@code awaitTimeout}.
+     */
+    public static class StatusPollingConfig {
+        private int batchSize = 50;
+        private long batchWindow = 20;
+        private long initialDelay = 15000;
+        private long maxDelay = 600000;
+        private int maxAttempts = 30;
+        private int threads = 2;
+        private int queueCapacity = 500;
+        private long awaitTimeout = 30000;
+        
+        // Getters and Setters
+        public int getBatchSize() { return batchSize; }
+        public void setBatchSize(int batchSize) { this.batchSize = batchSize; }
+        public long getBatchWindow() { return batchWindow; }
+        public void setBatchWindow(long batchWindow) { this.batchWindow = batchWindow; }
+        public long getInitialDelay() { return initialDelay; }
+        public void setInitialDelay(long initialDelay) { this.initialDelay = initialDelay; }
+        public long getMaxDelay() { return maxDelay; }
+        public void setMaxDelay(long maxDelay) { this.maxDelay = maxDelay; }
+        public int getMaxAttempts() { return maxAttempts; }
+        public void setMaxAttempts(int maxAttempts) { this.maxAttempts = maxAttempts; }
+        public int getThreads() { return threads; }
+        public void setThreads(int threads) { this.threads = threads; }
+        public int getQueueCapacity() { return queueCapacity; }
+        public void setQueueCapacity(int queueCapacity) { this.queueCapacity = queueCapacity; }
+        public long getAwaitTimeout() { return awaitTimeout; }
+        public void setAwaitTimeout(long awaitTimeout) { this.awaitTimeout = awaitTimeout; }
+    }
+
+    /**
+     * Connection pool settings of the bank HTTP clients (times in milliseconds).
+     */
+    public static class HttpClientConfig {
+        private int maxConnections = 100;
+        private int maxPerRoute = 20;
+        // Connection limits of individual bank hosts, by base URL, over max-per-route
+        private Map<String, Integer> routes = new HashMap<>();
+        private long keepAlive = 30000;
+        private long connectionTimeToLive = 300000;
+        private long idleTimeout = 60000;
+        private long validateAfterInactivity = 2000;
+        private int tlsSessionCacheSize = 100;
+        private int tlsSessionTimeout = 3600;  // seconds
+        // Async bank API client: negotiates HTTP/2 with the bank, or always pooled HTTP/1.1 when disabled
+        private boolean http2Enabled = true;
+        private int maxConcurrentStreams = 100;
+        
+        // Getters and Setters
+        public int getMaxConnections() { return maxConnections; }
+        public void setMaxConnections(int maxConnections) { this.maxConnections = maxConnections; }
+        public int getMaxPerRoute() { return maxPerRoute; }
+        public void setMaxPerRoute(int maxPerRoute) { this.maxPerRoute = maxPerRoute; }
+        public Map<String, Integer> getRoutes() { return routes; }
+        public void setRoutes(Map<String, Integer> routes) { this.routes = routes != null ? new HashMap<>(routes) : new HashMap<>(); }
+        public long getKeepAlive() { return keepAlive; }
+        public void setKeepAlive(long keepAlive) { this.keepAlive = keepAlive; }
+        public long getConnectionTimeToLive() { return connectionTimeToLive; }
+        public void setConnectionTimeToLive(long connectionTimeToLive) { this.connectionTimeToLive = connectionTimeToLive; }
+        public long getIdleTimeout() { return idleTimeout; }
+        public void setIdleTimeout(long idleTimeout) { this.idleTimeout = idleTimeout; }
+        public long getValidateAfterInactivity() { return validateAfterInactivity; }
+        public void setValidateAfterInactivity(long validateAfterInactivity) { this.validateAfterInactivity = validateAfterInactivity; }
+        public int getTlsSessionCacheSize() { return tlsSessionCacheSize; }
+        public void setTlsSessionCacheSize(int tlsSessionCacheSize) { this.tlsSessionCacheSize = tlsSessionCacheSize; }
+        public int getTlsSessionTimeout() { return tlsSessionTimeout; }
+        public void setTlsSessionTimeout(int tlsSessionTimeout) { this.tlsSessionTimeout = tlsSessionTimeout; }
+        public boolean isHttp2Enabled() { return http2Enabled; }
+        public void setHttp2Enabled(boolean http2Enabled) { this.http2Enabled = http2Enabled; }
+        public int getMaxConcurrentStreams() { return maxConcurrentStreams; }
+        public void setMaxConcurrentStreams(int maxConcurrentStreams) { this.maxConcurrentStreams = maxConcurrentStreams; }
+    }
+
     // Getters and Setters for top-level properties
     public String getBaseUrl() {
         return baseUrl;
@@ -152,6 +292,14 @@ public class BankApiConfig {
     public void setReadTimeout(int readTimeout) {
         this.readTimeout = readTimeout;
     }
+
+    public long getDeadline() {
+        return deadline;
+    }
+
+    public void setDeadline(long deadline) {
+        this.deadline = deadline;
+    }
     
     public String getAuthToken() {
         return authToken;
@@ -201,6 +349,38 @@ public class BankApiConfig {
         this.retry = retry;
     }
     
+    public CircuitBreakerConfig getCircuitBreaker() {
+        return circuitBreaker;
+    }
+    
+    public void setCircuitBreaker(CircuitBreakerConfig circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+    }
+    
+    public BulkConfig getBulk() {
+        return bulk;
+    }
+    
+    public void setBulk(BulkConfig bulk) {
+        this.bulk = bulk;
+    }
+    
+    public StatusPollingConfig getStatusPolling() {
+        return statusPolling;
+    }
+    
+    public void setStatusPolling(StatusPollingConfig statusPolling) {
+        this.statusPolling = statusPolling;
+    }
+    
+    public HttpClientConfig getHttpClient() {
+        return httpClient;
+    }
+    
+    public void setHttpClient(HttpClientConfig httpClient) {
+        this.httpClient = httpClient;
+    }
+    
     /**
      * Gets the additional headers to be included in API requests.
      * @return Map of header names to values
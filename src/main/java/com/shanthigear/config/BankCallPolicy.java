@@ -0,0 +1,257 @@
+package com.shanthigear.config;
+
+import com.shanthigear.exception.BankApiException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.core.IntervalFunction;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedRetryMetrics;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * The one retry, timeout and circuit breaker layer of calls to the bank APIs.
+ * <p>
+ * Every bank call runs through {@link #execute}, which gives it:
+ * <ul>
+ *   <li>a single attempt budget of {@code bank.api.retry.max-attempts}, with exponential backoff,
+ *       retrying only failures that may pass: I/O errors, 5xx and 429 responses</li>
+ *   <li>a deadline of {@code bank.api.deadline} for the whole call, retries included. No attempt
+ *       starts after it, and the HTTP request factories cut their timeouts down to what is left
+ *       of it (see {@link #timeLeft()})</li>
+ *   <li>a circuit breaker per endpoint, so calls to an endpoint that keeps failing are rejected
+ *       at once instead of holding a thread each</li>
+ * </ul>
+ * Calls made from within a call (such as a per-payment fallback of a bulk lookup) run once
+ * under the outer call's deadline and attempts, so retries never multiply. Non-blocking calls go
+ * through {@link #executeAsync}, which applies the same attempts, deadline and circuit breaker
+ * without holding a thread.
+ * <p>
+ * Publishes {@code bank.api.calls} timed per endpoint and outcome, along with the resilience4j
+ * retry and circuit breaker metrics, named after the endpoint.
+ */
+@Component
+public class BankCallPolicy {
+
+    private static final Logger logger = LoggerFactory.getLogger(BankCallPolicy.class);
+
+    // Deadline of the bank call running on this thread
+    private static final ThreadLocal<Instant> DEADLINE = new ThreadLocal<>();
+
+    private final RetryRegistry retryRegistry;
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final MeterRegistry meterRegistry;
+    private final Duration deadline;
+    // Schedules the retries of non-blocking calls
+    private final ScheduledExecutorService retryScheduler;
+
+    public BankCallPolicy(BankApiConfig bankApiConfig, MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.deadline = Duration.ofMillis(bankApiConfig.getDeadline());
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("bank-call-retry-");
+        threadFactory.setDaemon(true);
+        this.retryScheduler = Executors.newSingleThreadScheduledExecutor(threadFactory);
+
+        this.retryRegistry = RetryRegistry.of(RetryConfig.custom()
+            .maxAttempts(Math.max(1, bankApiConfig.getRetryMaxAttempts()))
+            .intervalFunction(IntervalFunction.ofExponentialBackoff(bankApiConfig.getRetryInitialInterval(),
+                bankApiConfig.getRetryMultiplier(), bankApiConfig.getRetryMaxInterval()))
+            .retryOnException(error -> isTransient(error) && timeLeft().map(left -> !left.isZero()).orElse(true))
+            .build());
+
+        BankApiConfig.CircuitBreakerConfig breaker = bankApiConfig.getCircuitBreaker();
+        this.circuitBreakerRegistry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+            .failureRateThreshold(breaker.getFailureRateThreshold())
+            .slidingWindowSize(breaker.getSlidingWindowSize())
+            .minimumNumberOfCalls(breaker.getMinimumNumberOfCalls())
+            .waitDurationInOpenState(Duration.ofMillis(breaker.getWaitDurationInOpenState()))
+            .permittedNumberOfCallsInHalfOpenState(breaker.getPermittedCallsInHalfOpenState())
+            // Rejected requests say nothing about the bank's health
+            .recordException(BankCallPolicy::isTransient)
+            .build());
+
+        TaggedRetryMetrics.ofRetryRegistry(retryRegistry).bindTo(meterRegistry);
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakerRegistry).bindTo(meterRegistry);
+    }
+
+    /**
+     * Make a call to the bank under the policy.
+     * @param endpoint Name of the bank endpoint, e.g. {@code payments.process}; calls to the
+     *                 same endpoint share a circuit breaker and metrics
+     * @param call The call, making one attempt
+     * @return The result of the call
+     * @throws ResourceAccessException if the deadline passed or the endpoint's circuit is open;
+     *         otherwise the last attempt's exception
+     */
+    public <T> T execute(String endpoint, Supplier<T> call) {
+        if (DEADLINE.get() != null) {
+            // Part of an outer call, which owns the attempts
+            return call.get();
+        }
+
+        DEADLINE.set(Instant.now().plus(deadline));
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(endpoint);
+            Supplier<T> attempt = () -> {
+                if (timeLeft().map(Duration::isZero).orElse(false)) {
+                    throw new ResourceAccessException("Deadline of " + deadline.toMillis()
+                        + "ms exceeded calling bank endpoint " + endpoint);
+                }
+                return circuitBreaker.executeSupplier(call);
+            };
+            return Retry.decorateSupplier(retryRegistry.retry(endpoint), attempt).get();
+        } catch (CallNotPermittedException e) {
+            outcome = "rejected";
+            logger.warn("Bank endpoint {} is failing, call rejected by its circuit breaker", endpoint);
+            throw new ResourceAccessException("Bank endpoint " + endpoint + " is unavailable: " + e.getMessage());
+        } catch (RuntimeException e) {
+            outcome = "failure";
+            throw e;
+        } finally {
+            DEADLINE.remove();
+            sample.stop(Timer.builder("bank.api.calls")
+                .description("Bank API calls, retries included")
+                .tag("endpoint", endpoint)
+                .tag("outcome", outcome)
+                .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Make a non-blocking call to the bank under the policy: attempts, deadline and circuit
+     * breaker are those of {@link #execute}, but no thread waits for the bank in between.
+     * <p>
+     * Once the deadline passes, or the returned future is cancelled, the attempt in flight is
+     * cancelled too.
+     * @param endpoint Name of the bank endpoint, as for {@link #execute}
+     * @param call The call, starting one attempt
+     * @return The result of the call; fails with a ResourceAccessException if the deadline passed
+     *         or the endpoint's circuit is open, otherwise with the last attempt's exception
+     */
+    public <T> CompletableFuture<T> executeAsync(String endpoint, Supplier<? extends CompletionStage<T>> call) {
+        Instant end = Instant.now().plus(deadline);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(endpoint);
+        CompletableFuture<T> result = new CompletableFuture<>();
+        AtomicReference<CompletableFuture<T>> inFlight = new AtomicReference<>();
+        AtomicBoolean rejected = new AtomicBoolean();
+
+        Supplier<CompletionStage<T>> attempt = () -> {
+            if (result.isDone()) {
+                // Timed out or cancelled while waiting to retry
+                return CompletableFuture.failedFuture(new CancellationException("Call to bank endpoint " + endpoint + " ended"));
+            }
+            if (!Instant.now().isBefore(end)) {
+                return CompletableFuture.failedFuture(deadlineExceeded(endpoint));
+            }
+            return circuitBreaker.executeCompletionStage(() -> {
+                CompletableFuture<T> started = call.get().toCompletableFuture();
+                inFlight.set(started);
+                return started;
+            });
+        };
+        Retry.decorateCompletionStage(retryRegistry.retry(endpoint), retryScheduler, attempt).get()
+            .whenComplete((value, error) -> {
+                if (error == null) {
+                    result.complete(value);
+                    return;
+                }
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                if (cause instanceof CallNotPermittedException) {
+                    rejected.set(true);
+                    logger.warn("Bank endpoint {} is failing, call rejected by its circuit breaker", endpoint);
+                    cause = new ResourceAccessException("Bank endpoint " + endpoint + " is unavailable: " + cause.getMessage());
+                }
+                result.completeExceptionally(cause);
+            });
+        ScheduledFuture<?> deadlineTimer = retryScheduler.schedule(
+            () -> result.completeExceptionally(deadlineExceeded(endpoint)), deadline.toMillis(), TimeUnit.MILLISECONDS);
+
+        result.whenComplete((value, error) -> {
+            deadlineTimer.cancel(false);
+            if (error != null) {
+                // Timed out or cancelled: stop the attempt in flight
+                CompletableFuture<T> attemptInFlight = inFlight.get();
+                if (attemptInFlight != null) {
+                    attemptInFlight.cancel(true);
+                }
+            }
+            sample.stop(Timer.builder("bank.api.calls")
+                .description("Bank API calls, retries included")
+                .tag("endpoint", endpoint)
+                .tag("outcome", error == null ? "success" : rejected.get() ? "rejected" : "failure")
+                .register(meterRegistry));
+        });
+        return result;
+    }
+
+    private ResourceAccessException deadlineExceeded(String endpoint) {
+        return new ResourceAccessException("Deadline of " + deadline.toMillis()
+            + "ms exceeded calling bank endpoint " + endpoint);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        retryScheduler.shutdownNow();
+    }
+
+    /**
+     * Time left before the deadline of the bank call running on this thread.
+     * @return The time left, zero once the deadline has passed; empty outside a bank call
+     */
+    public static Optional<Duration> timeLeft() {
+        Instant end = DEADLINE.get();
+        if (end == null) {
+            return Optional.empty();
+        }
+        Duration left = Duration.between(Instant.now(), end);
+        return Optional.of(left.isNegative() ? Duration.ZERO : left);
+    }
+
+    /**
+     * Whether a failed attempt may succeed if tried again: the bank could not be reached, timed
+     * out, failed on its side or asked to slow down.
+     */
+    static boolean isTransient(Throwable error) {
+        if (error instanceof ResourceAccessException || error instanceof HttpServerErrorException
+                || error instanceof HttpClientErrorException.TooManyRequests) {
+            return true;
+        }
+        if (error instanceof BankApiException bankApiException && bankApiException.getStatusCode() != null) {
+            return bankApiException.getStatusCode().is5xxServerError()
+                || bankApiException.getStatusCode().value() == HttpStatus.TOO_MANY_REQUESTS.value();
+        }
+        return false;
+    }
+}
@@ -0,0 +1,319 @@
+package com.shanthigear.config;
+
+import com.shanthigear.util.SslUtils;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.classic.HttpClient;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.config.TlsConfig;
+import org.apache.hc.client5.http.impl.DefaultConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.client5.http.ssl.ClientTlsStrategyBuilder;
+import org.apache.hc.client5.http.ssl.SSLConnectionSocketFactory;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.http2.config.H2Config;
+import org.apache.hc.core5.pool.PoolReusePolicy;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.reactor.IOReactorConfig;
+import org.apache.hc.core5.ssl.SSLContexts;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import javax.net.ssl.SSLContext;
+import java.net.URISyntaxException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Pooled HTTP clients shared by every client of the bank APIs.
+ * <p>
+ * There are two pools, each created once for the application:
+ * <ul>
+ *   <li>{@code bankApiHttpClient} for the bank API ({@code bankRestTemplate}), which uses the
+ *       bank's key and trust stores</li>
+ *   <li>{@code bankHttpClient} for the other bank hosts, such as HDFC ({@code hdfcBankRestTemplate})
+ *       and Oracle host-to-host ({@code h2hRestTemplate}), which use the JVM's trust store</li>
+ * </ul>
+ * Connections are kept alive and reused, LIFO so that idle ones age out. They are validated
+ * after a period of inactivity, evicted when idle, and retired after a fixed time to live. Each
+ * pool keeps one SSL context, so TLS sessions are resumed instead of doing a full handshake for
+ * every new connection. Clients with different timeouts share a pool through request factories
+ * of their own. {@code bankAsyncHttpClient} is the non-blocking client of the bank API; with
+ * HTTP/2 it multiplexes requests over one connection instead of pooling connections.
+ * <p>
+ * Each pool publishes {@code bank.http.pool.leased}, {@code bank.http.pool.pending},
+ * {@code bank.http.pool.available} and {@code bank.http.pool.max}, tagged with the pool.
+ */
+@Configuration
+public class BankHttpClientConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(BankHttpClientConfig.class);
+
+    @Value("${bank.api.ssl.enabled-protocols:TLSv1.3,TLSv1.2}")
+    private String[] enabledProtocols;
+
+    @Value("${bank.api.ssl.enabled-cipher-suites:}")
+    private String[] enabledCipherSuites;
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager bankApiConnectionManager(BankApiConfig bankApiConfig,
+                                                                        SslUtils sslUtils,
+                                                                        MeterRegistry meterRegistry) throws Exception {
+        SSLConnectionSocketFactory socketFactory;
+        if (bankApiConfig.getSsl().isEnabled()) {
+            socketFactory = new SSLConnectionSocketFactory(
+                bankApiSslContext(bankApiConfig, sslUtils),
+                enabledProtocols,
+                enabledCipherSuites.length > 0 ? enabledCipherSuites : null,
+                (hostname, session) -> true // Hostname verification is handled by the custom TrustManager
+            );
+        } else {
+            socketFactory = defaultSocketFactory(bankApiConfig.getHttpClient());
+        }
+        return connectionManager("bank-api", socketFactory, bankApiConfig, meterRegistry);
+    }
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager bankConnectionManager(BankApiConfig bankApiConfig,
+                                                                     MeterRegistry meterRegistry) {
+        return connectionManager("bank", defaultSocketFactory(bankApiConfig.getHttpClient()),
+            bankApiConfig, meterRegistry);
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient bankApiHttpClient(
+            @Qualifier("bankApiConnectionManager") PoolingHttpClientConnectionManager connectionManager,
+            BankApiConfig bankApiConfig) {
+        return httpClient(connectionManager, bankApiConfig.getHttpClient());
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient bankHttpClient(
+            @Qualifier("bankConnectionManager") PoolingHttpClientConnectionManager connectionManager,
+            BankApiConfig bankApiConfig) {
+        return httpClient(connectionManager, bankApiConfig.getHttpClient());
+    }
+
+    /**
+     * Non-blocking client of the bank API, used by {@link com.shanthigear.bank.BankApiClient}.
+     * <p>
+     * With HTTP/2 enabled, the HTTP version is negotiated with the bank: if it speaks HTTP/2, all
+     * requests are multiplexed as streams over a single connection, so hundreds of calls can be in
+     * flight without a connection each; if not, they use the pool of HTTP/1.1 connections.
+     */
+    @Bean(destroyMethod = "close")
+    public CloseableHttpAsyncClient bankAsyncHttpClient(BankApiConfig bankApiConfig, SslUtils sslUtils) throws Exception {
+        BankApiConfig.HttpClientConfig settings = bankApiConfig.getHttpClient();
+        ClientTlsStrategyBuilder tlsStrategy = ClientTlsStrategyBuilder.create();
+        if (bankApiConfig.getSsl().isEnabled()) {
+            tlsStrategy.setSslContext(bankApiSslContext(bankApiConfig, sslUtils))
+                .setTlsVersions(enabledProtocols)
+                .setHostnameVerifier((hostname, session) -> true); // Verified by the custom TrustManager
+            if (enabledCipherSuites.length > 0) {
+                tlsStrategy.setCiphers(enabledCipherSuites);
+            }
+        } else {
+            SSLContext sslContext = SSLContexts.createDefault();
+            configureSessionCache(sslContext, settings);
+            tlsStrategy.setSslContext(sslContext);
+        }
+        IOReactorConfig ioReactorConfig = IOReactorConfig.custom()
+            .setSoTimeout(Timeout.ofMilliseconds(bankApiConfig.getReadTimeout()))
+            .build();
+        RequestConfig requestConfig = RequestConfig.custom()
+            .setResponseTimeout(Timeout.ofMilliseconds(bankApiConfig.getReadTimeout()))
+            .setConnectionRequestTimeout(Timeout.ofMilliseconds(bankApiConfig.getConnectTimeout()))
+            .build();
+
+        // NEGOTIATE picks HTTP/2 by ALPN when the bank offers it and falls back to HTTP/1.1 otherwise
+        HttpVersionPolicy versionPolicy = settings.isHttp2Enabled() ? HttpVersionPolicy.NEGOTIATE : HttpVersionPolicy.FORCE_HTTP_1;
+        CloseableHttpAsyncClient client = HttpAsyncClients.custom()
+            .setConnectionManager(PoolingAsyncClientConnectionManagerBuilder.create()
+                .setTlsStrategy(tlsStrategy.build())
+                .setDefaultTlsConfig(TlsConfig.custom()
+                    .setVersionPolicy(versionPolicy)
+                    .build())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                    .setConnectTimeout(Timeout.ofMilliseconds(bankApiConfig.getConnectTimeout()))
+                    .setValidateAfterInactivity(TimeValue.ofMilliseconds(settings.getValidateAfterInactivity()))
+                    .setTimeToLive(TimeValue.ofMilliseconds(settings.getConnectionTimeToLive()))
+                    .build())
+                .setMaxConnTotal(settings.getMaxConnections())
+                .setMaxConnPerRoute(settings.getMaxPerRoute())
+                .build())
+            .setH2Config(H2Config.custom()
+                .setMaxConcurrentStreams(settings.getMaxConcurrentStreams())
+                .setPushEnabled(false)
+                .build())
+            .setIOReactorConfig(ioReactorConfig)
+            .setDefaultRequestConfig(requestConfig)
+            .evictExpiredConnections()
+            .evictIdleConnections(TimeValue.ofMilliseconds(settings.getIdleTimeout()))
+            .disableCookieManagement()
+            .build();
+        client.start();
+        logger.info("Started async bank API client, HTTP version policy {}", versionPolicy);
+        return client;
+    }
+
+    @Bean(name = "hdfcBankRestTemplate")
+    public RestTemplate hdfcBankRestTemplate(@Qualifier("bankHttpClient") HttpClient httpClient,
+                                             BankApiConfig bankApiConfig,
+                                             @Value("${hdfc.bank.api.timeout:30000}") int timeoutMs) {
+        return new RestTemplate(requestFactory(httpClient, bankApiConfig.getConnectTimeout(), timeoutMs));
+    }
+
+    @Bean(name = "h2hRestTemplate")
+    public RestTemplate h2hRestTemplate(@Qualifier("bankHttpClient") HttpClient httpClient,
+                                        BankApiConfig bankApiConfig,
+                                        @Value("${oracle.h2h.api.timeout:30000}") int timeoutMs) {
+        return new RestTemplate(requestFactory(httpClient, bankApiConfig.getConnectTimeout(), timeoutMs));
+    }
+
+    /**
+     * A request factory on a shared client. Closing the factory would close the shared client,
+     * so it must not be registered as a bean of its own.
+     * <p>
+     * Within a {@link BankCallPolicy} call, the timeouts are cut down to what is left of the
+     * call's deadline, so a slow attempt cannot outlive it.
+     * @param httpClient The shared client
+     * @param connectionRequestTimeoutMs How long to wait for a connection from the pool
+     * @param readTimeoutMs How long to wait for a response
+     * @return The request factory
+     */
+    public static HttpComponentsClientHttpRequestFactory requestFactory(HttpClient httpClient,
+                                                                        int connectionRequestTimeoutMs,
+                                                                        int readTimeoutMs) {
+        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(httpClient);
+        requestFactory.setConnectionRequestTimeout(connectionRequestTimeoutMs);
+        requestFactory.setReadTimeout(readTimeoutMs);
+        // No context outside a bank call, so the factory's own request config applies
+        requestFactory.setHttpContextFactory((method, uri) -> BankCallPolicy.timeLeft()
+            .map(left -> {
+                HttpClientContext context = HttpClientContext.create();
+                context.setRequestConfig(RequestConfig.custom()
+                    .setConnectionRequestTimeout(withinDeadline(connectionRequestTimeoutMs, left))
+                    .setResponseTimeout(withinDeadline(readTimeoutMs, left))
+                    .build());
+                return (HttpContext) context;
+            })
+            .orElse(null));
+        return requestFactory;
+    }
+
+    private static Timeout withinDeadline(int timeoutMs, Duration timeLeft) {
+        // At least a millisecond: a zero timeout would mean no timeout at all
+        return Timeout.ofMilliseconds(Math.max(1, Math.min(timeoutMs, timeLeft.toMillis())));
+    }
+
+    static PoolingHttpClientConnectionManager connectionManager(String pool,
+                                                                SSLConnectionSocketFactory socketFactory,
+                                                                BankApiConfig bankApiConfig,
+                                                                MeterRegistry meterRegistry) {
+        BankApiConfig.HttpClientConfig settings = bankApiConfig.getHttpClient();
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+            .setSSLSocketFactory(socketFactory)
+            .setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.ofMilliseconds(bankApiConfig.getConnectTimeout()))
+                .setSocketTimeout(Timeout.ofMilliseconds(bankApiConfig.getReadTimeout()))
+                .setValidateAfterInactivity(TimeValue.ofMilliseconds(settings.getValidateAfterInactivity()))
+                .setTimeToLive(TimeValue.ofMilliseconds(settings.getConnectionTimeToLive()))
+                .build())
+            .setConnPoolPolicy(PoolReusePolicy.LIFO)
+            .setMaxConnTotal(settings.getMaxConnections())
+            .setMaxConnPerRoute(settings.getMaxPerRoute())
+            .build();
+
+        for (Map.Entry<String, Integer> route : settings.getRoutes().entrySet()) {
+            try {
+                connectionManager.setMaxPerRoute(route(route.getKey()), route.getValue());
+            } catch (URISyntaxException | IllegalArgumentException e) {
+                logger.warn("Ignoring connection limit of invalid bank route {}: {}", route.getKey(), e.getMessage());
+            }
+        }
+
+        registerGauge(meterRegistry, "bank.http.pool.leased", "Connections leased from the pool", pool,
+            connectionManager, PoolStats::getLeased);
+        registerGauge(meterRegistry, "bank.http.pool.pending", "Requests waiting for a connection", pool,
+            connectionManager, PoolStats::getPending);
+        registerGauge(meterRegistry, "bank.http.pool.available", "Idle connections in the pool", pool,
+            connectionManager, PoolStats::getAvailable);
+        registerGauge(meterRegistry, "bank.http.pool.max", "Maximum connections of the pool", pool,
+            connectionManager, PoolStats::getMax);
+        logger.info("Created {} HTTP connection pool: {} connections, {} per route",
+            pool, settings.getMaxConnections(), settings.getMaxPerRoute());
+        return connectionManager;
+    }
+
+    private static CloseableHttpClient httpClient(PoolingHttpClientConnectionManager connectionManager,
+                                                  BankApiConfig.HttpClientConfig settings) {
+        TimeValue maxKeepAlive = TimeValue.ofMilliseconds(settings.getKeepAlive());
+        return HttpClients.custom()
+            .setConnectionManager(connectionManager)
+            // Keep a connection as long as the server allows, up to the configured keep-alive
+            .setKeepAliveStrategy((response, context) -> {
+                TimeValue keepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                return keepAlive.compareTo(maxKeepAlive) > 0 ? maxKeepAlive : keepAlive;
+            })
+            .evictExpiredConnections()
+            .evictIdleConnections(TimeValue.ofMilliseconds(settings.getIdleTimeout()))
+            .disableCookieManagement()
+            .build();
+    }
+
+    private static SSLContext bankApiSslContext(BankApiConfig bankApiConfig, SslUtils sslUtils) throws Exception {
+        SSLContext sslContext = sslUtils.createSslContext();
+        configureSessionCache(sslContext, bankApiConfig.getHttpClient());
+        return sslContext;
+    }
+
+    private static SSLConnectionSocketFactory defaultSocketFactory(BankApiConfig.HttpClientConfig settings) {
+        SSLContext sslContext = SSLContexts.createDefault();
+        configureSessionCache(sslContext, settings);
+        return new SSLConnectionSocketFactory(sslContext);
+    }
+
+    private static void configureSessionCache(SSLContext sslContext, BankApiConfig.HttpClientConfig settings) {
+        sslContext.getClientSessionContext().setSessionCacheSize(settings.getTlsSessionCacheSize());
+        sslContext.getClientSessionContext().setSessionTimeout(settings.getTlsSessionTimeout());
+    }
+
+    /**
+     * The pool route of a base URL, with the scheme's default port filled in as the pool does.
+     */
+    static HttpRoute route(String baseUrl) throws URISyntaxException {
+        HttpHost host = HttpHost.create(baseUrl);
+        boolean secure = "https".equalsIgnoreCase(host.getSchemeName());
+        int port = host.getPort() > 0 ? host.getPort() : (secure ? 443 : 80);
+        return new HttpRoute(new HttpHost(host.getSchemeName(), host.getHostName(), port), null, secure);
+    }
+
+    private static void registerGauge(MeterRegistry meterRegistry, String name, String description, String pool,
+                                      PoolingHttpClientConnectionManager connectionManager,
+                                      ToDoubleFunction<PoolStats> stat) {
+        Gauge.builder(name, connectionManager, manager -> stat.applyAsDouble(manager.getTotalStats()))
+            .description(description)
+            .tag("pool", pool)
+            .register(meterRegistry);
+    }
+}
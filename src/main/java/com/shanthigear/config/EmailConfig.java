@@ -31,6 +31,16 @@ public class EmailConfig {
      */
     private final TemplateConfig template = new TemplateConfig();
     
+    /**
+     * Pooled SMTP connection configuration
+     */
+    private final SmtpPoolConfig smtpPool = new SmtpPoolConfig();
+    
+    /**
+     * Bulk send configuration
+     */
+    private final BulkConfig bulk = new BulkConfig();
+    
     // Getters and Setters
     public DefaultConfig getDefaultConfig() {
         return defaultConfig;
@@ -44,6 +54,14 @@ public class EmailConfig {
         return template;
     }
     
+    public SmtpPoolConfig getSmtpPool() {
+        return smtpPool;
+    }
+    
+    public BulkConfig getBulk() {
+        return bulk;
+    }
+    
     /**
      * Get configuration for a specific domain
      * @param domain The domain to get configuration for
@@ -75,6 +93,7 @@ public class EmailConfig {
         private int connectionTimeout = 5000;
         private int timeout = 5000;
         private int writeTimeout = 5000;
+        private int rateLimitPerSecond = 20;
         
         // Getters and Setters
         public String getHost() { return host; }
@@ -103,6 +122,8 @@ public class EmailConfig {
         public void setTimeout(int timeout) { this.timeout = timeout; }
         public int getWriteTimeout() { return writeTimeout; }
         public void setWriteTimeout(int writeTimeout) { this.writeTimeout = writeTimeout; }
+        public int getRateLimitPerSecond() { return rateLimitPerSecond; }
+        public void setRateLimitPerSecond(int rateLimitPerSecond) { this.rateLimitPerSecond = rateLimitPerSecond; }
     }
     
     /**
@@ -131,4 +152,46 @@ public class EmailConfig {
         public boolean isCache() { return cache; }
         public void setCache(boolean cache) { this.cache = cache; }
     }
+    
+    /**
+     * Pooled SMTP connection configuration, applied to the connections of each domain's sender
+     */
+    public static class SmtpPoolConfig {
+        private boolean enabled = true;
+        private int maxConnections = 4;
+        private int maxMessagesPerConnection = 100;
+        private long idleTimeout = 60000;
+        private long validateAfterIdle = 5000;
+        private long borrowTimeout = 10000;
+        private long evictInterval = 30000;
+        
+        // Getters and Setters
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        public int getMaxConnections() { return maxConnections; }
+        public void setMaxConnections(int maxConnections) { this.maxConnections = maxConnections; }
+        public int getMaxMessagesPerConnection() { return maxMessagesPerConnection; }
+        public void setMaxMessagesPerConnection(int maxMessagesPerConnection) { this.maxMessagesPerConnection = maxMessagesPerConnection; }
+        public long getIdleTimeout() { return idleTimeout; }
+        public void setIdleTimeout(long idleTimeout) { this.idleTimeout = idleTimeout; }
+        public long getValidateAfterIdle() { return validateAfterIdle; }
+        public void setValidateAfterIdle(long validateAfterIdle) { this.validateAfterIdle = validateAfterIdle; }
+        public long getBorrowTimeout() { return borrowTimeout; }
+        public void setBorrowTimeout(long borrowTimeout) { this.borrowTimeout = borrowTimeout; }
+        public long getEvictInterval() { return evictInterval; }
+        public void setEvictInterval(long evictInterval) { this.evictInterval = evictInterval; }
+    }
+    
+    /**
+     * Bulk send configuration. With a BCC chunk size of 0 or 1 every recipient gets a message of
+     * their own; above that, the recipients of a domain share one message per chunk, in BCC.
+     * Only enable it where recipients may receive mail they are not named on.
+     */
+    public static class BulkConfig {
+        private int bccChunkSize = 0;
+        
+        // Getters and Setters
+        public int getBccChunkSize() { return bccChunkSize; }
+        public void setBccChunkSize(int bccChunkSize) { this.bccChunkSize = bccChunkSize; }
+    }
 }
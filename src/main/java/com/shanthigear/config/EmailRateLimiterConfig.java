@@ -13,7 +13,6 @@ import org.springframework.context.annotation.Configuration;
 import jakarta.annotation.PostConstruct;
 
 import java.time.Duration;
-import java.util.function.Function;
 
 /**
  * Configuration for rate limiting email sending operations using Resilience4j.
@@ -50,7 +49,8 @@ public class EmailRateLimiterConfig {
     }
     
     /**
-     * Creates a global rate limiter for email sending operations.
+     * Creates the global rate limiter for email sending operations; per-domain limits sit
+     * underneath it in {@link com.shanthigear.service.EmailDomainRateLimiter}.
      * @param registry The rate limiter registry
      * @return A configured RateLimiter instance
      */
@@ -66,29 +66,6 @@ public class EmailRateLimiterConfig {
         return rateLimiter;
     }
     
-    /**
-     * Creates a factory for domain-specific rate limiters.
-     * @param registry The rate limiter registry
-     * @return A function that provides a RateLimiter per domain
-     */
-    @Bean
-    public Function<String, RateLimiter> domainRateLimiters(RateLimiterRegistry registry) {
-        return domain -> {
-            // Create a unique name for each domain's rate limiter
-            String rateLimiterName = "domain-rate-limiter-" + domain;
-            
-            // Get or create a rate limiter for this domain
-            RateLimiter rateLimiter = registry.rateLimiter(rateLimiterName);
-            
-            // Log rate limiter events for monitoring
-            rateLimiter.getEventPublisher()
-                .onSuccess(event -> log.debug("Domain rate limiter success for {}: {}", domain, event))
-                .onFailure(event -> log.warn("Domain rate limiter failure for {}: {}", domain, event));
-                
-            return rateLimiter;
-        };
-    }
-    
     /**
      * Customizer to configure rate limiter properties at runtime.
      * @return RateLimiterConfigCustomizer
@@ -2,6 +2,7 @@ package com.shanthigear.config;
 
 import com.shanthigear.entity.EmailDomainConfig;
 import com.shanthigear.repository.EmailDomainConfigRepository;
+import com.shanthigear.service.PooledMailSender;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.mail.javamail.JavaMailSender;
@@ -30,6 +31,8 @@ public class EmailSenderConfigurator {
     
     /**
      * Create a JavaMailSender instance for a specific domain.
+     * When SMTP pooling is enabled the sender is a {@link PooledMailSender}, which keeps its
+     * connections open between sends and must be closed when discarded.
      * @param domain The email domain to create a sender for
      * @return Configured JavaMailSender instance
      */
@@ -38,7 +41,10 @@ public class EmailSenderConfigurator {
         logger.debug("Creating mail sender for domain: {} with config: {}", domain, 
             config != null ? "[CONFIGURED]" : "[USING DEFAULT]");
         
-        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        EmailConfig.SmtpPoolConfig poolConfig = emailConfig.getSmtpPool();
+        JavaMailSenderImpl mailSender = poolConfig.isEnabled()
+            ? new PooledMailSender(poolConfig)
+            : new JavaMailSenderImpl();
         configureMailSender(mailSender, config);
         
         return mailSender;
@@ -1,8 +1,11 @@
 package com.shanthigear.config;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.beans.factory.annotation.Value;
@@ -18,13 +21,26 @@ import java.util.concurrent.Executor;
 public class EmailServiceConfig {
 
     /**
-     * Configures the async executor for email sending.
+     * Configures the async executor for notification fan-out ({@code @Async} notification methods).
+     * <p>
+     * With {@code app.email.executor.virtual-threads} enabled, each task runs on its own virtual
+     * thread. Only this executor can be virtual: fan-out renders templates and queues emails,
+     * while the SMTP sends themselves stay on the platform pools below, because Jakarta Mail's
+     * {@code SMTPTransport} holds monitors while it waits on the socket and would pin the
+     * virtual threads' carriers.
      */
     @Bean(name = "emailTaskExecutor")
     public Executor emailTaskExecutor(
             @Value("${app.email.executor.core-pool-size:5}") int corePoolSize,
             @Value("${app.email.executor.max-pool-size:20}") int maxPoolSize,
-            @Value("${app.email.executor.queue-capacity:1000}") int queueCapacity) {
+            @Value("${app.email.executor.queue-capacity:1000}") int queueCapacity,
+            @Value("${app.email.executor.virtual-threads:false}") boolean virtualThreads,
+            MeterRegistry meterRegistry) {
+        
+        if (virtualThreads) {
+            return virtualThreadExecutor("email-sender-vt-", 
+                new ExecutorMetricsTaskDecorator(meterRegistry, "email-task", "virtual"));
+        }
         
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(corePoolSize);
@@ -32,7 +48,86 @@ public class EmailServiceConfig {
         executor.setQueueCapacity(queueCapacity);
         executor.setThreadNamePrefix("email-sender-");
         executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setTaskDecorator(new ExecutorMetricsTaskDecorator(meterRegistry, "email-task", "platform"));
+        executor.initialize();
+        return executor;
+    }
+    
+    /**
+     * Configures the executor of the {@link com.shanthigear.service.EmailPriority#NORMAL} lane, which
+     * renders and sends individual emails for {@link com.shanthigear.service.EmailService}: a pool
+     * of twice the available processors.
+     */
+    @Bean(name = "emailSendExecutor")
+    public Executor emailSendExecutor(MeterRegistry meterRegistry) {
+        int corePoolSize = Runtime.getRuntime().availableProcessors() * 2;
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(corePoolSize);
+        executor.setMaxPoolSize(corePoolSize * 2);
+        executor.setKeepAliveSeconds(60);
+        executor.setQueueCapacity(1000);
+        executor.setThreadNamePrefix("email-send-");
+        // Rejected sends are parked by the retry scheduler; running them on the caller would block its thread
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setTaskDecorator(new ExecutorMetricsTaskDecorator(meterRegistry, "email-send", "platform"));
         executor.initialize();
+        registerQueueGauge(meterRegistry, "email-send", executor);
+        return executor;
+    }
+    
+    /**
+     * Configures the executor of the {@link com.shanthigear.service.EmailPriority#TRANSACTIONAL} lane
+     * (failure alerts and payment confirmations).
+     */
+    @Bean(name = "emailTransactionalExecutor")
+    public Executor emailTransactionalExecutor(
+            @Value("${app.email.lanes.transactional.threads:4}") int threads,
+            @Value("${app.email.lanes.transactional.queue-capacity:500}") int queueCapacity,
+            MeterRegistry meterRegistry) {
+        return laneExecutor("email-transactional", threads, queueCapacity, meterRegistry);
+    }
+    
+    /**
+     * Configures the executor of the {@link com.shanthigear.service.EmailPriority#BULK} lane (reports,
+     * summaries and bulk runs). Its small share of threads is all bulk work gets, however much
+     * of it is queued.
+     */
+    @Bean(name = "emailBulkExecutor")
+    public Executor emailBulkExecutor(
+            @Value("${app.email.lanes.bulk.threads:2}") int threads,
+            @Value("${app.email.lanes.bulk.queue-capacity:200}") int queueCapacity,
+            MeterRegistry meterRegistry) {
+        return laneExecutor("email-bulk", threads, queueCapacity, meterRegistry);
+    }
+    
+    /**
+     * A fixed pool of platform threads for one priority lane. A full lane rejects further sends;
+     * the retry scheduler parks them and tries again.
+     */
+    private static Executor laneExecutor(String name, int threads, int queueCapacity, MeterRegistry meterRegistry) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix(name + "-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setTaskDecorator(new ExecutorMetricsTaskDecorator(meterRegistry, name, "platform"));
+        executor.initialize();
+        registerQueueGauge(meterRegistry, name, executor);
+        return executor;
+    }
+    
+    private static void registerQueueGauge(MeterRegistry meterRegistry, String name, ThreadPoolTaskExecutor executor) {
+        Gauge.builder("email.executor.queue.size", executor, e -> e.getThreadPoolExecutor().getQueue().size())
+            .description("Tasks waiting for a thread")
+            .tag("executor", name)
+            .register(meterRegistry);
+    }
+    
+    private static Executor virtualThreadExecutor(String threadNamePrefix, ExecutorMetricsTaskDecorator metrics) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+        executor.setVirtualThreads(true);
+        executor.setTaskDecorator(metrics);
         return executor;
     }
     
@@ -86,6 +181,7 @@ public class EmailServiceConfig {
         private int corePoolSize = 5;
         private int maxPoolSize = 20;
         private int queueCapacity = 1000;
+        private boolean virtualThreads = false;
         
         // Getters and setters
         public int getCorePoolSize() {
@@ -111,6 +207,14 @@ public class EmailServiceConfig {
         public void setQueueCapacity(int queueCapacity) {
             this.queueCapacity = queueCapacity;
         }
+        
+        public boolean isVirtualThreads() {
+            return virtualThreads;
+        }
+        
+        public void setVirtualThreads(boolean virtualThreads) {
+            this.virtualThreads = virtualThreads;
+        }
     }
     
     /**
@@ -12,20 +12,33 @@ import java.nio.charset.StandardCharsets;
 @Configuration
 public class EmailTemplateConfig {
 
+    /**
+     * Template locations in resolution order; a template name is looked up in each in turn.
+     */
+    private static final String[] TEMPLATE_LOCATIONS = {
+        "templates/", "templates/emails/", "templates/email-templates/", "email-templates/"
+    };
+
     @Bean
-    public SpringTemplateEngine emailTemplateEngine() {
+    public SpringTemplateEngine emailTemplateEngine(EmailConfig emailConfig) {
         SpringTemplateEngine templateEngine = new SpringTemplateEngine();
-        templateEngine.addTemplateResolver(htmlTemplateResolver());
+        for (int i = 0; i < TEMPLATE_LOCATIONS.length; i++) {
+            templateEngine.addTemplateResolver(htmlTemplateResolver(TEMPLATE_LOCATIONS[i], i + 1,
+                emailConfig.getTemplate().isCache()));
+        }
         return templateEngine;
     }
 
-    private ITemplateResolver htmlTemplateResolver() {
+    private ITemplateResolver htmlTemplateResolver(String prefix, int order, boolean cacheable) {
         ClassLoaderTemplateResolver templateResolver = new ClassLoaderTemplateResolver();
-        templateResolver.setPrefix("templates/");
+        templateResolver.setPrefix(prefix);
         templateResolver.setSuffix(".html");
         templateResolver.setTemplateMode(TemplateMode.HTML);
         templateResolver.setCharacterEncoding(StandardCharsets.UTF_8.name());
-        templateResolver.setCacheable(false); // Disable cache for development
+        templateResolver.setOrder(order);
+        templateResolver.setCheckExistence(true);
+        // Parsed templates are cached for good; disable in development to pick up edits
+        templateResolver.setCacheable(cacheable);
         return templateResolver;
     }
 }
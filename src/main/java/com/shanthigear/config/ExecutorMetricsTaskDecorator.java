@@ -0,0 +1,54 @@
+package com.shanthigear.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.core.task.TaskDecorator;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Records queue wait, run time and active tasks of an executor, tagged with the executor name
+ * and its thread mode ({@code platform} or {@code virtual}), so the two modes can be compared
+ * on the same dashboards. The rate of {@code email.executor.task} is the executor's throughput.
+ */
+public class ExecutorMetricsTaskDecorator implements TaskDecorator {
+
+    private final Timer queueWait;
+    private final Timer runTime;
+    private final AtomicInteger active = new AtomicInteger();
+
+    public ExecutorMetricsTaskDecorator(MeterRegistry meterRegistry, String executor, String mode) {
+        this.queueWait = Timer.builder("email.executor.queue.wait")
+            .description("Time tasks wait before they start running")
+            .tags("executor", executor, "mode", mode)
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .register(meterRegistry);
+        this.runTime = Timer.builder("email.executor.task")
+            .description("Time taken to run tasks")
+            .tags("executor", executor, "mode", mode)
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .register(meterRegistry);
+        Gauge.builder("email.executor.active", active, AtomicInteger::get)
+            .description("Tasks currently running")
+            .tags("executor", executor, "mode", mode)
+            .register(meterRegistry);
+    }
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        long submittedAt = System.nanoTime();
+        return () -> {
+            long startedAt = System.nanoTime();
+            queueWait.record(startedAt - submittedAt, TimeUnit.NANOSECONDS);
+            active.incrementAndGet();
+            try {
+                runnable.run();
+            } finally {
+                active.decrementAndGet();
+                runTime.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            }
+        };
+    }
+}
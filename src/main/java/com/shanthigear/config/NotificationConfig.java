@@ -17,6 +17,7 @@ public class NotificationConfig {
     private ExceptionReport exceptionReport = new ExceptionReport();
     private ActionItems actionItems = new ActionItems();
     private DailySummary dailySummary = new DailySummary();
+    private Store store = new Store();
     
     @Data
     public static class PaymentSummary {
@@ -25,6 +26,7 @@ public class NotificationConfig {
         private List<String> recipients;
         private boolean includeFailedPayments = true;
         private boolean includePendingApprovals = true;
+        private int maxPaymentsToShow = 100;
     }
     
     @Data
@@ -60,4 +62,11 @@ public class NotificationConfig {
         private boolean includeSystemStatus = true;
         private int maxPaymentsToShow = 10;
     }
+    
+    @Data
+    public static class Store {
+        private int pageSize = 500;  // Rows read per page by the scheduled reports
+        private int retentionDays = 90;  // Days of exceptions and closed action items kept
+        private String purgeSchedule = "0 15 3 * * *";  // 3:15 AM daily
+    }
 }
@@ -46,6 +46,42 @@ public class PaymentConfig {
         return executor;
     }
 
+    /**
+     * Executor of bulk payment chunks sent to the bank. It has one thread per chunk allowed in
+     * flight, so however many bulk submissions run at once, no more chunks than that are at the
+     * bank; the rest wait in the queue.
+     * @return Configured ThreadPoolTaskExecutor
+     */
+    @Bean(name = "bankBulkExecutor")
+    public Executor bankBulkExecutor(BankApiConfig bankApiConfig) {
+        int maxInFlight = Math.max(1, bankApiConfig.getBulk().getMaxInFlight());
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(maxInFlight);
+        executor.setMaxPoolSize(maxInFlight);
+        executor.setThreadNamePrefix("BankBulkPayment-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Executor of payment status calls to the bank. It is separate from the bulk executor, so
+     * status lookups and polls neither wait behind bulk submissions nor take their threads. A
+     * full queue rejects further calls; the lookups fail and polls are tried again later.
+     * @return Configured ThreadPoolTaskExecutor
+     */
+    @Bean(name = "paymentStatusExecutor")
+    public Executor paymentStatusExecutor(BankApiConfig bankApiConfig) {
+        BankApiConfig.StatusPollingConfig statusPolling = bankApiConfig.getStatusPolling();
+        int threads = Math.max(1, statusPolling.getThreads());
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(statusPolling.getQueueCapacity());
+        executor.setThreadNamePrefix("PaymentStatus-");
+        executor.initialize();
+        return executor;
+    }
+
     /**
      * @return Maximum number of retry attempts for failed payments
      */
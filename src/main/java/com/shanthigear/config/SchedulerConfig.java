@@ -48,4 +48,19 @@ public class SchedulerConfig {
             }
         }
     }
+
+    /**
+     * Scheduled task to close pooled SMTP connections that have been idle for too long,
+     * so the mail servers don't have to drop them.
+     */
+    @Scheduled(fixedDelayString = "${app.email.smtp-pool.evict-interval:30000}")
+    public void evictIdleSmtpConnections() {
+        try {
+            emailSenderFactory.evictIdleConnections();
+        } catch (Exception e) {
+            // Log the error but don't fail the scheduled task
+            org.slf4j.LoggerFactory.getLogger(SchedulerConfig.class)
+                .error("Error evicting idle SMTP connections: {}", e.getMessage(), e);
+        }
+    }
 }
@@ -0,0 +1,30 @@
+package com.shanthigear.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Configuration for the vendor bulk import.
+ */
+@Configuration
+public class VendorImportConfig {
+
+    /**
+     * Executor of the map and persist workers of every vendor import pipeline. Its
+     * {@code vendor.import.max-threads} threads are shared by all imports running at once;
+     * {@link com.shanthigear.service.VendorBulkImportService} only starts a pipeline once
+     * there are threads for all of its workers.
+     * @return Configured ThreadPoolTaskExecutor
+     */
+    @Bean(name = "vendorImportExecutor")
+    public ThreadPoolTaskExecutor vendorImportExecutor(@Value("${vendor.import.max-threads:10}") int maxThreads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(maxThreads);
+        executor.setMaxPoolSize(maxThreads);
+        executor.setThreadNamePrefix("vendor-import-");
+        executor.initialize();
+        return executor;
+    }
+}
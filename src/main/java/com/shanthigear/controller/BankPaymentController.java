@@ -1,8 +1,11 @@
 package com.shanthigear.controller;
 
+import com.shanthigear.dto.WebhookPayload;
 import com.shanthigear.payload.request.PaymentRequest;
 import com.shanthigear.payload.response.PaymentResponse;
 import com.shanthigear.service.BankPaymentService;
+import com.shanthigear.service.PaymentStatusPoller;
+import com.shanthigear.service.WebhookService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -18,23 +21,50 @@ import jakarta.validation.Valid;
 public class BankPaymentController {
 
     private final BankPaymentService bankPaymentService;
+    private final PaymentStatusPoller paymentStatusPoller;
+    private final WebhookService webhookService;
 
     @Autowired
-    public BankPaymentController(BankPaymentService bankPaymentService) {
+    public BankPaymentController(BankPaymentService bankPaymentService,
+                                 PaymentStatusPoller paymentStatusPoller,
+                                 WebhookService webhookService) {
         this.bankPaymentService = bankPaymentService;
+        this.paymentStatusPoller = paymentStatusPoller;
+        this.webhookService = webhookService;
     }
 
     @PostMapping
     @PreAuthorize("hasRole('BANK_API')")
     public ResponseEntity<PaymentResponse> processPayment(@Valid @RequestBody PaymentRequest paymentRequest) {
         PaymentResponse response = bankPaymentService.processPayment(paymentRequest);
+        if ("PENDING".equals(response.getStatus()) && response.getPaymentId() != null) {
+            // In case the bank's webhook never arrives, poll until the bank resolves the payment
+            paymentStatusPoller.watch(response.getPaymentId(),
+                resolved -> webhookService.processPaymentWebhook(toWebhookPayload(resolved, paymentRequest)));
+        }
         return ResponseEntity.ok(response);
     }
 
     @GetMapping("/{paymentId}")
     @PreAuthorize("hasRole('BANK_API')")
     public ResponseEntity<PaymentResponse> getPaymentStatus(@PathVariable String paymentId) {
-        PaymentResponse response = bankPaymentService.getPaymentStatus(paymentId);
+        PaymentResponse response = paymentStatusPoller.awaitStatus(paymentId);
         return ResponseEntity.ok(response);
     }
+
+    /**
+     * A resolution found by polling, handled like the bank's webhook for it.
+     */
+    private static WebhookPayload toWebhookPayload(PaymentResponse resolved, PaymentRequest paymentRequest) {
+        WebhookPayload payload = new WebhookPayload();
+        payload.setEventType("payment.status.polled");
+        payload.setPaymentId(paymentRequest.getPaymentReference());
+        payload.setTransactionId(resolved.getPaymentId());
+        payload.setAmount(resolved.getAmount());
+        payload.setCurrency(resolved.getCurrency());
+        payload.setStatus(resolved.getStatus());
+        payload.setTimestamp(resolved.getTimestamp());
+        payload.setMetadata(resolved.getMessage());
+        return payload;
+    }
 }
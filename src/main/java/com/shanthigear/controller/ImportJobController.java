@@ -0,0 +1,32 @@
+package com.shanthigear.controller;
+
+import com.shanthigear.dto.ImportJobResponse;
+import com.shanthigear.service.ImportJobService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Progress and control of background sheet imports started from the async upload endpoints.
+ */
+@RestController
+@RequestMapping("/api/v1/import-jobs")
+@RequiredArgsConstructor
+public class ImportJobController {
+    private final ImportJobService importJobService;
+    
+    @GetMapping("/{jobId}")
+    public ResponseEntity<ImportJobResponse> getProgress(@PathVariable String jobId) {
+        return ResponseEntity.ok(importJobService.getProgress(jobId));
+    }
+    
+    /**
+     * Restarts a failed job after its last committed row.
+     */
+    @PostMapping("/{jobId}/resume")
+    public ResponseEntity<ImportJobResponse> resume(@PathVariable String jobId) {
+        importJobService.resume(jobId);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(importJobService.getProgress(jobId));
+    }
+}
@@ -0,0 +1,53 @@
+package com.shanthigear.controller;
+
+import com.shanthigear.service.PaymentSummaryService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Payment counts and amounts by status for dashboards, read from the payment summary
+ * aggregates, and the command that rebuilds those aggregates from the payments.
+ */
+@RestController
+@RequestMapping("/api")
+@RequiredArgsConstructor
+public class PaymentSummaryController {
+    private final PaymentSummaryService paymentSummaryService;
+
+    @GetMapping("/payments/summaries/batches/{batchId}")
+    public ResponseEntity<Map<String, PaymentSummaryService.Totals>> getBatchSummary(@PathVariable String batchId) {
+        return ResponseEntity.ok(paymentSummaryService.summarizeBatch(batchId));
+    }
+
+    @GetMapping("/payments/summaries/days")
+    public ResponseEntity<Map<String, PaymentSummaryService.Totals>> getDaySummary(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(paymentSummaryService.summarizeDays(from, to));
+    }
+
+    @GetMapping("/payments/summaries/vendors")
+    public ResponseEntity<Map<String, Map<String, PaymentSummaryService.Totals>>> getVendorSummary(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(paymentSummaryService.summarizeVendors(from, to));
+    }
+
+    /**
+     * Recounts the aggregates of the given days from the payments; used for the initial
+     * backfill and to repair days whose updates failed.
+     */
+    @PostMapping("/admin/payment-summaries/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuild(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        int rows = paymentSummaryService.rebuild(from, end);
+        return ResponseEntity.ok(Map.of("from", from, "to", end, "rows", rows));
+    }
+}
@@ -1,22 +1,57 @@
 package com.shanthigear.controller;
 
 import com.shanthigear.dto.BulkImportResponse;
+import com.shanthigear.dto.ImportJobResponse;
+import com.shanthigear.model.ImportJob;
+import com.shanthigear.service.ImportJobService;
 import com.shanthigear.service.VendorBulkImportService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+
 @RestController
 @RequestMapping("/api/v1/vendors")
 @RequiredArgsConstructor
 public class VendorBulkImportController {
     private final VendorBulkImportService importService;
+    private final ImportJobService importJobService;
     
     @PostMapping(value = "/bulk-import", consumes = "multipart/form-data")
     public ResponseEntity<BulkImportResponse> bulkImportVendors(
             @RequestParam("file") MultipartFile file) {
         
+        validateFile(file);
+        
+        try {
+            BulkImportResponse response = importService.processBulkImport(file);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to process file: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Queues the upload as a background import job; poll {@code /api/v1/import-jobs/{jobId}} for progress.
+     */
+    @PostMapping(value = "/bulk-import/async", consumes = "multipart/form-data")
+    public ResponseEntity<ImportJobResponse> bulkImportVendorsAsync(
+            @RequestParam("file") MultipartFile file) {
+        
+        validateFile(file);
+        
+        try {
+            ImportJob job = importJobService.submit(ImportJob.JobType.VENDOR_MASTER, file);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(importJobService.getProgress(job.getId()));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to store file: " + e.getMessage(), e);
+        }
+    }
+    
+    private void validateFile(MultipartFile file) {
         if (file == null || file.isEmpty()) {
             throw new IllegalArgumentException("Please select a file to upload");
         }
@@ -25,13 +60,6 @@ public class VendorBulkImportController {
         if (originalFilename == null || !originalFilename.toLowerCase().endsWith(".xlsx")) {
             throw new IllegalArgumentException("Only Excel (.xlsx) files are allowed");
         }
-        
-        try {
-            BulkImportResponse response = importService.processBulkImport(file);
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to process file: " + e.getMessage(), e);
-        }
     }
     
     @GetMapping("/export-template")
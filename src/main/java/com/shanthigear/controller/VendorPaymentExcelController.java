@@ -1,18 +1,23 @@
 package com.shanthigear.controller;
 
+import com.shanthigear.dto.ImportJobResponse;
 import com.shanthigear.exception.BatchProcessingException;
+import com.shanthigear.model.ImportJob;
 import com.shanthigear.model.VendorPayment;
+import com.shanthigear.service.ImportJobService;
 import com.shanthigear.service.VendorPaymentExcelService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 
@@ -23,13 +28,50 @@ import java.util.Map;
 public class VendorPaymentExcelController {
 
     private final VendorPaymentExcelService vendorPaymentExcelService;
+    private final ImportJobService importJobService;
 
     @PostMapping("/upload")
     public ResponseEntity<?> uploadExcelFile(
             @RequestParam("file") MultipartFile file) {
         
         log.info("Received Excel file upload: {}", file.getOriginalFilename());
-        
+        validateFile(file);
+
+        try {
+            List<VendorPayment> processedPayments = vendorPaymentExcelService.processExcelFile(file);
+            log.info("Processed {} payments from Excel file", processedPayments.size());
+            return ResponseEntity.ok(processedPayments);
+        } catch (BatchProcessingException e) {
+            log.error("Error processing batch payments: {}", e.getMessage(), e);
+            return ResponseEntity.status(500).body(
+                Map.of("error", "Error processing batch payments",
+                      "message", e.getMessage()));
+        }
+    }
+
+    /**
+     * Queues the upload as a background import job; poll {@code /api/v1/import-jobs/{jobId}} for progress.
+     * Only .xlsx files are accepted here because the job reads the sheet with the streaming reader.
+     */
+    @PostMapping("/upload/async")
+    public ResponseEntity<ImportJobResponse> uploadExcelFileAsync(
+            @RequestParam("file") MultipartFile file) {
+
+        log.info("Received Excel file upload for background import: {}", file.getOriginalFilename());
+        validateFile(file);
+        if (!file.getOriginalFilename().toLowerCase().endsWith(".xlsx")) {
+            throw new IllegalArgumentException("Only Excel (.xlsx) files can be imported in the background");
+        }
+
+        try {
+            ImportJob job = importJobService.submit(ImportJob.JobType.VENDOR_PAYMENT, file);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(importJobService.getProgress(job.getId()));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to store file: " + e.getMessage(), e);
+        }
+    }
+
+    private void validateFile(MultipartFile file) {
         if (file.isEmpty()) {
             throw new IllegalArgumentException("Please select a file to upload");
         }
@@ -41,22 +83,11 @@ public class VendorPaymentExcelController {
             (contentType.equals("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet") ||
              contentType.equals("application/vnd.ms-excel"));
         boolean hasExcelExtension = originalFilename != null && 
-            (originalFilename.endsWith(".xlsx") || originalFilename.endsWith(".xls"));
+            (originalFilename.toLowerCase().endsWith(".xlsx") || originalFilename.toLowerCase().endsWith(".xls"));
             
         if (!isExcelFile || !hasExcelExtension) {
             throw new IllegalArgumentException("Only Excel files (.xlsx or .xls) are allowed");
         }
-
-        try {
-            List<VendorPayment> processedPayments = vendorPaymentExcelService.processExcelFile(file);
-            log.info("Processed {} payments from Excel file", processedPayments.size());
-            return ResponseEntity.ok(processedPayments);
-        } catch (BatchProcessingException e) {
-            log.error("Error processing batch payments: {}", e.getMessage(), e);
-            return ResponseEntity.status(500).body(
-                Map.of("error", "Error processing batch payments",
-                      "message", e.getMessage()));
-        }
     }
 
     @GetMapping("/template")
@@ -0,0 +1,36 @@
+package com.shanthigear.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO representing a chunk of payments submitted to the bank's bulk payment API.
+ * Each payment carries its own idempotency key.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class BankBulkPaymentRequestDTO {
+
+    @NotBlank(message = "Batch reference is required")
+    @JsonProperty("batch_reference")
+    private String batchReference;
+
+    @NotEmpty(message = "At least one payment is required")
+    @Valid
+    @JsonProperty("payments")
+    private List<BankPaymentRequestDTO> payments;
+}
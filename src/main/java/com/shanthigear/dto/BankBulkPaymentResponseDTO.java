@@ -0,0 +1,34 @@
+package com.shanthigear.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO representing the bank's response to a bulk payment submission or status lookup.
+ * Holds one result per payment, identified by its transaction reference and, once the bank
+ * has one, its transaction ID.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class BankBulkPaymentResponseDTO {
+
+    @JsonProperty("batch_reference")
+    private String batchReference;
+
+    @JsonProperty("batch_id")
+    private String batchId;
+
+    @JsonProperty("results")
+    private List<BankPaymentResponseDTO> results;
+}
@@ -100,4 +100,11 @@ public class BankPaymentRequestDTO {
     @Size(max = 35, message = "Purpose must not exceed 35 characters")
     @JsonProperty("purpose")
     private String purpose;
+
+    /**
+     * Idempotency key of the payment within a bulk submission; single payments send it as
+     * the Idempotency-Key header instead.
+     */
+    @JsonProperty("idempotency_key")
+    private String idempotencyKey;
 }
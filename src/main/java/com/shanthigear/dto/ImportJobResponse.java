@@ -0,0 +1,35 @@
+package com.shanthigear.dto;
+
+import com.shanthigear.model.ImportJob;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportJobResponse {
+    private String jobId;
+    private ImportJob.JobType jobType;
+    private ImportJob.Status status;
+    private String fileName;
+    private int totalRows;
+    private int processedRows;
+    private int successCount;
+    private int failureCount;
+    private int lastCommittedRow;
+    private double percentComplete;
+    private double rowsPerSecond;
+    /** Estimated seconds to completion, or null while there is no rate to estimate from. */
+    private Long etaSeconds;
+    private List<String> errors;
+    private String message;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime completedAt;
+}
@@ -34,6 +34,8 @@ public class EmailDomainConfig {
     private int connectionTimeout = 5000;
     private int timeout = 5000;
     private int writeTimeout = 5000;
+    /** Emails per second to this domain; null uses the configured default. */
+    private Integer rateLimitPerSecond;
     private boolean active = true;
     
     @Column(updatable = false)
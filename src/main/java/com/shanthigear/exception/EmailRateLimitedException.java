@@ -0,0 +1,27 @@
+package com.shanthigear.exception;
+
+import jakarta.mail.MessagingException;
+
+import java.time.Duration;
+
+/**
+ * Thrown when an email is not sent because its recipient domain, or the global email limit, is
+ * out of permits. No delivery was attempted, so the send should be repeated after
+ * {@link #getRetryAfter()} without counting as a failed attempt.
+ */
+public class EmailRateLimitedException extends MessagingException {
+
+    private final Duration retryAfter;
+
+    public EmailRateLimitedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * @return time until the rate limit has a permit again
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,30 @@
+package com.shanthigear.mapper;
+
+import com.shanthigear.dto.PayableItemDTO;
+import com.shanthigear.model.PaymentDetails;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.ReportingPolicy;
+
+/**
+ * Mapper for converting payable list rows to PaymentDetails entities.
+ */
+@Mapper(
+    componentModel = "spring",
+    unmappedTargetPolicy = ReportingPolicy.IGNORE
+)
+public interface PayableItemMapper {
+
+    /**
+     * Converts a payable list row to a new, unsaved PaymentDetails entity.
+     * The status keeps its entity default and the payment reference is generated on persist.
+     */
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "amount", source = "item.amountToPay")
+    @Mapping(target = "paymentReference", ignore = true)
+    @Mapping(target = "status", ignore = true)
+    @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
+    @Mapping(target = "createdBy", source = "createdBy")
+    PaymentDetails toPaymentDetails(PayableItemDTO item, String createdBy);
+}
@@ -1,25 +1,71 @@
 package com.shanthigear.model;
 
+import jakarta.persistence.*;
 import lombok.Data;
 
 import java.time.LocalDate;
 
 /**
  * Represents an action item assigned to internal teams.
+ * <p>
+ * {@code createdDay} is the day the item was added; closed items are dropped a day at a time
+ * once they are past retention.
  */
 @Data
+@Entity
+@Table(name = "ACTION_ITEMS", indexes = {
+    @Index(name = "IDX_ACTION_ITEMS_OPEN", columnList = "STATUS, DUE_DATE"),
+    @Index(name = "IDX_ACTION_ITEMS_ASSIGNEE", columnList = "ASSIGNED_TO, ID"),
+    @Index(name = "IDX_ACTION_ITEMS_DAY", columnList = "CREATED_DAY, STATUS")
+})
 public class ActionItem {
+    @Id
+    @Column(name = "ID", length = 36)
     private String id;
+
+    @Column(name = "TITLE", length = 500)
     private String title;
+
+    @Column(name = "DESCRIPTION", length = 2000)
     private String description;
+
+    @Column(name = "ASSIGNED_TO", length = 320)
     private String assignedTo;
+
+    @Column(name = "ASSIGNED_BY", length = 320)
     private String assignedBy;
+
+    @Column(name = "STATUS", length = 20)
     private String status;       // OPEN, IN_PROGRESS, COMPLETED, CANCELLED
+
+    @Column(name = "PRIORITY", length = 20)
     private String priority;     // HIGH, MEDIUM, LOW
+
+    @Column(name = "DUE_DATE")
     private LocalDate dueDate;
+
+    @Column(name = "COMPLETED_DATE")
     private LocalDate completedDate;
+
+    @Column(name = "CREATED_DAY", nullable = false)
+    private LocalDate createdDay;
+
+    @Column(name = "RELATED_PAYMENT_ID", length = 100)
     private String relatedPaymentId;
+
+    @Column(name = "RELATED_VENDOR_ID", length = 50)
     private String relatedVendorId;
+
+    @Column(name = "CATEGORY", length = 50)
     private String category;     // e.g., "VALIDATION", "BANK_UPLOAD", "NOTIFICATION"
+
+    @Column(name = "COMMENTS", length = 2000)
     private String comments;
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdDay == null) {
+            createdDay = LocalDate.now();
+        }
+    }
 }
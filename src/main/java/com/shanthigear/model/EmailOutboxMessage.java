@@ -0,0 +1,99 @@
+package com.shanthigear.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A templated email waiting to be sent, written in the same transaction as the change that
+ * triggered it.
+ * <p>
+ * The dispatcher claims due messages by moving them to {@code SENDING}; a claim older than the
+ * claim timeout is treated as abandoned and the message is picked up again. Failed sends are
+ * rescheduled via {@code nextAttemptAt} until the attempt limit, after which the message is
+ * left {@code DEAD} for inspection.
+ * <p>
+ * Messages with a {@code digestKey} are items of a digest: they are held for the digest window
+ * and sent together with the other pending items of the same key as one email.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "EMAIL_OUTBOX", indexes = {
+    @Index(name = "IDX_EMAIL_OUTBOX_DUE", columnList = "STATUS, NEXT_ATTEMPT_AT"),
+    @Index(name = "IDX_EMAIL_OUTBOX_DIGEST", columnList = "DIGEST_KEY, STATUS")
+})
+@SequenceGenerator(name = "email_outbox_seq", sequenceName = "EMAIL_OUTBOX_SEQ", allocationSize = 50)
+public class EmailOutboxMessage {
+
+    public enum Status {
+        PENDING,
+        SENDING,
+        SENT,
+        DEAD
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "email_outbox_seq")
+    @Column(name = "ID")
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "STATUS", nullable = false, length = 20)
+    private Status status;
+
+    @Column(name = "RECIPIENT", nullable = false, length = 320)
+    private String recipient;
+
+    @Column(name = "SUBJECT", nullable = false, length = 500)
+    private String subject;
+
+    @Column(name = "TEMPLATE_NAME", nullable = false, length = 200)
+    private String templateName;
+
+    /** Template variables as a JSON object. */
+    @Lob
+    @Column(name = "TEMPLATE_VARIABLES")
+    private String templateVariables;
+
+    /** Optional key that stops the same notification from being queued twice. */
+    @Column(name = "MESSAGE_KEY", length = 200, unique = true)
+    private String messageKey;
+
+    /** Key of the digest this message is an item of, usually the notification type and recipient. */
+    @Column(name = "DIGEST_KEY", length = 400)
+    private String digestKey;
+
+    @Builder.Default
+    @Column(name = "ATTEMPTS", nullable = false)
+    private int attempts = 0;
+
+    @Column(name = "NEXT_ATTEMPT_AT", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "CLAIMED_AT")
+    private LocalDateTime claimedAt;
+
+    @Column(name = "LAST_ERROR", length = 1000)
+    private String lastError;
+
+    @Column(name = "CREATED_AT", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "SENT_AT")
+    private LocalDateTime sentAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        if (nextAttemptAt == null) {
+            nextAttemptAt = createdAt;
+        }
+    }
+}
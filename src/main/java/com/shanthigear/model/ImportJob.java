@@ -0,0 +1,127 @@
+package com.shanthigear.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * An asynchronous sheet import and its checkpoint.
+ * <p>
+ * {@code lastCommittedRow} is the 1-based sheet row up to which every row has been saved or
+ * rejected; a restarted job continues after it. The counters cover all runs of the job.
+ * <p>
+ * A job is run by the instance holding its lease, which refreshes {@code heartbeatAt} while the
+ * job runs. Another instance can only claim the job once the heartbeat is older than the lease
+ * timeout.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "IMPORT_JOBS", indexes = {
+    @Index(name = "IDX_IMPORT_JOBS_STATUS", columnList = "STATUS")
+})
+public class ImportJob {
+
+    public enum JobType {
+        VENDOR_MASTER,
+        VENDOR_PAYMENT
+    }
+
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    @Id
+    @Column(name = "ID", length = 36)
+    private String id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "JOB_TYPE", nullable = false, length = 30)
+    private JobType jobType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "STATUS", nullable = false, length = 20)
+    private Status status;
+
+    @Column(name = "FILE_NAME")
+    private String fileName;
+
+    @Column(name = "STORED_FILE", nullable = false, length = 1000)
+    private String storedFile;
+
+    @Builder.Default
+    @Column(name = "TOTAL_ROWS", nullable = false)
+    private int totalRows = 0;
+
+    @Builder.Default
+    @Column(name = "PROCESSED_ROWS", nullable = false)
+    private int processedRows = 0;
+
+    @Builder.Default
+    @Column(name = "SUCCESS_COUNT", nullable = false)
+    private int successCount = 0;
+
+    @Builder.Default
+    @Column(name = "FAILURE_COUNT", nullable = false)
+    private int failureCount = 0;
+
+    @Builder.Default
+    @Column(name = "LAST_COMMITTED_ROW", nullable = false)
+    private int lastCommittedRow = 0;
+
+    /** Row errors, one per line, capped so the column stays small on bad files. */
+    @Lob
+    @Column(name = "ERRORS")
+    private String errors;
+
+    @Column(name = "MESSAGE", length = 1000)
+    private String message;
+
+    @Column(name = "CREATED_AT", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    /** Start of the current (or last) run; rows/sec is measured from here. */
+    @Column(name = "RUN_STARTED_AT")
+    private LocalDateTime runStartedAt;
+
+    /** Processed rows when the current run started, i.e. rows restored from the checkpoint. */
+    @Builder.Default
+    @Column(name = "RUN_START_ROWS", nullable = false)
+    private int runStartRows = 0;
+
+    /**
+     * Instance holding the job's lease. Only written by the claim and heartbeat queries, so
+     * saving a stale copy of the job never moves the lease.
+     */
+    @Column(name = "LEASE_OWNER", insertable = false, updatable = false)
+    private String leaseOwner;
+
+    @Column(name = "HEARTBEAT_AT", insertable = false, updatable = false)
+    private LocalDateTime heartbeatAt;
+
+    @Column(name = "UPDATED_AT")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "COMPLETED_AT")
+    private LocalDateTime completedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = createdAt;
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
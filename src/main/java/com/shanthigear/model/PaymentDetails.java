@@ -7,13 +7,16 @@ import org.hibernate.annotations.UpdateTimestamp;
 import jakarta.persistence.*;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.UUID;
 
 @Data
 @Entity
 @Table(name = "payment_details")
+@SequenceGenerator(name = "payment_details_seq", sequenceName = "PAYMENT_DETAILS_SEQ", allocationSize = 50)
 public class PaymentDetails {
+    // Sequence ids (rather than IDENTITY) let Hibernate batch inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payment_details_seq")
     private Long id;
     
     @Column(name = "vendor_number", nullable = false)
@@ -53,8 +56,8 @@ public class PaymentDetails {
     @PrePersist
     protected void onCreate() {
         if (this.paymentReference == null) {
-            // Generate a payment reference if not provided
-            this.paymentReference = "PAY" + System.currentTimeMillis();
+            // Generate a payment reference if not provided; unique even for rows saved in the same batch
+            this.paymentReference = "PAY" + UUID.randomUUID().toString().replace("-", "").toUpperCase();
         }
     }
 }
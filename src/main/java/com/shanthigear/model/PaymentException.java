@@ -1,27 +1,78 @@
 package com.shanthigear.model;
 
+import jakarta.persistence.*;
 import lombok.Data;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 /**
  * Represents a payment exception that needs to be reported to internal teams.
+ * <p>
+ * Exceptions are only ever inserted; reports read them back in id order with a cursor, and the
+ * only update is marking the reported ones. {@code recordedDay} is the day the exception was
+ * recorded: the indexes lead with it and the retention job drops whole days.
  */
 @Data
+@Entity
+@Table(name = "PAYMENT_EXCEPTIONS", indexes = {
+    @Index(name = "IDX_PAYMENT_EXC_DAY", columnList = "RECORDED_DAY, STATUS, SEVERITY"),
+    @Index(name = "IDX_PAYMENT_EXC_UNREPORTED", columnList = "REPORTED, ID")
+})
+@SequenceGenerator(name = "payment_exceptions_seq", sequenceName = "PAYMENT_EXCEPTIONS_SEQ", allocationSize = 50)
 public class PaymentException {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payment_exceptions_seq")
+    @Column(name = "ID")
+    private Long id;
+
+    @Column(name = "PAYMENT_REFERENCE", length = 100)
     private String paymentReference;
+
+    @Column(name = "VENDOR_NAME", length = 255)
     private String vendorName;
+
+    @Column(name = "VENDOR_ID", length = 50)
     private String vendorId;
+
+    @Column(name = "ERROR_CODE", length = 100)
     private String errorCode;
+
+    @Column(name = "ERROR_MESSAGE", length = 2000)
     private String errorMessage;
+
+    @Column(name = "RECORDED_AT")
     private LocalDateTime timestamp;
+
+    @Column(name = "RECORDED_DAY", nullable = false)
+    private LocalDate recordedDay;
+
+    @Column(name = "SEVERITY", length = 20)
     private String severity;  // CRITICAL, HIGH, MEDIUM, LOW
+
+    @Column(name = "MODULE", length = 50)
     private String module;    // e.g., "VALIDATION", "BANK_UPLOAD", "NOTIFICATION"
+
+    @Column(name = "SUGGESTED_ACTION", length = 1000)
     private String suggestedAction;
+
+    @Column(name = "ASSIGNED_TO", length = 320)
     private String assignedTo;
+
+    @Column(name = "STATUS", length = 20)
     private String status;    // e.g., "OPEN", "IN_PROGRESS", "RESOLVED"
+
+    @Column(name = "REPORTED", nullable = false)
     private boolean reported; // Whether the exception has been reported
     
+    @PrePersist
+    protected void onCreate() {
+        if (timestamp == null) {
+            timestamp = LocalDateTime.now();
+        }
+        recordedDay = timestamp.toLocalDate();
+    }
+    
     // Additional getters and setters for the new fields
     public String getStatus() {
         return status;
@@ -23,6 +23,7 @@ public class PaymentSummary {
     private String generatedBy;
     private LocalDate generatedAt;
     private String processingTime;
+    private Map<String, Long> exceptionCounts;  // Exceptions recorded on the day, by severity
     
     @Data
     public static class PaymentDetail {
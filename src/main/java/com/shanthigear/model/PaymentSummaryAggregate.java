@@ -0,0 +1,103 @@
+package com.shanthigear.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Number and amount of vendor payments in one status, for one day, batch and vendor.
+ * <p>
+ * Rows are kept up to date as payments are created, change status or are deleted, so summaries
+ * and dashboards read a handful of aggregate rows instead of every payment. A payment without a
+ * batch or vendor is counted under {@value #NONE}.
+ */
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "PAYMENT_SUMMARY_AGGREGATES",
+    uniqueConstraints = @UniqueConstraint(name = "UK_PAYMENT_SUMMARY_KEY",
+        columnNames = {"SUMMARY_DAY", "BATCH_ID", "VENDOR_ID", "STATUS"}),
+    indexes = {
+        @Index(name = "IDX_PAYMENT_SUMMARY_BATCH", columnList = "BATCH_ID, STATUS"),
+        @Index(name = "IDX_PAYMENT_SUMMARY_VENDOR", columnList = "VENDOR_ID, SUMMARY_DAY")
+    })
+@SequenceGenerator(name = "payment_summary_seq", sequenceName = "payment_summary_seq", allocationSize = 50)
+public class PaymentSummaryAggregate {
+
+    public static final String NONE = "-";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payment_summary_seq")
+    @Column(name = "ID")
+    private Long id;
+
+    @Column(name = "SUMMARY_DAY", nullable = false)
+    private LocalDate summaryDay;
+
+    @Column(name = "BATCH_ID", nullable = false, length = 50)
+    private String batchId;
+
+    @Column(name = "VENDOR_ID", nullable = false, length = 20)
+    private String vendorId;
+
+    @Column(name = "STATUS", nullable = false, length = 20)
+    private String status;
+
+    @Column(name = "PAYMENT_COUNT", nullable = false)
+    private long paymentCount;
+
+    @Column(name = "TOTAL_AMOUNT", nullable = false, precision = 19, scale = 2)
+    private BigDecimal totalAmount = BigDecimal.ZERO;
+
+    @Column(name = "UPDATED_AT")
+    private LocalDateTime updatedAt;
+
+    public PaymentSummaryAggregate(Key key, long paymentCount, BigDecimal totalAmount) {
+        this.summaryDay = key.day();
+        this.batchId = key.batchId();
+        this.vendorId = key.vendorId();
+        this.status = key.status();
+        this.paymentCount = paymentCount;
+        this.totalAmount = totalAmount;
+    }
+
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    /**
+     * The aggregate row a payment is counted in.
+     */
+    public record Key(LocalDate day, String batchId, String vendorId, String status) implements Comparable<Key> {
+
+        public Key {
+            batchId = batchId != null && !batchId.isBlank() ? batchId : NONE;
+            vendorId = vendorId != null && !vendorId.isBlank() ? vendorId : NONE;
+            status = status != null ? status : "UNKNOWN";
+        }
+
+        @Override
+        public int compareTo(Key other) {
+            int result = day.compareTo(other.day);
+            if (result == 0) {
+                result = batchId.compareTo(other.batchId);
+            }
+            if (result == 0) {
+                result = vendorId.compareTo(other.vendorId);
+            }
+            return result != 0 ? result : status.compareTo(other.status);
+        }
+    }
+
+    /**
+     * What one payment adds to its aggregate row.
+     */
+    public record Contribution(Key key, BigDecimal amount) {
+    }
+}
@@ -19,7 +19,7 @@ import java.time.LocalDate;
 @Entity
 @Table(name = "VENDOR_MASTER")
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class Vendor {
@@ -1,11 +1,13 @@
 package com.shanthigear.model;
 
+import com.shanthigear.service.PaymentSummaryListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.hibernate.annotations.CreationTimestamp;
@@ -21,6 +23,7 @@ import java.util.Arrays;
  * This includes both payment information and bank integration details.
  */
 @Entity
+@EntityListeners(PaymentSummaryListener.class)
 @Table(name = "VENDOR_PAYMENT")
 @SequenceGenerator(name = "vendor_payment_seq", sequenceName = "VENDOR_PAYMENT_SEQ", allocationSize = 1)
 @Data
@@ -214,6 +217,14 @@ public class VendorPayment {
     @Column(name = "COMPLETED_AT")
     private LocalDateTime completedAt;
     
+    /**
+     * What this payment was last counted as in the payment summary aggregates; maintained by
+     * {@link PaymentSummaryListener}.
+     */
+    @Transient
+    @EqualsAndHashCode.Exclude
+    private transient PaymentSummaryAggregate.Contribution summarized;
+    
     @Size(max = 4000, message = "Description must be less than 4000 characters")
     @Column(name = "DESCRIPTION", length = 4000)
     private String description;
@@ -0,0 +1,44 @@
+package com.shanthigear.repository;
+
+import com.shanthigear.model.ActionItem;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ActionItemRepository extends JpaRepository<ActionItem, String> {
+
+    /**
+     * First page of the assigned items in one of the given statuses that are due by the given
+     * date, ordered by assignee and id.
+     */
+    @Query("SELECT a FROM ActionItem a WHERE a.status IN :statuses AND a.dueDate <= :dueBy " +
+           "AND a.assignedTo IS NOT NULL ORDER BY a.assignedTo, a.id")
+    List<ActionItem> findDue(@Param("statuses") Collection<String> statuses,
+                             @Param("dueBy") LocalDate dueBy,
+                             Pageable pageable);
+
+    /**
+     * Next page of {@link #findDue}, after the cursor of the last item read.
+     */
+    @Query("SELECT a FROM ActionItem a WHERE a.status IN :statuses AND a.dueDate <= :dueBy " +
+           "AND a.assignedTo IS NOT NULL " +
+           "AND (a.assignedTo > :afterAssignee OR (a.assignedTo = :afterAssignee AND a.id > :afterId)) " +
+           "ORDER BY a.assignedTo, a.id")
+    List<ActionItem> findDueAfter(@Param("statuses") Collection<String> statuses,
+                                  @Param("dueBy") LocalDate dueBy,
+                                  @Param("afterAssignee") String afterAssignee,
+                                  @Param("afterId") String afterId,
+                                  Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM ActionItem a WHERE a.createdDay < :before AND a.status IN :statuses")
+    int deleteCreatedBefore(@Param("before") LocalDate before, @Param("statuses") Collection<String> statuses);
+}
@@ -0,0 +1,69 @@
+package com.shanthigear.repository;
+
+import com.shanthigear.model.EmailOutboxMessage;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutboxMessage, Long>, EmailOutboxRepositoryCustom {
+
+    boolean existsByMessageKey(String messageKey);
+
+    /**
+     * Ids of messages that are due, oldest first: pending messages whose next attempt has come,
+     * and messages whose claim has timed out.
+     */
+    @Query("SELECT m.id FROM EmailOutboxMessage m " +
+           "WHERE (m.status = com.shanthigear.model.EmailOutboxMessage.Status.PENDING AND m.nextAttemptAt <= :now) " +
+           "OR (m.status = com.shanthigear.model.EmailOutboxMessage.Status.SENDING AND m.claimedAt < :claimedBefore) " +
+           "ORDER BY m.nextAttemptAt")
+    List<Long> findDueIds(@Param("now") LocalDateTime now,
+                          @Param("claimedBefore") LocalDateTime claimedBefore,
+                          Pageable pageable);
+
+    /**
+     * Locks the given messages, skipping rows another dispatcher has locked
+     * ({@code FOR UPDATE SKIP LOCKED}).
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT m FROM EmailOutboxMessage m WHERE m.id IN :ids")
+    List<EmailOutboxMessage> lockByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Locks the pending items of the given digests, due or not, skipping rows another
+     * dispatcher has locked.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT m FROM EmailOutboxMessage m " +
+           "WHERE m.digestKey IN :digestKeys AND m.status = com.shanthigear.model.EmailOutboxMessage.Status.PENDING")
+    List<EmailOutboxMessage> lockPendingByDigestKeyIn(@Param("digestKeys") Collection<String> digestKeys);
+
+    /**
+     * Makes digest items that are still inside their window due now. Items waiting for a retry
+     * keep their backoff.
+     */
+    @Modifying
+    @Query("UPDATE EmailOutboxMessage m SET m.nextAttemptAt = :now " +
+           "WHERE m.digestKey IS NOT NULL AND m.status = com.shanthigear.model.EmailOutboxMessage.Status.PENDING " +
+           "AND m.attempts = 0 AND m.nextAttemptAt > :now")
+    int releaseHeldDigestItems(@Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM EmailOutboxMessage m " +
+           "WHERE m.status = com.shanthigear.model.EmailOutboxMessage.Status.SENT AND m.sentAt < :sentBefore")
+    int deleteSentBefore(@Param("sentBefore") LocalDateTime sentBefore);
+}
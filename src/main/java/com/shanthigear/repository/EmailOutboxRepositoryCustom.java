@@ -0,0 +1,15 @@
+package com.shanthigear.repository;
+
+import com.shanthigear.model.EmailOutboxMessage;
+
+public interface EmailOutboxRepositoryCustom {
+
+    /**
+     * Inserts a new message in the current transaction unless its message key is already
+     * queued. The insert is executed immediately, so a key queued concurrently by another
+     * transaction fails only this statement instead of the caller's transaction at commit.
+     *
+     * @return true if the message was inserted; its id is set
+     */
+    boolean insertIfAbsent(EmailOutboxMessage message);
+}
@@ -0,0 +1,57 @@
+package com.shanthigear.repository;
+
+import com.shanthigear.model.EmailOutboxMessage;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Inserts outbox messages with plain JDBC on the transaction's connection. Going through the
+ * persistence context would defer the insert to flush, where a duplicate {@code MESSAGE_KEY}
+ * marks the whole transaction rollback-only.
+ */
+class EmailOutboxRepositoryImpl implements EmailOutboxRepositoryCustom {
+    private static final String INSERT_SQL = "INSERT INTO EMAIL_OUTBOX (ID, STATUS, RECIPIENT, SUBJECT, TEMPLATE_NAME, " +
+            "TEMPLATE_VARIABLES, MESSAGE_KEY, DIGEST_KEY, ATTEMPTS, NEXT_ATTEMPT_AT, CREATED_AT) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String nextIdSql;
+
+    EmailOutboxRepositoryImpl(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.nextIdSql = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices()
+                .getDialect().getSequenceSupport().getSequenceNextValString("EMAIL_OUTBOX_SEQ");
+    }
+
+    @Override
+    public boolean insertIfAbsent(EmailOutboxMessage message) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime nextAttemptAt = message.getNextAttemptAt() != null ? message.getNextAttemptAt() : now;
+        Long id = jdbcTemplate.queryForObject(nextIdSql, Long.class);
+        try {
+            jdbcTemplate.update(INSERT_SQL,
+                    id,
+                    message.getStatus().name(),
+                    message.getRecipient(),
+                    message.getSubject(),
+                    message.getTemplateName(),
+                    message.getTemplateVariables(),
+                    message.getMessageKey(),
+                    message.getDigestKey(),
+                    message.getAttempts(),
+                    Timestamp.valueOf(nextAttemptAt),
+                    Timestamp.valueOf(now));
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+        message.setId(id);
+        message.setNextAttemptAt(nextAttemptAt);
+        message.setCreatedAt(now);
+        return true;
+    }
+}
@@ -0,0 +1,53 @@
+package com.shanthigear.repository;
+
+import com.shanthigear.model.ImportJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ImportJobRepository extends JpaRepository<ImportJob, String> {
+    List<ImportJob> findByStatusIn(Collection<ImportJob.Status> statuses);
+
+    /**
+     * Takes the job's lease for the given owner if it is free, already held by the owner, or
+     * its heartbeat is older than {@code staleBefore}.
+     *
+     * @return 1 if the lease was taken, 0 if another instance holds it
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE ImportJob j SET j.leaseOwner = :owner, j.heartbeatAt = :now " +
+           "WHERE j.id = :id AND (j.leaseOwner IS NULL OR j.leaseOwner = :owner OR j.heartbeatAt < :staleBefore)")
+    int claim(@Param("id") String id,
+              @Param("owner") String owner,
+              @Param("now") LocalDateTime now,
+              @Param("staleBefore") LocalDateTime staleBefore);
+
+    /**
+     * Refreshes the heartbeat of the given jobs whose lease the owner still holds.
+     *
+     * @return the number of leases refreshed
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE ImportJob j SET j.heartbeatAt = :now WHERE j.id IN :ids AND j.leaseOwner = :owner")
+    int heartbeat(@Param("ids") Collection<String> ids,
+                  @Param("owner") String owner,
+                  @Param("now") LocalDateTime now);
+
+    /**
+     * Gives up the job's lease if the owner holds it.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE ImportJob j SET j.leaseOwner = NULL, j.heartbeatAt = NULL WHERE j.id = :id AND j.leaseOwner = :owner")
+    int release(@Param("id") String id, @Param("owner") String owner);
+}
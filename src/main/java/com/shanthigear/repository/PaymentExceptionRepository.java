@@ -0,0 +1,59 @@
+package com.shanthigear.repository;
+
+import com.shanthigear.model.PaymentException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface PaymentExceptionRepository extends JpaRepository<PaymentException, Long> {
+
+    /**
+     * Unreported, unresolved exceptions with an id after the cursor, in id order.
+     */
+    @Query("SELECT e FROM PaymentException e WHERE e.reported = false " +
+           "AND (e.status IS NULL OR e.status <> 'RESOLVED') AND e.id > :afterId ORDER BY e.id")
+    List<PaymentException> findUnreportedAfter(@Param("afterId") long afterId, Pageable pageable);
+
+    @Query("SELECT COUNT(e) FROM PaymentException e WHERE e.reported = false " +
+           "AND (e.status IS NULL OR e.status <> 'RESOLVED')")
+    long countUnreported();
+
+    /**
+     * Exceptions recorded on the given days, optionally of one status and severity, with an id
+     * after the cursor, in id order.
+     */
+    @Query("SELECT e FROM PaymentException e WHERE e.recordedDay BETWEEN :from AND :to " +
+           "AND (:status IS NULL OR e.status = :status) AND (:severity IS NULL OR e.severity = :severity) " +
+           "AND e.id > :afterId ORDER BY e.id")
+    List<PaymentException> findRecorded(@Param("from") LocalDate from,
+                                        @Param("to") LocalDate to,
+                                        @Param("status") String status,
+                                        @Param("severity") String severity,
+                                        @Param("afterId") long afterId,
+                                        Pageable pageable);
+
+    /**
+     * Number of exceptions recorded on the given days, by severity.
+     *
+     * @return rows of severity and count
+     */
+    @Query("SELECT e.severity, COUNT(e) FROM PaymentException e " +
+           "WHERE e.recordedDay BETWEEN :from AND :to GROUP BY e.severity")
+    List<Object[]> countBySeverity(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Modifying
+    @Query("UPDATE PaymentException e SET e.reported = true WHERE e.id IN :ids")
+    int markReported(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM PaymentException e WHERE e.recordedDay < :before")
+    int deleteRecordedBefore(@Param("before") LocalDate before);
+}
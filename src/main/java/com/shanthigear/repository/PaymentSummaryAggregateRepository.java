@@ -0,0 +1,65 @@
+package com.shanthigear.repository;
+
+import com.shanthigear.model.PaymentSummaryAggregate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface PaymentSummaryAggregateRepository extends JpaRepository<PaymentSummaryAggregate, Long> {
+
+    /**
+     * Add to the count and amount of one aggregate row.
+     *
+     * @return the number of rows updated; 0 if the row does not exist yet
+     */
+    @Modifying
+    @Query("UPDATE PaymentSummaryAggregate a SET a.paymentCount = a.paymentCount + :count, " +
+           "a.totalAmount = a.totalAmount + :amount, a.updatedAt = :now " +
+           "WHERE a.summaryDay = :day AND a.batchId = :batchId AND a.vendorId = :vendorId AND a.status = :status")
+    int increment(@Param("day") LocalDate day,
+                  @Param("batchId") String batchId,
+                  @Param("vendorId") String vendorId,
+                  @Param("status") String status,
+                  @Param("count") long count,
+                  @Param("amount") BigDecimal amount,
+                  @Param("now") LocalDateTime now);
+
+    /**
+     * Number and amount of the payments of a batch, by status.
+     *
+     * @return rows of status, count and amount
+     */
+    @Query("SELECT a.status, SUM(a.paymentCount), SUM(a.totalAmount) FROM PaymentSummaryAggregate a " +
+           "WHERE a.batchId = :batchId GROUP BY a.status")
+    List<Object[]> summarizeBatch(@Param("batchId") String batchId);
+
+    /**
+     * Number and amount of the payments recorded on the given days, by status.
+     *
+     * @return rows of status, count and amount
+     */
+    @Query("SELECT a.status, SUM(a.paymentCount), SUM(a.totalAmount) FROM PaymentSummaryAggregate a " +
+           "WHERE a.summaryDay BETWEEN :from AND :to GROUP BY a.status")
+    List<Object[]> summarizeDays(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * Number and amount of the payments recorded on the given days, by vendor and status.
+     *
+     * @return rows of vendor id, status, count and amount
+     */
+    @Query("SELECT a.vendorId, a.status, SUM(a.paymentCount), SUM(a.totalAmount) FROM PaymentSummaryAggregate a " +
+           "WHERE a.summaryDay BETWEEN :from AND :to GROUP BY a.vendorId, a.status ORDER BY a.vendorId, a.status")
+    List<Object[]> summarizeVendors(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Modifying
+    @Query("DELETE FROM PaymentSummaryAggregate a WHERE a.summaryDay = :day")
+    int deleteDay(@Param("day") LocalDate day);
+}
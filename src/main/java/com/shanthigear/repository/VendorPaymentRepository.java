@@ -11,6 +11,7 @@ import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -24,6 +25,7 @@ public interface VendorPaymentRepository extends JpaRepository<VendorPayment, Lo
     boolean existsByReferenceNumber(String referenceNumber);
     Optional<VendorPayment> findByPaymentReference(String paymentReference);
     boolean existsByPaymentReference(String paymentReference);
+    List<VendorPayment> findByPaymentReferenceIn(Collection<String> paymentReferences);
     Optional<VendorPayment> findByBankReference(String bankReference);
     Optional<VendorPayment> findByTransactionId(String transactionId);
     
@@ -54,6 +56,39 @@ public interface VendorPaymentRepository extends JpaRepository<VendorPayment, Lo
      */
     List<VendorPayment> findByBatchId(String batchId);
     
+    /**
+     * Payments of a batch with an id after the cursor, in id order.
+     */
+    @Query("SELECT p FROM VendorPayment p WHERE p.batchId = :batchId AND p.id > :afterId ORDER BY p.id")
+    List<VendorPayment> findByBatchIdAfter(@Param("batchId") String batchId, 
+                                           @Param("afterId") long afterId, 
+                                           Pageable pageable);
+    
+    /**
+     * Payments created in a time range with an id after the cursor, in id order.
+     */
+    @Query("SELECT p FROM VendorPayment p WHERE p.createdAt >= :from AND p.createdAt < :to AND p.id > :afterId ORDER BY p.id")
+    List<VendorPayment> findCreatedBetweenAfter(@Param("from") LocalDateTime from,
+                                                @Param("to") LocalDateTime to,
+                                                @Param("afterId") long afterId,
+                                                Pageable pageable);
+    
+    /**
+     * Number and amount of the payments created in a time range, by batch, vendor and status.
+     * Used to rebuild the payment summary aggregates.
+     *
+     * @return rows of batch id, vendor id, status, count and amount
+     */
+    @Query("SELECT p.batchId, p.vendorId, p.status, COUNT(p), COALESCE(SUM(p.amount), 0) FROM VendorPayment p " +
+           "WHERE p.createdAt >= :from AND p.createdAt < :to GROUP BY p.batchId, p.vendorId, p.status")
+    List<Object[]> summarizeCreatedBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+    
+    /**
+     * @return creation time of the oldest payment, or null if there are no payments
+     */
+    @Query("SELECT MIN(p.createdAt) FROM VendorPayment p")
+    LocalDateTime findEarliestCreatedAt();
+
     @Query("SELECT p FROM VendorPayment p WHERE p.h2hProcessed = :processed AND p.h2hProcessedAt BETWEEN :startDate AND :endDate")
     List<VendorPayment> findByH2hProcessedAndH2hProcessedAtBetween(
         @Param("processed") boolean processed,
@@ -9,6 +9,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -34,6 +35,14 @@ public interface VendorRepository extends JpaRepository<Vendor, String> {
      */
     Optional<Vendor> findByVendorNumber(String vendorNumber);
     
+    /**
+     * Find all vendors whose vendor number is in the given collection, using a single IN query.
+     *
+     * @param vendorNumbers the vendor numbers to search for
+     * @return the vendors that exist; vendor numbers without a match are simply absent
+     */
+    List<Vendor> findByVendorNumberIn(Collection<String> vendorNumbers);
+    
     /**
      * Find vendors by bank account number.
      * @param bankAccountNum the bank account number to search for
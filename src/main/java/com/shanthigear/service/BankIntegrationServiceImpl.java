@@ -1,25 +1,19 @@
 package com.shanthigear.service;
 
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import com.shanthigear.config.BankCallPolicy;
 import com.shanthigear.config.OracleH2HConfig;
 import com.shanthigear.dto.PaymentRequestDTO;
 import com.shanthigear.exception.BankApiException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.*;
-import org.springframework.retry.annotation.Backoff;
-import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Service;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
-import org.apache.hc.client5.http.config.RequestConfig;
-import org.apache.hc.core5.util.Timeout;
-import org.apache.hc.client5.http.config.ConnectionConfig;
-import org.apache.hc.client5.http.impl.classic.HttpClientBuilder;
-import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 
 import java.net.URI;
 import java.time.LocalDate;
@@ -31,7 +25,8 @@ import com.shanthigear.model.BankTransaction;
 
 /**
  * Implementation of BankIntegrationService for real bank API integration.
- * Handles communication with the bank's payment processing API.
+ * Handles communication with the bank's payment processing API; calls are retried and timed
+ * out by the {@link BankCallPolicy}.
  */
 @Service
 public class BankIntegrationServiceImpl implements BankIntegrationService {
@@ -40,26 +35,27 @@ public class BankIntegrationServiceImpl implements BankIntegrationService {
     
     private final RestTemplate restTemplate;
     private final OracleH2HConfig oracleH2HConfig;
-    
-    @Value("${oracle.h2h.api.timeout:30000}")
-    private int timeoutMs;
+    private final BankCallPolicy bankCallPolicy;
     
     @Value("${oracle.h2h.api.transactions.endpoint:/api/v1/transactions}")
     private String transactionsEndpoint;
     
-    public BankIntegrationServiceImpl(RestTemplate restTemplate, OracleH2HConfig oracleH2HConfig) {
+    /**
+     * @param restTemplate Client on the shared bank connection pool, with the H2H timeouts
+     * @param oracleH2HConfig Oracle H2H API settings
+     * @param bankCallPolicy Retries, deadline and circuit breaker of the calls
+     */
+    public BankIntegrationServiceImpl(@Qualifier("h2hRestTemplate") RestTemplate restTemplate,
+                                      OracleH2HConfig oracleH2HConfig,
+                                      BankCallPolicy bankCallPolicy) {
         this.restTemplate = restTemplate;
         this.oracleH2HConfig = oracleH2HConfig;
+        this.bankCallPolicy = bankCallPolicy;
         
         logger.info("Initialized BankIntegrationService with base URL: {}", oracleH2HConfig.getBaseUrl());
     }
     
     @Override
-    @Retryable(retryFor = RestClientException.class, 
-               maxAttemptsExpression = "${oracle.h2h.api.retry.attempts:3}",
-               backoff = @Backoff(delayExpression = "${oracle.h2h.api.retry.delay:5000}",
-                                maxDelayExpression = "${oracle.h2h.api.retry.max-delay:60000}",
-                                multiplierExpression = "${oracle.h2h.api.retry.multiplier:2.0}"))
     public String processPayment(PaymentRequestDTO paymentRequest) throws BankApiException {
         if (paymentRequest == null) {
             throw new BankApiException("Payment request cannot be null", HttpStatus.BAD_REQUEST);
@@ -91,12 +87,13 @@ public class BankIntegrationServiceImpl implements BankIntegrationService {
             }
             
             // Make the API call
-            ResponseEntity<String> response = restTemplate.exchange(
-                URI.create(url),
-                HttpMethod.POST,
-                requestEntity,
-                String.class
-            );
+            ResponseEntity<String> response = bankCallPolicy.execute("h2h.payments.process",
+                () -> restTemplate.exchange(
+                    URI.create(url),
+                    HttpMethod.POST,
+                    requestEntity,
+                    String.class
+                ));
             
             // Process the response
             if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
@@ -143,12 +140,13 @@ public class BankIntegrationServiceImpl implements BankIntegrationService {
             
             HttpEntity<Void> requestEntity = new HttpEntity<>(headers);
             
-            ResponseEntity<Map<String, Object>> response = restTemplate.exchange(
-                url,
-                HttpMethod.GET,
-                requestEntity,
-                new ParameterizedTypeReference<Map<String, Object>>() {}
-            );
+            ResponseEntity<Map<String, Object>> response = bankCallPolicy.execute("h2h.payments.verify",
+                () -> restTemplate.exchange(
+                    url,
+                    HttpMethod.GET,
+                    requestEntity,
+                    new ParameterizedTypeReference<Map<String, Object>>() {}
+                ));
             
             if (response.getStatusCode() == HttpStatus.OK) {
                 Map<String, Object> responseBody = response.getBody();
@@ -178,11 +176,6 @@ public class BankIntegrationServiceImpl implements BankIntegrationService {
     }
     
     @Override
-    @Retryable(retryFor = RestClientException.class, 
-              maxAttemptsExpression = "${oracle.h2h.api.retry.attempts:3}",
-              backoff = @Backoff(delayExpression = "${oracle.h2h.api.retry.delay:5000}",
-                               maxDelayExpression = "${oracle.h2h.api.retry.max-delay:60000}",
-                               multiplierExpression = "${oracle.h2h.api.retry.multiplier:2.0}"))
     public List<BankTransaction> getBankTransactions(LocalDate fromDate, LocalDate toDate) throws BankApiException {
         logger.info("Fetching bank transactions from {} to {}", fromDate, toDate);
         
@@ -212,39 +205,15 @@ public class BankIntegrationServiceImpl implements BankIntegrationService {
             // Create request entity with headers
             HttpEntity<Void> requestEntity = new HttpEntity<>(headers);
             
-            // Configure the rest template with timeout settings
-            Timeout timeout = Timeout.ofMilliseconds(timeoutMs);
-            RequestConfig config = RequestConfig.custom()
-                .setConnectionRequestTimeout(timeout)
-                .setResponseTimeout(timeout)
-                .build();
-                
-            // Set connect timeout separately using ConnectionConfig
-            ConnectionConfig connectionConfig = ConnectionConfig.custom()
-                .setConnectTimeout(timeout)
-                .build();
-                
-            PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
-            connectionManager.setMaxTotal(100);
-            connectionManager.setDefaultMaxPerRoute(20);
-            connectionManager.setDefaultConnectionConfig(connectionConfig);
-            
-            var httpClient = HttpClientBuilder.create()
-                .setConnectionManager(connectionManager)
-                .setDefaultRequestConfig(config)
-                .build();
-                
-            var requestFactory = new HttpComponentsClientHttpRequestFactory(httpClient);
-            restTemplate.setRequestFactory(requestFactory);
-            
             // Make the API call
             ParameterizedTypeReference<List<BankTransaction>> responseType = new ParameterizedTypeReference<>() {};
-            ResponseEntity<List<BankTransaction>> response = restTemplate.exchange(
-                url,
-                HttpMethod.GET,
-                requestEntity,
-                responseType
-            );
+            ResponseEntity<List<BankTransaction>> response = bankCallPolicy.execute("h2h.transactions",
+                () -> restTemplate.exchange(
+                    url,
+                    HttpMethod.GET,
+                    requestEntity,
+                    responseType
+                ));
             
             // Check response status
             if (response.getStatusCode().is2xxSuccessful()) {
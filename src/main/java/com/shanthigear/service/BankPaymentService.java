@@ -3,6 +3,10 @@ package com.shanthigear.service;
 import com.shanthigear.payload.request.PaymentRequest;
 import com.shanthigear.payload.response.PaymentResponse;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
 /**
  * Service interface for bank payment operations.
  */
@@ -16,6 +20,19 @@ public interface BankPaymentService {
      */
     PaymentResponse processPayment(PaymentRequest paymentRequest);
     
+    /**
+     * Process payments through the bank's bulk payment API.
+     * Payments are submitted in chunks, several chunks at a time, each payment with its own
+     * idempotency key. A payment that is rejected, or whose chunk cannot be submitted, gets a
+     * FAILED response without failing the others. A payment whose chunk may or may not have
+     * reached the bank is PENDING, with the transaction reference sent to the bank as its payment
+     * ID until the bank assigns one; it is resolved by looking up its status, not by resubmitting.
+     *
+     * @param paymentRequests the payment requests
+     * @return the payment responses, in the order of the requests
+     */
+    List<PaymentResponse> processPayments(List<PaymentRequest> paymentRequests);
+    
     /**
      * Get the status of a payment.
      *
@@ -23,4 +40,12 @@ public interface BankPaymentService {
      * @return the payment status response
      */
     PaymentResponse getPaymentStatus(String paymentId);
+    
+    /**
+     * Get the status of several payments with one call to the bank.
+     *
+     * @param paymentIds the payment IDs, as returned by {@link #processPayment} or {@link #processPayments}
+     * @return the payment status responses by payment ID; payments the bank does not know are left out
+     */
+    Map<String, PaymentResponse> getPaymentStatuses(Collection<String> paymentIds);
 }
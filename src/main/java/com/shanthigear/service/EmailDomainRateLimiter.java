@@ -0,0 +1,220 @@
+package com.shanthigear.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import com.shanthigear.config.EmailConfig;
+import com.shanthigear.entity.EmailDomainConfig;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.github.resilience4j.ratelimiter.internal.AtomicRateLimiter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rate limits email sends per recipient domain, under a global ceiling.
+ * <p>
+ * Each domain gets its own limiter, so a domain that is throttling us only uses up its own
+ * permits. The per-second limit of a domain comes from its {@link EmailDomainConfig} row, then
+ * from {@code app.email.domains.<domain>.rate-limit-per-second}, then from the default email
+ * configuration. Limiters of domains that have not been sent to for a while are dropped along
+ * with their gauges, so a domain's new limit applies once it has been idle.
+ * <p>
+ * {@link EmailPriority#BULK} sends only get the part of each period above a reserve of
+ * {@code app.email.lanes.bulk.reserved-rate-share} of the limit, at both levels, so a bulk run
+ * cannot use up the permits that failure alerts and confirmations need.
+ */
+@Slf4j
+@Component
+public class EmailDomainRateLimiter {
+    private static final String DEFAULT_DOMAIN = "default";
+
+    private final RateLimiter globalLimiter;
+    private final EmailConfig emailConfig;
+    private final EmailDomainService emailDomainService;
+    private final MeterRegistry meterRegistry;
+    private final Cache<String, DomainLimiter> domainLimiters;
+    private final AtomicLong globalRejections = new AtomicLong();
+    private final AtomicLong bulkDeferrals = new AtomicLong();
+    private final double bulkReservedShare;
+
+    @Autowired
+    public EmailDomainRateLimiter(@Qualifier("emailRateLimiter") RateLimiter globalLimiter,
+                                  EmailConfig emailConfig,
+                                  EmailDomainService emailDomainService,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${app.email.rate-limit.domain-idle-timeout:30m}") Duration idleTimeout,
+                                  @Value("${app.email.rate-limit.max-domains:1000}") long maxDomains,
+                                  @Value("${app.email.lanes.bulk.reserved-rate-share:0.2}") double bulkReservedShare) {
+        this.globalLimiter = globalLimiter;
+        this.bulkReservedShare = Math.min(Math.max(bulkReservedShare, 0.0), 1.0);
+        this.emailConfig = emailConfig;
+        this.emailDomainService = emailDomainService;
+        this.meterRegistry = meterRegistry;
+        // The eviction listener runs inside the eviction, so a limiter recreated for the same
+        // domain cannot register its gauges before the old ones are removed
+        this.domainLimiters = Caffeine.newBuilder()
+                .expireAfterAccess(idleTimeout)
+                .maximumSize(maxDomains)
+                .scheduler(Scheduler.systemScheduler())
+                .<String, DomainLimiter>evictionListener((domain, limiter, cause) -> {
+                    if (limiter != null) {
+                        limiter.removeGauges();
+                        log.debug("Dropped rate limiter for idle domain {}", domain);
+                    }
+                })
+                .build();
+
+        Gauge.builder("email.rate.limit.global.rejected", globalRejections, AtomicLong::get)
+                .description("Sends refused by the global email rate limit")
+                .register(meterRegistry);
+        Gauge.builder("email.rate.limit.bulk.deferred", bulkDeferrals, AtomicLong::get)
+                .description("Bulk sends refused to keep the reserved permits for other lanes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Takes a permit for one email to the given domain, without waiting.
+     *
+     * @param domain recipient domain; blank means the default domain
+     * @return true if both the domain limit and the global limit allow the send
+     */
+    public boolean tryAcquire(String domain) {
+        return tryAcquire(domain, EmailPriority.NORMAL);
+    }
+
+    /**
+     * Takes a permit for one email of the given lane to the given domain, without waiting.
+     *
+     * @param domain   recipient domain; blank means the default domain
+     * @param priority lane of the send; bulk sends are refused once only the reserve is left
+     * @return true if both the domain limit and the global limit allow the send
+     */
+    public boolean tryAcquire(String domain, EmailPriority priority) {
+        DomainLimiter limiter = domainLimiters.get(normalize(domain), this::createLimiter);
+        if (priority == EmailPriority.BULK && (inReserve(limiter.rateLimiter) || inReserve(globalLimiter))) {
+            bulkDeferrals.incrementAndGet();
+            return false;
+        }
+        // The domain is checked first: a permit wasted there only costs that domain
+        if (!limiter.rateLimiter.acquirePermission()) {
+            limiter.rejections.incrementAndGet();
+            return false;
+        }
+        if (!globalLimiter.acquirePermission()) {
+            globalRejections.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Estimates how long a send to the given domain has to wait for a permit, at the domain
+     * level and the global level, without taking one.
+     *
+     * @param domain recipient domain; blank means the default domain
+     * @return zero if a permit is available now
+     */
+    public Duration timeUntilPermit(String domain) {
+        DomainLimiter limiter = domainLimiters.get(normalize(domain), this::createLimiter);
+        return Duration.ofNanos(Math.max(nanosToWait(limiter.rateLimiter), nanosToWait(globalLimiter)));
+    }
+
+    /**
+     * @return permits left in the global limiter's current period
+     */
+    public int getGlobalAvailablePermissions() {
+        return globalLimiter.getMetrics().getAvailablePermissions();
+    }
+
+    /**
+     * @return true if no more than the reserved share of the limiter's period is left
+     */
+    private boolean inReserve(RateLimiter rateLimiter) {
+        int reserved = (int) (rateLimiter.getRateLimiterConfig().getLimitForPeriod() * bulkReservedShare);
+        return reserved > 0 && rateLimiter.getMetrics().getAvailablePermissions() <= reserved;
+    }
+
+    private static long nanosToWait(RateLimiter rateLimiter) {
+        if (rateLimiter instanceof AtomicRateLimiter atomicRateLimiter) {
+            return Math.max(atomicRateLimiter.getDetailedMetrics().getNanosToWait(), 0);
+        }
+        // Other implementations cannot estimate the wait; a full period is always enough
+        return rateLimiter.getMetrics().getAvailablePermissions() > 0
+                ? 0 : rateLimiter.getRateLimiterConfig().getLimitRefreshPeriod().toNanos();
+    }
+
+    /**
+     * Per-second limit of a domain, falling back to the default configuration.
+     */
+    int resolveLimit(String domain) {
+        if (!DEFAULT_DOMAIN.equals(domain)) {
+            try {
+                Integer configured = emailDomainService.getConfigByDomain(domain)
+                        .filter(EmailDomainConfig::isActive)
+                        .map(EmailDomainConfig::getRateLimitPerSecond)
+                        .orElse(null);
+                if (configured != null && configured > 0) {
+                    return configured;
+                }
+            } catch (Exception e) {
+                log.warn("Could not load rate limit for domain {}: {}", domain, e.getMessage());
+            }
+            EmailConfig.DomainConfig domainConfig = emailConfig.getDomains().get(domain);
+            if (domainConfig != null && domainConfig.getRateLimitPerSecond() > 0) {
+                return domainConfig.getRateLimitPerSecond();
+            }
+        }
+        return Math.max(emailConfig.getDefaultConfig().getRateLimitPerSecond(), 1);
+    }
+
+    private DomainLimiter createLimiter(String domain) {
+        int limit = resolveLimit(domain);
+        RateLimiter rateLimiter = RateLimiter.of("email-domain-" + domain, RateLimiterConfig.custom()
+                .limitForPeriod(limit)
+                .limitRefreshPeriod(Duration.ofSeconds(1))
+                .timeoutDuration(Duration.ZERO)
+                .build());
+        log.debug("Created rate limiter for domain {} with {} emails per second", domain, limit);
+        return new DomainLimiter(domain, rateLimiter);
+    }
+
+    private static String normalize(String domain) {
+        return domain == null || domain.isBlank() ? DEFAULT_DOMAIN : domain.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private final class DomainLimiter {
+        private final RateLimiter rateLimiter;
+        private final AtomicLong rejections = new AtomicLong();
+        private final List<Meter> gauges;
+
+        private DomainLimiter(String domain, RateLimiter rateLimiter) {
+            this.rateLimiter = rateLimiter;
+            this.gauges = List.of(
+                    Gauge.builder("email.rate.limit.domain.available", rateLimiter,
+                                    limiter -> limiter.getMetrics().getAvailablePermissions())
+                            .description("Permits left in the domain's current rate limit period")
+                            .tag("domain", domain)
+                            .register(meterRegistry),
+                    Gauge.builder("email.rate.limit.domain.rejected", rejections, AtomicLong::get)
+                            .description("Sends refused by the domain's rate limit")
+                            .tag("domain", domain)
+                            .register(meterRegistry));
+        }
+
+        private void removeGauges() {
+            gauges.forEach(meterRegistry::remove);
+        }
+    }
+}
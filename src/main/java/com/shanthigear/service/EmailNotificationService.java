@@ -32,6 +32,9 @@ public class EmailNotificationService implements NotificationService {
     @Value("${app.company.name:Shanthi Gears Limited}")
     private String companyName;
     
+    @Value("${app.email.digest.enabled:true}")
+    private boolean digestEnabled;
+    
     @Value("${app.email.default-currency:INR}")
     private String defaultCurrency;
     
@@ -51,10 +54,12 @@ public class EmailNotificationService implements NotificationService {
     private String managementEmail;
     
     private final EmailService emailService;
+    private final EmailOutboxService emailOutboxService;
 
     @Autowired
-    public EmailNotificationService(EmailService emailService) {
+    public EmailNotificationService(EmailService emailService, EmailOutboxService emailOutboxService) {
         this.emailService = emailService;
+        this.emailOutboxService = emailOutboxService;
     }
     
     /**
@@ -63,9 +68,10 @@ public class EmailNotificationService implements NotificationService {
      * @param subject Email subject
      * @param templateName Name of the email template (without extension)
      * @param templateVars Template variables
+     * @param priority Lane to send the email on
      */
-    private CompletableFuture<Void> sendEmail(List<String> recipients, String subject, 
-                                            String templateName, Map<String, Object> templateVars) {
+    private CompletableFuture<Void> sendEmail(List<String> recipients, String subject, String templateName, 
+                                            Map<String, Object> templateVars, EmailPriority priority) {
         if (recipients == null || recipients.isEmpty() || subject == null || templateName == null) {
             logger.warn("Cannot send email - missing required parameters");
             return CompletableFuture.completedFuture(null);
@@ -79,7 +85,7 @@ public class EmailNotificationService implements NotificationService {
         templateVars.putIfAbsent("currentYear", String.valueOf(java.time.Year.now().getValue()));
         
         // Send to all recipients in parallel
-        return emailService.sendBulkEmail(recipients, subject, templateName, templateVars)
+        return emailService.sendBulkEmail(recipients, subject, templateName, templateVars, priority)
                 .exceptionally(ex -> {
                     logger.error("Failed to send email to {} recipients: {}", recipients.size(), ex.getMessage(), ex);
                     return null;
@@ -92,18 +98,69 @@ public class EmailNotificationService implements NotificationService {
      * @param subject Email subject
      * @param templateName Name of the email template (without extension)
      * @param templateVars Template variables
+     * @param priority Lane to send the email on
      */
-    private CompletableFuture<Void> sendEmail(String to, String subject, 
-                                            String templateName, Map<String, Object> templateVars) {
+    private CompletableFuture<Void> sendEmail(String to, String subject, String templateName, 
+                                            Map<String, Object> templateVars, EmailPriority priority) {
         if (to == null || to.trim().isEmpty()) {
             logger.warn("Cannot send email - no recipient specified");
             return CompletableFuture.completedFuture(null);
         }
-        return sendEmail(Collections.singletonList(to), subject, templateName, templateVars);
+        return sendEmail(Collections.singletonList(to), subject, templateName, templateVars, priority);
+    }
+
+    /**
+     * Queues an email in the email outbox, in the caller's transaction.
+     * @param to Recipient email address
+     * @param subject Email subject
+     * @param templateName Name of the email template (without extension)
+     * @param templateVars Template variables
+     * @param messageKey Optional key that prevents the same notification being queued twice
+     */
+    private void queueEmail(String to, String subject, String templateName, 
+                            Map<String, Object> templateVars, String messageKey) {
+        templateVars.putIfAbsent("companyName", companyName);
+        templateVars.putIfAbsent("currentYear", String.valueOf(java.time.Year.now().getValue()));
+        emailOutboxService.enqueue(to, subject, templateName, templateVars, messageKey);
+    }
+
+    /**
+     * Queues a payment as an item of the vendor's payment digest, in the caller's transaction.
+     * The vendor's payments of the same kind that are queued within the digest window are sent
+     * as one payment-notification email listing them all.
+     * @param to Recipient email address
+     * @param subject Subject of the digest
+     * @param vendorName Name of the vendor
+     * @param payment The payment to list
+     * @param kind Kind of notification; payments of different kinds go in separate digests
+     */
+    private void queueDigestItem(String to, String subject, String vendorName, VendorPayment payment, String kind) {
+        Map<String, Object> templateVars = new HashMap<>();
+        templateVars.put("vendor", vendorName);
+        templateVars.put("vendorName", vendorName);
+        templateVars.put(EmailOutboxService.DIGEST_ITEM_VARIABLE, EmailService.notificationItem(payment));
+        templateVars.put("companyName", companyName);
+        templateVars.put("currentYear", String.valueOf(java.time.Year.now().getValue()));
+        emailOutboxService.enqueueDigestItem(to, subject, "payment-notification", templateVars,
+            kind + ":" + payment.getPaymentReference(), kind + ":" + to.trim().toLowerCase());
+    }
+
+    /**
+     * Sends the held payment digests now instead of at the end of their window; joins the
+     * caller's transaction, so the digests go out once the batch commits.
+     */
+    @Override
+    public void flushPaymentDigests() {
+        if (digestEnabled) {
+            emailOutboxService.releaseDigests();
+        }
     }
 
+    /**
+     * Queues the payment credit notification; runs in the caller's transaction so the email is
+     * only sent if the payment update commits.
+     */
     @Override
-    @Async
     public void sendPaymentNotification(Vendor vendor, VendorPayment payment) {
         if (vendor == null || payment == null) {
             logger.warn("Cannot send payment notification - vendor or payment is null");
@@ -116,6 +173,14 @@ public class EmailNotificationService implements NotificationService {
             return;
         }
         
+        if (digestEnabled) {
+            queueDigestItem(recipientEmail, String.format("Payments Credited - %s", companyName),
+                vendor.getVendorName(), payment, "payment-notification");
+            logger.info("Payment notification for {} added to the digest for {}", 
+                payment.getPaymentReference(), recipientEmail);
+            return;
+        }
+        
         String subject = String.format("Payment Credited - %s (Ref: %s)", 
             companyName, 
             payment.getPaymentReference());
@@ -133,27 +198,30 @@ public class EmailNotificationService implements NotificationService {
         templateVars.put("bankAccount", payment.getBankAccount() != null ? payment.getBankAccount() : "N/A");
         templateVars.put("ifscCode", payment.getIfscCode() != null ? payment.getIfscCode() : "N/A");
         
-        // Send email using the enhanced EmailService
-        sendEmail(recipientEmail, subject, "payment-notification", templateVars)
-            .whenComplete((result, ex) -> {
-                if (ex != null) {
-                    logger.error("Failed to send payment notification email for payment reference: {}", 
-                        payment.getPaymentReference(), ex);
-                } else {
-                    logger.info("Payment notification email sent to {} for payment reference: {}", 
-                        recipientEmail, payment.getPaymentReference());
-                }
-            });
+        queueEmail(recipientEmail, subject, "payment-notification", templateVars, 
+            "payment-notification:" + payment.getPaymentReference());
+        logger.info("Payment notification queued for {} (payment reference: {})", 
+            recipientEmail, payment.getPaymentReference());
     }
     
+    /**
+     * Queues the payment confirmation in the caller's transaction.
+     */
     @Override
-    @Async
     public void sendPaymentConfirmation(VendorPayment payment) {
         if (payment == null || payment.getVendorEmail() == null) {
             logger.warn("Cannot send payment confirmation - payment or vendor email is null");
             return;
         }
         
+        if (digestEnabled) {
+            queueDigestItem(payment.getVendorEmail(), String.format("Payments Processed - %s", companyName),
+                payment.getVendorName(), payment, "payment-confirmation");
+            logger.info("Payment confirmation for {} added to the digest for {}", 
+                payment.getPaymentReference(), payment.getVendorEmail());
+            return;
+        }
+        
         // Build template variables for Thymeleaf
         Map<String, Object> templateVars = new HashMap<>();
         templateVars.put("vendorName", payment.getVendorName());
@@ -170,20 +238,16 @@ public class EmailNotificationService implements NotificationService {
         
         String subject = String.format("Payment Confirmation - %s", payment.getPaymentReference());
         
-        // Send email using the enhanced EmailService
-        sendEmail(payment.getVendorEmail(), subject, "payment-confirmation", templateVars)
-            .whenComplete((result, ex) -> {
-                if (ex != null) {
-                    logger.error("Failed to send payment confirmation email to {}: {}", 
-                        payment.getVendorEmail(), ex.getMessage(), ex);
-                } else {
-                    logger.info("Payment confirmation email sent to {}", payment.getVendorEmail());
-                }
-            });
+        queueEmail(payment.getVendorEmail(), subject, "payment-confirmation", templateVars, 
+            "payment-confirmation:" + payment.getPaymentReference());
+        logger.info("Payment confirmation queued for {}", payment.getVendorEmail());
     }
 
+    /**
+     * Queues the failure notice for the vendor and the internal copy for IT support in the
+     * caller's transaction.
+     */
     @Override
-    @Async
     public void sendPaymentFailure(VendorPayment payment, String reason) {
         if (payment == null || payment.getVendorEmail() == null) {
             logger.warn("Cannot send payment failure notification - payment or vendor email is null");
@@ -202,36 +266,24 @@ public class EmailNotificationService implements NotificationService {
         
         String subject = String.format("Payment Failed - %s", payment.getPaymentReference());
         
-        // Send email using the enhanced EmailService
-        sendEmail(payment.getVendorEmail(), subject, "payment-failure", templateVars)
-            .whenComplete((result, ex) -> {
-                if (ex != null) {
-                    logger.error("Failed to send payment failure notification to {}: {}", 
-                        payment.getVendorEmail(), ex.getMessage(), ex);
-                } else {
-                    logger.info("Payment failure notification sent to {}", payment.getVendorEmail());
-                    
-                    // Also notify internal team about the failure
-                    Map<String, Object> internalVars = new HashMap<>();
-                    internalVars.put("subject", subject);
-                    internalVars.put("vendorName", payment.getVendorName());
-                    internalVars.put("paymentReference", payment.getPaymentReference());
-                    internalVars.put("failureReason", reason);
-                    internalVars.put("amount", formatCurrency(payment.getAmount()));
-                    internalVars.put("paymentDate", LocalDateTime.now().format(DATE_FORMATTER));
-                    
-                    sendEmail(
-                        Collections.singletonList(itSupportEmail),
-                        "[Internal] " + subject,
-                        "internal/payment-failure-notification",
-                        internalVars
-                    );
-                }
-            });
+        queueEmail(payment.getVendorEmail(), subject, "payment-failure", templateVars, null);
+        
+        // Also notify internal team about the failure
+        Map<String, Object> internalVars = new HashMap<>();
+        internalVars.put("subject", subject);
+        internalVars.put("vendorName", payment.getVendorName());
+        internalVars.put("paymentReference", payment.getPaymentReference());
+        internalVars.put("failureReason", reason);
+        internalVars.put("amount", formatCurrency(payment.getAmount()));
+        internalVars.put("paymentDate", LocalDateTime.now().format(DATE_FORMATTER));
+        
+        queueEmail(itSupportEmail, "[Internal] " + subject, "internal/payment-failure-notification", 
+            internalVars, null);
+        logger.info("Payment failure notification queued for {}", payment.getVendorEmail());
     }
 
     @Override
-    @Async
+    @Async("emailTaskExecutor")
     public void sendOverduePaymentNotification(VendorPayment payment) {
         if (payment == null) {
             logger.warn("Cannot send overdue notification: payment is null");
@@ -274,7 +326,7 @@ public class EmailNotificationService implements NotificationService {
         String subject = String.format("Overdue Payment - %s", payment.getPaymentReference());
         
         // Send email using the enhanced EmailService
-        sendEmail(payment.getVendorEmail(), subject, "overdue-payment", templateVars)
+        sendEmail(payment.getVendorEmail(), subject, "overdue-payment", templateVars, EmailPriority.NORMAL)
             .whenComplete((result, ex) -> {
                 if (ex != null) {
                     logger.error("Failed to send overdue payment notification to {}: {}", 
@@ -296,7 +348,8 @@ public class EmailNotificationService implements NotificationService {
                         Collections.singletonList(financeTeamEmail),
                         "[Internal] " + subject,
                         "internal/overdue-payment-notification",
-                        internalVars
+                        internalVars,
+                        EmailPriority.NORMAL
                     );
                 }
             });
@@ -315,7 +368,7 @@ public class EmailNotificationService implements NotificationService {
     }
     
     @Override
-    @Async
+    @Async("emailTaskExecutor")
     public void sendPaymentSummary(PaymentSummary summary, List<String> recipients) {
         if (summary == null || recipients == null || recipients.isEmpty()) {
             logger.warn("Cannot send payment summary - summary is null or no recipients specified");
@@ -346,7 +399,7 @@ public class EmailNotificationService implements NotificationService {
             summary.getPaymentDate() != null ? summary.getPaymentDate().format(DateTimeFormatter.ISO_DATE) : "N/A");
         
         // Send email to all recipients using the new email service
-        sendEmail(validRecipients, subject, "internal/payment-summary", templateVars)
+        sendEmail(validRecipients, subject, "internal/payment-summary", templateVars, EmailPriority.BULK)
             .whenComplete((result, ex) -> {
                 if (ex != null) {
                     logger.error("Failed to send payment summary to some recipients: {}", ex.getMessage(), ex);
@@ -357,7 +410,7 @@ public class EmailNotificationService implements NotificationService {
     }
     
     @Override
-    @Async
+    @Async("emailTaskExecutor")
     public void sendExceptionReport(List<PaymentException> exceptions, List<String> recipients) {
         if (exceptions == null || exceptions.isEmpty() || recipients == null || recipients.isEmpty()) {
             logger.warn("Cannot send exception report - no exceptions or recipients specified");
@@ -409,7 +462,8 @@ public class EmailNotificationService implements NotificationService {
         }
         
         // Send email to all recipients using the new email service
-        sendEmail(new ArrayList<>(allRecipients), subject, "internal/exception-report", templateVars)
+        sendEmail(new ArrayList<>(allRecipients), subject, "internal/exception-report", templateVars, 
+                hasCriticalIssues ? EmailPriority.TRANSACTIONAL : EmailPriority.BULK)
             .whenComplete((result, ex) -> {
                 if (ex != null) {
                     logger.error("Failed to send exception report to some recipients: {}", ex.getMessage(), ex);
@@ -421,7 +475,7 @@ public class EmailNotificationService implements NotificationService {
     }
     
     @Override
-    @Async
+    @Async("emailTaskExecutor")
     public void sendActionItems(List<ActionItem> actionItems, List<String> recipients) {
         if (actionItems == null || actionItems.isEmpty() || recipients == null || recipients.isEmpty()) {
             logger.warn("Cannot send action items - no items or recipients specified");
@@ -480,7 +534,8 @@ public class EmailNotificationService implements NotificationService {
                 recipient,
                 subject,
                 "internal/action-items",
-                recipientVars
+                recipientVars,
+                hasHighPriority ? EmailPriority.NORMAL : EmailPriority.BULK
             );
             
             emailFuture.whenComplete((result, ex) -> {
@@ -507,7 +562,7 @@ public class EmailNotificationService implements NotificationService {
     }
     
     @Override
-    @Async
+    @Async("emailTaskExecutor")
     public void sendDailySummary(PaymentSummary summary, List<String> recipients) {
         if (summary == null || recipients == null || recipients.isEmpty()) {
             logger.warn("Cannot send daily summary - summary is null or no recipients specified");
@@ -537,7 +592,7 @@ public class EmailNotificationService implements NotificationService {
             LocalDate.now().format(DateTimeFormatter.ISO_DATE));
         
         // Send email to all recipients using the new email service
-        sendEmail(validRecipients, subject, "internal/daily-summary", templateVars)
+        sendEmail(validRecipients, subject, "internal/daily-summary", templateVars, EmailPriority.BULK)
             .whenComplete((result, ex) -> {
                 if (ex != null) {
                     logger.error("Failed to send daily summary to some recipients: {}", ex.getMessage(), ex);
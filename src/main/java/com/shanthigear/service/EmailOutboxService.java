@@ -0,0 +1,399 @@
+package com.shanthigear.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shanthigear.exception.EmailRateLimitedException;
+import com.shanthigear.model.EmailOutboxMessage;
+import com.shanthigear.repository.EmailOutboxRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Transactional outbox for vendor notifications.
+ * <p>
+ * {@link #enqueue} only inserts a row, so it joins the caller's transaction: the email is queued
+ * if and only if the payment change commits, and SMTP latency stays off the payment path. The
+ * row is inserted immediately rather than at flush, so a message key queued concurrently by
+ * another transaction is reported as already queued instead of rolling back the caller. The
+ * dispatcher polls for due rows, claims a batch with {@code FOR UPDATE SKIP LOCKED} so several
+ * instances can run side by side, sends the batch in parallel and records the outcomes in one
+ * transaction. Failed sends back off exponentially; after {@code max-attempts} the message is
+ * marked dead. A send refused by the recipient domain's rate limit is not a failed attempt: the
+ * message is rescheduled for when the limiter has a permit again.
+ * <p>
+ * Payment notifications can be queued as digest items with {@link #enqueueDigestItem}. An item
+ * is held for the digest window; when the oldest item of a digest falls due, the dispatcher
+ * claims every pending item with the same digest key and sends them as one email, with each
+ * item's {@value #DIGEST_ITEM_VARIABLE} variable collected into {@value #DIGEST_LIST_VARIABLE}.
+ * {@link #releaseDigests} sends held digests without waiting for the window, e.g. once a batch
+ * run is complete.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EmailOutboxService {
+    private static final TypeReference<Map<String, Object>> TEMPLATE_VARIABLES_TYPE = new TypeReference<>() {};
+    private static final long MAX_RETRY_DELAY_MS = 3_600_000L;
+    static final String DIGEST_ITEM_VARIABLE = "payment";
+    static final String DIGEST_LIST_VARIABLE = "payments";
+
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final EmailService emailService;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.email.outbox.enabled:true}")
+    private boolean dispatchEnabled;
+
+    @Value("${app.email.outbox.batch-size:50}")
+    private int batchSize;
+
+    @Value("${app.email.outbox.threads:4}")
+    private int dispatchThreads;
+
+    @Value("${app.email.outbox.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${app.email.outbox.retry-delay-ms:30000}")
+    private long retryDelayMs;
+
+    @Value("${app.email.outbox.claim-timeout-ms:300000}")
+    private long claimTimeoutMs;
+
+    @Value("${app.email.outbox.retention-days:7}")
+    private int retentionDays;
+
+    @Value("${app.email.digest.window-ms:120000}")
+    private long digestWindowMs;
+
+    private ExecutorService dispatchExecutor;
+
+    @PostConstruct
+    public void init() {
+        dispatchExecutor = Executors.newFixedThreadPool(dispatchThreads, new CustomizableThreadFactory("email-outbox-"));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Messages being sent stay claimed and are picked up again after the claim timeout
+        dispatchExecutor.shutdownNow();
+    }
+
+    /**
+     * Queues a templated email in the current transaction.
+     *
+     * @param messageKey optional key identifying the notification; if a message with the same
+     *                   key was already queued, nothing is queued
+     * @return true if the message was queued
+     */
+    @Transactional
+    public boolean enqueue(String to, String subject, String templateName,
+                           Map<String, Object> templateVars, String messageKey) {
+        return save(to, subject, templateName, templateVars, messageKey, null, null);
+    }
+
+    /**
+     * Queues an item of a digest in the current transaction. The item is held for the digest
+     * window and then sent together with the other pending items of the digest; the subject,
+     * template and variables of the oldest item are used for the email.
+     *
+     * @param templateVars variables of the email; the item's own entry goes under
+     *                     {@value #DIGEST_ITEM_VARIABLE}
+     * @param messageKey   optional key identifying the notification, as for {@link #enqueue}
+     * @param digestKey    key shared by the items to send together
+     * @return true if the item was queued
+     */
+    @Transactional
+    public boolean enqueueDigestItem(String to, String subject, String templateName,
+                                     Map<String, Object> templateVars, String messageKey, String digestKey) {
+        return save(to, subject, templateName, templateVars, messageKey, digestKey,
+                LocalDateTime.now().plus(Duration.ofMillis(digestWindowMs)));
+    }
+
+    /**
+     * Makes held digests due now instead of at the end of their window. Joins the caller's
+     * transaction, so a batch can release its digests when it commits.
+     *
+     * @return the number of items released
+     */
+    @Transactional
+    public int releaseDigests() {
+        int released = emailOutboxRepository.releaseHeldDigestItems(LocalDateTime.now());
+        log.debug("Released {} held digest items", released);
+        return released;
+    }
+
+    private boolean save(String to, String subject, String templateName, Map<String, Object> templateVars,
+                         String messageKey, String digestKey, LocalDateTime nextAttemptAt) {
+        if (messageKey != null && emailOutboxRepository.existsByMessageKey(messageKey)) {
+            log.debug("Email {} already queued, skipping", messageKey);
+            return false;
+        }
+
+        boolean inserted = emailOutboxRepository.insertIfAbsent(EmailOutboxMessage.builder()
+                .status(EmailOutboxMessage.Status.PENDING)
+                .recipient(to)
+                .subject(subject)
+                .templateName(templateName)
+                .templateVariables(toJson(templateVars))
+                .messageKey(messageKey)
+                .digestKey(digestKey)
+                .nextAttemptAt(nextAttemptAt)
+                .build());
+        if (!inserted) {
+            log.debug("Email {} queued concurrently, skipping", messageKey);
+            return false;
+        }
+        meterRegistry.counter("email.outbox.queued").increment();
+        return true;
+    }
+
+    /**
+     * Claims and sends due messages until none are left or a batch comes back short.
+     */
+    @Scheduled(fixedDelayString = "${app.email.outbox.poll-interval-ms:2000}")
+    public void dispatchDueMessages() {
+        if (!dispatchEnabled) {
+            return;
+        }
+        try {
+            List<EmailOutboxMessage> batch;
+            do {
+                batch = claimBatch();
+                if (!batch.isEmpty()) {
+                    recordOutcomes(sendBatch(batch));
+                }
+            } while (batch.size() >= batchSize && !Thread.currentThread().isInterrupted());
+        } catch (Exception e) {
+            log.error("Email outbox dispatch failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Deletes sent messages older than the retention period.
+     */
+    @Scheduled(cron = "${app.email.outbox.purge-cron:0 30 2 * * *}")
+    public void purgeSentMessages() {
+        Integer deleted = transactionTemplate.execute(status ->
+                emailOutboxRepository.deleteSentBefore(LocalDateTime.now().minusDays(retentionDays)));
+        log.info("Purged {} sent messages from the email outbox", deleted);
+    }
+
+    /**
+     * Moves a batch of due messages to {@code SENDING} in a short transaction of its own.
+     * Rows locked by another dispatcher are skipped, and rows claimed by one since they were
+     * selected are filtered out after locking. The pending items of any digest in the batch are
+     * claimed with it.
+     */
+    private List<EmailOutboxMessage> claimBatch() {
+        List<EmailOutboxMessage> claimed = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime claimedBefore = now.minus(Duration.ofMillis(claimTimeoutMs));
+            List<Long> dueIds = emailOutboxRepository.findDueIds(now, claimedBefore, PageRequest.of(0, batchSize));
+            if (dueIds.isEmpty()) {
+                return Collections.<EmailOutboxMessage>emptyList();
+            }
+
+            List<EmailOutboxMessage> messages = emailOutboxRepository.lockByIdIn(dueIds).stream()
+                    .filter(message -> isDue(message, now, claimedBefore))
+                    .collect(Collectors.toList());
+            Set<String> digestKeys = messages.stream()
+                    .map(EmailOutboxMessage::getDigestKey)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toSet());
+            if (!digestKeys.isEmpty()) {
+                Set<Long> claimedIds = messages.stream().map(EmailOutboxMessage::getId).collect(Collectors.toSet());
+                emailOutboxRepository.lockPendingByDigestKeyIn(digestKeys).stream()
+                        .filter(item -> claimedIds.add(item.getId()))
+                        .forEach(messages::add);
+            }
+            for (EmailOutboxMessage message : messages) {
+                message.setStatus(EmailOutboxMessage.Status.SENDING);
+                message.setClaimedAt(now);
+            }
+            return emailOutboxRepository.saveAll(messages);
+        });
+        return claimed != null ? claimed : Collections.emptyList();
+    }
+
+    private static boolean isDue(EmailOutboxMessage message, LocalDateTime now, LocalDateTime claimedBefore) {
+        return switch (message.getStatus()) {
+            case PENDING -> !message.getNextAttemptAt().isAfter(now);
+            case SENDING -> message.getClaimedAt() == null || message.getClaimedAt().isBefore(claimedBefore);
+            default -> false;
+        };
+    }
+
+    /**
+     * Sends the batch on the dispatch threads and waits for every message. The items of a
+     * digest are sent as one email and share its outcome.
+     *
+     * @return outcome of each send, by message id
+     */
+    private Map<Long, SendOutcome> sendBatch(List<EmailOutboxMessage> batch) {
+        Map<Object, List<EmailOutboxMessage>> emails = batch.stream()
+                .collect(Collectors.groupingBy(
+                        message -> message.getDigestKey() != null ? message.getDigestKey() : message.getId(),
+                        LinkedHashMap::new, Collectors.toList()));
+
+        Map<Long, SendOutcome> outcomes = new ConcurrentHashMap<>();
+        List<CompletableFuture<Void>> sends = emails.values().stream()
+                .map(messages -> CompletableFuture.runAsync(() -> {
+                    SendOutcome outcome = send(messages);
+                    messages.forEach(message -> outcomes.put(message.getId(), outcome));
+                }, dispatchExecutor))
+                .collect(Collectors.toList());
+        CompletableFuture.allOf(sends.toArray(new CompletableFuture<?>[0])).join();
+        return outcomes;
+    }
+
+    /**
+     * Sends one message, or the items of one digest as a single email.
+     */
+    private SendOutcome send(List<EmailOutboxMessage> messages) {
+        messages.sort(Comparator.comparing(EmailOutboxMessage::getCreatedAt, Comparator.nullsLast(Comparator.naturalOrder())));
+        EmailOutboxMessage first = messages.get(0);
+        try {
+            Map<String, Object> templateVars = readVariables(first);
+            if (first.getDigestKey() != null) {
+                templateVars = new HashMap<>(templateVars);
+                templateVars.remove(DIGEST_ITEM_VARIABLE);
+                List<Object> items = new ArrayList<>(messages.size());
+                for (EmailOutboxMessage message : messages) {
+                    Object item = readVariables(message).get(DIGEST_ITEM_VARIABLE);
+                    if (item != null) {
+                        items.add(item);
+                    }
+                }
+                templateVars.put(DIGEST_LIST_VARIABLE, items);
+                meterRegistry.summary("email.outbox.digest.items").record(messages.size());
+            }
+            emailService.sendTemplatedEmailNow(first.getRecipient(), first.getSubject(),
+                    first.getTemplateName(), templateVars);
+            return SendOutcome.SENT;
+        } catch (EmailRateLimitedException e) {
+            log.debug("Outbox message {} to {} throttled, retrying in {}", first.getId(), first.getRecipient(),
+                    e.getRetryAfter());
+            return SendOutcome.throttled(e.getRetryAfter());
+        } catch (Exception e) {
+            log.warn("Failed to send outbox message {} to {} ({} items, attempt {}): {}",
+                    first.getId(), first.getRecipient(), messages.size(), first.getAttempts() + 1, e.getMessage());
+            return SendOutcome.failed(e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+        }
+    }
+
+    private Map<String, Object> readVariables(EmailOutboxMessage message) throws JsonProcessingException {
+        return message.getTemplateVariables() != null
+                ? objectMapper.readValue(message.getTemplateVariables(), TEMPLATE_VARIABLES_TYPE)
+                : Collections.emptyMap();
+    }
+
+    /**
+     * Stores the result of each send in one transaction.
+     *
+     * @param outcomes outcome of each send, by message id
+     */
+    private void recordOutcomes(Map<Long, SendOutcome> outcomes) {
+        transactionTemplate.executeWithoutResult(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            Map<Long, EmailOutboxMessage> messages = emailOutboxRepository.findAllById(outcomes.keySet()).stream()
+                    .collect(Collectors.toMap(EmailOutboxMessage::getId, Function.identity()));
+
+            for (Map.Entry<Long, SendOutcome> entry : outcomes.entrySet()) {
+                EmailOutboxMessage message = messages.get(entry.getKey());
+                if (message == null) {
+                    continue;
+                }
+                SendOutcome outcome = entry.getValue();
+                message.setClaimedAt(null);
+
+                if (outcome.throttledFor() != null) {
+                    // Nothing was sent, so the attempt is not counted
+                    message.setStatus(EmailOutboxMessage.Status.PENDING);
+                    message.setNextAttemptAt(now.plus(outcome.throttledFor()));
+                    meterRegistry.counter("email.outbox.throttled").increment();
+                    continue;
+                }
+                message.setAttempts(message.getAttempts() + 1);
+
+                if (outcome.error() == null) {
+                    message.setStatus(EmailOutboxMessage.Status.SENT);
+                    message.setSentAt(now);
+                    message.setLastError(null);
+                    meterRegistry.counter("email.outbox.sent").increment();
+                } else if (message.getAttempts() >= maxAttempts) {
+                    message.setStatus(EmailOutboxMessage.Status.DEAD);
+                    message.setLastError(StringUtils.abbreviate(outcome.error(), 1000));
+                    meterRegistry.counter("email.outbox.dead").increment();
+                    log.error("Outbox message {} to {} is dead after {} attempts: {}",
+                            message.getId(), message.getRecipient(), message.getAttempts(), outcome.error());
+                } else {
+                    long delayMs = Math.min(retryDelayMs << Math.min(message.getAttempts() - 1, 20), MAX_RETRY_DELAY_MS);
+                    message.setStatus(EmailOutboxMessage.Status.PENDING);
+                    message.setNextAttemptAt(now.plus(Duration.ofMillis(delayMs)));
+                    message.setLastError(StringUtils.abbreviate(outcome.error(), 1000));
+                    meterRegistry.counter("email.outbox.retried").increment();
+                }
+            }
+            emailOutboxRepository.saveAll(messages.values());
+        });
+    }
+
+    /**
+     * Result of sending a message: sent, failed with an error, or refused by the rate limit
+     * before anything was sent.
+     */
+    private record SendOutcome(String error, Duration throttledFor) {
+        static final SendOutcome SENT = new SendOutcome(null, null);
+
+        static SendOutcome failed(String error) {
+            return new SendOutcome(error, null);
+        }
+
+        static SendOutcome throttled(Duration retryAfter) {
+            return new SendOutcome(null, retryAfter);
+        }
+    }
+
+    private String toJson(Map<String, Object> templateVars) {
+        if (templateVars == null || templateVars.isEmpty()) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(templateVars);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Template variables cannot be stored: " + e.getMessage(), e);
+        }
+    }
+}
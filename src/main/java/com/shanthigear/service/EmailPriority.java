@@ -0,0 +1,21 @@
+package com.shanthigear.service;
+
+/**
+ * Priority lane of an email send. Each lane runs on its own executor with its own share of
+ * threads and queue depth, so a long bulk run cannot delay failure alerts or confirmations.
+ */
+public enum EmailPriority {
+    /**
+     * Failure alerts, payment confirmations and other mails a user or vendor is waiting for.
+     */
+    TRANSACTIONAL,
+    /**
+     * One-off notifications such as overdue payment reminders.
+     */
+    NORMAL,
+    /**
+     * Reports, summaries and bulk runs. Also leaves part of every rate-limit period to the
+     * other lanes.
+     */
+    BULK
+}
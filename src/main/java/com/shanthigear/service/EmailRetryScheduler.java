@@ -0,0 +1,180 @@
+package com.shanthigear.service;
+
+import com.shanthigear.util.BackoffUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Retries email sends without holding a thread while waiting.
+ * <p>
+ * Each attempt runs on the email executor. An attempt that fails is parked on a single scheduler
+ * thread and handed back to the executor once its backoff has passed, so executor threads only
+ * ever render and send. Backoff is exponential with jitter. Each send has a budget of attempts,
+ * and a separate budget of waits for a rate-limit token or sending slot.
+ * <p>
+ * Attempts can be run on the executor of a priority lane instead of the default one. A lane
+ * whose queue is full rejects the attempt; it is then parked like a throttled attempt, so a
+ * full lane never blocks the caller or the scheduler thread.
+ */
+@Slf4j
+class EmailRetryScheduler {
+
+    /**
+     * Thrown by an attempt that could not get a rate-limit token or a sending slot. The attempt
+     * is repeated after a short wait and does not count against the send's attempts.
+     */
+    static class ThrottledException extends RuntimeException {
+        ThrottledException(String message) {
+            super(message, null, false, false);
+        }
+    }
+
+    @FunctionalInterface
+    interface Attempt<T> {
+        T call() throws Exception;
+    }
+
+    /**
+     * Retry budget of one send.
+     *
+     * @param maxAttempts       attempts in total, including the first
+     * @param baseDelay         backoff before the first retry; doubles with each retry
+     * @param maxDelay          upper bound of the backoff
+     * @param maxThrottledWaits waits for a token or slot before the send fails
+     */
+    record RetryPolicy(int maxAttempts, Duration baseDelay, Duration maxDelay, int maxThrottledWaits) {
+    }
+
+    private final Executor executor;
+    private final ScheduledExecutorService scheduler;
+    private final MeterRegistry meterRegistry;
+    private final Duration throttleDelay;
+
+    /**
+     * @param executor      runs the attempts
+     * @param throttleDelay wait before repeating a throttled attempt; doubles with each wait, up to
+     *                      the policy's maximum delay
+     */
+    EmailRetryScheduler(Executor executor, MeterRegistry meterRegistry, Duration throttleDelay) {
+        this.executor = executor;
+        this.meterRegistry = meterRegistry;
+        this.throttleDelay = throttleDelay;
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("email-retry-");
+        threadFactory.setDaemon(true);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(threadFactory);
+    }
+
+    /**
+     * Runs the attempt on the executor, retrying it within the policy's budget.
+     *
+     * @param operation name of the operation, used in logs and metrics
+     * @return future of the first successful result; completes exceptionally with the last
+     *         error once the budget is used up
+     */
+    <T> CompletableFuture<T> execute(String operation, Attempt<T> attempt, RetryPolicy policy) {
+        return execute(operation, attempt, policy, executor);
+    }
+
+    /**
+     * Runs the attempt on the given executor, retrying it within the policy's budget.
+     *
+     * @param operation    name of the operation, used in logs and metrics
+     * @param laneExecutor runs the attempts
+     * @return future of the first successful result; completes exceptionally with the last
+     *         error once the budget is used up
+     */
+    <T> CompletableFuture<T> execute(String operation, Attempt<T> attempt, RetryPolicy policy, Executor laneExecutor) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        new Execution<>(operation, attempt, policy, laneExecutor, result).submit();
+        return result;
+    }
+
+    /**
+     * Stops the scheduler; retries still waiting are dropped.
+     */
+    void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private final class Execution<T> implements Runnable {
+        private final String operation;
+        private final Attempt<T> attempt;
+        private final RetryPolicy policy;
+        private final Executor laneExecutor;
+        private final CompletableFuture<T> result;
+        private int attempts;
+        private int throttledWaits;
+
+        private Execution(String operation, Attempt<T> attempt, RetryPolicy policy, Executor laneExecutor,
+                          CompletableFuture<T> result) {
+            this.operation = operation;
+            this.attempt = attempt;
+            this.policy = policy;
+            this.laneExecutor = laneExecutor;
+            this.result = result;
+        }
+
+        @Override
+        public void run() {
+            if (result.isDone()) {
+                return;
+            }
+            try {
+                result.complete(attempt.call());
+            } catch (ThrottledException e) {
+                if (++throttledWaits > policy.maxThrottledWaits()) {
+                    giveUp(e);
+                    return;
+                }
+                meterRegistry.counter("email.retry", "operation", operation, "outcome", "throttled").increment();
+                park(BackoffUtils.jitteredBackoffMillis(throttleDelay, policy.maxDelay(), throttledWaits));
+            } catch (Exception e) {
+                if (++attempts >= policy.maxAttempts()) {
+                    giveUp(e);
+                    return;
+                }
+                long delay = BackoffUtils.jitteredBackoffMillis(policy.baseDelay(), policy.maxDelay(), attempts);
+                log.warn("{} failed (attempt {}/{}), retrying in {} ms: {}",
+                        operation, attempts, policy.maxAttempts(), delay, e.getMessage());
+                meterRegistry.counter("email.retry", "operation", operation, "outcome", "retried").increment();
+                park(delay);
+            }
+        }
+
+        private void submit() {
+            try {
+                laneExecutor.execute(this);
+            } catch (RejectedExecutionException e) {
+                // The lane's queue is full: wait like a throttled attempt rather than run here
+                if (scheduler.isShutdown() || ++throttledWaits > policy.maxThrottledWaits()) {
+                    giveUp(e);
+                    return;
+                }
+                meterRegistry.counter("email.retry", "operation", operation, "outcome", "lane_full").increment();
+                park(BackoffUtils.jitteredBackoffMillis(throttleDelay, policy.maxDelay(), throttledWaits));
+            }
+        }
+
+        private void park(long delayMs) {
+            try {
+                scheduler.schedule(this::submit, delayMs, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                result.completeExceptionally(e);
+            }
+        }
+
+        private void giveUp(Exception e) {
+            meterRegistry.counter("email.retry", "operation", operation, "outcome", "exhausted").increment();
+            result.completeExceptionally(e);
+        }
+    }
+}
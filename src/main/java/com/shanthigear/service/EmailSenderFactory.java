@@ -5,22 +5,32 @@ import com.github.benmanes.caffeine.cache.Caffeine;
 import com.github.benmanes.caffeine.cache.RemovalCause;
 import com.shanthigear.config.EmailConfig;
 import com.shanthigear.config.EmailSenderConfigurator;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Tags;
 import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Component;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToDoubleFunction;
 import java.util.stream.Collectors;
 
 /**
  * Factory for creating and caching JavaMailSender instances based on email domains.
+ * Senders created with SMTP pooling enabled keep their connections open; the factory
+ * evicts idle connections, closes a sender's pool when it leaves the cache and publishes
+ * per-domain pool gauges.
  */
 @Component
 public class EmailSenderFactory {
@@ -40,6 +50,7 @@ public class EmailSenderFactory {
     private final MeterRegistry meterRegistry;
     private final AtomicInteger activeSenders = new AtomicInteger(0);
     private final Timer cacheLoadTimer;
+    private final Map<String, List<Meter.Id>> poolGauges = new ConcurrentHashMap<>();
     
     public EmailSenderFactory(EmailConfig emailConfig, 
                             EmailSenderConfigurator configurator,
@@ -67,8 +78,14 @@ public class EmailSenderFactory {
             .refreshAfterWrite(CACHE_REFRESH_AFTER_WRITE_MINUTES, TimeUnit.MINUTES)
             .recordStats()
             .removalListener((String key, JavaMailSender sender, RemovalCause cause) -> {
+                if (sender instanceof PooledMailSender pooled) {
+                    pooled.close();
+                }
                 if (key != null && !key.equals("default")) {
                     activeSenders.decrementAndGet();
+                    if (cause != RemovalCause.REPLACED) {
+                        removePoolGauges(key);
+                    }
                     logger.debug("Removed mail sender from cache: {} (cause: {})", key, cause);
                 }
             })
@@ -77,6 +94,9 @@ public class EmailSenderFactory {
         // Initialize with default mail sender
         this.mailSenders.put("default", configurator.createMailSender(""));
         activeSenders.incrementAndGet();
+        if (this.mailSenders.getIfPresent("default") instanceof PooledMailSender) {
+            registerPoolGauges("default");
+        }
         
         // Setup metrics
         this.cacheLoadTimer = Timer.builder("email.sender.cache.load.time")
@@ -162,6 +182,9 @@ public class EmailSenderFactory {
             JavaMailSender sender = configurator.createMailSender(domain);
             activeSenders.incrementAndGet();
             meterRegistry.counter("email.sender.created", "domain", domain).increment();
+            if (sender instanceof PooledMailSender) {
+                registerPoolGauges(domain);
+            }
             return sender;
         } catch (Exception e) {
             logger.error("Failed to create mail sender for domain: " + domain, e);
@@ -169,6 +192,68 @@ public class EmailSenderFactory {
         }
     }
     
+    /**
+     * Close pooled SMTP connections that have been idle for longer than the pool's idle timeout.
+     * @return The number of connections closed
+     */
+    public int evictIdleConnections() {
+        int evicted = 0;
+        for (JavaMailSender sender : mailSenders.asMap().values()) {
+            if (sender instanceof PooledMailSender pooled) {
+                evicted += pooled.evictIdle();
+            }
+        }
+        if (evicted > 0) {
+            logger.debug("Closed {} idle SMTP connections", evicted);
+        }
+        return evicted;
+    }
+    
+    /**
+     * Close the pooled SMTP connections of all cached senders.
+     */
+    @PreDestroy
+    public void shutdown() {
+        for (JavaMailSender sender : mailSenders.asMap().values()) {
+            if (sender instanceof PooledMailSender pooled) {
+                pooled.close();
+            }
+        }
+    }
+    
+    private void registerPoolGauges(String domain) {
+        poolGauges.computeIfAbsent(domain, key -> List.of(
+            poolGauge("email.smtp.pool.idle", "Idle pooled SMTP connections", key,
+                PooledMailSender::getIdleConnections),
+            poolGauge("email.smtp.pool.active", "Pooled SMTP connections in use", key,
+                PooledMailSender::getActiveConnections),
+            poolGauge("email.smtp.pool.messages.per.connection", "Messages sent per SMTP connection opened", key,
+                pooled -> pooled.getConnectionsOpened() == 0 ? 0
+                    : (double) pooled.getMessagesSent() / pooled.getConnectionsOpened())));
+    }
+    
+    private Meter.Id poolGauge(String name, String description, String domain,
+                               ToDoubleFunction<PooledMailSender> value) {
+        // Looked up on each read so the gauge follows the sender across cache refreshes
+        return Gauge.builder(name, mailSenders, cache ->
+                cache.asMap().get(domain) instanceof PooledMailSender pooled ? value.applyAsDouble(pooled) : 0)
+            .description(description)
+            .tag("domain", domain)
+            .register(meterRegistry)
+            .getId();
+    }
+    
+    private void removePoolGauges(String domain) {
+        // The domain may already have been loaded again
+        if (mailSenders.asMap().containsKey(domain)) {
+            return;
+        }
+        List<Meter.Id> ids = poolGauges.remove(domain);
+        if (ids != null) {
+            ids.forEach(meterRegistry::remove);
+        }
+    }
+    
     /**
      * Clear the mail sender cache, keeping only the default sender.
      * @return The number of senders that were removed
@@ -1,27 +1,34 @@
 package com.shanthigear.service;
 
 import com.shanthigear.config.EmailConfig;
+import com.shanthigear.exception.EmailRateLimitedException;
 import com.shanthigear.model.VendorPayment;
 import com.shanthigear.model.EmailSendingResult;
-import io.github.resilience4j.ratelimiter.RateLimiter;
-import io.github.resilience4j.ratelimiter.RateLimiterConfig;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
-import org.thymeleaf.TemplateEngine;
-import org.thymeleaf.context.Context;
 
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.Address;
+import jakarta.mail.Message;
 import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Session;
+import jakarta.mail.internet.InternetAddress;
 import jakarta.mail.internet.MimeMessage;
 
 import java.math.BigDecimal;
 import java.time.Duration;
+import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.stream.Collectors;
@@ -59,53 +66,43 @@ public class EmailService {
     private static final int MAX_CONCURRENT_EMAILS = 100;
     private static final int RATE_LIMIT_RETRY_DELAY_MS = 100;
     private static final int MAX_RATE_LIMIT_RETRIES = 10;
-    private final RateLimiter rateLimiter;
+    private static final DateTimeFormatter INVOICE_DATE_FORMAT = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+    private final EmailDomainRateLimiter domainRateLimiter;
     
     private final EmailSenderFactory emailSenderFactory;
-    private final TemplateEngine templateEngine;
+    private final EmailTemplateRenderer templateRenderer;
     private final EmailConfig emailConfig;
     // Kept for potential future use
     @SuppressWarnings("unused")
     private final EmailDomainService emailDomainService;
     private final MeterRegistry meterRegistry;
-    private final Executor emailExecutor;
+    private final Map<EmailPriority, Executor> laneExecutors;
     private final Timer emailSendTimer;
     // Kept for potential future use
     @SuppressWarnings("unused")
     private final Timer batchProcessTimer;
     private final Semaphore concurrentEmailSemaphore;
+    private final EmailRetryScheduler retryScheduler;
 
-    public EmailService(EmailSenderFactory emailSenderFactory, 
-                      TemplateEngine templateEngine,
-                      EmailConfig emailConfig,
-                      EmailDomainService emailDomainService,
-                      MeterRegistry meterRegistry) {
-        this(emailSenderFactory, templateEngine, emailConfig, emailDomainService, 
-             meterRegistry, createDefaultRateLimiter());
-    }
-    
-    EmailService(EmailSenderFactory emailSenderFactory,
-                         TemplateEngine templateEngine,
+    public EmailService(EmailSenderFactory emailSenderFactory,
+                         EmailTemplateRenderer templateRenderer,
                          EmailConfig emailConfig,
                          EmailDomainService emailDomainService,
                          MeterRegistry meterRegistry,
-                         RateLimiter rateLimiter) {
+                         EmailDomainRateLimiter domainRateLimiter,
+                         @Qualifier("emailSendExecutor") Executor emailExecutor,
+                         @Qualifier("emailTransactionalExecutor") Executor transactionalExecutor,
+                         @Qualifier("emailBulkExecutor") Executor bulkExecutor) {
         this.emailSenderFactory = emailSenderFactory;
-        this.templateEngine = templateEngine;
+        this.templateRenderer = templateRenderer;
         this.emailConfig = emailConfig;
         this.emailDomainService = emailDomainService;
         this.meterRegistry = meterRegistry;
-        this.rateLimiter = rateLimiter;
-        
-        // Configure executor for email sending
-        int corePoolSize = Runtime.getRuntime().availableProcessors() * 2;
-        this.emailExecutor = new ThreadPoolExecutor(
-            corePoolSize,
-            corePoolSize * 2,
-            60L, TimeUnit.SECONDS,
-            new LinkedBlockingQueue<>(1000),
-            new ThreadPoolExecutor.CallerRunsPolicy()
-        );
+        this.domainRateLimiter = domainRateLimiter;
+        this.laneExecutors = new EnumMap<>(EmailPriority.class);
+        this.laneExecutors.put(EmailPriority.TRANSACTIONAL, transactionalExecutor);
+        this.laneExecutors.put(EmailPriority.NORMAL, emailExecutor);
+        this.laneExecutors.put(EmailPriority.BULK, bulkExecutor);
         
         // Setup metrics
         this.emailSendTimer = Timer.builder("email.send.time")
@@ -119,15 +116,8 @@ public class EmailService {
             .register(meterRegistry);
             
         this.concurrentEmailSemaphore = new Semaphore(MAX_CONCURRENT_EMAILS, true);
-    }
-
-    private static RateLimiter createDefaultRateLimiter() {
-        RateLimiterConfig config = RateLimiterConfig.custom()
-            .limitRefreshPeriod(Duration.ofSeconds(1))
-            .limitForPeriod(100)
-            .timeoutDuration(Duration.ofMillis(100))
-            .build();
-        return RateLimiter.of("emailRateLimiter", config);
+        this.retryScheduler = new EmailRetryScheduler(emailExecutor, meterRegistry, 
+            Duration.ofMillis(RATE_LIMIT_RETRY_DELAY_MS));
     }
 
     @PostConstruct
@@ -137,7 +127,28 @@ public class EmailService {
             s -> (double) (MAX_CONCURRENT_EMAILS - s.concurrentEmailSemaphore.availablePermits()));
             
         meterRegistry.gauge("email.rate.limit.available", this, 
-            s -> (double) s.rateLimiter.getMetrics().getAvailablePermissions());
+            s -> (double) s.domainRateLimiter.getGlobalAvailablePermissions());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        retryScheduler.shutdown();
+    }
+
+    /**
+     * Retry budget for sends that are retried on failure.
+     */
+    private EmailRetryScheduler.RetryPolicy sendRetryPolicy() {
+        return new EmailRetryScheduler.RetryPolicy(getMaxRetries(), Duration.ofMillis(getRetryDelayMs()), 
+            Duration.ofMillis(MAX_RETRY_DELAY_MS), MAX_RATE_LIMIT_RETRIES);
+    }
+
+    /**
+     * Budget for sends that are attempted once but may wait for a rate-limit token or slot.
+     */
+    private EmailRetryScheduler.RetryPolicy singleAttemptPolicy() {
+        return new EmailRetryScheduler.RetryPolicy(1, Duration.ofMillis(getRetryDelayMs()), 
+            Duration.ofMillis(MAX_RETRY_DELAY_MS), MAX_RATE_LIMIT_RETRIES);
     }
 
     /**
@@ -163,7 +174,6 @@ public class EmailService {
      * @param payment The payment details
      * @return CompletableFuture that completes when the email is sent
      */
-    @Async
     public CompletableFuture<EmailSendingResult> sendEmail(VendorPayment payment) {
         if (payment == null) {
             return CompletableFuture.completedFuture(
@@ -176,44 +186,7 @@ public class EmailService {
                 new EmailSendingResult(false, "Vendor email is missing for payment: " + payment.getId()));
         }
         
-        // Extract domain for rate limiting
-        String domain = email.substring(email.indexOf('@') + 1);
-        
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                // Acquire semaphore to limit concurrency
-                if (!concurrentEmailSemaphore.tryAcquire(30, TimeUnit.SECONDS)) {
-                    return new EmailSendingResult(false, "Timeout waiting for email sending slot");
-                }
-                
-                try {
-                    // Apply rate limiting with retry
-                    int retryCount = 0;
-                    while (retryCount < MAX_RATE_LIMIT_RETRIES) {
-                        if (tryAcquireToken(domain)) {
-                            // Successfully got tokens, proceed with sending
-                            return sendEmailWithRetry(email, payment);
-                        }
-                        
-                        // Wait before retrying
-                        Thread.sleep(RATE_LIMIT_RETRY_DELAY_MS);
-                        retryCount++;
-                    }
-                    
-                    return new EmailSendingResult(false, "Rate limit exceeded after " + MAX_RATE_LIMIT_RETRIES + " retries");
-                    
-                } finally {
-                    concurrentEmailSemaphore.release();
-                }
-                
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                return new EmailSendingResult(false, "Email sending was interrupted: " + e.getMessage());
-            } catch (Exception e) {
-                logger.error("Unexpected error sending email for payment: " + payment.getId(), e);
-                return new EmailSendingResult(false, "Unexpected error: " + e.getMessage());
-            }
-        }, emailExecutor);
+        return sendEmailWithRetry(email, payment);
     }
     
     /**
@@ -245,17 +218,17 @@ public class EmailService {
     }
 
     /**
-     * Process a Thymeleaf template with the given context.
+     * Render a Thymeleaf template with the given variables.
      * @param templateName The name of the template (without extension)
-     * @param context The template context
+     * @param variables The template variables
      * @return The processed template as a string
      */
-    private String processTemplate(String templateName, Context context) {
+    private String processTemplate(String templateName, Map<String, Object> variables) {
         try {
-            // Add .html suffix if not present and not already a full path
+            // Names are kept without the suffix so they match the preloaded templates
             String templatePath = templateName.endsWith(".html") ? 
-                templateName : templateName + ".html";
-            return templateEngine.process(templatePath, context);
+                templateName.substring(0, templateName.length() - ".html".length()) : templateName;
+            return templateRenderer.render(templatePath, variables);
         } catch (Exception e) {
             logger.error("Error processing template {}: {}", templateName, e.getMessage(), e);
             throw new RuntimeException("Failed to process template: " + templateName, e);
@@ -263,12 +236,18 @@ public class EmailService {
     }
     
     /**
-     * Send a bulk email for multiple payments.
+     * Send a payment notification to each vendor email domain in the list.
+     * <p>
+     * Payments are grouped by recipient domain and the groups are rendered and sent
+     * concurrently on the {@link EmailPriority#BULK} lane, each within the concurrency and rate limits.
+     * A domain that fails is reported in its result and does not stop the others.
+     *
      * @param payments List of payments to include in the email
+     * @return future of one result per domain, completing when every domain has been attempted
      * @throws IllegalArgumentException if payments is null or empty
+     * @throws IllegalStateException if no payment has a vendor email
      */
-    @Async
-    public void sendBulkEmail(List<VendorPayment> payments) {
+    public CompletableFuture<List<EmailSendingResult>> sendBulkEmail(List<VendorPayment> payments) {
         if (payments == null || payments.isEmpty()) {
             throw new IllegalArgumentException("Payments list cannot be null or empty");
         }
@@ -288,121 +267,149 @@ public class EmailService {
             throw new IllegalStateException("No valid vendor emails found in the payments list");
         }
         
-        // Process each domain group
-        for (Map.Entry<String, List<VendorPayment>> entry : paymentsByDomain.entrySet()) {
-            String domain = entry.getKey();
-            List<VendorPayment> domainPayments = entry.getValue();
-            VendorPayment firstPayment = domainPayments.get(0);
-            String to = firstPayment.getVendorEmail();
+        logger.info("Dispatching payment notifications for {} payments to {} domains", 
+                   payments.size(), paymentsByDomain.size());
+        
+        List<CompletableFuture<EmailSendingResult>> domainFutures = paymentsByDomain.entrySet().stream()
+            .map(entry -> retryScheduler
+                .execute("payment-notification", 
+                    () -> sendDomainNotification(entry.getKey(), entry.getValue()), singleAttemptPolicy(),
+                    laneExecutors.get(EmailPriority.BULK))
+                .exceptionally(e -> domainFailure(entry.getKey(), entry.getValue(), e)))
+            .collect(Collectors.toList());
+        
+        return CompletableFuture.allOf(domainFutures.toArray(new CompletableFuture<?>[0]))
+            .thenApply(done -> {
+                List<EmailSendingResult> results = domainFutures.stream()
+                    .map(CompletableFuture::join)
+                    .collect(Collectors.toList());
+                long failed = results.stream().filter(result -> !result.isSuccess()).count();
+                logger.info("Payment notifications completed: {} domains sent, {} failed", 
+                           results.size() - failed, failed);
+                return results;
+            });
+    }
+    
+    /**
+     * Renders and sends the notification for one domain's payments. Throws
+     * {@link EmailRetryScheduler.ThrottledException} when no concurrency slot or rate-limit
+     * token is free, so the retry scheduler can try again later.
+     */
+    private EmailSendingResult sendDomainNotification(String domain, List<VendorPayment> domainPayments) 
+            throws MessagingException {
+        VendorPayment firstPayment = domainPayments.get(0);
+        String to = firstPayment.getVendorEmail();
+        
+        if (!concurrentEmailSemaphore.tryAcquire()) {
+            throw new EmailRetryScheduler.ThrottledException("No email sending slot available");
+        }
+        
+        try {
+            if (!tryAcquireToken(domain, EmailPriority.BULK)) {
+                throw new EmailRetryScheduler.ThrottledException("Rate limit exceeded for domain: " + domain);
+            }
             
-            try {
-                logger.debug("Preparing to send email to: {} (domain: {})", to, domain);
-                logger.debug("Number of payments for domain {}: {}", domain, domainPayments.size());
-                
-                // Get the appropriate mail sender for this domain
-                JavaMailSender mailSender = emailSenderFactory.getMailSender(to);
-                MimeMessage message = mailSender.createMimeMessage();
-                MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-                
-                // Set email properties
-                helper.setTo(to);
-                String subject = "SGL Payment Notification - " + firstPayment.getVendorName();
-                helper.setSubject(subject);
-                
-                // Set from address from configuration
-                String fromEmail = emailConfig.getDefaultConfig().getFrom();
-                String fromName = emailConfig.getDefaultConfig().getFromName();
-                if (fromName != null && !fromName.isEmpty()) {
-                    helper.setFrom(String.format("%s <%s>", fromName, fromEmail));
-                } else {
-                    helper.setFrom(fromEmail);
-                }
-                
-                // Calculate total amount for this domain's payments
-                BigDecimal totalAmount = domainPayments.stream()
-                    .map(VendorPayment::getAmount)
-                    .filter(Objects::nonNull)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-                    
-                logger.debug("Total amount calculated for domain {}: {}", domain, totalAmount);
-                
-                // Prepare the evaluation context
-                Context context = new Context();
-                logger.debug("Setting template variables for domain: {}", domain);
-                
-                // Add payments and basic info
-                context.setVariable("payments", domainPayments);
-                context.setVariable("totalAmount", totalAmount);
-                context.setVariable("payment", firstPayment);
-                context.setVariable("vendor", firstPayment.getVendorName());
-                
-                // Add current date for the template
-                context.setVariable("currentDate", new java.util.Date());
-                
-                // Add sample payment data for the template
-                context.setVariable("paymentDate", new java.util.Date());
-                context.setVariable("referenceNumber", "PMT" + 
-                    new java.text.SimpleDateFormat("yyMMdd").format(new java.util.Date()) + 
-                    "REF");
-                    
-                // Add bank details
-                context.setVariable("bankName", "State Bank of India");
-                context.setVariable("branchName", "Industrial Finance Branch");
-                context.setVariable("accountNumber", "1234567890123");
-                context.setVariable("ifscCode", "SBIN0001234");
-                context.setVariable("accountType", "Current");
-                
-                // Add contact information
-                context.setVariable("companyName", "Shanthi Gears Limited");
-                context.setVariable("companyPhone", "+91 44 1234 5678");
-                context.setVariable("companyEmail", "accounts@shanthigears.com");
-                
-                try {
-                    logger.debug("Processing email template for domain: {}", domain);
-                    logger.debug("Template variables for domain {}: {}", domain, context.getVariableNames().stream()
-                        .map(name -> name + "=" + context.getVariable(name))
-                        .collect(Collectors.joining(", ")));
-                    
-                    // Process the template
-                    String templateName = "payment-notification";
-                    String htmlContent = processTemplate(templateName, context);
-                    logger.debug("Template processed successfully for domain: {}", domain);
-                    
-                    // Log the email content for testing
-                    if (logger.isDebugEnabled()) {
-                        logger.debug("=== EMAIL CONTENT FOR {} ===\n{}", domain, htmlContent);
-                        logger.debug("=== END EMAIL CONTENT ===");
-                    }
-                    
-                    helper.setText(htmlContent, true);
-                    
-                    // Send the email
-                    logger.debug("Sending email to domain: {}", domain);
-                    mailSender.send(message);
-                    logger.info("Email sent successfully to {} with {} payments (domain: {})", 
-                              to, domainPayments.size(), domain);
-                    
-                } catch (Exception e) {
-                    logger.error("Error processing email template for domain {}: {}", domain, e.getMessage(), e);
-                    throw new RuntimeException("Failed to process email template for domain: " + domain, e);
-                }
+            logger.debug("Preparing to send email to: {} (domain: {})", to, domain);
+            logger.debug("Number of payments for domain {}: {}", domain, domainPayments.size());
+            
+            // Get the appropriate mail sender for this domain
+            JavaMailSender mailSender = emailSenderFactory.getMailSender(to);
+            MimeMessage message = mailSender.createMimeMessage();
+            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+            
+            // Set email properties
+            helper.setTo(to);
+            String subject = "SGL Payment Notification - " + firstPayment.getVendorName();
+            helper.setSubject(subject);
+            
+            // Set from address from configuration
+            String fromEmail = emailConfig.getDefaultConfig().getFrom();
+            String fromName = emailConfig.getDefaultConfig().getFromName();
+            if (fromName != null && !fromName.isEmpty()) {
+                helper.setFrom(String.format("%s <%s>", fromName, fromEmail));
+            } else {
+                helper.setFrom(fromEmail);
+            }
+            
+            // Calculate total amount for this domain's payments
+            BigDecimal totalAmount = domainPayments.stream()
+                .map(VendorPayment::getAmount)
+                .filter(Objects::nonNull)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
                 
-            } catch (MessagingException e) {
-                String errorMsg = String.format("Failed to send email to %s (domain: %s): %s", 
-                    to, domain, e.getMessage());
-                logger.error(errorMsg, e);
-                throw new RuntimeException(errorMsg, e);
-            } catch (Exception e) {
-                String errorMsg = String.format("Error processing email for domain %s: %s", 
-                    domain, e.getMessage());
-                logger.error(errorMsg, e);
-                throw new RuntimeException(errorMsg, e);
+            logger.debug("Total amount calculated for domain {}: {}", domain, totalAmount);
+            
+            // Prepare the per-recipient variables; company and bank details come from the renderer
+            Map<String, Object> variables = new HashMap<>();
+            
+            // Add payments and basic info
+            variables.put("payments", domainPayments.stream()
+                .map(EmailService::notificationItem)
+                .collect(Collectors.toList()));
+            variables.put("totalAmount", totalAmount);
+            variables.put("payment", firstPayment);
+            variables.put("vendor", firstPayment.getVendorName());
+            
+            // Add current date for the template
+            variables.put("currentDate", new java.util.Date());
+            
+            // Add sample payment data for the template
+            variables.put("paymentDate", new java.util.Date());
+            variables.put("referenceNumber", "PMT" + 
+                new java.text.SimpleDateFormat("yyMMdd").format(new java.util.Date()) + 
+                "REF");
+            
+            // Process the template
+            String htmlContent = processTemplate("payment-notification", variables);
+            
+            // Log the email content for testing
+            if (logger.isDebugEnabled()) {
+                logger.debug("=== EMAIL CONTENT FOR {} ===\n{}", domain, htmlContent);
+                logger.debug("=== END EMAIL CONTENT ===");
             }
+            
+            helper.setText(htmlContent, true);
+            
+            // Send the email
+            Timer.Sample sample = Timer.start(meterRegistry);
+            mailSender.send(message);
+            sample.stop(emailSendTimer);
+            meterRegistry.counter("email.bulk.domain", "status", "success").increment();
+            logger.info("Email sent successfully to {} with {} payments (domain: {})", 
+                      to, domainPayments.size(), domain);
+            
+            return new EmailSendingResult(true, 
+                String.format("Sent %d payments to domain %s", domainPayments.size(), domain), null, to);
+            
+        } finally {
+            concurrentEmailSemaphore.release();
         }
     }
+    
+    private EmailSendingResult domainFailure(String domain, List<VendorPayment> domainPayments, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        String to = domainPayments.get(0).getVendorEmail();
+        logger.error("Failed to send email to {} (domain: {}): {}", to, domain, cause.getMessage(), cause);
+        meterRegistry.counter("email.bulk.domain", "status", "failure").increment();
+        return new EmailSendingResult(false, 
+            String.format("Failed to send %d payments to domain %s", domainPayments.size(), domain), 
+            cause.getMessage(), to);
+    }
+    
+    private EmailSendingResult domainFailure(String domain, List<VendorPayment> domainPayments, String reason) {
+        String to = domainPayments.get(0).getVendorEmail();
+        logger.warn("Failed to send email to {} (domain: {}): {}", to, domain, reason);
+        meterRegistry.counter("email.bulk.domain", "status", "failure").increment();
+        return new EmailSendingResult(false, 
+            String.format("Failed to send %d payments to domain %s", domainPayments.size(), domain), 
+            reason, to);
+    }
 
     /**
      * Sends an email with the given subject and template.
+     * <p>
+     * Failed sends are retried with jittered exponential backoff; waits for a rate-limit token
+     * and retries are parked on the retry scheduler rather than sleeping on an email thread.
      *
      * @param to Recipient email address
      * @param subject Email subject
@@ -410,8 +417,22 @@ public class EmailService {
      * @param templateVars Template variables
      * @return CompletableFuture that completes when the email is sent
      */
-    @Async
     public CompletableFuture<Void> sendEmail(String to, String subject, String templateName, Map<String, Object> templateVars) {
+        return sendEmail(to, subject, templateName, templateVars, EmailPriority.NORMAL);
+    }
+    
+    /**
+     * Sends an email with the given subject and template on the given priority lane.
+     *
+     * @param to Recipient email address
+     * @param subject Email subject
+     * @param templateName Name of the template (without extension)
+     * @param templateVars Template variables
+     * @param priority Lane to render and send the email on
+     * @return CompletableFuture that completes when the email is sent
+     */
+    public CompletableFuture<Void> sendEmail(String to, String subject, String templateName, 
+                                           Map<String, Object> templateVars, EmailPriority priority) {
         if (to == null || to.trim().isEmpty()) {
             logger.warn("Cannot send email - no recipient specified");
             return CompletableFuture.completedFuture(null);
@@ -420,118 +441,73 @@ public class EmailService {
         // Extract domain for rate limiting
         String domain = to.contains("@") ? to.substring(to.indexOf('@') + 1) : "default";
         
-        return CompletableFuture.runAsync(() -> {
-            int retryCount = 0;
-            boolean sent = false;
-            Exception lastError = null;
+        return retryScheduler.<Void>execute("templated-email", () -> {
+            if (!tryAcquireToken(domain, priority)) {
+                logger.debug("Rate limit exceeded for domain: {}", domain);
+                throw new EmailRetryScheduler.ThrottledException("Rate limit exceeded for domain: " + domain);
+            }
             
-            while (retryCount < getMaxRetries() && !sent) {
-                try {
-                    // Try to acquire a token from rate limiter
-                    logger.debug("Attempting to acquire rate limiter token (attempt {}/{})", 
-                        retryCount + 1, getMaxRetries());
-                        
-                    if (!tryAcquireToken(domain)) {
-                        meterRegistry.counter("email.rate_limit.exceeded").increment();
-                        logger.warn("Rate limit exceeded for domain: {} (attempt {}/{})", 
-                            domain, retryCount + 1, getMaxRetries());
-                        
-                        if (retryCount < MAX_RATE_LIMIT_RETRIES - 1) {
-                            logger.debug("Retrying after delay (attempt {}/{})", 
-                                retryCount + 1, getMaxRetries());
-                            Thread.sleep(RATE_LIMIT_RETRY_DELAY_MS);
-                            retryCount++;
-                            continue;
-                        } else {
-                            String errorMsg = "Rate limit exceeded after " + MAX_RATE_LIMIT_RETRIES + " retries";
-                            logger.error(errorMsg);
-                            throw new RuntimeException(errorMsg);
-                        }
-                    }
-                    
-                    // Process the template
-                    String emailContent;
-                    try {
-                        Context context = new Context();
-                        // Add default template variables
-                        context.setVariable("currentYear", java.time.Year.now().getValue());
-                        context.setVariable("companyName", emailConfig.getDefaultConfig().getFromName());
-                        
-                        // Add provided template variables if any
-                        if (templateVars != null) {
-                            templateVars.forEach(context::setVariable);
-                        }
-                        
-                        // Process template - don't add .html suffix as it's already handled in the template engine
-                        emailContent = processTemplate(templateName, context);
-                    } catch (Exception e) {
-                        meterRegistry.counter("email.error", "type", "template_processing").increment();
-                        logger.error("Error processing email template: {}", e.getMessage(), e);
-                        throw new RuntimeException("Failed to process email template", e);
-                    }
-                    
-                    // Get the appropriate mail sender for the domain
-                    JavaMailSender mailSender = emailSenderFactory.getMailSender(domain);
-                    MimeMessage message = mailSender.createMimeMessage();
-                    MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-                    
-                    // Set email properties
-                    helper.setTo(to);
-                    helper.setSubject(subject);
-                    
-                    // Set from address from configuration
-                    String fromEmail = emailConfig.getDefaultConfig().getFrom();
-                    String fromName = emailConfig.getDefaultConfig().getFromName();
-                    if (fromName != null && !fromName.isEmpty()) {
-                        helper.setFrom(String.format("%s <%s>", fromName, fromEmail));
-                    } else {
-                        helper.setFrom(fromEmail);
-                    }
-                    
-                    // Set email content
-                    helper.setText(emailContent, true);
-                    
-                    // Record metrics for the email send operation
-                    Timer.Sample timer = Timer.start(meterRegistry);
-                    try {
-                        mailSender.send(message);
-                        timer.stop(meterRegistry.timer("email.send.time", "status", "success"));
-                        meterRegistry.counter("email.sent", "status", "success").increment();
-                        sent = true;
-                        logger.info("Email sent successfully to {}", to);
-                    } catch (Exception e) {
-                        timer.stop(meterRegistry.timer("email.send.time", "status", "error"));
-                        meterRegistry.counter("email.sent", "status", "error").increment();
-                        throw e; // Let the outer catch handle the retry logic
-                    }
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    throw new RuntimeException("Email sending was interrupted", e);
-                } catch (Exception e) {
-                    lastError = e;
-                    if (retryCount < getMaxRetries() - 1) {
-                        long delay = getRetryDelayMs() * (long) Math.pow(2, retryCount);
-                        try {
-                            logger.warn("Failed to send email (attempt {}/{}), retrying in {} ms: {}", 
-                                retryCount + 1, getMaxRetries(), delay, e.getMessage());
-                            Thread.sleep(delay);
-                        } catch (InterruptedException ie) {
-                            Thread.currentThread().interrupt();
-                            throw new RuntimeException("Email sending was interrupted", ie);
-                        }
-                    }
-                    retryCount++;
+            // Process the template
+            String emailContent;
+            try {
+                Map<String, Object> variables = new HashMap<>();
+                // Add default template variables
+                variables.put("currentYear", java.time.Year.now().getValue());
+                variables.put("companyName", emailConfig.getDefaultConfig().getFromName());
+                
+                // Add provided template variables if any
+                if (templateVars != null) {
+                    variables.putAll(templateVars);
                 }
+                
+                // Process template - don't add .html suffix as it's already handled in the template engine
+                emailContent = processTemplate(templateName, variables);
+            } catch (Exception e) {
+                meterRegistry.counter("email.error", "type", "template_processing").increment();
+                logger.error("Error processing email template: {}", e.getMessage(), e);
+                throw new RuntimeException("Failed to process email template", e);
             }
             
-            if (!sent && lastError != null) {
-                meterRegistry.counter("email.error", "type", "send_failed").increment();
-                logger.error("Failed to send email to {} after {} attempts: {}", 
-                            to, getMaxRetries(), lastError.getMessage(), lastError);
-                throw new RuntimeException("Failed to send email after " + getMaxRetries() + " attempts", lastError);
+            // Get the appropriate mail sender for the domain
+            JavaMailSender mailSender = emailSenderFactory.getMailSender(domain);
+            MimeMessage message = mailSender.createMimeMessage();
+            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+            
+            // Set email properties
+            helper.setTo(to);
+            helper.setSubject(subject);
+            
+            // Set from address from configuration
+            String fromEmail = emailConfig.getDefaultConfig().getFrom();
+            String fromName = emailConfig.getDefaultConfig().getFromName();
+            if (fromName != null && !fromName.isEmpty()) {
+                helper.setFrom(String.format("%s <%s>", fromName, fromEmail));
+            } else {
+                helper.setFrom(fromEmail);
             }
             
-        }, emailExecutor);
+            // Set email content
+            helper.setText(emailContent, true);
+            
+            // Record metrics for the email send operation
+            Timer.Sample timer = Timer.start(meterRegistry);
+            try {
+                mailSender.send(message);
+                timer.stop(meterRegistry.timer("email.send.time", "status", "success"));
+                meterRegistry.counter("email.sent", "status", "success").increment();
+                logger.info("Email sent successfully to {}", to);
+                return null;
+            } catch (Exception e) {
+                timer.stop(meterRegistry.timer("email.send.time", "status", "error"));
+                meterRegistry.counter("email.sent", "status", "error").increment();
+                throw e;
+            }
+        }, sendRetryPolicy(), laneExecutors.get(priority)).whenComplete((result, error) -> {
+            if (error != null) {
+                meterRegistry.counter("email.error", "type", "send_failed").increment();
+                logger.error("Failed to send email to {} after retries: {}", to, error.getMessage(), error);
+            }
+        });
     }
     
     public CompletableFuture<Void> sendBulkEmail(List<String> toList, String subject, 
@@ -539,20 +515,41 @@ public class EmailService {
         return sendBulkEmail(toList, subject, templateName, templateVars, DEFAULT_BATCH_SIZE);
     }
     
+    public CompletableFuture<Void> sendBulkEmail(List<String> toList, String subject, 
+                                               String templateName, Map<String, Object> templateVars,
+                                               EmailPriority priority) {
+        return sendBulkEmail(toList, subject, templateName, templateVars, DEFAULT_BATCH_SIZE, priority);
+    }
+    
+    public CompletableFuture<Void> sendBulkEmail(List<String> toList, String subject, 
+                                               String templateName, Map<String, Object> templateVars,
+                                               int batchSize) {
+        return sendBulkEmail(toList, subject, templateName, templateVars, batchSize, EmailPriority.BULK);
+    }
+    
     /**
-     * Sends emails in batches with rate limiting and retry logic.
+     * Sends the same email to many recipients in batches, with rate limiting and retry logic.
+     * <p>
+     * The template is rendered and the message MIME-encoded once; each recipient gets a copy
+     * that shares the encoded body and only differs in its recipient headers. When
+     * {@code app.email.bulk.bcc-chunk-size} is set, the recipients of a domain are sent one
+     * message per chunk, in BCC.
+     * <p>
+     * The messages of a batch are sent concurrently and the next batch starts when the previous
+     * one has completed, so at most {@code batchSize} sends are in flight for this call.
      * 
      * @param toList List of recipient email addresses
      * @param subject Email subject
      * @param templateName Name of the email template
-     * @param templateVars Template variables
-     * @param batchSize Number of emails to process in each batch
-     * @return CompletableFuture that completes when all emails are sent
+     * @param templateVars Template variables, the same for every recipient
+     * @param batchSize Number of messages to send in each batch
+     * @param priority Lane to send the emails on; {@link EmailPriority#BULK} unless given
+     * @return CompletableFuture that completes when all emails are sent; completes
+     *         exceptionally only if the message cannot be rendered
      */
-    @Async
     public CompletableFuture<Void> sendBulkEmail(List<String> toList, String subject, 
                                                String templateName, Map<String, Object> templateVars,
-                                               int batchSize) {
+                                               int batchSize, EmailPriority priority) {
         if (toList == null || toList.isEmpty()) {
             logger.warn("No recipient email addresses provided");
             return CompletableFuture.completedFuture(null);
@@ -571,141 +568,271 @@ public class EmailService {
             return CompletableFuture.completedFuture(null);
         }
 
-        logger.info("Sending bulk email to {} recipients with subject: {}", uniqueEmails.size(), subject);
+        PreparedMessage prepared;
+        try {
+            prepared = prepareBulkMessage(subject, templateName, templateVars);
+        } catch (Exception e) {
+            meterRegistry.counter("email.error", "type", "template_processing").increment();
+            logger.error("Error preparing bulk email {}: {}", templateName, e.getMessage(), e);
+            return CompletableFuture.failedFuture(e);
+        }
+
+        int bccChunkSize = emailConfig.getBulk().getBccChunkSize();
+        List<List<String>> deliveries = bccChunkSize > 1
+            ? bccChunks(uniqueEmails, bccChunkSize)
+            : uniqueEmails.stream().map(List::of).collect(Collectors.toList());
+        boolean bcc = bccChunkSize > 1;
+
+        logger.info("Sending bulk email to {} recipients in {} messages of {} bytes with subject: {}", 
+            uniqueEmails.size(), deliveries.size(), prepared.size(), subject);
         meterRegistry.counter("email.bulk.send.attempt", "total", String.valueOf(uniqueEmails.size())).increment();
 
-        // Process emails in batches
-        List<CompletableFuture<Void>> batchFutures = new ArrayList<>();
-        for (int i = 0; i < uniqueEmails.size(); i += batchSize) {
+        // Chain the batches; each one starts once the previous batch has completed
+        CompletableFuture<Void> chain = CompletableFuture.completedFuture(null);
+        for (int i = 0; i < deliveries.size(); i += batchSize) {
             final int start = i;
-            int end = Math.min(i + batchSize, uniqueEmails.size());
-            List<String> batch = uniqueEmails.subList(start, end);
-            
-            // Create a future for this batch
-            CompletableFuture<Void> batchFuture = CompletableFuture.runAsync(() -> {
-                logger.debug("Processing batch {}-{} of {}", start, end - 1, uniqueEmails.size());
-                batch.forEach(email -> {
-                    try {
-                        // Apply rate limiting with timeout
-                        if (!tryAcquireToken("")) {
-                            logger.warn("Global rate limit exceeded for email sending");
-                            Thread.sleep(1000); // Wait before retry
-                            if (!tryAcquireToken("")) {
-                                throw new RuntimeException("Global rate limit exceeded after retry");
-                            }
-                        }
-                        
-                        // Apply domain-specific rate limiting
-                        String domain = email.substring(email.indexOf('@') + 1);
-                        if (!tryAcquireToken(domain)) {
-                            logger.warn("Rate limit exceeded for domain: {}", domain);
-                            Thread.sleep(1000); // Wait before retry
-                            if (!tryAcquireToken(domain)) {
-                                throw new RuntimeException("Rate limit exceeded for domain after retry: " + domain);
-                            }
-                        }
-                        
-                        // Send email with retry
-                        withRetry(() -> {
-                            Timer.Sample sample = Timer.start();
-                            try {
-                                sendEmail(email, subject, templateName, new HashMap<>(templateVars));
-                                meterRegistry.counter("email.send.success", "domain", domain).increment();
-                                return null;
-                            } finally {
-                                sample.stop(emailSendTimer);
-                            }
-                        }, MAX_RETRIES, RETRY_DELAY_MS);
-                    } catch (Exception e) {
-                        logger.error("Failed to send email to {} after {} retries: {}", 
-                                   email, MAX_RETRIES, e.getMessage());
-                        meterRegistry.counter("email.send.failure", "domain", 
-                            email.contains("@") ? email.substring(email.indexOf('@') + 1) : "unknown")
-                            .increment();
-                    }
-                });
-            }, emailExecutor);
+            int end = Math.min(i + batchSize, deliveries.size());
+            List<List<String>> batch = deliveries.subList(start, end);
             
-            batchFutures.add(batchFuture);
-            
-            // Add a small delay between batches to avoid overwhelming the system
-            if (i + batchSize < uniqueEmails.size()) {
+            chain = chain.thenCompose(previous -> {
+                logger.debug("Processing batch {}-{} of {}", start, end - 1, deliveries.size());
+                CompletableFuture<?>[] sends = batch.stream()
+                    .map(recipients -> sendBulkMessage(prepared, recipients, bcc, priority))
+                    .toArray(CompletableFuture<?>[]::new);
+                return CompletableFuture.allOf(sends);
+            });
+        }
+
+        return chain.whenComplete((result, ex) -> {
+            if (ex != null) {
+                logger.error("Error in batch email processing: {}", ex.getMessage(), ex);
+            } else {
+                logger.info("Completed sending emails to {} recipients", uniqueEmails.size());
+            }
+        });
+    }
+    
+    /**
+     * Renders a bulk email and encodes it without recipients.
+     */
+    private PreparedMessage prepareBulkMessage(String subject, String templateName, 
+                                               Map<String, Object> templateVars) throws MessagingException {
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("currentYear", java.time.Year.now().getValue());
+        variables.put("companyName", emailConfig.getDefaultConfig().getFromName());
+        if (templateVars != null) {
+            variables.putAll(templateVars);
+        }
+        String emailContent = processTemplate(templateName, variables);
+        
+        MimeMessage message = new MimeMessage((Session) null);
+        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+        helper.setSubject(subject);
+        String fromEmail = emailConfig.getDefaultConfig().getFrom();
+        String fromName = emailConfig.getDefaultConfig().getFromName();
+        if (fromName != null && !fromName.isEmpty()) {
+            helper.setFrom(String.format("%s <%s>", fromName, fromEmail));
+        } else {
+            helper.setFrom(fromEmail);
+        }
+        helper.setText(emailContent, true);
+        return PreparedMessage.of(message);
+    }
+    
+    /**
+     * Splits recipients into chunks of at most {@code chunkSize}, each within one domain, as every
+     * domain is sent through its own sender and rate limit.
+     */
+    private static List<List<String>> bccChunks(List<String> emails, int chunkSize) {
+        Map<String, List<String>> byDomain = emails.stream()
+            .collect(Collectors.groupingBy(EmailService::domainOf, LinkedHashMap::new, Collectors.toList()));
+        List<List<String>> chunks = new ArrayList<>();
+        for (List<String> domainEmails : byDomain.values()) {
+            for (int i = 0; i < domainEmails.size(); i += chunkSize) {
+                chunks.add(domainEmails.subList(i, Math.min(i + chunkSize, domainEmails.size())));
+            }
+        }
+        return chunks;
+    }
+    
+    private static String domainOf(String email) {
+        return email.contains("@") ? email.substring(email.indexOf('@') + 1).toLowerCase() : "default";
+    }
+    
+    /**
+     * Sends one message of a bulk send, to one recipient or to a BCC chunk of one domain.
+     * Failures are counted and logged, never propagated, so one message cannot stop the rest
+     * of the batch.
+     * <p>
+     * Each attempt takes a concurrency slot and a rate-limit token without waiting. When the
+     * server accepts some recipients and rejects others, only the valid recipients it did not
+     * send to are retried; those it already sent to would otherwise get the message twice, and
+     * invalid addresses would fail again.
+     */
+    private CompletableFuture<Void> sendBulkMessage(PreparedMessage prepared, List<String> recipients, 
+                                                  boolean bcc, EmailPriority priority) {
+        String domain = domainOf(recipients.get(0));
+        Timer.Sample sample = Timer.start();
+        // Recipients still to send to, and those the server rejected as invalid
+        List<String> unsent = new ArrayList<>(recipients);
+        List<String> invalid = new ArrayList<>();
+        return retryScheduler.<Void>execute("bulk-email", () -> {
+            if (!concurrentEmailSemaphore.tryAcquire()) {
+                throw new EmailRetryScheduler.ThrottledException("No email sending slot available");
+            }
+            try {
+                if (!tryAcquireToken(domain, priority)) {
+                    logger.debug("Rate limit exceeded for domain: {}", domain);
+                    throw new EmailRetryScheduler.ThrottledException("Rate limit exceeded for domain: " + domain);
+                }
+                
+                JavaMailSender mailSender = emailSenderFactory.getMailSender(domain);
+                Session session = mailSender instanceof JavaMailSenderImpl impl ? impl.getSession() : null;
+                Address[] addresses = new Address[unsent.size()];
+                for (int i = 0; i < addresses.length; i++) {
+                    addresses[i] = new InternetAddress(unsent.get(i));
+                }
+                MimeMessage message = prepared.copyFor(session, 
+                    bcc ? Message.RecipientType.BCC : Message.RecipientType.TO, addresses);
+                
+                Timer.Sample timer = Timer.start(meterRegistry);
                 try {
-                    Thread.sleep(100);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    logger.warn("Batch processing was interrupted");
-                    break;
+                    mailSender.send(message);
+                    timer.stop(meterRegistry.timer("email.send.time", "status", "success"));
+                    meterRegistry.counter("email.sent", "status", "success").increment();
+                    unsent.clear();
+                    return null;
+                } catch (Exception e) {
+                    timer.stop(meterRegistry.timer("email.send.time", "status", "error"));
+                    meterRegistry.counter("email.sent", "status", "error").increment();
+                    SendFailedException failure = sendFailure(e);
+                    if (failure != null && (failure.getValidSentAddresses() != null 
+                            || failure.getInvalidAddresses() != null)) {
+                        invalid.addAll(addressesOf(failure.getInvalidAddresses()));
+                        unsent.retainAll(addressesOf(failure.getValidUnsentAddresses()));
+                        if (unsent.isEmpty()) {
+                            return null;
+                        }
+                        logger.warn("Sent bulk email to some recipients in {}; retrying {} of {}", 
+                                   domain, unsent.size(), recipients.size());
+                    }
+                    throw e;
+                }
+            } finally {
+                concurrentEmailSemaphore.release();
+            }
+        }, sendRetryPolicy(), laneExecutors.get(priority))
+            .handle((result, ex) -> {
+                sample.stop(emailSendTimer);
+                int failed = invalid.size() + (ex != null ? unsent.size() : 0);
+                if (!invalid.isEmpty()) {
+                    logger.error("Email rejected for invalid recipients {}", invalid);
+                }
+                if (ex != null) {
+                    logger.error("Failed to send email to {} after {} attempts: {}", 
+                               unsent, getMaxRetries(), ex.getMessage());
+                }
+                if (failed > 0) {
+                    meterRegistry.counter("email.send.failure", "domain", domain).increment(failed);
+                }
+                if (failed < recipients.size()) {
+                    meterRegistry.counter("email.send.success", "domain", domain).increment(recipients.size() - failed);
+                }
+                return null;
+            });
+    }
+    
+    /**
+     * Finds the {@link SendFailedException} behind a failed send; {@link JavaMailSenderImpl}
+     * reports it inside a {@link MailSendException}.
+     */
+    private static SendFailedException sendFailure(Throwable e) {
+        if (e instanceof MailSendException mailSendException) {
+            for (Exception failure : mailSendException.getFailedMessages().values()) {
+                if (failure instanceof SendFailedException sendFailed) {
+                    return sendFailed;
                 }
             }
         }
-
-        // Return a future that completes when all batches are done
-        return CompletableFuture.allOf(batchFutures.toArray(new CompletableFuture<?>[0]))
-                .whenComplete((result, ex) -> {
-                    if (ex != null) {
-                        logger.error("Error in batch email processing: {}", ex.getMessage(), ex);
-                    } else {
-                        logger.info("Completed sending {} emails to {} recipients", 
-                                   uniqueEmails.size(), 
-                                   uniqueEmails.stream().distinct().count());
-                    }
-                });
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SendFailedException sendFailed) {
+                return sendFailed;
+            }
+        }
+        return null;
+    }
+    
+    private static List<String> addressesOf(Address[] addresses) {
+        if (addresses == null) {
+            return Collections.emptyList();
+        }
+        return Arrays.stream(addresses)
+            .map(address -> address instanceof InternetAddress internet ? internet.getAddress() : address.toString())
+            .toList();
     }
     
     /**
-     * Sends an email with retry logic.
+     * Sends a payment confirmation with retry logic, on the {@link EmailPriority#TRANSACTIONAL} lane.
+     * <p>
+     * Each attempt takes a concurrency slot and a rate-limit token without waiting; when either
+     * is unavailable, or the send fails, the attempt is parked on the retry scheduler.
      * @param email The recipient email
      * @param payment The payment details
-     * @return The result of the email sending operation
+     * @return future of the result of the email sending operation; never completes exceptionally
      */
-    private EmailSendingResult sendEmailWithRetry(String email, VendorPayment payment) {
-        int attempt = 0;
-        Exception lastError = null;
+    private CompletableFuture<EmailSendingResult> sendEmailWithRetry(String email, VendorPayment payment) {
+        String domain = email.substring(email.indexOf('@') + 1);
         
-        while (attempt < MAX_RETRIES) {
+        return retryScheduler.execute("payment-confirmation", () -> {
+            if (!concurrentEmailSemaphore.tryAcquire()) {
+                throw new EmailRetryScheduler.ThrottledException("No email sending slot available");
+            }
             try {
+                if (!tryAcquireToken(domain, EmailPriority.TRANSACTIONAL)) {
+                    throw new EmailRetryScheduler.ThrottledException("Rate limit exceeded for domain: " + domain);
+                }
+                
                 // Record metrics for each attempt
                 meterRegistry.counter("email.send.attempt", "status", "started").increment();
-                
-                // Send the email and return the result
                 EmailSendingResult result = sendEmailInternal(email, payment);
-                if (result.isSuccess()) {
-                    meterRegistry.counter("email.send.attempt", "status", "success").increment();
-                    return result;
-                }
-                
-                // If we got here, there was an error
-                lastError = new RuntimeException(result.getMessage());
-                
+                meterRegistry.counter("email.send.attempt", "status", "success").increment();
+                return result;
+            } catch (EmailRetryScheduler.ThrottledException e) {
+                throw e;
             } catch (Exception e) {
-                lastError = e;
-                logger.warn("Attempt {} failed to send email to {}: {}", 
-                    attempt + 1, email, e.getMessage());
+                logger.warn("Attempt failed to send email to {}: {}", email, e.getMessage());
+                meterRegistry.counter("email.send.attempt", "status", "retry").increment();
+                throw e;
+            } finally {
+                concurrentEmailSemaphore.release();
             }
+        }, sendRetryPolicy(), laneExecutors.get(EmailPriority.TRANSACTIONAL)).exceptionally(error -> {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null 
+                ? error.getCause() : error;
+            String errorMsg = cause instanceof EmailRetryScheduler.ThrottledException
+                ? "Rate limit exceeded after " + MAX_RATE_LIMIT_RETRIES + " retries"
+                : String.format("Failed to send email to %s after %d attempts: %s", 
+                    email, getMaxRetries(), cause.getMessage());
             
-            // Wait before retry
-            if (attempt < MAX_RETRIES - 1) {
-                try {
-                    Thread.sleep(RETRY_DELAY_MS * (attempt + 1)); // Exponential backoff
-                } catch (InterruptedException ie) {
-                    Thread.currentThread().interrupt();
-                    return new EmailSendingResult(false, "Email sending was interrupted");
-                }
-            }
+            meterRegistry.counter("email.send.attempt", "status", "failed").increment();
+            logger.error(errorMsg, cause);
             
-            attempt++;
-            meterRegistry.counter("email.send.attempt", "status", "retry").increment();
-        }
-        
-        // If we get here, all retries failed
-        String errorMsg = String.format("Failed to send email to %s after %d attempts: %s", 
-            email, MAX_RETRIES, lastError != null ? lastError.getMessage() : "Unknown error");
-        
-        meterRegistry.counter("email.send.attempt", "status", "failed").increment();
-        logger.error(errorMsg, lastError);
-        
-        return new EmailSendingResult(false, errorMsg);
+            return new EmailSendingResult(false, errorMsg);
+        });
+    }
+    
+    /**
+     * One payment as listed in the {@code payments} table of the payment-notification template.
+     * Holds plain values only, so the entry reads the same after being stored in the email outbox.
+     */
+    static Map<String, Object> notificationItem(VendorPayment payment) {
+        Map<String, Object> item = new HashMap<>();
+        item.put("paymentReference", payment.getPaymentReference());
+        item.put("referenceNumber", payment.getReferenceNumber());
+        item.put("invoiceNumber", payment.getInvoiceNumber() != null ? payment.getInvoiceNumber() : "N/A");
+        item.put("invoiceDate", payment.getInvoiceDate() != null ? payment.getInvoiceDate().format(INVOICE_DATE_FORMAT) : null);
+        item.put("amount", payment.getAmount() != null ? payment.getAmount() : BigDecimal.ZERO);
+        return item;
     }
     
     /**
@@ -739,9 +866,7 @@ public class EmailService {
                 variables.put("vendor", payment.getVendor());
                 
                 // Process the email template
-                Context context = new Context();
-                context.setVariables(variables);
-                String content = templateEngine.process("email/payment-confirmation", context);
+                String content = templateRenderer.render("email/payment-confirmation", variables);
                     
                 helper.setText(content, true);
                 
@@ -757,68 +882,15 @@ public class EmailService {
     }
 
     /**
-     * Helper method to execute an operation with retry logic.
-     */
-    private <T> T withRetry(Callable<T> operation, int maxRetries, long delayMs) throws Exception {
-        int attempts = 0;
-        Exception lastException;
-        long currentDelay = delayMs;
-        
-        while (true) {
-            try {
-                return operation.call();
-            } catch (Exception e) {
-                lastException = e;
-                attempts++;
-                
-                // Check if this is a rate limit error
-                boolean isRateLimit = e.getMessage() != null && e.getMessage().contains("Rate limit");
-                
-                if (isRateLimit) {
-                    logger.warn("Rate limit exceeded (attempt {}/{}): {}", attempts, maxRetries, e.getMessage());
-                } else {
-                    logger.warn("Operation failed (attempt {}/{}): {}", attempts, maxRetries, e.getMessage());
-                }
-                
-                if (attempts > maxRetries) {
-                    break;
-                }
-                
-                try {
-                    logger.warn("Retrying in {}ms...", currentDelay);
-                    Thread.sleep(currentDelay);
-                    // Exponential backoff with a maximum delay
-                    currentDelay = Math.min(currentDelay * 2, MAX_RETRY_DELAY_MS);
-                } catch (InterruptedException ie) {
-                    Thread.currentThread().interrupt();
-                    String errorMsg = isRateLimit ? 
-                        "Operation was interrupted during rate limit wait" : 
-                        "Operation was interrupted during retry wait";
-                    throw new RuntimeException(errorMsg, ie);
-                }
-            }
-        }
-        
-        throw lastException;
-    }
-    
-
-    @FunctionalInterface
-    private interface Callable<T> {
-        T call() throws Exception;
-    }
-    
-    /**
-     * Attempts to acquire a token from the rate limiter with retry logic.
+     * Attempts to acquire a token from the recipient domain's rate limiter and the global one.
      * 
-     * @param domain The email domain for rate limiting (not used in this implementation)
+     * @param domain The recipient email domain
+     * @param priority Lane of the send; bulk sends leave a reserve of tokens to the other lanes
      * @return true if a token was acquired, false otherwise
      */
-    private boolean tryAcquireToken(String domain) {
-        // Use the rate limiter to check if we can send an email
+    private boolean tryAcquireToken(String domain, EmailPriority priority) {
         try {
-            // Always use the rate limiter if it's available
-            boolean allowed = rateLimiter.acquirePermission();
+            boolean allowed = domainRateLimiter.tryAcquire(domain, priority);
             if (allowed) {
                 meterRegistry.counter("email.rate_limit.allowed").increment();
             } else {
@@ -828,19 +900,67 @@ public class EmailService {
         } catch (Exception e) {
             logger.warn("Rate limiter error: {}", e.getMessage());
             meterRegistry.counter("email.rate_limit.exceeded").increment();
-            
-            // Add some jitter to prevent thundering herd
-            try {
-                Thread.sleep((long) (Math.random() * 100)); // Add up to 100ms jitter
-            } catch (InterruptedException ie) {
-                Thread.currentThread().interrupt();
-                return false;
-            }
-            
             return false;
         }
     }
 
+    /**
+     * Renders and sends one templated email on the calling thread, with a single attempt.
+     * Callers that keep their own retry state, such as the email outbox, use this instead of
+     * the asynchronous variants.
+     *
+     * @param to Recipient email address
+     * @param subject Email subject
+     * @param templateName Name of the template (without extension)
+     * @param templateVars Template variables
+     * @throws EmailRateLimitedException if the recipient's domain is over its rate limit; nothing
+     *                                    was sent
+     * @throws MessagingException if the message cannot be built or sent
+     */
+    public void sendTemplatedEmailNow(String to, String subject, String templateName, 
+                                      Map<String, Object> templateVars) throws MessagingException {
+        String domain = to.contains("@") ? to.substring(to.indexOf('@') + 1) : "default";
+        // Outbox messages are queued by payment transactions, so they are sent as transactional
+        if (!tryAcquireToken(domain, EmailPriority.TRANSACTIONAL)) {
+            throw new EmailRateLimitedException("Rate limit exceeded for domain: " + domain,
+                    domainRateLimiter.timeUntilPermit(domain));
+        }
+        
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("currentYear", java.time.Year.now().getValue());
+        variables.put("companyName", emailConfig.getDefaultConfig().getFromName());
+        if (templateVars != null) {
+            variables.putAll(templateVars);
+        }
+        String emailContent = processTemplate(templateName, variables);
+        
+        JavaMailSender mailSender = emailSenderFactory.getMailSender(domain);
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+        helper.setTo(to);
+        helper.setSubject(subject);
+        
+        String fromEmail = emailConfig.getDefaultConfig().getFrom();
+        String fromName = emailConfig.getDefaultConfig().getFromName();
+        if (fromName != null && !fromName.isEmpty()) {
+            helper.setFrom(String.format("%s <%s>", fromName, fromEmail));
+        } else {
+            helper.setFrom(fromEmail);
+        }
+        helper.setText(emailContent, true);
+        
+        Timer.Sample timer = Timer.start(meterRegistry);
+        try {
+            mailSender.send(message);
+            timer.stop(meterRegistry.timer("email.send.time", "status", "success"));
+            meterRegistry.counter("email.sent", "status", "success").increment();
+        } catch (RuntimeException e) {
+            timer.stop(meterRegistry.timer("email.send.time", "status", "error"));
+            meterRegistry.counter("email.sent", "status", "error").increment();
+            throw e;
+        }
+    }
+
     /**
      * Sends a simple email with the given subject and content.
      * 
@@ -848,7 +968,8 @@ public class EmailService {
      * @param subject Email subject
      * @param content Email content (HTML)
      */
-    @Async
+    // On the send pool rather than emailTaskExecutor, which may run on virtual threads
+    @Async("emailSendExecutor")
     public void sendSimpleEmail(String to, String subject, String content) {
         try {
             // Extract domain for rate limiting
@@ -0,0 +1,208 @@
+package com.shanthigear.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Renders email templates with the parsed templates and static blocks cached.
+ * <p>
+ * Templates under {@code templates/emails}, {@code templates/email-templates} and
+ * {@code email-templates} are parsed at startup, so the template engine's cache is warm before
+ * the first send. Blocks that only depend on company details, such as the company's bank
+ * details and contact block, are declared as fragments of {@value #STATIC_BLOCKS_TEMPLATE} and
+ * rendered once per locale; templates insert them with
+ * {@code th:utext="${staticBlocks.get('bank-details')}"} and only evaluate the per-recipient
+ * variables themselves.
+ * <p>
+ * The company details are also available to every template as variables, below those passed
+ * by the caller.
+ */
+@Slf4j
+@Component
+public class EmailTemplateRenderer {
+
+    static final String STATIC_BLOCKS_TEMPLATE = "fragments/static-blocks";
+
+    private static final String[] PRELOAD_LOCATIONS = {
+        "templates/emails/", "templates/email-templates/", "email-templates/"
+    };
+
+    private final TemplateEngine templateEngine;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Object> sharedVariables;
+    private final boolean cacheEnabled;
+    private final LoadingCache<FragmentKey, String> fragments;
+
+    record FragmentKey(String template, String fragment, Locale locale) {
+    }
+
+    @Autowired
+    public EmailTemplateRenderer(TemplateEngine templateEngine,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${app.email.template.cache:true}") boolean cacheEnabled,
+                                 @Value("${app.company.name:Shanthi Gears Limited}") String companyName,
+                                 @Value("${app.company.email:accounts@shanthigears.com}") String companyEmail,
+                                 @Value("${app.company.phone:+91 44 1234 5678}") String companyPhone,
+                                 @Value("${app.company.bank.name:State Bank of India}") String bankName,
+                                 @Value("${app.company.bank.branch:Industrial Finance Branch}") String branchName,
+                                 @Value("${app.company.bank.account-number:1234567890123}") String accountNumber,
+                                 @Value("${app.company.bank.ifsc-code:SBIN0001234}") String ifscCode,
+                                 @Value("${app.company.bank.account-type:Current}") String accountType) {
+        this(templateEngine, meterRegistry, companyVariables(companyName, companyEmail, companyPhone,
+            bankName, branchName, accountNumber, ifscCode, accountType), cacheEnabled);
+    }
+
+    EmailTemplateRenderer(TemplateEngine templateEngine, MeterRegistry meterRegistry,
+                          Map<String, Object> sharedVariables, boolean cacheEnabled) {
+        this.templateEngine = templateEngine;
+        this.meterRegistry = meterRegistry;
+        this.sharedVariables = Map.copyOf(sharedVariables);
+        this.cacheEnabled = cacheEnabled;
+        this.fragments = Caffeine.newBuilder()
+            .maximumSize(256)
+            .recordStats()
+            .build(this::renderFragment);
+
+        CaffeineCacheMetrics.monitor(meterRegistry, fragments, "email.template.fragments");
+    }
+
+    /**
+     * Render a template in the default locale.
+     * @param templateName The name of the template (without extension)
+     * @param variables The template variables
+     * @return The rendered template
+     */
+    public String render(String templateName, Map<String, ?> variables) {
+        return render(templateName, variables, Locale.getDefault());
+    }
+
+    /**
+     * Render a template.
+     * @param templateName The name of the template (without extension)
+     * @param variables The template variables
+     * @param locale The locale to render in
+     * @return The rendered template
+     */
+    public String render(String templateName, Map<String, ?> variables, Locale locale) {
+        Context context = new Context(locale, sharedVariables);
+        if (variables != null) {
+            variables.forEach(context::setVariable);
+        }
+        context.setVariable("staticBlocks", new StaticBlocks(locale));
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            return templateEngine.process(templateName, context);
+        } finally {
+            sample.stop(meterRegistry.timer("email.template.render", "template", templateName));
+        }
+    }
+
+    /**
+     * Parse the email templates into the template engine's cache. A template that cannot be
+     * rendered without its variables is still parsed and cached.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void preloadTemplates() {
+        if (!cacheEnabled) {
+            return;
+        }
+        PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+        int preloaded = 0;
+        for (String location : PRELOAD_LOCATIONS) {
+            Resource[] resources;
+            try {
+                resources = resolver.getResources("classpath*:" + location + "**/*.html");
+            } catch (IOException e) {
+                log.warn("Could not list email templates in {}: {}", location, e.getMessage());
+                continue;
+            }
+            for (Resource resource : resources) {
+                String templateName = templateName(resource, location);
+                if (templateName == null) {
+                    continue;
+                }
+                try {
+                    render(templateName, Map.of());
+                } catch (Exception e) {
+                    log.debug("Email template {} parsed but not rendered without variables: {}",
+                        templateName, e.getMessage());
+                }
+                preloaded++;
+            }
+        }
+        log.info("Preloaded {} email templates", preloaded);
+    }
+
+    private String renderFragment(FragmentKey key) {
+        Context context = new Context(key.locale(), sharedVariables);
+        return templateEngine.process(key.template(), Set.of(key.fragment()), context);
+    }
+
+    private static String templateName(Resource resource, String location) {
+        try {
+            String url = resource.getURL().toString();
+            int start = url.lastIndexOf("/" + location);
+            if (start < 0 || !url.endsWith(".html")) {
+                return null;
+            }
+            return url.substring(start + location.length() + 1, url.length() - ".html".length());
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static Map<String, Object> companyVariables(String companyName, String companyEmail, String companyPhone,
+                                                        String bankName, String branchName, String accountNumber,
+                                                        String ifscCode, String accountType) {
+        Map<String, Object> variables = new LinkedHashMap<>();
+        variables.put("companyName", companyName);
+        variables.put("companyEmail", companyEmail);
+        variables.put("companyPhone", companyPhone);
+        variables.put("bankName", bankName);
+        variables.put("branchName", branchName);
+        variables.put("accountNumber", accountNumber);
+        variables.put("ifscCode", ifscCode);
+        variables.put("accountType", accountType);
+        return variables;
+    }
+
+    /**
+     * The static blocks of one render, exposed to templates as {@code staticBlocks}.
+     */
+    public final class StaticBlocks {
+        private final Locale locale;
+
+        private StaticBlocks(Locale locale) {
+            this.locale = locale;
+        }
+
+        /**
+         * @param block The name of a fragment of {@value EmailTemplateRenderer#STATIC_BLOCKS_TEMPLATE}
+         * @return The rendered fragment
+         */
+        public String get(String block) {
+            FragmentKey key = new FragmentKey(STATIC_BLOCKS_TEMPLATE, block, locale);
+            return cacheEnabled ? fragments.get(key) : renderFragment(key);
+        }
+    }
+}
@@ -6,11 +6,17 @@ import com.shanthigear.model.Vendor;
 import com.shanthigear.model.VendorPayment;
 import com.shanthigear.repository.VendorPaymentRepository;
 import com.shanthigear.repository.VendorRepository;
+import com.shanthigear.util.MappedTextReader;
+import com.shanthigear.util.PaymentCellFormatter;
+import com.shanthigear.util.StreamingExcelReader;
 import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import lombok.*;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
 import org.springframework.scheduling.annotation.Async;
@@ -31,7 +37,6 @@ import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Service for processing Excel files containing vendor payment details.
@@ -45,14 +50,28 @@ public class ExcelProcessingService {
     private final VendorRepository vendorRepository;
     private final VendorPaymentRepository vendorPaymentRepository;
     private final EmailService emailService;
-    private final Map<String, Vendor> vendorCache = new ConcurrentHashMap<>();
+    private final VendorCache vendorCache;
+
+    @Value("${app.excel.streaming.threshold-bytes:1048576}")
+    private long streamingThresholdBytes;
+
+    @Value("${app.import.fixed-width.payments:}")
+    private String fixedWidthColumns;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int flushBatchSize;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     public ExcelProcessingService(VendorRepository vendorRepository,
                                 VendorPaymentRepository vendorPaymentRepository,
-                                EmailService emailService) {
+                                EmailService emailService,
+                                VendorCache vendorCache) {
         this.vendorRepository = vendorRepository;
         this.vendorPaymentRepository = vendorPaymentRepository;
         this.emailService = emailService;
+        this.vendorCache = vendorCache;
         this.uploadDir = System.getProperty("user.home") + "/.vendor-payments/uploads";
         this.paymentReferencePrefix = "PAY";
     }
@@ -68,6 +87,11 @@ public class ExcelProcessingService {
 
     /**
      * Processes an Excel file containing vendor payment information.
+     * <p>
+     * Files larger than {@code app.excel.streaming.threshold-bytes} are read with the
+     * streaming (SAX) reader so the workbook is never loaded into memory as a whole.
+     * CSV and fixed-width ({@code .txt}) exports with the same columns are read with the
+     * {@link MappedTextReader}.
      *
      * @param file The Excel file to process
      * @return List of processing results for each row
@@ -75,20 +99,12 @@ public class ExcelProcessingService {
      */
     @Transactional
     public List<PaymentProcessingResult> processVendorPayments(MultipartFile file) {
-        // Validate input file
-        if (file == null) {
-            throw new ExcelProcessingException("File cannot be null");
-        }
-        
-        if (file.isEmpty()) {
-            throw new ExcelProcessingException("Uploaded file is empty");
+        validateUpload(file);
+        if (MappedTextReader.isTextFile(file.getOriginalFilename()) || file.getSize() > streamingThresholdBytes) {
+            return readVendorPaymentsStreaming(file);
         }
         
         String originalFilename = file.getOriginalFilename();
-        if (originalFilename == null || !originalFilename.toLowerCase().endsWith(".xlsx")) {
-            throw new ExcelProcessingException("Only .xlsx files are supported");
-        }
-        
         log.info("Processing vendor payments from file: {}", originalFilename);
         List<PaymentProcessingResult> results = new ArrayList<>();
 
@@ -109,47 +125,18 @@ public class ExcelProcessingService {
 
             // Skip header row
             Row headerRow = rowIterator.next();
-            validateHeaderRow(headerRow);
+            if (headerRow == null) {
+                throw new ExcelProcessingException("Header row is missing");
+            }
+            validateHeaderRow(toCellValues(headerRow));
             
             int rowNum = 1; // 0-based, but we've already read the header
             while (rowIterator.hasNext()) {
                 rowNum++;
-                Row row = rowIterator.next();
-                
-                try {
-                    if (isRowEmpty(row)) {
-                        log.debug("Skipping empty row {}", rowNum);
-                        continue;
-                    }
-                    
-                    log.debug("Processing row {}: {}", rowNum, rowToString(row));
-                    PaymentProcessingResult result = processPaymentRow(row, vendorCache);
-                    
-                    if (!result.isSuccess()) {
-                        String errorMsg = String.format("Failed to process row %d: %s", rowNum, result.getMessage());
-                        log.warn(errorMsg);
-                        throw new ExcelProcessingException(errorMsg);
-                    }
-                    
-                    results.add(result);
-                    log.info("Successfully processed payment for vendor {} with reference {}", 
-                            result.getPayment().getVendorId(), 
-                            result.getPayment().getPaymentReference());
-                            
-                } catch (Exception e) {
-                    String errorMsg = String.format("Error processing row %d: %s", rowNum, e.getMessage());
-                    log.error(errorMsg, e);
-                    throw new ExcelProcessingException(errorMsg, e);
-                }
+                processDataRow(rowNum, toCellValues(rowIterator.next()), results);
             }
 
-            if (results.isEmpty()) {
-                log.warn("No valid payment records found in the file");
-                throw new ExcelProcessingException("No valid payment records found in the file");
-            }
-            
-            log.info("Successfully processed {} payment(s) from file: {}", results.size(), originalFilename);
-            return results;
+            return completeProcessing(results, originalFilename);
             
         } catch (IOException e) {
             String errorMsg = "Failed to read Excel file: " + e.getMessage();
@@ -164,15 +151,152 @@ public class ExcelProcessingService {
             throw new ExcelProcessingException(errorMsg, e);
         }
     }
+
+    /**
+     * Processes an Excel file containing vendor payment information using the
+     * streaming (SAX) reader, regardless of the file size.
+     * <p>
+     * Rows are parsed from the sheet XML one at a time and fed straight into
+     * {@link #processPaymentRow}. The import stays one transaction, but saved payments are
+     * flushed and detached every JDBC batch, so the persistence context does not grow with the
+     * number of rows.
+     * Header validation and per-row error reporting behave as in
+     * {@link #processVendorPayments(MultipartFile)}.
+     *
+     * @param file The Excel file to process
+     * @return List of processing results for each row
+     * @throws ExcelProcessingException if the file is invalid or processing fails
+     */
+    @Transactional
+    public List<PaymentProcessingResult> processVendorPaymentsStreaming(MultipartFile file) {
+        validateUpload(file);
+        return readVendorPaymentsStreaming(file);
+    }
+
+    private List<PaymentProcessingResult> readVendorPaymentsStreaming(MultipartFile file) {
+        String originalFilename = file.getOriginalFilename();
+        log.info("Processing vendor payments from file (streaming): {}", originalFilename);
+        List<PaymentProcessingResult> results = new ArrayList<>();
+        boolean[] headerSeen = {false};
+
+        StreamingExcelReader.RowCallback callback = (rowIndex, values) -> {
+            if (!headerSeen[0]) {
+                headerSeen[0] = true;
+                validateHeaderRow(values);
+                return;
+            }
+            // Report 1-based row numbers as the workbook path does
+            processDataRow(rowIndex + 1, values, results);
+        };
+
+        try {
+            if (MappedTextReader.isTextFile(originalFilename)) {
+                MappedTextReader.read(file, MappedTextReader.Layout.forFile(originalFilename, fixedWidthColumns), callback);
+            } else {
+                StreamingExcelReader.readFirstSheet(file, new PaymentCellFormatter(), callback);
+            }
+
+            if (!headerSeen[0]) {
+                throw new ExcelProcessingException("Excel sheet is empty");
+            }
+            return completeProcessing(results, originalFilename);
+
+        } catch (IOException e) {
+            String errorMsg = "Failed to read Excel file: " + e.getMessage();
+            log.error(errorMsg, e);
+            throw new ExcelProcessingException(errorMsg, e);
+        } catch (ExcelProcessingException e) {
+            throw e;
+        } catch (Exception e) {
+            String errorMsg = "Unexpected error processing Excel file: " + e.getMessage();
+            log.error(errorMsg, e);
+            throw new ExcelProcessingException(errorMsg, e);
+        }
+    }
+
+    private void validateUpload(MultipartFile file) {
+        if (file == null) {
+            throw new ExcelProcessingException("File cannot be null");
+        }
+        
+        if (file.isEmpty()) {
+            throw new ExcelProcessingException("Uploaded file is empty");
+        }
+        
+        String originalFilename = file.getOriginalFilename();
+        if (MappedTextReader.isTextFile(originalFilename)) {
+            try {
+                MappedTextReader.Layout.forFile(originalFilename, fixedWidthColumns);
+            } catch (IllegalArgumentException e) {
+                throw new ExcelProcessingException(e.getMessage());
+            }
+        } else if (originalFilename == null || !originalFilename.toLowerCase().endsWith(".xlsx")) {
+            throw new ExcelProcessingException("Only .xlsx, .csv and fixed-width .txt files are supported");
+        }
+    }
+
+    /**
+     * Processes a single data row and appends its result, failing fast on the first invalid row.
+     */
+    private void processDataRow(int rowNum, List<String> values, List<PaymentProcessingResult> results) {
+        try {
+            if (isRowEmpty(values)) {
+                log.debug("Skipping empty row {}", rowNum);
+                return;
+            }
+            
+            log.debug("Processing row {}: {}", rowNum, values);
+            PaymentProcessingResult result = processPaymentRow(values);
+            
+            if (!result.isSuccess()) {
+                String errorMsg = String.format("Failed to process row %d: %s", rowNum, result.getMessage());
+                log.warn(errorMsg);
+                throw new ExcelProcessingException(errorMsg);
+            }
+            
+            results.add(result);
+            log.info("Successfully processed payment for vendor {} with reference {}", 
+                    result.getPayment().getVendorId(), 
+                    result.getPayment().getPaymentReference());
+            flushIfBatchComplete(results.size());
+                    
+        } catch (Exception e) {
+            String errorMsg = String.format("Error processing row %d: %s", rowNum, e.getMessage());
+            log.error(errorMsg, e);
+            throw new ExcelProcessingException(errorMsg, e);
+        }
+    }
+
+    /**
+     * Flushes the rows saved so far as batched inserts and detaches them once a JDBC batch of
+     * rows has been processed, so a large import does not keep every entity managed until commit.
+     */
+    private void flushIfBatchComplete(int processedRows) {
+        if (processedRows % Math.max(flushBatchSize, 1) == 0) {
+            entityManager.flush();
+            entityManager.clear();
+        }
+    }
+
+    private List<PaymentProcessingResult> completeProcessing(List<PaymentProcessingResult> results,
+                                                             String originalFilename) {
+        if (results.isEmpty()) {
+            log.warn("No valid payment records found in the file");
+            throw new ExcelProcessingException("No valid payment records found in the file");
+        }
+        
+        log.info("Successfully processed {} payment(s) from file: {}", results.size(), originalFilename);
+        return results;
+    }
     
     /**
      * Validates the header row of the Excel file.
      * 
-     * @param headerRow The header row to validate
+     * @param headerValues The cell values of the header row
      * @throws ExcelProcessingException if the header is invalid
      */
-    private void validateHeaderRow(Row headerRow) {
-        if (headerRow == null) {
+    private void validateHeaderRow(List<String> headerValues) {
+        if (headerValues == null) {
             throw new ExcelProcessingException("Header row is missing");
         }
         
@@ -191,9 +315,9 @@ public class ExcelProcessingService {
         
         // First, check if we have at least the minimum required columns
         int maxColumn = Collections.max(expectedHeaders.keySet());
-        if (headerRow.getLastCellNum() <= maxColumn) {
+        if (headerValues.size() <= maxColumn) {
             throw new ExcelProcessingException("Invalid number of columns. Expected at least " + 
-                    (maxColumn + 1) + " columns but found " + headerRow.getLastCellNum());
+                    (maxColumn + 1) + " columns but found " + headerValues.size());
         }
         
         // Validate each expected header
@@ -201,8 +325,7 @@ public class ExcelProcessingService {
             int colIndex = entry.getKey();
             String expectedHeader = entry.getValue();
             
-            Cell cell = headerRow.getCell(colIndex, Row.MissingCellPolicy.RETURN_BLANK_AS_NULL);
-            String headerValue = (cell != null) ? cell.getStringCellValue().trim() : "";
+            String headerValue = valueAt(headerValues, colIndex);
             
             // Remove trailing asterisks and normalize whitespace for comparison
             String normalizedExpected = expectedHeader.replaceAll("\\*$", "").trim();
@@ -217,28 +340,34 @@ public class ExcelProcessingService {
     }
     
     /**
-     * Helper method to convert a row to a string for logging.
+     * Converts a workbook row into positional cell values, as produced by the streaming reader.
      */
-    private String rowToString(Row row) {
-        if (row == null) return "null";
+    private List<String> toCellValues(Row row) {
+        if (row == null || row.getLastCellNum() < 0) {
+            return Collections.emptyList();
+        }
         
-        StringBuilder sb = new StringBuilder("[");
+        List<String> values = new ArrayList<>(row.getLastCellNum());
         for (int i = 0; i < row.getLastCellNum(); i++) {
-            if (i > 0) sb.append(", ");
-            Cell cell = row.getCell(i, Row.MissingCellPolicy.RETURN_BLANK_AS_NULL);
-            sb.append(cell == null ? "" : getStringCellValue(cell));
+            values.add(getStringCellValue(row.getCell(i, Row.MissingCellPolicy.RETURN_BLANK_AS_NULL)));
+        }
+        return values;
+    }
+
+    private String valueAt(List<String> values, int index) {
+        if (values == null || index >= values.size()) {
+            return "";
         }
-        sb.append("]");
-        return sb.toString();
+        String value = values.get(index);
+        return value != null ? value.trim() : "";
     }
 
-    private boolean isRowEmpty(Row row) {
-        if (row == null) {
+    private boolean isRowEmpty(List<String> values) {
+        if (values == null) {
             return true;
         }
-        for (int cellNum = row.getFirstCellNum(); cellNum < row.getLastCellNum(); cellNum++) {
-            Cell cell = row.getCell(cellNum, Row.MissingCellPolicy.RETURN_BLANK_AS_NULL);
-            if (cell != null && cell.getCellType() != CellType.BLANK) {
+        for (String value : values) {
+            if (value != null && !value.trim().isEmpty()) {
                 return false;
             }
         }
@@ -248,18 +377,16 @@ public class ExcelProcessingService {
     /**
      * Processes a single row from the Excel file into a payment record.
      * 
-     * @param row The row to process
-     * @param vendorCache Cache for vendor lookups
+     * @param values The cell values of the row to process
      * @return Processing result with the payment or error message
      */
-    private PaymentProcessingResult processPaymentRow(Row row, Map<String, Vendor> vendorCache) {
+    private PaymentProcessingResult processPaymentRow(List<String> values) {
         try {
             // Extract and validate vendor ID (required)
-            String vendorIdStr = getStringCellValue(row.getCell(0, Row.MissingCellPolicy.RETURN_BLANK_AS_NULL));
-            if (vendorIdStr == null || vendorIdStr.trim().isEmpty()) {
+            String vendorIdStr = valueAt(values, 0);
+            if (vendorIdStr.isEmpty()) {
                 return new PaymentProcessingResult(null, "Vendor ID is required", false);
             }
-            vendorIdStr = vendorIdStr.trim();
             
             // Parse vendor ID as Long
             Long vendorId;
@@ -275,14 +402,14 @@ public class ExcelProcessingService {
             }
             
             // Extract and validate amount (required) - Column 4 (index 3)
-            String amountStr = getStringCellValue(row.getCell(3, Row.MissingCellPolicy.RETURN_BLANK_AS_NULL));
-            if (amountStr == null || amountStr.trim().isEmpty()) {
+            String amountStr = valueAt(values, 3);
+            if (amountStr.isEmpty()) {
                 return new PaymentProcessingResult(null, "Amount is required", false);
             }
             
             BigDecimal amount;
             try {
-                amount = new BigDecimal(amountStr.trim().replaceAll(",", ""));
+                amount = new BigDecimal(amountStr.replaceAll(",", ""));
                 if (amount.compareTo(BigDecimal.ZERO) <= 0) {
                     return new PaymentProcessingResult(null, "Amount must be greater than zero", false);
                 }
@@ -292,10 +419,10 @@ public class ExcelProcessingService {
             
             // Extract and validate payment date (optional, defaults to today) - Column 5 (index 4)
             LocalDate paymentDate = LocalDate.now();
-            String paymentDateStr = getStringCellValue(row.getCell(4, Row.MissingCellPolicy.RETURN_BLANK_AS_NULL));
-            if (paymentDateStr != null && !paymentDateStr.trim().isEmpty()) {
+            String paymentDateStr = valueAt(values, 4);
+            if (!paymentDateStr.isEmpty()) {
                 try {
-                    paymentDate = LocalDate.parse(paymentDateStr.trim());
+                    paymentDate = LocalDate.parse(paymentDateStr);
                     // Validate that the date is not in the future
                     if (paymentDate.isAfter(LocalDate.now())) {
                         return new PaymentProcessingResult(null, "Payment date cannot be in the future", false);
@@ -309,13 +436,8 @@ public class ExcelProcessingService {
             // Extract reference and notes (both optional)
             // Reference is in column 9 (index 8) - Invoice Number
             // Notes is in column 10 (index 9) - Vendor Type
-            String reference = getStringCellValue(row.getCell(8, Row.MissingCellPolicy.RETURN_BLANK_AS_NULL));
-            String notes = row.getLastCellNum() > 9 ? 
-                getStringCellValue(row.getCell(9, Row.MissingCellPolicy.RETURN_BLANK_AS_NULL)) : "";
-                
-            // Trim all string fields
-            reference = reference != null ? reference.trim() : "";
-            notes = notes != null ? notes.trim() : "";
+            String reference = valueAt(values, 8);
+            String notes = valueAt(values, 9);
             
             // Additional validations
             if (vendorId != null && vendorId.toString().length() > 50) {
@@ -334,7 +456,7 @@ public class ExcelProcessingService {
                     vendorId, amount, paymentDate, reference);
                     
             // Process the payment with validated data
-            return processPayment(row, vendorId.toString(), amount, paymentDate, reference, notes);
+            return processPayment(values, vendorId.toString(), amount, paymentDate, reference, notes);
             
         } catch (Exception e) {
             log.error("Unexpected error processing row: " + e.getMessage(), e);
@@ -345,6 +467,7 @@ public class ExcelProcessingService {
     /**
      * Processes a payment with the given details.
      * 
+     * @param values The cell values of the source row
      * @param vendorId The vendor ID (required)
      * @param amount The payment amount (must be positive)
      * @param paymentDate The payment date (required, not in the future)
@@ -352,7 +475,7 @@ public class ExcelProcessingService {
      * @param notes Optional payment notes
      * @return Processing result with the saved payment or error message
      */
-    private PaymentProcessingResult processPayment(Row row, String vendorId, BigDecimal amount, 
+    private PaymentProcessingResult processPayment(List<String> values, String vendorId, BigDecimal amount, 
             LocalDate paymentDate, String reference, String notes) {
         
         // Input validation (should be redundant due to prior validation, but good practice)
@@ -390,7 +513,7 @@ public class ExcelProcessingService {
             log.debug("Looking up vendor with vendorId: {}", formattedVendorId);
             
             // First try to find the vendor by vendor number
-            Optional<Vendor> existingVendor = vendorRepository.findByVendorNumber(formattedVendorId);
+            Optional<Vendor> existingVendor = vendorCache.get(formattedVendorId);
             Vendor vendor;
             
             if (existingVendor.isPresent()) {
@@ -418,45 +541,47 @@ public class ExcelProcessingService {
                 
                 // Save the new vendor
                 vendor = vendorRepository.save(vendor);
+                vendorCache.put(vendor);
                 log.info("Created new vendor with vendor number: {}", vendor.getVendorNumber());
             }
             
             // Update vendor details from the Excel row if available
             boolean vendorUpdated = false;
-            if (row != null) {
-                String vendorName = getStringCellValue(row.getCell(1, Row.MissingCellPolicy.RETURN_BLANK_AS_NULL)); // Column 2: Vendor Name
-                String email = getStringCellValue(row.getCell(2, Row.MissingCellPolicy.RETURN_BLANK_AS_NULL)); // Column 3: Email
-                String bankAccount = getStringCellValue(row.getCell(5, Row.MissingCellPolicy.RETURN_BLANK_AS_NULL)); // Column 6: Bank Account
-                String ifscCode = getStringCellValue(row.getCell(6, Row.MissingCellPolicy.RETURN_BLANK_AS_NULL)); // Column 7: IFSC Code
-                // Bank Branch and Vendor Type columns are not currently used
-                getStringCellValue(row.getCell(7, Row.MissingCellPolicy.RETURN_BLANK_AS_NULL)); // Column 8: Bank Branch
-                getStringCellValue(row.getCell(9, Row.MissingCellPolicy.RETURN_BLANK_AS_NULL)); // Column 10: Vendor Type
+            if (values != null) {
+                // Cached vendors are shared, so changes go to a copy that is cached only once saved
+                Vendor updated = vendor.toBuilder().build();
+                String vendorName = valueAt(values, 1); // Column 2: Vendor Name
+                String email = valueAt(values, 2); // Column 3: Email
+                String bankAccount = valueAt(values, 5); // Column 6: Bank Account
+                String ifscCode = valueAt(values, 6); // Column 7: IFSC Code
+                // Bank Branch (column 8) and Vendor Type (column 10) are not currently used
                 
                 // Update vendor details if they're not already set or are using default values
                 if (vendorName != null && !vendorName.trim().isEmpty() && 
-                    (vendor.getVendorName() == null || vendor.getVendorName().startsWith("New Vendor -"))) {
-                    vendor.setVendorName(vendorName.trim());
+                    (updated.getVendorName() == null || updated.getVendorName().startsWith("New Vendor -"))) {
+                    updated.setVendorName(vendorName.trim());
                     vendorUpdated = true;
                 }
                 if (email != null && !email.trim().isEmpty() && 
-                    (vendor.getEmailAddress() == null || vendor.getEmailAddress().endsWith("@example.com"))) {
-                    vendor.setEmailAddress(email.trim());
+                    (updated.getEmailAddress() == null || updated.getEmailAddress().endsWith("@example.com"))) {
+                    updated.setEmailAddress(email.trim());
                     vendorUpdated = true;
                 }
                 if (bankAccount != null && !bankAccount.trim().isEmpty() && 
-                    (vendor.getBankAccountNum() == null || vendor.getBankAccountNum().startsWith("ACCT"))) {
-                    vendor.setBankAccountNum(bankAccount.trim());
+                    (updated.getBankAccountNum() == null || updated.getBankAccountNum().startsWith("ACCT"))) {
+                    updated.setBankAccountNum(bankAccount.trim());
                     vendorUpdated = true;
                 }
                 if (ifscCode != null && !ifscCode.trim().isEmpty() && 
-                    (vendor.getIfscCode() == null || vendor.getIfscCode().startsWith("IFSC"))) {
-                    vendor.setIfscCode(ifscCode.trim());
+                    (updated.getIfscCode() == null || updated.getIfscCode().startsWith("IFSC"))) {
+                    updated.setIfscCode(ifscCode.trim());
                     vendorUpdated = true;
                 }
                 // Add other vendor fields as needed
                 
                 if (vendorUpdated) {
-                    vendor = vendorRepository.save(vendor);
+                    vendor = vendorRepository.save(updated);
+                    vendorCache.put(vendor);
                 }
             }
             
@@ -465,10 +590,10 @@ public class ExcelProcessingService {
             String ifscCode = null;
             String invoiceNumber = null;
             
-            if (row != null) {
-                bankAccount = getStringCellValue(row.getCell(5, Row.MissingCellPolicy.RETURN_BLANK_AS_NULL)); // Column 6: Bank Account
-                ifscCode = getStringCellValue(row.getCell(6, Row.MissingCellPolicy.RETURN_BLANK_AS_NULL)); // Column 7: IFSC Code
-                invoiceNumber = getStringCellValue(row.getCell(8, Row.MissingCellPolicy.RETURN_BLANK_AS_NULL)); // Column 9: Invoice Number
+            if (values != null) {
+                bankAccount = valueAt(values, 5); // Column 6: Bank Account
+                ifscCode = valueAt(values, 6); // Column 7: IFSC Code
+                invoiceNumber = valueAt(values, 8); // Column 9: Invoice Number
             }
             
             // Create payment record with all required fields
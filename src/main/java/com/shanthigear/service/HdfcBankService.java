@@ -1,12 +1,11 @@
 package com.shanthigear.service;
 
 import org.springframework.beans.factory.annotation.Value;
+import com.shanthigear.config.BankCallPolicy;
 import com.shanthigear.exception.BankIntegrationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.*;
-import org.springframework.retry.annotation.Backoff;
-import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.HttpServerErrorException;
@@ -19,11 +18,13 @@ import java.util.Map;
 
 /**
  * Service for interacting with HDFC Bank's API for payment processing.
+ * Calls are retried and timed out by the {@link BankCallPolicy}.
  */
 @Service
 public class HdfcBankService {
     private static final Logger logger = LoggerFactory.getLogger(HdfcBankService.class);
     private final RestTemplate restTemplate;
+    private final BankCallPolicy bankCallPolicy;
     @Value("${hdfc.bank.api.base-url}")
     private String baseUrl;
 
@@ -36,8 +37,10 @@ public class HdfcBankService {
     @Value("${hdfc.bank.api.timeout:30000}")
     private int timeoutMs;
 
-    public HdfcBankService(@Qualifier("hdfcBankRestTemplate") RestTemplate restTemplate) {
+    public HdfcBankService(@Qualifier("hdfcBankRestTemplate") RestTemplate restTemplate,
+                           BankCallPolicy bankCallPolicy) {
         this.restTemplate = restTemplate;
+        this.bankCallPolicy = bankCallPolicy;
     }
 
     /**
@@ -51,11 +54,6 @@ public class HdfcBankService {
      *                      - paymentNarration (optional): Payment description
      * @return Map containing payment response with transaction details
      */
-    @Retryable(
-        retryFor = {HttpServerErrorException.class},
-        maxAttemptsExpression = "${bank.api.max-retries:3}",
-        backoff = @Backoff(delayExpression = "${bank.api.retry-delay:1000}")
-    )
     public Map<String, Object> processPayment(Map<String, Object> paymentDetails) {
         try {
             validatePaymentDetails(paymentDetails);
@@ -70,12 +68,13 @@ public class HdfcBankService {
 
             logger.info("Sending payment request to HDFC Bank");
             
-            ResponseEntity<Map<String, Object>> response = restTemplate.exchange(
-                url, 
-                HttpMethod.POST, 
-                requestEntity, 
-                new org.springframework.core.ParameterizedTypeReference<Map<String, Object>>() {}
-            );
+            ResponseEntity<Map<String, Object>> response = bankCallPolicy.execute("hdfc.payments.process",
+                () -> restTemplate.exchange(
+                    url, 
+                    HttpMethod.POST, 
+                    requestEntity, 
+                    new org.springframework.core.ParameterizedTypeReference<Map<String, Object>>() {}
+                ));
 
             logger.info("Received response from HDFC Bank");
             return response.getBody();
@@ -102,11 +101,6 @@ public class HdfcBankService {
      * @param transactionId The unique transaction ID to verify
      * @return Map containing verification details
      */
-    @Retryable(
-        retryFor = {HttpServerErrorException.class},
-        maxAttemptsExpression = "${bank.api.max-retries:3}",
-        backoff = @Backoff(delayExpression = "${bank.api.retry-delay:1000}")
-    )
     public Map<String, Object> verifyPayment(String transactionId) {
         try {
             if (transactionId == null || transactionId.trim().isEmpty()) {
@@ -123,12 +117,13 @@ public class HdfcBankService {
 
             logger.info("Verifying payment status for transaction ID: {}", transactionId);
             
-            ResponseEntity<Map<String, Object>> response = restTemplate.exchange(
-                url,
-                HttpMethod.GET,
-                requestEntity,
-                new org.springframework.core.ParameterizedTypeReference<Map<String, Object>>() {}
-            );
+            ResponseEntity<Map<String, Object>> response = bankCallPolicy.execute("hdfc.payments.verify",
+                () -> restTemplate.exchange(
+                    url,
+                    HttpMethod.GET,
+                    requestEntity,
+                    new org.springframework.core.ParameterizedTypeReference<Map<String, Object>>() {}
+                ));
 
             logger.info("Received verification response for transaction ID: {}", transactionId);
             return response.getBody();
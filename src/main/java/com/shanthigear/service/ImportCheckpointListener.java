@@ -0,0 +1,32 @@
+package com.shanthigear.service;
+
+import java.util.List;
+
+/**
+ * Receives checkpoints from a long-running sheet import.
+ * <p>
+ * A checkpoint is only reported once every row up to and including
+ * {@link Checkpoint#lastCommittedRow()} has either been committed or rejected, so an import
+ * restarted after that row never skips unsaved work. Checkpoints are reported in row order
+ * and never concurrently.
+ * <p>
+ * A listener that throws stops the import, which then fails with the listener's exception.
+ */
+@FunctionalInterface
+public interface ImportCheckpointListener {
+
+    ImportCheckpointListener NONE = checkpoint -> { };
+
+    void onCheckpoint(Checkpoint checkpoint);
+
+    /**
+     * Progress since the previous checkpoint.
+     *
+     * @param lastCommittedRow 1-based sheet row number up to which the import is complete
+     * @param rows             rows completed since the previous checkpoint
+     * @param succeeded        rows saved since the previous checkpoint
+     * @param errors           errors of rows rejected since the previous checkpoint
+     */
+    record Checkpoint(int lastCommittedRow, int rows, int succeeded, List<String> errors) {
+    }
+}
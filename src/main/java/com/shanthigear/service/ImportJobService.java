@@ -0,0 +1,367 @@
+package com.shanthigear.service;
+
+import com.shanthigear.dto.ImportJobResponse;
+import com.shanthigear.exception.ImportException;
+import com.shanthigear.exception.ResourceNotFoundException;
+import com.shanthigear.model.ImportJob;
+import com.shanthigear.repository.ImportJobRepository;
+import com.shanthigear.util.StreamingExcelReader;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs sheet imports in the background so uploads return immediately.
+ * <p>
+ * The upload is stored under {@code app.upload.dir} and the job state, including the
+ * checkpoint reported by the import, is kept in {@code IMPORT_JOBS}. Jobs that were queued or
+ * running when the application stopped are resumed after their checkpoint on startup; failed
+ * jobs can be resumed on request.
+ * <p>
+ * An instance only runs a job after claiming its lease, and keeps the lease alive with a
+ * heartbeat while the job runs. Unfinished jobs are taken over by another instance only once
+ * their heartbeat is older than {@code app.import.job.lease-timeout}, so with several instances
+ * a job never runs twice at the same time. An instance that finds its lease taken over stops
+ * the job at its next checkpoint.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ImportJobService {
+    private static final int MAX_STORED_ERRORS = 100;
+    private static final Set<ImportJob.Status> UNFINISHED = EnumSet.of(ImportJob.Status.QUEUED, ImportJob.Status.RUNNING);
+
+    private final ImportJobRepository importJobRepository;
+    private final VendorBulkImportService vendorBulkImportService;
+    private final VendorPaymentExcelService vendorPaymentExcelService;
+
+    @Value("${app.upload.dir:uploads}")
+    private String uploadDir;
+
+    @Value("${app.import.job.threads:2}")
+    private int jobThreads;
+
+    @Value("${app.import.job.resume-on-startup:true}")
+    private boolean resumeOnStartup;
+
+    /** Lease owner name of this instance; defaults to the host name. */
+    @Value("${app.import.job.instance-id:}")
+    private String instanceId;
+
+    @Value("${app.import.job.lease-timeout:5m}")
+    private Duration leaseTimeout;
+
+    private final Set<String> activeJobs = ConcurrentHashMap.newKeySet();
+    private ExecutorService jobExecutor;
+
+    @PostConstruct
+    public void init() {
+        if (StringUtils.isBlank(instanceId)) {
+            instanceId = defaultInstanceId();
+        }
+        jobExecutor = Executors.newFixedThreadPool(jobThreads, new CustomizableThreadFactory("import-job-"));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Interrupted jobs stay RUNNING and are resumed from their checkpoint on the next start
+        jobExecutor.shutdownNow();
+    }
+
+    /**
+     * Stores the upload and queues it for import.
+     *
+     * @return the queued job; its id is used to poll progress
+     */
+    public ImportJob submit(ImportJob.JobType jobType, MultipartFile file) throws IOException {
+        String jobId = UUID.randomUUID().toString();
+        Path jobDir = Paths.get(uploadDir, "import-jobs");
+        Files.createDirectories(jobDir);
+        Path storedFile = jobDir.resolve(jobId + ".xlsx");
+        file.transferTo(storedFile);
+
+        ImportJob job = importJobRepository.save(ImportJob.builder()
+                .id(jobId)
+                .jobType(jobType)
+                .status(ImportJob.Status.QUEUED)
+                .fileName(file.getOriginalFilename())
+                .storedFile(storedFile.toAbsolutePath().toString())
+                .build());
+
+        log.info("Queued {} import job {} for file {}", jobType, jobId, file.getOriginalFilename());
+        if (claim(jobId)) {
+            dispatch(jobId);
+        }
+        return job;
+    }
+
+    /**
+     * Restarts a failed job after its last checkpoint.
+     */
+    public ImportJob resume(String jobId) {
+        ImportJob job = findJob(jobId);
+        if (job.getStatus() == ImportJob.Status.COMPLETED) {
+            throw new ImportException("Import job " + jobId + " has already completed");
+        }
+        if (activeJobs.contains(jobId)) {
+            return job;
+        }
+        if (!claim(jobId)) {
+            throw new ImportException("Import job " + jobId + " is running on another instance");
+        }
+
+        job.setStatus(ImportJob.Status.QUEUED);
+        job.setMessage(null);
+        job = importJobRepository.save(job);
+        dispatch(jobId);
+        return job;
+    }
+
+    public ImportJobResponse getProgress(String jobId) {
+        return toResponse(findJob(jobId));
+    }
+
+    /**
+     * Resumes the jobs left unfinished by the last shutdown, unless
+     * {@code app.import.job.resume-on-startup} is off; the lease maintenance still takes them
+     * over once their leases expire.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinishedJobs() {
+        if (resumeOnStartup) {
+            claimUnfinishedJobs();
+        }
+    }
+
+    /**
+     * Refreshes the leases of the jobs running here, then takes over unfinished jobs whose
+     * owner has stopped sending heartbeats.
+     */
+    @Scheduled(fixedDelayString = "${app.import.job.heartbeat-interval-ms:30000}",
+               initialDelayString = "${app.import.job.heartbeat-interval-ms:30000}")
+    public void maintainLeases() {
+        Set<String> running = Set.copyOf(activeJobs);
+        if (!running.isEmpty()) {
+            int refreshed = importJobRepository.heartbeat(running, instanceId, LocalDateTime.now());
+            if (refreshed < running.size()) {
+                log.warn("{} of {} running import jobs were taken over by another instance",
+                        running.size() - refreshed, running.size());
+            }
+        }
+        claimUnfinishedJobs();
+    }
+
+    /**
+     * Runs every unfinished job whose lease this instance can take: jobs interrupted by a
+     * restart of this instance, and jobs of instances that stopped sending heartbeats.
+     */
+    private void claimUnfinishedJobs() {
+        for (ImportJob job : importJobRepository.findByStatusIn(UNFINISHED)) {
+            if (activeJobs.contains(job.getId()) || !claim(job.getId())) {
+                continue; // Running here already, or on another instance that is still alive
+            }
+            log.info("Resuming import job {} after row {}", job.getId(), job.getLastCommittedRow());
+            dispatch(job.getId());
+        }
+    }
+
+    /**
+     * Takes the job's lease for this instance.
+     *
+     * @return false if another instance holds a live lease on the job
+     */
+    private boolean claim(String jobId) {
+        LocalDateTime now = LocalDateTime.now();
+        return importJobRepository.claim(jobId, instanceId, now, now.minus(leaseTimeout)) == 1;
+    }
+
+    private void dispatch(String jobId) {
+        if (activeJobs.add(jobId)) {
+            jobExecutor.execute(() -> {
+                try {
+                    runJob(jobId);
+                } finally {
+                    activeJobs.remove(jobId);
+                    releaseLease(jobId);
+                }
+            });
+        }
+    }
+
+    private void releaseLease(String jobId) {
+        try {
+            importJobRepository.release(jobId, instanceId);
+        } catch (Exception e) {
+            // The lease then expires after the lease timeout
+            log.warn("Could not release lease of import job {}: {}", jobId, e.getMessage());
+        }
+    }
+
+    private void runJob(String jobId) {
+        ImportJob job = findJob(jobId);
+        Path file = Paths.get(job.getStoredFile());
+
+        try {
+            if (!Files.exists(file)) {
+                throw new ImportException("Uploaded file is no longer available: " + file);
+            }
+
+            if (job.getTotalRows() == 0) {
+                // Row 0 is the header, so the last row index is the data row count
+                job.setTotalRows(Math.max(StreamingExcelReader.lastRowIndex(file), 0));
+            }
+            job.setStatus(ImportJob.Status.RUNNING);
+            job.setRunStartedAt(LocalDateTime.now());
+            job.setRunStartRows(job.getProcessedRows());
+            ImportJob running = importJobRepository.save(job);
+
+            ImportCheckpointListener listener = checkpoint -> saveCheckpoint(running, checkpoint);
+            switch (running.getJobType()) {
+                case VENDOR_MASTER ->
+                        vendorBulkImportService.processBulkImport(file, running.getLastCommittedRow(), listener);
+                case VENDOR_PAYMENT ->
+                        vendorPaymentExcelService.processExcelFile(jobId, file, running.getLastCommittedRow(), listener);
+            }
+
+            // Refreshing the lease keeps it ours until the job is marked completed
+            if (importJobRepository.heartbeat(List.of(jobId), instanceId, LocalDateTime.now()) == 0) {
+                log.warn("Import job {} was taken over by {}; leaving it to finish there",
+                        jobId, findJob(jobId).getLeaseOwner());
+                return;
+            }
+            running.setStatus(ImportJob.Status.COMPLETED);
+            running.setCompletedAt(LocalDateTime.now());
+            running.setTotalRows(Math.max(running.getTotalRows(), running.getProcessedRows()));
+            importJobRepository.save(running);
+            Files.deleteIfExists(file);
+            log.info("Import job {} completed: {} saved, {} failed",
+                    jobId, running.getSuccessCount(), running.getFailureCount());
+        } catch (Exception e) {
+            ImportJob failed = findJob(jobId);
+            if (!instanceId.equals(failed.getLeaseOwner())) {
+                log.warn("Import job {} was taken over by {}; stopped here after row {}",
+                        jobId, failed.getLeaseOwner(), failed.getLastCommittedRow());
+                return;
+            }
+            log.error("Import job {} failed after row {}: {}", jobId, failed.getLastCommittedRow(), e.getMessage(), e);
+            failed.setStatus(ImportJob.Status.FAILED);
+            failed.setMessage(StringUtils.abbreviate(e.getMessage(), 1000));
+            importJobRepository.save(failed);
+        }
+    }
+
+    /**
+     * Folds a checkpoint into the job and persists it; called from the import's worker threads
+     * one checkpoint at a time. The checkpoint doubles as a heartbeat, and stops the import if
+     * another instance has taken the job over.
+     */
+    private void saveCheckpoint(ImportJob job, ImportCheckpointListener.Checkpoint checkpoint) {
+        if (importJobRepository.heartbeat(List.of(job.getId()), instanceId, LocalDateTime.now()) == 0) {
+            throw new ImportException("Import job " + job.getId() + " was taken over by another instance");
+        }
+        job.setLastCommittedRow(checkpoint.lastCommittedRow());
+        job.setProcessedRows(job.getProcessedRows() + checkpoint.rows());
+        job.setSuccessCount(job.getSuccessCount() + checkpoint.succeeded());
+        job.setFailureCount(job.getFailureCount() + checkpoint.errors().size());
+
+        if (!checkpoint.errors().isEmpty()) {
+            List<String> errors = new ArrayList<>(splitErrors(job.getErrors()));
+            for (String error : checkpoint.errors()) {
+                if (errors.size() >= MAX_STORED_ERRORS) {
+                    break;
+                }
+                errors.add(error);
+            }
+            job.setErrors(String.join("\n", errors));
+        }
+
+        importJobRepository.save(job);
+    }
+
+    private ImportJobResponse toResponse(ImportJob job) {
+        int totalRows = Math.max(job.getTotalRows(), job.getProcessedRows());
+        double rowsPerSecond = 0;
+        Long etaSeconds = null;
+
+        if (job.getRunStartedAt() != null) {
+            LocalDateTime runEnd = job.getStatus() == ImportJob.Status.RUNNING ? LocalDateTime.now() : job.getUpdatedAt();
+            double seconds = Duration.between(job.getRunStartedAt(), runEnd).toMillis() / 1000.0;
+            int runRows = job.getProcessedRows() - job.getRunStartRows();
+            if (seconds > 0 && runRows > 0) {
+                rowsPerSecond = runRows / seconds;
+            }
+        }
+        if (job.getStatus() == ImportJob.Status.COMPLETED) {
+            etaSeconds = 0L;
+        } else if (rowsPerSecond > 0) {
+            etaSeconds = (long) Math.ceil((totalRows - job.getProcessedRows()) / rowsPerSecond);
+        }
+
+        return ImportJobResponse.builder()
+                .jobId(job.getId())
+                .jobType(job.getJobType())
+                .status(job.getStatus())
+                .fileName(job.getFileName())
+                .totalRows(totalRows)
+                .processedRows(job.getProcessedRows())
+                .successCount(job.getSuccessCount())
+                .failureCount(job.getFailureCount())
+                .lastCommittedRow(job.getLastCommittedRow())
+                .percentComplete(totalRows > 0 ? job.getProcessedRows() * 100.0 / totalRows : 0)
+                .rowsPerSecond(rowsPerSecond)
+                .etaSeconds(etaSeconds)
+                .errors(splitErrors(job.getErrors()))
+                .message(job.getMessage())
+                .createdAt(job.getCreatedAt())
+                .updatedAt(job.getUpdatedAt())
+                .completedAt(job.getCompletedAt())
+                .build();
+    }
+
+    private ImportJob findJob(String jobId) {
+        return importJobRepository.findById(jobId)
+                .orElseThrow(() -> new ResourceNotFoundException("Import job", "id", jobId));
+    }
+
+    private static String defaultInstanceId() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (IOException e) {
+            return UUID.randomUUID().toString();
+        }
+    }
+
+    private static List<String> splitErrors(String errors) {
+        if (errors == null || errors.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return Arrays.asList(errors.split("\n"));
+    }
+}
@@ -2,11 +2,15 @@ package com.shanthigear.service;
 
 import com.shanthigear.config.NotificationConfig;
 import com.shanthigear.model.*;
+import com.shanthigear.repository.ActionItemRepository;
+import com.shanthigear.repository.PaymentExceptionRepository;
 import com.shanthigear.repository.VendorPaymentRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -16,19 +20,26 @@ import java.util.stream.Collectors;
 
 /**
  * Service for handling internal notifications to finance and operations teams.
+ * <p>
+ * Payment exceptions and action items are stored in the database. The scheduled reports read
+ * them a page at a time with a cursor over the indexed columns, so a report never loads or
+ * locks the whole store. Payment summaries take their counts and amounts from the payment
+ * summary aggregates and only load the payments they list.
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class InternalNotificationService {
 
+    private static final List<String> OPEN_ACTION_ITEM_STATUSES = List.of("OPEN", "IN_PROGRESS");
+    private static final List<String> CLOSED_ACTION_ITEM_STATUSES = List.of("COMPLETED", "CANCELLED");
+    
     private final NotificationService notificationService;
     private final NotificationConfig notificationConfig;
     private final VendorPaymentRepository vendorPaymentRepository;
-    
-    // In-memory store for exceptions (in a real app, use a database)
-    private final List<PaymentException> exceptionStore = Collections.synchronizedList(new ArrayList<>());
-    private final List<ActionItem> actionItemStore = Collections.synchronizedList(new ArrayList<>());
+    private final PaymentExceptionRepository paymentExceptionRepository;
+    private final ActionItemRepository actionItemRepository;
+    private final PaymentSummaryService paymentSummaryService;
 
     /**
      * Send a payment summary to the finance team.
@@ -40,56 +51,24 @@ public class InternalNotificationService {
             return;
         }
 
-        // Get payments for the batch
-        List<VendorPayment> payments = vendorPaymentRepository.findByBatchId(batchId);
-        
-        if (payments.isEmpty()) {
+        // Counts and amounts come from the summary aggregates; only the details shown are loaded
+        Map<String, PaymentSummaryService.Totals> totals = paymentSummaryService.summarizeBatch(batchId);
+        if (totals.isEmpty()) {
             log.warn("No payments found for batch: {}", batchId);
             return;
         }
         
-        // Create payment summary
-        PaymentSummary summary = new PaymentSummary();
+        PaymentSummary summary = summarize(totals);
         summary.setBatchId(batchId);
         summary.setPaymentDate(LocalDate.now());
-        summary.setTotalPayments(payments.size());
-        
-        // Calculate total amount and group by status
-        Map<String, Integer> statusCounts = new HashMap<>();
-        Map<String, BigDecimal> amountByStatus = new HashMap<>();
-        BigDecimal totalAmount = BigDecimal.ZERO;
-        
-        for (VendorPayment payment : payments) {
-            String status = payment.getStatus() != null ? payment.getStatus().name() : "UNKNOWN";
-            statusCounts.merge(status, 1, Integer::sum);
-            
-            BigDecimal amount = payment.getAmount() != null ? payment.getAmount() : BigDecimal.ZERO;
-            amountByStatus.merge(status, amount, BigDecimal::add);
-            totalAmount = totalAmount.add(amount);
-        }
-        
-        summary.setStatusCounts(statusCounts);
-        summary.setCurrency("INR");
-        summary.setTotalAmount(totalAmount);
-        summary.setCurrencyBreakdown(amountByStatus);
         
-        // Add payment details
-        List<PaymentSummary.PaymentDetail> paymentDetails = payments.stream()
-            .map(payment -> {
-                PaymentSummary.PaymentDetail detail = new PaymentSummary.PaymentDetail();
-                detail.setPaymentReference(payment.getReferenceNumber());
-                detail.setVendorId(payment.getVendorId());
-                detail.setVendorName(payment.getVendorName());
-                detail.setAmount(payment.getAmount() != null ? payment.getAmount() : BigDecimal.ZERO);
-                detail.setStatus(payment.getStatus() != null ? payment.getStatus().name() : "UNKNOWN");
-                detail.setBankAccount(payment.getBankAccount());
-                detail.setIfscCode(payment.getIfscCode());
-                detail.setUtrNumber(payment.getReferenceNumber());
-                return detail;
-            })
-            .collect(Collectors.toList());
-            
-        summary.setPaymentDetails(paymentDetails);
+        int maxPayments = notificationConfig.getPaymentSummary().getMaxPaymentsToShow();
+        List<VendorPayment> payments = maxPayments > 0
+            ? vendorPaymentRepository.findByBatchIdAfter(batchId, 0, PageRequest.of(0, maxPayments))
+            : List.of();
+        summary.setPaymentDetails(payments.stream()
+            .map(InternalNotificationService::paymentDetail)
+            .collect(Collectors.toList()));
         summary.setGeneratedBy("System");
         summary.setGeneratedAt(LocalDate.now());
         
@@ -107,9 +86,10 @@ public class InternalNotificationService {
      * Record a payment exception.
      * @param exception The exception to record
      */
+    @Transactional
     public void recordException(PaymentException exception) {
         exception.setTimestamp(LocalDateTime.now());
-        exceptionStore.add(exception);
+        paymentExceptionRepository.save(exception);
         
         // If this is a critical exception, send immediate notification
         if ("CRITICAL".equals(exception.getSeverity())) {
@@ -118,24 +98,35 @@ public class InternalNotificationService {
         }
         
         // Check if we should send the exception report based on threshold
-        if (exceptionStore.size() >= notificationConfig.getExceptionReport().getThreshold()) {
+        if (paymentExceptionRepository.countUnreported() >= notificationConfig.getExceptionReport().getThreshold()) {
             sendScheduledExceptionReport();
         }
     }
     
     /**
-     * Send scheduled exception report.
+     * Send scheduled exception report of the unresolved exceptions not reported yet, oldest first.
      */
     @Scheduled(cron = "${app.notification.exception-report.schedule:0 0 17 * * MON-FRI}")
+    @Transactional
     public void sendScheduledExceptionReport() {
-        if (!notificationConfig.getExceptionReport().isEnabled() || exceptionStore.isEmpty()) {
+        if (!notificationConfig.getExceptionReport().isEnabled()) {
             return;
         }
         
-        // Get unresolved exceptions
-        List<PaymentException> unresolvedExceptions = exceptionStore.stream()
-            .filter(e -> !"RESOLVED".equals(e.getStatus()))
-            .collect(Collectors.toList());
+        // Read unreported exceptions page by page, up to the size of one report
+        int maxExceptions = notificationConfig.getExceptionReport().getMaxExceptionsPerReport();
+        List<PaymentException> unresolvedExceptions = new ArrayList<>();
+        long cursor = 0;
+        while (unresolvedExceptions.size() < maxExceptions) {
+            int pageSize = Math.min(pageSize(), maxExceptions - unresolvedExceptions.size());
+            List<PaymentException> page = paymentExceptionRepository.findUnreportedAfter(cursor, 
+                PageRequest.of(0, pageSize));
+            unresolvedExceptions.addAll(page);
+            if (page.size() < pageSize) {
+                break;
+            }
+            cursor = page.get(page.size() - 1).getId();
+        }
             
         if (unresolvedExceptions.isEmpty()) {
             return;
@@ -182,7 +173,9 @@ public class InternalNotificationService {
             notificationService.sendExceptionReport(exceptionsToSend, recipients);
             
             // Mark exceptions as reported
-            exceptionsToSend.forEach(e -> e.setReported(true));
+            paymentExceptionRepository.markReported(exceptionsToSend.stream()
+                .map(PaymentException::getId)
+                .collect(Collectors.toList()));
             
         } catch (Exception e) {
             log.error("Failed to process payment exception: {}", e.getMessage(), e);
@@ -209,7 +202,7 @@ public class InternalNotificationService {
             actionItem.setAssignedTo("team-lead@shanthigears.com");
         }
         
-        actionItemStore.add(actionItem);
+        actionItemRepository.save(actionItem);
         
         // If this is a high priority item, send immediate notification
         if ("HIGH".equals(actionItem.getPriority())) {
@@ -220,6 +213,9 @@ public class InternalNotificationService {
     
     /**
      * Send action item reminders.
+     * <p>
+     * Open items due soon or overdue are read in assignee order, so each assignee's reminder is
+     * sent as soon as their items have been read.
      */
     @Scheduled(cron = "${app.notification.action-items.reminder.schedule:0 0 9 * * MON-FRI}")
     public void sendActionItemReminders() {
@@ -230,25 +226,28 @@ public class InternalNotificationService {
         // Find action items that are due soon or overdue
         LocalDate dueDateThreshold = LocalDate.now().plusDays(
             notificationConfig.getActionItems().getReminder().getDaysBeforeDue());
-            
-        List<ActionItem> upcomingItems = actionItemStore.stream()
-            .filter(item -> "OPEN".equals(item.getStatus()) || "IN_PROGRESS".equals(item.getStatus()))
-            .filter(item -> item.getDueDate() != null && 
-                !item.getDueDate().isAfter(dueDateThreshold))
-            .collect(Collectors.toList());
-            
-        if (upcomingItems.isEmpty()) {
-            return;
-        }
         
-        // Group by assignee
-        Map<String, List<ActionItem>> itemsByAssignee = upcomingItems.stream()
-            .filter(item -> item.getAssignedTo() != null)
-            .collect(Collectors.groupingBy(ActionItem::getAssignedTo));
-            
-        // Send notifications to each assignee
-        itemsByAssignee.forEach((assignee, items) -> 
-            sendActionItemNotification(items, Collections.singletonList(assignee)));
+        PageRequest page = PageRequest.of(0, pageSize());
+        List<ActionItem> items = actionItemRepository.findDue(OPEN_ACTION_ITEM_STATUSES, dueDateThreshold, page);
+        List<ActionItem> assigneeItems = new ArrayList<>();
+        while (!items.isEmpty()) {
+            for (ActionItem item : items) {
+                if (!assigneeItems.isEmpty() && !assigneeItems.get(0).getAssignedTo().equals(item.getAssignedTo())) {
+                    sendActionItemNotification(assigneeItems, Collections.singletonList(assigneeItems.get(0).getAssignedTo()));
+                    assigneeItems = new ArrayList<>();
+                }
+                assigneeItems.add(item);
+            }
+            if (items.size() < page.getPageSize()) {
+                break;
+            }
+            ActionItem last = items.get(items.size() - 1);
+            items = actionItemRepository.findDueAfter(OPEN_ACTION_ITEM_STATUSES, dueDateThreshold, 
+                last.getAssignedTo(), last.getId(), page);
+        }
+        if (!assigneeItems.isEmpty()) {
+            sendActionItemNotification(assigneeItems, Collections.singletonList(assigneeItems.get(0).getAssignedTo()));
+        }
     }
     
     private void sendActionItemNotification(List<ActionItem> items, List<String> recipients) {
@@ -276,57 +275,34 @@ public class InternalNotificationService {
             return;
         }
         
-        // Get today's payments (in a real app, fetch from database)
+        // Today's counts and amounts come from the summary aggregates
         LocalDate today = LocalDate.now();
-        List<VendorPayment> todaysPayments = vendorPaymentRepository.findByBatchId("DAILY-" + today);
-        
-        if (todaysPayments.isEmpty()) {
+        Map<String, PaymentSummaryService.Totals> totals = paymentSummaryService.summarizeDays(today, today);
+        if (totals.isEmpty()) {
             log.info("No payments found for today, skipping daily summary");
             return;
         }
         
         // Create payment summary for today
-        PaymentSummary summary = new PaymentSummary();
+        PaymentSummary summary = summarize(totals);
         summary.setBatchId("DAILY-" + today);
         summary.setPaymentDate(today);
-        summary.setTotalPayments(todaysPayments.size());
         
-        // Calculate total amount and group by status
-        Map<String, Integer> statusCounts = new HashMap<>();
-        Map<String, BigDecimal> amountByStatus = new HashMap<>();
-        BigDecimal totalAmount = BigDecimal.ZERO;
+        int maxPayments = notificationConfig.getDailySummary().getMaxPaymentsToShow();
+        List<VendorPayment> payments = maxPayments > 0
+            ? vendorPaymentRepository.findCreatedBetweenAfter(today.atStartOfDay(), today.plusDays(1).atStartOfDay(),
+                0, PageRequest.of(0, maxPayments))
+            : List.of();
+        summary.setPaymentDetails(payments.stream()
+            .map(InternalNotificationService::paymentDetail)
+            .collect(Collectors.toList()));
         
-        for (VendorPayment payment : todaysPayments) {
-            String status = payment.getStatus() != null ? payment.getStatus().name() : "UNKNOWN";
-            statusCounts.merge(status, 1, Integer::sum);
-            
-            BigDecimal amount = payment.getAmount() != null ? payment.getAmount() : BigDecimal.ZERO;
-            amountByStatus.merge(status, amount, BigDecimal::add);
-            totalAmount = totalAmount.add(amount);
+        // Exceptions recorded today, by severity
+        Map<String, Long> exceptionCounts = new LinkedHashMap<>();
+        for (Object[] row : paymentExceptionRepository.countBySeverity(today, today)) {
+            exceptionCounts.put(row[0] != null ? (String) row[0] : "UNKNOWN", (Long) row[1]);
         }
-        
-        summary.setStatusCounts(statusCounts);
-        summary.setCurrency("INR");
-        summary.setTotalAmount(totalAmount);
-        summary.setCurrencyBreakdown(amountByStatus);
-        
-        // Add payment details (limited)
-        int maxPayments = notificationConfig.getDailySummary().getMaxPaymentsToShow();
-        List<PaymentSummary.PaymentDetail> paymentDetails = todaysPayments.stream()
-            .limit(maxPayments)
-            .map(payment -> {
-                PaymentSummary.PaymentDetail detail = new PaymentSummary.PaymentDetail();
-                detail.setPaymentReference(payment.getReferenceNumber());
-                detail.setVendorId(payment.getVendorId());
-                // detail.setVendorName(vendorService.getVendorName(payment.getVendorId())); // Commented out - method not found
-                detail.setAmount(payment.getAmount() != null ? payment.getAmount() : BigDecimal.ZERO);
-                detail.setStatus(payment.getStatus() != null ? payment.getStatus().name() : "UNKNOWN");
-                // detail.setTimestamp(payment.getCreatedAt()); // Commented out - method not found in PaymentDetail
-                return detail;
-            })
-            .collect(Collectors.toList());
-            
-        summary.setPaymentDetails(paymentDetails);
+        summary.setExceptionCounts(exceptionCounts);
         summary.setGeneratedBy("Daily Summary Job");
         summary.setGeneratedAt(LocalDate.now());
         
@@ -343,4 +319,55 @@ public class InternalNotificationService {
         // Send the notification
         notificationService.sendDailySummary(summary, recipients);
     }
+    
+    /**
+     * Drop exceptions and closed action items older than the retention period, a day at a time.
+     */
+    @Scheduled(cron = "${app.notification.store.purge-schedule:0 15 3 * * *}")
+    @Transactional
+    public void purgeExpired() {
+        LocalDate before = LocalDate.now().minusDays(notificationConfig.getStore().getRetentionDays());
+        int exceptions = paymentExceptionRepository.deleteRecordedBefore(before);
+        int actionItems = actionItemRepository.deleteCreatedBefore(before, CLOSED_ACTION_ITEM_STATUSES);
+        log.info("Purged {} payment exceptions and {} closed action items recorded before {}", 
+            exceptions, actionItems, before);
+    }
+    
+    private static PaymentSummary summarize(Map<String, PaymentSummaryService.Totals> totals) {
+        Map<String, Integer> statusCounts = new HashMap<>();
+        Map<String, BigDecimal> amountByStatus = new HashMap<>();
+        long totalPayments = 0;
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        for (Map.Entry<String, PaymentSummaryService.Totals> entry : totals.entrySet()) {
+            statusCounts.put(entry.getKey(), Math.toIntExact(entry.getValue().count()));
+            amountByStatus.put(entry.getKey(), entry.getValue().amount());
+            totalPayments += entry.getValue().count();
+            totalAmount = totalAmount.add(entry.getValue().amount());
+        }
+        
+        PaymentSummary summary = new PaymentSummary();
+        summary.setTotalPayments(Math.toIntExact(totalPayments));
+        summary.setStatusCounts(statusCounts);
+        summary.setCurrency("INR");
+        summary.setTotalAmount(totalAmount);
+        summary.setCurrencyBreakdown(amountByStatus);
+        return summary;
+    }
+    
+    private static PaymentSummary.PaymentDetail paymentDetail(VendorPayment payment) {
+        PaymentSummary.PaymentDetail detail = new PaymentSummary.PaymentDetail();
+        detail.setPaymentReference(payment.getReferenceNumber());
+        detail.setVendorId(payment.getVendorId());
+        detail.setVendorName(payment.getVendorName());
+        detail.setAmount(payment.getAmount() != null ? payment.getAmount() : BigDecimal.ZERO);
+        detail.setStatus(payment.getStatus() != null ? payment.getStatus().name() : "UNKNOWN");
+        detail.setBankAccount(payment.getBankAccount());
+        detail.setIfscCode(payment.getIfscCode());
+        detail.setUtrNumber(payment.getReferenceNumber());
+        return detail;
+    }
+    
+    private int pageSize() {
+        return Math.max(notificationConfig.getStore().getPageSize(), 1);
+    }
 }
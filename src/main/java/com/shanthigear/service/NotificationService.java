@@ -22,6 +22,12 @@ public interface NotificationService {
      */
     void sendPaymentConfirmation(VendorPayment payment);
     
+    /**
+     * Sends the vendor notifications held for a digest without waiting for the digest window,
+     * e.g. once a batch of payments has been processed.
+     */
+    void flushPaymentDigests();
+    
     /**
      * Sends a payment failure notification.
      * @param payment The payment details that failed
@@ -5,7 +5,6 @@ import com.shanthigear.model.PaymentStatus;
 import com.shanthigear.model.Vendor;
 import com.shanthigear.model.VendorPayment;
 import com.shanthigear.repository.VendorPaymentRepository;
-import com.shanthigear.repository.VendorRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Async;
@@ -28,7 +27,7 @@ import java.util.concurrent.CompletableFuture;
 public class PaymentProcessingService {
 
     private final VendorPaymentRepository vendorPaymentRepository;
-    private final VendorRepository vendorRepository;
+    private final VendorCache vendorCache;
     private final OracleHostToHostService oracleHostToHostService;
     private final InvoiceService invoiceService;
     private final NotificationService notificationService;
@@ -66,7 +65,7 @@ public class PaymentProcessingService {
             }
             
             // 4. Get vendor details
-            Vendor vendor = vendorRepository.findByVendorNumber(payment.getVendorId())
+            Vendor vendor = vendorCache.get(payment.getVendorId())
                     .orElseThrow(() -> new PaymentProcessingException("Vendor not found with number: " + payment.getVendorId()));
             
             // 5. Update payment with vendor details
@@ -85,8 +84,8 @@ public class PaymentProcessingService {
                         payment.getInvoiceNumber(), 
                         processedPayment.getPaymentReference());
                     
-                    // Send payment confirmation asynchronously
-                    sendPaymentConfirmationAsync(savedPayment);
+                    // Queue the payment confirmation; it is sent once this transaction commits
+                    queuePaymentConfirmation(savedPayment);
                 } catch (Exception e) {
                     log.error("Error in post-payment processing: {}", e.getMessage(), e);
                     // Don't fail the payment if post-processing fails
@@ -111,16 +110,15 @@ public class PaymentProcessingService {
     }
     
     /**
-     * Send payment confirmation asynchronously.
+     * Queue the payment confirmation in the email outbox.
      * @param payment The payment to confirm
      */
-    @Async
-    protected void sendPaymentConfirmationAsync(VendorPayment payment) {
+    protected void queuePaymentConfirmation(VendorPayment payment) {
         try {
             notificationService.sendPaymentConfirmation(payment);
-            log.info("Payment confirmation sent for payment: {}", payment.getPaymentReference());
+            log.info("Payment confirmation queued for payment: {}", payment.getPaymentReference());
         } catch (Exception e) {
-            log.error("Failed to send payment confirmation for payment {}: {}", 
+            log.error("Failed to queue payment confirmation for payment {}: {}", 
                 payment.getPaymentReference(), e.getMessage(), e);
         }
     }
@@ -148,6 +146,9 @@ public class PaymentProcessingService {
                 }
             }
             
+            // Send each vendor one digest for the run instead of waiting out the digest window
+            notificationService.flushPaymentDigests();
+            
         } catch (Exception e) {
             log.error("Error in scheduled invoice processing: {}", e.getMessage(), e);
         }
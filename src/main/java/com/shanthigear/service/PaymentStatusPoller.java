@@ -0,0 +1,353 @@
+package com.shanthigear.service;
+
+import com.shanthigear.config.BankApiConfig;
+import com.shanthigear.exception.PaymentProcessingException;
+import com.shanthigear.model.PaymentStatus;
+import com.shanthigear.payload.response.PaymentResponse;
+import com.shanthigear.repository.VendorPaymentRepository;
+import com.shanthigear.util.BackoffUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+/**
+ * Looks up the status of bank payments, sharing and batching the calls to the bank.
+ * <p>
+ * Concurrent lookups of the same payment share one call. Lookups of different payments that
+ * arrive within the batch window are sent together as one bulk status call. Calls run on an
+ * executor of their own, so lookups never wait behind bulk submissions.
+ * <p>
+ * Pending payments can be watched: they are polled again with a backoff that grows while the
+ * bank keeps reporting them pending, until the bank resolves them or the attempts run out.
+ * A webhook that resolves a payment stops its watch, directly on this node and through the
+ * payment's stored status on the others.
+ */
+@Slf4j
+@Service
+public class PaymentStatusPoller {
+
+    // Statuses of a bank response that end polling; anything else is polled again
+    private static final Set<String> FINAL = Set.of("SUCCESS", "FAILED");
+
+    // Statuses of a stored payment that the bank has not resolved yet
+    private static final Set<PaymentStatus> UNRESOLVED = EnumSet.of(
+        PaymentStatus.PENDING, PaymentStatus.PROCESSING, PaymentStatus.PENDING_VERIFICATION);
+
+    private final BankPaymentService bankPaymentService;
+    private final VendorPaymentRepository paymentRepository;
+    private final Executor executor;
+    private final BankApiConfig.StatusPollingConfig settings;
+    private final ScheduledExecutorService scheduler;
+
+    private final Map<String, CompletableFuture<PaymentResponse>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Watch> watches = new ConcurrentHashMap<>();
+
+    private final Object batchLock = new Object();
+    private List<String> batch = new ArrayList<>();
+    private ScheduledFuture<?> batchFlush;
+
+    private final Counter coalescedLookups;
+    private final Counter batchedLookups;
+    private final DistributionSummary batchSize;
+    private final MeterRegistry meterRegistry;
+
+    public PaymentStatusPoller(BankPaymentService bankPaymentService,
+                               VendorPaymentRepository paymentRepository,
+                               @Qualifier("paymentStatusExecutor") Executor executor,
+                               BankApiConfig bankApiConfig,
+                               MeterRegistry meterRegistry) {
+        this.bankPaymentService = bankPaymentService;
+        this.paymentRepository = paymentRepository;
+        this.executor = executor;
+        this.settings = bankApiConfig.getStatusPolling();
+        this.meterRegistry = meterRegistry;
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("payment-status-");
+        threadFactory.setDaemon(true);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(threadFactory);
+
+        this.coalescedLookups = Counter.builder("payment.status.lookups")
+            .description("Payment status lookups")
+            .tag("call", "shared")
+            .register(meterRegistry);
+        this.batchedLookups = Counter.builder("payment.status.lookups")
+            .description("Payment status lookups")
+            .tag("call", "batched")
+            .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("payment.status.batch.size")
+            .description("Payments per status call to the bank")
+            .register(meterRegistry);
+        Gauge.builder("payment.status.watched", watches, Map::size)
+            .description("Pending payments being polled")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Look up the current status of a payment at the bank.
+     * @param paymentId The bank's payment ID
+     * @return The status; fails with a PaymentProcessingException if the bank does not know the
+     *         payment or cannot be reached
+     */
+    public CompletableFuture<PaymentResponse> getStatus(String paymentId) {
+        if (paymentId == null || paymentId.trim().isEmpty()) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Payment ID cannot be null or empty"));
+        }
+        CompletableFuture<PaymentResponse> lookup = new CompletableFuture<>();
+        CompletableFuture<PaymentResponse> shared = inFlight.putIfAbsent(paymentId, lookup);
+        if (shared != null) {
+            coalescedLookups.increment();
+            return shared;
+        }
+        batchedLookups.increment();
+        lookup.whenComplete((response, error) -> inFlight.remove(paymentId, lookup));
+        enqueue(paymentId);
+        return lookup;
+    }
+
+    /**
+     * Look up the current status of a payment, waiting at most the configured await timeout
+     * for the answer.
+     * @param paymentId The bank's payment ID
+     * @return The status
+     * @throws PaymentProcessingException if the bank does not answer in time
+     */
+    public PaymentResponse awaitStatus(String paymentId) {
+        try {
+            return getStatus(paymentId).get(settings.getAwaitTimeout(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new PaymentProcessingException("Failed to get payment status: " + e.getMessage(), e);
+        } catch (TimeoutException e) {
+            // The lookup carries on for anyone else sharing it
+            throw new PaymentProcessingException("Timed out waiting for the status of payment " + paymentId, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PaymentProcessingException("Interrupted waiting for the status of payment " + paymentId, e);
+        }
+    }
+
+    /**
+     * Poll a pending payment until the bank resolves it. Does nothing if it is already watched.
+     * @param paymentId The bank's payment ID
+     * @param onResolved Called with the bank's status once it succeeds or fails; not called if
+     *                   a webhook resolves the payment first
+     */
+    public void watch(String paymentId, Consumer<PaymentResponse> onResolved) {
+        Watch watch = new Watch(paymentId, onResolved);
+        if (watches.putIfAbsent(paymentId, watch) == null) {
+            log.debug("Watching pending payment {}", paymentId);
+            schedule(watch);
+        }
+    }
+
+    /**
+     * Stop polling a payment that has been resolved, e.g. by a webhook.
+     * @param paymentId The bank's payment ID
+     */
+    public void resolved(String paymentId) {
+        Watch watch = paymentId != null ? watches.remove(paymentId) : null;
+        if (watch != null) {
+            watch.cancel();
+            stopped("webhook");
+            log.debug("Stopped polling payment {}, resolved by webhook", paymentId);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private void enqueue(String paymentId) {
+        List<String> full = null;
+        synchronized (batchLock) {
+            batch.add(paymentId);
+            if (batch.size() >= Math.max(1, settings.getBatchSize())) {
+                full = batch;
+                batch = new ArrayList<>();
+                if (batchFlush != null) {
+                    batchFlush.cancel(false);
+                    batchFlush = null;
+                }
+            } else if (batchFlush == null) {
+                batchFlush = scheduler.schedule(this::flush, settings.getBatchWindow(), TimeUnit.MILLISECONDS);
+            }
+        }
+        if (full != null) {
+            submit(full);
+        }
+    }
+
+    private void flush() {
+        List<String> ready;
+        synchronized (batchLock) {
+            ready = batch;
+            batch = new ArrayList<>();
+            batchFlush = null;
+        }
+        if (!ready.isEmpty()) {
+            submit(ready);
+        }
+    }
+
+    private void submit(List<String> paymentIds) {
+        try {
+            executor.execute(() -> lookup(paymentIds));
+        } catch (RejectedExecutionException e) {
+            fail(paymentIds, new PaymentProcessingException("Payment status lookup rejected", e));
+        }
+    }
+
+    private void lookup(List<String> paymentIds) {
+        batchSize.record(paymentIds.size());
+        Map<String, PaymentResponse> statuses;
+        try {
+            statuses = bankPaymentService.getPaymentStatuses(paymentIds);
+        } catch (RuntimeException e) {
+            log.warn("Status lookup of {} payments failed: {}", paymentIds.size(), e.getMessage());
+            fail(paymentIds, e);
+            return;
+        }
+        for (String paymentId : paymentIds) {
+            CompletableFuture<PaymentResponse> lookup = inFlight.get(paymentId);
+            if (lookup == null) {
+                continue;
+            }
+            PaymentResponse status = statuses.get(paymentId);
+            if (status != null) {
+                lookup.complete(status);
+            } else {
+                lookup.completeExceptionally(new PaymentProcessingException("Payment not found with ID: " + paymentId));
+            }
+        }
+    }
+
+    private void fail(List<String> paymentIds, RuntimeException error) {
+        for (String paymentId : paymentIds) {
+            CompletableFuture<PaymentResponse> lookup = inFlight.get(paymentId);
+            if (lookup != null) {
+                lookup.completeExceptionally(error);
+            }
+        }
+    }
+
+    private void schedule(Watch watch) {
+        long delay = BackoffUtils.jitteredBackoffMillis(Duration.ofMillis(settings.getInitialDelay()),
+            Duration.ofMillis(settings.getMaxDelay()), watch.attempts + 1);
+        try {
+            watch.next = scheduler.schedule(() -> submitPoll(watch), delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+            watches.remove(watch.paymentId, watch);
+        }
+    }
+
+    private void submitPoll(Watch watch) {
+        try {
+            executor.execute(() -> poll(watch));
+        } catch (RejectedExecutionException e) {
+            schedule(watch);
+        }
+    }
+
+    private void poll(Watch watch) {
+        if (watches.get(watch.paymentId) != watch) {
+            return;
+        }
+        // A webhook handled on another node leaves only the stored status behind
+        if (resolvedLocally(watch.paymentId)) {
+            if (watches.remove(watch.paymentId, watch)) {
+                stopped("webhook");
+            }
+            return;
+        }
+
+        watch.attempts++;
+        getStatus(watch.paymentId).whenComplete((response, error) -> {
+            if (watches.get(watch.paymentId) != watch) {
+                return;
+            }
+            if (error == null && FINAL.contains(response.getStatus())) {
+                if (watches.remove(watch.paymentId, watch)) {
+                    stopped("resolved");
+                    resolve(watch, response);
+                }
+            } else if (watch.attempts >= settings.getMaxAttempts()) {
+                if (watches.remove(watch.paymentId, watch)) {
+                    stopped("exhausted");
+                    log.warn("Payment {} still unresolved after {} status polls", watch.paymentId, watch.attempts);
+                }
+            } else {
+                schedule(watch);
+            }
+        });
+    }
+
+    private boolean resolvedLocally(String paymentId) {
+        try {
+            return paymentRepository.findByTransactionId(paymentId)
+                .map(payment -> payment.getStatus() != null && !UNRESOLVED.contains(payment.getStatus()))
+                .orElse(false);
+        } catch (RuntimeException e) {
+            log.warn("Could not read stored status of payment {}: {}", paymentId, e.getMessage());
+            return false;
+        }
+    }
+
+    private void resolve(Watch watch, PaymentResponse response) {
+        log.info("Payment {} resolved by the bank as {}", watch.paymentId, response.getStatus());
+        try {
+            watch.onResolved.accept(response);
+        } catch (RuntimeException e) {
+            log.error("Failed to apply resolution of payment {}", watch.paymentId, e);
+        }
+    }
+
+    private void stopped(String reason) {
+        meterRegistry.counter("payment.status.watch.stopped", "reason", reason).increment();
+    }
+
+    private static final class Watch {
+        private final String paymentId;
+        private final Consumer<PaymentResponse> onResolved;
+        private volatile int attempts;
+        private volatile ScheduledFuture<?> next;
+
+        Watch(String paymentId, Consumer<PaymentResponse> onResolved) {
+            this.paymentId = paymentId;
+            this.onResolved = onResolved;
+        }
+
+        void cancel() {
+            ScheduledFuture<?> scheduled = next;
+            if (scheduled != null) {
+                scheduled.cancel(false);
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.shanthigear.service;
+
+import com.shanthigear.model.PaymentSummaryAggregate;
+import com.shanthigear.model.VendorPayment;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+
+/**
+ * Entity listener of {@link VendorPayment} that passes every change to what a payment counts
+ * towards in the payment summary aggregates on to {@link PaymentSummaryService}.
+ * <p>
+ * A loaded payment remembers the row it was counted in; when it is updated, the listener moves
+ * it from that row to its current one. Bulk JPQL updates of payments bypass the listener, so
+ * anything changing payments that way must rebuild the affected days.
+ */
+@Component
+public class PaymentSummaryListener {
+
+    // Looked up on first use; the service's repositories need the entity manager factory this
+    // listener is created for
+    private final ObjectProvider<PaymentSummaryService> paymentSummaryService;
+
+    public PaymentSummaryListener(ObjectProvider<PaymentSummaryService> paymentSummaryService) {
+        this.paymentSummaryService = paymentSummaryService;
+    }
+
+    @PostLoad
+    void onLoad(VendorPayment payment) {
+        payment.setSummarized(contribution(payment));
+    }
+
+    @PostPersist
+    @PostUpdate
+    void onSave(VendorPayment payment) {
+        PaymentSummaryAggregate.Contribution current = contribution(payment);
+        PaymentSummaryAggregate.Contribution previous = payment.getSummarized();
+        if (!Objects.equals(previous, current)) {
+            recordChange(previous, current);
+            payment.setSummarized(current);
+        }
+    }
+
+    @PostRemove
+    void onRemove(VendorPayment payment) {
+        if (payment.getSummarized() != null) {
+            recordChange(payment.getSummarized(), null);
+            payment.setSummarized(null);
+        }
+    }
+
+    private void recordChange(PaymentSummaryAggregate.Contribution previous,
+                              PaymentSummaryAggregate.Contribution current) {
+        // Not there in JPA slice tests, which leave the aggregates out
+        PaymentSummaryService service = paymentSummaryService.getIfAvailable();
+        if (service != null) {
+            service.recordChange(previous, current);
+        }
+    }
+
+    static PaymentSummaryAggregate.Contribution contribution(VendorPayment payment) {
+        if (payment.getCreatedAt() == null) {
+            return null;
+        }
+        PaymentSummaryAggregate.Key key = new PaymentSummaryAggregate.Key(payment.getCreatedAt().toLocalDate(),
+            payment.getBatchId(), payment.getVendorId(),
+            payment.getStatus() != null ? payment.getStatus().name() : null);
+        BigDecimal amount = payment.getAmount() != null ? payment.getAmount() : BigDecimal.ZERO;
+        return new PaymentSummaryAggregate.Contribution(key, amount);
+    }
+}
@@ -0,0 +1,253 @@
+package com.shanthigear.service;
+
+import com.shanthigear.model.PaymentStatus;
+import com.shanthigear.model.PaymentSummaryAggregate;
+import com.shanthigear.repository.PaymentSummaryAggregateRepository;
+import com.shanthigear.repository.VendorPaymentRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Payment counts and amounts by day, batch, vendor and status, kept in
+ * {@link PaymentSummaryAggregate} rows so summaries never load the payments themselves.
+ * <p>
+ * {@link PaymentSummaryListener} reports every payment that is created, changes status, amount,
+ * batch or vendor, or is deleted. The changes of a transaction are added up and applied once it
+ * commits, in a transaction of their own and in key order, so a payment update never waits on
+ * or fails because of an aggregate row. Should that update fail anyway, the day it belongs to
+ * can be rebuilt from the payments with {@link #rebuild}. Payments recorded before the
+ * aggregates existed are counted by {@link #backfillIfEmpty} on startup.
+ */
+@Slf4j
+@Service
+public class PaymentSummaryService {
+
+    private static final String PENDING_CHANGES = PaymentSummaryService.class.getName() + ".pendingChanges";
+    private static final int APPLY_ATTEMPTS = 2;
+
+    private final PaymentSummaryAggregateRepository aggregateRepository;
+    private final VendorPaymentRepository vendorPaymentRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Payments and amount in one status.
+     */
+    public record Totals(long count, BigDecimal amount) {
+        Totals plus(Totals other) {
+            return new Totals(count + other.count, amount.add(other.amount));
+        }
+
+        Totals negate() {
+            return new Totals(-count, amount.negate());
+        }
+
+        boolean isZero() {
+            return count == 0 && amount.signum() == 0;
+        }
+    }
+
+    public PaymentSummaryService(PaymentSummaryAggregateRepository aggregateRepository,
+                                 VendorPaymentRepository vendorPaymentRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry) {
+        this.aggregateRepository = aggregateRepository;
+        this.vendorPaymentRepository = vendorPaymentRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Move a payment from the aggregate row it was counted in to its current one.
+     * @param previous What the payment was counted as, or null for a new payment
+     * @param current What the payment counts as now, or null for a deleted payment
+     */
+    public void recordChange(PaymentSummaryAggregate.Contribution previous,
+                             PaymentSummaryAggregate.Contribution current) {
+        Map<PaymentSummaryAggregate.Key, Totals> changes = TransactionSynchronizationManager.isSynchronizationActive()
+            ? pendingChanges() : new TreeMap<>();
+        if (previous != null) {
+            changes.merge(previous.key(), new Totals(1, previous.amount()).negate(), Totals::plus);
+        }
+        if (current != null) {
+            changes.merge(current.key(), new Totals(1, current.amount()), Totals::plus);
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(changes);
+        }
+    }
+
+    /**
+     * @return Payments and amount of a batch, by status
+     */
+    public Map<String, Totals> summarizeBatch(String batchId) {
+        return byStatus(aggregateRepository.summarizeBatch(batchId));
+    }
+
+    /**
+     * @return Payments and amount created on the given days, by status
+     */
+    public Map<String, Totals> summarizeDays(LocalDate from, LocalDate to) {
+        return byStatus(aggregateRepository.summarizeDays(from, to));
+    }
+
+    /**
+     * @return Payments and amount created on the given days, by vendor and status
+     */
+    public Map<String, Map<String, Totals>> summarizeVendors(LocalDate from, LocalDate to) {
+        Map<String, Map<String, Totals>> vendors = new LinkedHashMap<>();
+        for (Object[] row : aggregateRepository.summarizeVendors(from, to)) {
+            vendors.computeIfAbsent((String) row[0], vendorId -> new LinkedHashMap<>())
+                .put((String) row[1], totals(row[2], row[3]));
+        }
+        return vendors;
+    }
+
+    /**
+     * Recount the aggregates of the given days from the payments, a day at a time. Used to
+     * backfill the aggregates and to repair a day after a failed update; payments that change
+     * while their day is rebuilt can be miscounted, so run it while payments are not being
+     * processed.
+     * @return The number of aggregate rows written
+     */
+    public int rebuild(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Rebuild range starts after it ends: " + from + " to " + to);
+        }
+        int written = 0;
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            LocalDate rebuiltDay = day;
+            Integer rows = transactionTemplate.execute(status -> rebuildDay(rebuiltDay));
+            written += rows != null ? rows : 0;
+        }
+        log.info("Rebuilt payment summary aggregates for {} to {}: {} rows", from, to, written);
+        return written;
+    }
+
+    /**
+     * Count the payments recorded before the aggregates existed. Runs on startup and only does
+     * anything while there are payments but no aggregate rows, i.e. on the first start with an
+     * empty aggregate table; every start after that finds the rows and returns at once.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        if (aggregateRepository.count() > 0) {
+            return;
+        }
+        LocalDateTime earliest = vendorPaymentRepository.findEarliestCreatedAt();
+        if (earliest == null) {
+            return;
+        }
+        log.info("Payment summary aggregates are empty; backfilling them from payments since {}",
+            earliest.toLocalDate());
+        try {
+            rebuild(earliest.toLocalDate(), LocalDate.now());
+        } catch (RuntimeException e) {
+            // Another instance may be backfilling the same days
+            log.error("Could not backfill payment summary aggregates; rebuild them from the admin endpoint", e);
+        }
+    }
+
+    private int rebuildDay(LocalDate day) {
+        aggregateRepository.deleteDay(day);
+        Map<PaymentSummaryAggregate.Key, Totals> totals = new TreeMap<>();
+        for (Object[] row : vendorPaymentRepository.summarizeCreatedBetween(day.atStartOfDay(),
+                day.plusDays(1).atStartOfDay())) {
+            PaymentStatus status = (PaymentStatus) row[2];
+            PaymentSummaryAggregate.Key key = new PaymentSummaryAggregate.Key(day, (String) row[0], (String) row[1],
+                status != null ? status.name() : null);
+            totals.merge(key, totals(row[3], row[4]), Totals::plus);
+        }
+        List<PaymentSummaryAggregate> rows = new ArrayList<>(totals.size());
+        totals.forEach((key, value) -> rows.add(new PaymentSummaryAggregate(key, value.count(), value.amount())));
+        aggregateRepository.saveAll(rows);
+        return rows.size();
+    }
+
+    private void apply(Map<PaymentSummaryAggregate.Key, Totals> changes) {
+        changes.values().removeIf(Totals::isZero);
+        if (changes.isEmpty()) {
+            return;
+        }
+        RuntimeException failure;
+        int attempt = 0;
+        do {
+            attempt++;
+            try {
+                transactionTemplate.executeWithoutResult(status -> changes.forEach(this::applyChange));
+                return;
+            } catch (RuntimeException e) {
+                failure = e;
+            }
+            // A unique key violation means another transaction created one of the rows first;
+            // the retry updates it instead
+        } while (failure instanceof DataIntegrityViolationException && attempt < APPLY_ATTEMPTS);
+        meterRegistry.counter("payment.summary.update.failed").increment();
+        log.error("Could not update payment summary aggregates for {}; rebuild the affected days",
+            changes.keySet(), failure);
+    }
+
+    private void applyChange(PaymentSummaryAggregate.Key key, Totals change) {
+        int updated = aggregateRepository.increment(key.day(), key.batchId(), key.vendorId(), key.status(),
+            change.count(), change.amount(), LocalDateTime.now());
+        if (updated == 0) {
+            aggregateRepository.saveAndFlush(new PaymentSummaryAggregate(key, change.count(), change.amount()));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<PaymentSummaryAggregate.Key, Totals> pendingChanges() {
+        Map<PaymentSummaryAggregate.Key, Totals> changes =
+            (Map<PaymentSummaryAggregate.Key, Totals>) TransactionSynchronizationManager.getResource(PENDING_CHANGES);
+        if (changes == null) {
+            Map<PaymentSummaryAggregate.Key, Totals> pending = new TreeMap<>();
+            TransactionSynchronizationManager.bindResource(PENDING_CHANGES, pending);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(PENDING_CHANGES);
+                    apply(pending);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(PENDING_CHANGES);
+                }
+            });
+            changes = pending;
+        }
+        return changes;
+    }
+
+    private static Map<String, Totals> byStatus(List<Object[]> rows) {
+        Map<String, Totals> statuses = new LinkedHashMap<>();
+        for (Object[] row : rows) {
+            statuses.put((String) row[0], totals(row[1], row[2]));
+        }
+        return statuses;
+    }
+
+    private static Totals totals(Object count, Object amount) {
+        return new Totals(count != null ? ((Number) count).longValue() : 0,
+            amount instanceof BigDecimal value ? value : BigDecimal.ZERO);
+    }
+}
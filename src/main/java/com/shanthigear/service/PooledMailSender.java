@@ -0,0 +1,275 @@
+package com.shanthigear.service;
+
+import com.shanthigear.config.EmailConfig;
+import jakarta.mail.Address;
+import jakarta.mail.AuthenticationFailedException;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.Nullable;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link JavaMailSenderImpl} that keeps its SMTP connections open between sends.
+ * <p>
+ * The plain sender connects, negotiates STARTTLS and authenticates for every send. This one
+ * keeps connected transports in a pool: a send borrows one, pushes all of its messages over
+ * it and returns it. A transport is retired after {@code maxMessagesPerConnection} messages,
+ * closed once it has been idle for {@code idleTimeout}, and checked with an SMTP NOOP before
+ * reuse when it has been idle for longer than {@code validateAfterIdle}. At most
+ * {@code maxConnections} transports are open at a time.
+ */
+@Slf4j
+public class PooledMailSender extends JavaMailSenderImpl {
+
+    private final EmailConfig.SmtpPoolConfig settings;
+    private final Semaphore leases;
+    // Most recently used first, so surplus connections age out at the tail
+    private final Deque<PooledTransport> idle = new ArrayDeque<>();
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicLong connectionsOpened = new AtomicLong();
+    private final AtomicLong messagesSent = new AtomicLong();
+    private boolean closed;
+
+    public PooledMailSender(EmailConfig.SmtpPoolConfig settings) {
+        this.settings = settings;
+        this.leases = new Semaphore(Math.max(settings.getMaxConnections(), 1), true);
+    }
+
+    /**
+     * Sends the messages over pooled connections, moving to a new connection only when the
+     * current one has reached its message limit or failed.
+     */
+    @Override
+    protected void doSend(MimeMessage[] mimeMessages, @Nullable Object[] originalMessages) throws MailException {
+        Map<Object, Exception> failedMessages = new LinkedHashMap<>();
+        PooledTransport pooled = null;
+        try {
+            for (int i = 0; i < mimeMessages.length; i++) {
+                Object original = originalMessages != null ? originalMessages[i] : mimeMessages[i];
+                if (pooled == null) {
+                    try {
+                        pooled = borrow();
+                    } catch (AuthenticationFailedException ex) {
+                        throw new MailAuthenticationException(ex);
+                    } catch (MessagingException ex) {
+                        for (int j = i; j < mimeMessages.length; j++) {
+                            failedMessages.put(originalMessages != null ? originalMessages[j] : mimeMessages[j], ex);
+                        }
+                        throw new MailSendException("Mail server connection failed", ex, failedMessages);
+                    }
+                }
+
+                MimeMessage mimeMessage = mimeMessages[i];
+                Address[] addresses;
+                try {
+                    addresses = prepare(mimeMessage);
+                } catch (MessagingException ex) {
+                    failedMessages.put(original, ex);
+                    continue;
+                }
+
+                try {
+                    pooled.transport.sendMessage(mimeMessage, addresses);
+                    pooled.messagesSent++;
+                    messagesSent.incrementAndGet();
+                } catch (SendFailedException ex) {
+                    // Rejected recipients; the server has reset the transaction and the connection is still usable
+                    failedMessages.put(original, ex);
+                } catch (Exception ex) {
+                    failedMessages.put(original, ex);
+                    release(pooled, false);
+                    pooled = null;
+                    continue;
+                }
+
+                if (pooled.messagesSent >= settings.getMaxMessagesPerConnection()) {
+                    release(pooled, false);
+                    pooled = null;
+                }
+            }
+        } finally {
+            if (pooled != null) {
+                release(pooled, true);
+            }
+        }
+
+        if (!failedMessages.isEmpty()) {
+            throw new MailSendException(failedMessages);
+        }
+    }
+
+    /**
+     * Closes connections that have been idle for longer than the idle timeout.
+     *
+     * @return the number of connections closed
+     */
+    public int evictIdle() {
+        List<PooledTransport> expired = new ArrayList<>();
+        synchronized (idle) {
+            Iterator<PooledTransport> it = idle.descendingIterator();
+            while (it.hasNext()) {
+                PooledTransport pooled = it.next();
+                if (idleMillis(pooled) < settings.getIdleTimeout()) {
+                    break;
+                }
+                it.remove();
+                expired.add(pooled);
+            }
+        }
+        expired.forEach(this::closeQuietly);
+        return expired.size();
+    }
+
+    /**
+     * Closes the idle connections and stops pooling; connections in use are closed when returned.
+     */
+    public void close() {
+        List<PooledTransport> toClose;
+        synchronized (idle) {
+            closed = true;
+            toClose = new ArrayList<>(idle);
+            idle.clear();
+        }
+        toClose.forEach(this::closeQuietly);
+    }
+
+    public int getIdleConnections() {
+        synchronized (idle) {
+            return idle.size();
+        }
+    }
+
+    public int getActiveConnections() {
+        return active.get();
+    }
+
+    public long getConnectionsOpened() {
+        return connectionsOpened.get();
+    }
+
+    public long getMessagesSent() {
+        return messagesSent.get();
+    }
+
+    private Address[] prepare(MimeMessage mimeMessage) throws MessagingException {
+        if (mimeMessage.getSentDate() == null) {
+            mimeMessage.setSentDate(new Date());
+        }
+        // saveChanges() generates a new Message-ID; keep one that was set explicitly
+        String messageId = mimeMessage.getMessageID();
+        mimeMessage.saveChanges();
+        if (messageId != null) {
+            mimeMessage.setHeader("Message-ID", messageId);
+        }
+        Address[] addresses = mimeMessage.getAllRecipients();
+        return addresses != null ? addresses : new Address[0];
+    }
+
+    private PooledTransport borrow() throws MessagingException {
+        try {
+            if (!leases.tryAcquire(settings.getBorrowTimeout(), TimeUnit.MILLISECONDS)) {
+                throw new MessagingException("Timed out waiting for an SMTP connection to " + getHost());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MessagingException("Interrupted waiting for an SMTP connection to " + getHost(), e);
+        }
+
+        try {
+            PooledTransport pooled;
+            while ((pooled = pollIdle()) != null) {
+                if (isReusable(pooled)) {
+                    active.incrementAndGet();
+                    return pooled;
+                }
+                closeQuietly(pooled);
+            }
+
+            pooled = new PooledTransport(connectTransport());
+            connectionsOpened.incrementAndGet();
+            active.incrementAndGet();
+            log.debug("Opened SMTP connection to {}:{}", getHost(), getPort());
+            return pooled;
+        } catch (MessagingException | RuntimeException e) {
+            leases.release();
+            throw e;
+        }
+    }
+
+    private PooledTransport pollIdle() {
+        synchronized (idle) {
+            return idle.pollFirst();
+        }
+    }
+
+    private boolean isReusable(PooledTransport pooled) {
+        long idleMillis = idleMillis(pooled);
+        if (idleMillis >= settings.getIdleTimeout()) {
+            return false;
+        }
+        // isConnected() sends a NOOP, so only check connections that may have been dropped by the server
+        return idleMillis < settings.getValidateAfterIdle() || pooled.transport.isConnected();
+    }
+
+    private void release(PooledTransport pooled, boolean reusable) {
+        active.decrementAndGet();
+        try {
+            boolean pooledAgain = false;
+            if (reusable && pooled.messagesSent < settings.getMaxMessagesPerConnection()) {
+                synchronized (idle) {
+                    if (!closed) {
+                        pooled.lastUsed = System.nanoTime();
+                        idle.offerFirst(pooled);
+                        pooledAgain = true;
+                    }
+                }
+            }
+            if (!pooledAgain) {
+                closeQuietly(pooled);
+            }
+        } finally {
+            leases.release();
+        }
+    }
+
+    private void closeQuietly(PooledTransport pooled) {
+        try {
+            pooled.transport.close();
+        } catch (Exception e) {
+            log.debug("Error closing SMTP connection to {}: {}", getHost(), e.getMessage());
+        }
+    }
+
+    private static long idleMillis(PooledTransport pooled) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - pooled.lastUsed);
+    }
+
+    private static final class PooledTransport {
+        private final Transport transport;
+        private int messagesSent;
+        private long lastUsed = System.nanoTime();
+
+        private PooledTransport(Transport transport) {
+            this.transport = transport;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.shanthigear.service;
+
+import jakarta.mail.Address;
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import jakarta.mail.util.SharedByteArrayInputStream;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * An email that is rendered and MIME-encoded once and then sent to many recipients.
+ * <p>
+ * The encoded message is kept as bytes. A copy parses only the headers and shares the encoded
+ * body with every other copy. When a copy is sent it gets its own Message-ID, but its body is
+ * not encoded again, so each recipient costs a few header lines on top of the SMTP write.
+ */
+final class PreparedMessage {
+
+    private final byte[] encoded;
+
+    private PreparedMessage(byte[] encoded) {
+        this.encoded = encoded;
+    }
+
+    /**
+     * Encode a message that has everything except its recipients.
+     * @param message The message to encode; its Message-ID is dropped
+     * @return The encoded message
+     * @throws MessagingException if the message cannot be encoded
+     */
+    static PreparedMessage of(MimeMessage message) throws MessagingException {
+        message.saveChanges();
+        // Every copy is stamped with a Message-ID of its own when it is sent
+        message.removeHeader("Message-ID");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            message.writeTo(out);
+        } catch (IOException e) {
+            throw new MessagingException("Could not encode message", e);
+        }
+        return new PreparedMessage(out.toByteArray());
+    }
+
+    /**
+     * @param session Session of the sender the copy is sent with; may be null
+     * @param type Header to put the recipients in
+     * @param recipients Recipients of the copy
+     * @return A copy of the message addressed to the given recipients
+     * @throws MessagingException if the copy cannot be created
+     */
+    MimeMessage copyFor(Session session, Message.RecipientType type, Address... recipients) throws MessagingException {
+        MimeMessage copy = new PreparedMimeMessage(session, new SharedByteArrayInputStream(encoded));
+        copy.setRecipients(type, recipients);
+        return copy;
+    }
+
+    /**
+     * @return Size of the encoded message in bytes
+     */
+    int size() {
+        return encoded.length;
+    }
+
+    private static final class PreparedMimeMessage extends MimeMessage {
+
+        PreparedMimeMessage(Session session, InputStream in) throws MessagingException {
+            super(session, in);
+        }
+
+        /**
+         * Only stamps a new Message-ID. The body is already encoded and is written unchanged.
+         */
+        @Override
+        public void saveChanges() throws MessagingException {
+            saved = true;
+            updateMessageID();
+        }
+    }
+}
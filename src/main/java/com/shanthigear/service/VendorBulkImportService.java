@@ -4,20 +4,27 @@ import com.shanthigear.dto.VendorImportDTO;
 import com.shanthigear.dto.BulkImportResponse;
 import com.shanthigear.model.Vendor;
 import com.shanthigear.repository.VendorRepository;
+import com.shanthigear.util.StreamingExcelReader;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.ss.usermodel.DataFormatter;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Propagation;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
-import lombok.Data;
 
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -35,9 +42,20 @@ import com.shanthigear.exception.ExcelProcessingException;
 public class VendorBulkImportService {
     private static final int MAX_RETRIES = 3;
     private static final long RETRY_DELAY_MS = 1000L;
+    private static final String STAGE_READ = "read";
+    private static final String STAGE_MAP = "map";
+    private static final String STAGE_PERSIST = "persist";
+    private static final long ENQUEUE_TIMEOUT_MS = 1000L;
+    private static final List<ParsedRow> END_OF_CHUNKS = new ArrayList<>();
     private final VendorRepository vendorRepository;
-    private final ThreadPoolTaskExecutor taskExecutor;
     private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final VendorCache vendorCache;
+    // Resolved by name; shared by the workers of all running imports
+    private final AsyncTaskExecutor vendorImportExecutor;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
     
     @Value("${vendor.import.batch-size:50}")
     private int batchSize;
@@ -45,51 +63,70 @@ public class VendorBulkImportService {
     @Value("${vendor.import.max-threads:10}")
     private int maxThreads;
     
+    @Value("${vendor.import.pipeline.map-threads:2}")
+    private int mapThreads;
+    
+    @Value("${vendor.import.pipeline.persist-threads:4}")
+    private int persistThreads;
+    
+    @Value("${vendor.import.pipeline.queue-capacity:1000}")
+    private int queueCapacity;
+    
+    @Value("${vendor.import.pipeline.chunk-queue-capacity:8}")
+    private int chunkQueueCapacity;
+    
+    /** Threads of {@code vendorImportExecutor} not taken by a running pipeline. */
+    private Semaphore workerThreads;
+    
+    @PostConstruct
+    public void init() {
+        if (mapThreads + persistThreads > maxThreads) {
+            throw new IllegalStateException(String.format(
+                    "vendor.import.max-threads (%d) is less than the map and persist threads of one import (%d)",
+                    maxThreads, mapThreads + persistThreads));
+        }
+        workerThreads = new Semaphore(maxThreads, true);
+    }
+    
     public BulkImportResponse processBulkImport(MultipartFile file) throws IOException {
-        long startTime = System.currentTimeMillis();
         log.info("Starting bulk import process for file: {}", file.getOriginalFilename());
+        return runImport(callback -> StreamingExcelReader.readFirstSheet(file, new DataFormatter(), callback),
+                0, ImportCheckpointListener.NONE);
+    }
+    
+    /**
+     * Imports the vendor master sheet at the given path, skipping rows that an earlier run
+     * already committed.
+     *
+     * @param file           path to the .xlsx file
+     * @param resumeAfterRow 1-based sheet row of the last checkpoint, or 0 to start from the top
+     * @param listener       receives a checkpoint whenever the contiguous committed range grows
+     */
+    public BulkImportResponse processBulkImport(Path file, int resumeAfterRow, ImportCheckpointListener listener)
+            throws IOException {
+        log.info("Starting bulk import process for file: {} after row {}", file.getFileName(), resumeAfterRow);
+        return runImport(callback -> StreamingExcelReader.readFirstSheet(file, new DataFormatter(), callback),
+                resumeAfterRow, listener);
+    }
+    
+    private BulkImportResponse runImport(SheetSource source, int resumeAfterRow, ImportCheckpointListener listener) {
+        long startTime = System.currentTimeMillis();
         
-        try (Workbook workbook = new XSSFWorkbook(file.getInputStream())) {
-            // Process sheet in streaming mode to handle large files
-            Sheet sheet = workbook.getSheetAt(0);
-            int totalRows = sheet.getLastRowNum();
-            log.info("Found {} rows to process", totalRows);
+        try {
+            ImportPipeline pipeline = new ImportPipeline(resumeAfterRow, listener);
+            pipeline.run(source);
             
-            // Initialize counters
-            AtomicInteger successCount = new AtomicInteger(0);
-            AtomicInteger failureCount = new AtomicInteger(0);
-            List<String> errors = Collections.synchronizedList(new ArrayList<>());
-            
-            // Process in chunks to manage memory
-            int chunkSize = 1000; // Process 1000 rows at a time
-            for (int i = 1; i <= totalRows; i += chunkSize) {
-                int end = Math.min(i + chunkSize - 1, totalRows);
-                log.info("Processing rows {} to {}", i, end);
-                
-                // Prepare batch of rows
-                List<Row> batch = new ArrayList<>();
-                for (int j = i; j <= end; j++) {
-                    batch.add(sheet.getRow(j));
-                }
-                
-                List<BatchResult> results = processBatch(batch);
-                
-                // Update counters
-                for (BatchResult result : results) {
-                    successCount.addAndGet(result.getSuccessCount());
-                    failureCount.addAndGet(result.getFailureCount());
-                    errors.addAll(result.getErrors());
-                }
-            }
+            int successCount = pipeline.successCount.get();
+            List<String> errors = new ArrayList<>(pipeline.errors);
             
             long endTime = System.currentTimeMillis();
             log.info("Completed bulk import in {} ms. Success: {}, Failures: {}", 
-                    (endTime - startTime), successCount.get(), failureCount.get());
+                    (endTime - startTime), successCount, errors.size());
             
             return BulkImportResponse.builder()
-                    .totalRecords(totalRows)
-                    .successCount(successCount.get())
-                    .failureCount(failureCount.get())
+                    .totalRecords(pipeline.totalRows.get())
+                    .successCount(successCount)
+                    .failureCount(errors.size())
                     .errors(errors.size() > 100 ? errors.subList(0, 100) : errors) // Limit to 100 errors
                     .build();
                     
@@ -99,234 +136,547 @@ public class VendorBulkImportService {
         }
     }
     
-
-    private List<BatchResult> processBatch(List<Row> batch) {
-        List<BatchResult> results = new ArrayList<>();
-        List<CompletableFuture<BatchResult>> futures = batch.stream()
-            .map(row -> CompletableFuture.supplyAsync(() -> {
-                AtomicInteger successCount = new AtomicInteger(0);
-                List<String> errors = Collections.synchronizedList(new ArrayList<>());
-                
-                processRow(row, successCount, new AtomicInteger(0), errors);
-                
-                return new BatchResult(successCount.get(), errors);
-            }, taskExecutor))
-            .collect(Collectors.toList());
-        
-        // Wait for all futures to complete
-        CompletableFuture<Void> allOf = CompletableFuture.allOf(
-            futures.toArray(new CompletableFuture<?>[0])
-        );
-        
-        try {
-            allOf.get(); // Wait for all futures to complete
-            
-            // Collect results
-            for (CompletableFuture<BatchResult> future : futures) {
-                results.add(future.get());
-            }
-        } catch (Exception e) {
-            log.error("Error processing batch: {}", e.getMessage(), e);
-            // Add error result for failed batch
-            results.add(new BatchResult(0, Collections.singletonList("Error processing batch: " + e.getMessage())));
-        }
-        
-        return results;
-    }
-    
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
-    protected void processRow(Row row, AtomicInteger successCount, AtomicInteger failureCount, List<String> errors) {
-        if (row == null) return;
-        
-        DataFormatter formatter = new DataFormatter();
-        String vendorId = formatter.formatCellValue(row.getCell(0, Row.MissingCellPolicy.RETURN_BLANK_AS_NULL));
+    /**
+     * Parses and validates a single row of the vendor master sheet.
+     *
+     * @param rowNumber 1-based row number used in error messages
+     * @param values cell values of the row by column index
+     */
+    private ParsedRow parseRow(int rowNumber, List<String> values) {
+        String vendorId = getCellValue(values, 0);
         
         try {
             // Parse DTO from row with all columns from vendor master Excel
             VendorImportDTO dto = VendorImportDTO.builder()
                 .vendorNumber(vendorId)
-                .vendorName(getCellValue(row, 1, formatter))
-                .vendorSite(getCellValue(row, 2, formatter))
-                .payGroup(getCellValue(row, 3, formatter))
-                .addressLine1(getCellValue(row, 4, formatter))
-                .addressLine2(getCellValue(row, 5, formatter))
-                .addressLine3(getCellValue(row, 6, formatter))
-                .city(getCellValue(row, 7, formatter))
-                .state(getCellValue(row, 8, formatter))
-                .pincode(getCellValue(row, 9, formatter))
-                .bankAccountNum(getCellValue(row, 10, formatter))
-                .bankName(getCellValue(row, 11, formatter))
-                .ifscCode(getCellValue(row, 12, formatter))
-                .branch(getCellValue(row, 13, formatter))
-                .emailAddress(getCellValue(row, 14, formatter))
-                .creationDate(getCellValue(row, 15, formatter))
-                .vendorType(getCellValue(row, 16, formatter))
-                .startDateActivity(getCellValue(row, 17, formatter))
-                .attribute12(getCellValue(row, 18, formatter))
-                .attribute13(getCellValue(row, 19, formatter))
-                .freightTermsLookupCode(getCellValue(row, 20, formatter))
-                .paymentMethodLookupCode(getCellValue(row, 21, formatter))
-                .bankAccountName(getCellValue(row, 22, formatter))
-                .attribute2(getCellValue(row, 23, formatter))
-                .attribute3(getCellValue(row, 24, formatter))
+                .vendorName(getCellValue(values, 1))
+                .vendorSite(getCellValue(values, 2))
+                .payGroup(getCellValue(values, 3))
+                .addressLine1(getCellValue(values, 4))
+                .addressLine2(getCellValue(values, 5))
+                .addressLine3(getCellValue(values, 6))
+                .city(getCellValue(values, 7))
+                .state(getCellValue(values, 8))
+                .pincode(getCellValue(values, 9))
+                .bankAccountNum(getCellValue(values, 10))
+                .bankName(getCellValue(values, 11))
+                .ifscCode(getCellValue(values, 12))
+                .branch(getCellValue(values, 13))
+                .emailAddress(getCellValue(values, 14))
+                .creationDate(getCellValue(values, 15))
+                .vendorType(getCellValue(values, 16))
+                .startDateActivity(getCellValue(values, 17))
+                .attribute12(getCellValue(values, 18))
+                .attribute13(getCellValue(values, 19))
+                .freightTermsLookupCode(getCellValue(values, 20))
+                .paymentMethodLookupCode(getCellValue(values, 21))
+                .bankAccountName(getCellValue(values, 22))
+                .attribute2(getCellValue(values, 23))
+                .attribute3(getCellValue(values, 24))
                 .build();
                 
             // Validate required fields
             List<String> validationErrors = dto.validate();
             if (!validationErrors.isEmpty()) {
-                String errorMsg = String.format("Row %d: %s", row.getRowNum() + 1, 
-                        String.join(", ", validationErrors));
-                errors.add(errorMsg);
-                failureCount.incrementAndGet();
-                return;
+                return ParsedRow.invalid(rowNumber, String.format("Row %d: %s", rowNumber, 
+                        String.join(", ", validationErrors)));
             }
             
-            // Validation already done above using dto.validate()
+            return ParsedRow.valid(rowNumber, dto);
             
-            // Process with retry logic
-            boolean[] success = {false};
-            int attempt = 0;
-            while (!success[0] && attempt < MAX_RETRIES) {
+        } catch (Exception e) {
+            String errorMsg = String.format("Error processing row %d (vendor ID: %s): %s",
+                    rowNumber, vendorId, e.getMessage());
+            log.error(errorMsg, e);
+            return ParsedRow.invalid(rowNumber, errorMsg);
+        }
+    }
+    
+    /**
+     * Inserts or updates a chunk of validated rows in a single transaction.
+     * <p>
+     * Existing vendors are resolved with one IN query; new vendors are persisted and existing
+     * ones merged into the managed instances, so Hibernate flushes the whole chunk as JDBC
+     * batches. If the chunk fails, its rows are retried one by one to report per-row errors.
+     *
+     * @return errors by row number for the rows that could not be saved
+     */
+    private Map<Integer, String> upsertChunk(List<ParsedRow> chunk) {
+        try {
+            Integer saved = transactionTemplate.execute(status -> writeChunk(chunk));
+            log.debug("Upserted {} vendors in one batch", saved);
+            return Collections.emptyMap();
+        } catch (Exception e) {
+            log.warn("Batch upsert of {} vendors failed, retrying rows individually: {}", 
+                    chunk.size(), e.getMessage());
+            
+            Map<Integer, String> rowErrors = new LinkedHashMap<>();
+            for (ParsedRow row : chunk) {
+                String error = upsertRow(row);
+                if (error != null) {
+                    rowErrors.put(row.getRowNumber(), error);
+                }
+            }
+            return rowErrors;
+        }
+    }
+    
+    private int writeChunk(List<ParsedRow> chunk) {
+        Set<String> vendorNumbers = chunk.stream()
+            .map(row -> row.getDto().getVendorNumber())
+            .collect(Collectors.toSet());
+        
+        Map<String, Vendor> vendors = new HashMap<>();
+        for (Vendor existing : vendorRepository.findByVendorNumberIn(vendorNumbers)) {
+            vendors.put(existing.getVendorNumber(), existing);
+        }
+        
+        for (ParsedRow row : chunk) {
+            String vendorNumber = row.getDto().getVendorNumber();
+            Vendor existing = vendors.get(vendorNumber);
+            Vendor updated = toVendor(row.getDto(), existing);
+            
+            if (existing != null) {
+                // Copies state onto the managed instance, no extra SELECT
+                vendors.put(vendorNumber, entityManager.merge(updated));
+            } else {
+                entityManager.persist(updated);
+                vendors.put(vendorNumber, updated);
+            }
+        }
+        
+        entityManager.flush();
+        vendorCache.invalidateAll(vendorNumbers);
+        return chunk.size();
+    }
+    
+    /**
+     * Inserts or updates a single row in its own transaction, with retries.
+     *
+     * @return the error message, or null if the row was saved
+     */
+    private String upsertRow(ParsedRow row) {
+        VendorImportDTO dto = row.getDto();
+        int attempt = 0;
+        while (true) {
+            try {
+                transactionTemplate.execute(status -> {
+                    Vendor existing = vendorRepository.findByVendorNumber(dto.getVendorNumber()).orElse(null);
+                    Vendor savedVendor = vendorRepository.save(toVendor(dto, existing));
+                    vendorCache.invalidate(savedVendor.getVendorNumber());
+                    log.info("Successfully processed vendor: {}", savedVendor.getVendorNumber());
+                    return null;
+                });
+                return null;
+            } catch (Exception e) {
+                attempt++;
+                if (attempt >= MAX_RETRIES) {
+                    log.error("Failed to process vendor {} after {} attempts: {}", 
+                            dto.getVendorNumber(), MAX_RETRIES, e.getMessage());
+                    return String.format("Row %d: Failed to process vendor %s: %s", 
+                            row.getRowNumber(), dto.getVendorNumber(), e.getMessage());
+                }
                 try {
-                    transactionTemplate.execute(status -> {
+                    Thread.sleep(RETRY_DELAY_MS * (attempt + 1));
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw new ExcelProcessingException("Processing interrupted", ie);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Builds the vendor entity for an import row, preserving the creation date of an existing vendor.
+     */
+    private Vendor toVendor(VendorImportDTO dto, Vendor existing) {
+        Vendor.VendorBuilder vendorBuilder = Vendor.builder()
+            // Basic information
+            .vendorNumber(dto.getVendorNumber())
+            .vendorName(dto.getVendorName())
+            .vendorSite(dto.getVendorSite())
+            .payGroup(dto.getPayGroup())
+            
+            // Address
+            .addressLine1(dto.getAddressLine1())
+            .addressLine2(dto.getAddressLine2())
+            .addressLine3(dto.getAddressLine3())
+            .city(dto.getCity())
+            .state(dto.getState())
+            .pincode(dto.getPincode())
+            
+            // Bank details
+            .bankAccountNum(dto.getBankAccountNum())
+            .accountNumber(dto.getBankAccountNum()) // Map to accountNumber as well
+            .bankName(dto.getBankName())
+            .ifscCode(dto.getIfscCode())
+            .branch(dto.getBranch())
+            .bankAccountName(dto.getBankAccountName())
+            
+            // Contact information
+            .emailAddress(dto.getEmailAddress())
+            .vendorType(dto.getVendorType())
+            
+            // Additional attributes
+            .freightTermsLookupCode(dto.getFreightTermsLookupCode())
+            .paymentMethodLookupCode(dto.getPaymentMethodLookupCode())
+            .attribute12(dto.getAttribute12())
+            .attribute13(dto.getAttribute13())
+            .attribute2(dto.getAttribute2())
+            .attribute3(dto.getAttribute3())
+            .operatingUnit(dto.getOperatingUnit())
+            
+            // Keep the creation date of existing vendors
+            .creationDate(existing != null ? existing.getCreationDate() : LocalDate.now());
+        
+        // Parse and set start date activity if present
+        if (StringUtils.isNotBlank(dto.getStartDateActivity())) {
+            try {
+                vendorBuilder.startDateActivity(LocalDate.parse(dto.getStartDateActivity()));
+            } catch (Exception e) {
+                log.warn("Invalid start date format for vendor {}: {}", 
+                        dto.getVendorNumber(), dto.getStartDateActivity());
+            }
+        }
+        
+        return vendorBuilder.build();
+    }
+    
+    private String getCellValue(List<String> values, int cellNum) {
+        if (values == null || cellNum >= values.size()) return "";
+        String value = values.get(cellNum);
+        return value != null ? value.trim() : "";
+    }
+    
+    /**
+     * One run of the import pipeline for a single file.
+     * <p>
+     * Three stages connected by bounded queues:
+     * <ol>
+     *   <li>read: the calling thread streams rows from the sheet (never holding the whole sheet);</li>
+     *   <li>map: {@code vendor.import.pipeline.map-threads} workers parse and validate rows and
+     *       group valid ones into chunks of {@code vendor.import.batch-size};</li>
+     *   <li>persist: {@code vendor.import.pipeline.persist-threads} workers upsert each chunk
+     *       in its own transaction.</li>
+     * </ol>
+     * A full queue blocks the upstream stage, so a slow stage throttles the reader instead of
+     * letting rows pile up in memory. The reader checks that the workers are still running
+     * before every row and while it waits, so a failed worker ends the import instead of
+     * leaving the reader blocked.
+     * <p>
+     * The workers run on the shared {@code vendorImportExecutor}; a pipeline waits until the
+     * executor has a thread for each of them, so concurrent imports queue up rather than
+     * starting workers that cannot run. Each stage reports row counts and processing time under
+     * {@code vendor.import.pipeline.rows} and {@code vendor.import.pipeline.stage.time}.
+     * <p>
+     * Rows finish out of order because chunks are persisted concurrently. The read stage
+     * registers every row it emits, and a checkpoint is only reported once all rows before it
+     * have finished, so resuming after the checkpoint never skips an uncommitted row. A
+     * checkpoint listener that throws aborts the import: no further chunk is persisted and
+     * the import fails with the listener's exception as the cause.
+     */
+    private class ImportPipeline {
+        private final BlockingQueue<RawRow> rowQueue = new ArrayBlockingQueue<>(queueCapacity);
+        private final BlockingQueue<List<ParsedRow>> chunkQueue = new ArrayBlockingQueue<>(chunkQueueCapacity);
+        private final AtomicInteger activeMappers = new AtomicInteger(mapThreads);
+        private final AtomicInteger totalRows = new AtomicInteger(0);
+        private final AtomicInteger successCount = new AtomicInteger(0);
+        private final List<String> errors = Collections.synchronizedList(new ArrayList<>());
+        private final List<Future<?>> stages = new ArrayList<>();
+        
+        private final int resumeAfterRow;
+        private final ImportCheckpointListener checkpointListener;
+        private final Deque<Integer> pendingRows = new ArrayDeque<>();
+        private final Map<Integer, RowOutcome> finishedRows = new HashMap<>();
+        private volatile RuntimeException checkpointFailure;
+        
+        private final Counter readRows = stageCounter(STAGE_READ);
+        private final Counter mappedRows = stageCounter(STAGE_MAP);
+        private final Counter persistedRows = stageCounter(STAGE_PERSIST);
+        private final Timer mapTimer = stageTimer(STAGE_MAP);
+        private final Timer persistTimer = stageTimer(STAGE_PERSIST);
+        
+        ImportPipeline(int resumeAfterRow, ImportCheckpointListener checkpointListener) {
+            this.resumeAfterRow = resumeAfterRow;
+            this.checkpointListener = checkpointListener;
+        }
+        
+        void run(SheetSource source) throws IOException, InterruptedException, ExecutionException {
+            int workers = mapThreads + persistThreads;
+            workerThreads.acquire(workers);
+            try {
+                for (int i = 0; i < mapThreads; i++) {
+                    stages.add(vendorImportExecutor.submit(this::mapStage));
+                }
+                for (int i = 0; i < persistThreads; i++) {
+                    stages.add(vendorImportExecutor.submit(this::persistStage));
+                }
+                
+                Timer.Sample sample = Timer.start(meterRegistry);
+                readStage(source);
+                sample.stop(stageTimer(STAGE_READ));
+                
+                // Let every mapper drain the queue and stop
+                for (int i = 0; i < mapThreads; i++) {
+                    enqueue(RawRow.END);
+                }
+                for (Future<?> stage : stages) {
+                    while (true) {
                         try {
-                            // Find existing vendor or create a new one
-                            Vendor vendor = vendorRepository.findByVendorNumber(dto.getVendorNumber())
-                                .orElseGet(() -> Vendor.builder().build());
-                            
-                            // Create or update vendor using builder
-                            Vendor.VendorBuilder vendorBuilder = Vendor.builder()
-                                // Basic information
-                                .vendorNumber(dto.getVendorNumber())
-                                .vendorName(dto.getVendorName())
-                                .vendorSite(dto.getVendorSite())
-                                .payGroup(dto.getPayGroup())
-                                
-                                // Address
-                                .addressLine1(dto.getAddressLine1())
-                                .addressLine2(dto.getAddressLine2())
-                                .addressLine3(dto.getAddressLine3())
-                                .city(dto.getCity())
-                                .state(dto.getState())
-                                .pincode(dto.getPincode())
-                                
-                                // Bank details
-                                .bankAccountNum(dto.getBankAccountNum())
-                                .accountNumber(dto.getBankAccountNum()) // Map to accountNumber as well
-                                .bankName(dto.getBankName())
-                                .ifscCode(dto.getIfscCode())
-                                .branch(dto.getBranch())
-                                .bankAccountName(dto.getBankAccountName())
-                                
-                                // Contact information
-                                .emailAddress(dto.getEmailAddress())
-                                .vendorType(dto.getVendorType())
-                                
-                                // Additional attributes
-                                .freightTermsLookupCode(dto.getFreightTermsLookupCode())
-                                .paymentMethodLookupCode(dto.getPaymentMethodLookupCode())
-                                .attribute12(dto.getAttribute12())
-                                .attribute13(dto.getAttribute13())
-                                .attribute2(dto.getAttribute2())
-                                .attribute3(dto.getAttribute3())
-                                .operatingUnit(dto.getOperatingUnit())
-                                
-                                // Set creation date for new vendors
-                                .creationDate(vendor.getCreationDate() != null ? 
-                                    vendor.getCreationDate() : LocalDate.now());
-                            
-                            // Parse and set start date activity if present
-                            if (StringUtils.isNotBlank(dto.getStartDateActivity())) {
-                                try {
-                                    LocalDate startDate = LocalDate.parse(dto.getStartDateActivity());
-                                    vendorBuilder.startDateActivity(startDate);
-                                } catch (Exception e) {
-                                    log.warn("Invalid start date format for vendor {}: {}", 
-                                            dto.getVendorNumber(), dto.getStartDateActivity());
-                                }
-                            }
-                            
-                            // Build the vendor
-                            Vendor updatedVendor = vendorBuilder.build();
-                            
-                            // For existing vendors, preserve the creation date
-                            if (vendor.getVendorNumber() != null) {
-                                updatedVendor.setCreationDate(vendor.getCreationDate());
-                            }
-                            
-                            // Save the vendor
-                            Vendor savedVendor = vendorRepository.save(updatedVendor);
-                            
-                            log.info("Successfully processed vendor: {}", savedVendor.getVendorNumber());
-                            successCount.incrementAndGet();
-                            success[0] = true;
-                            return null;
-                        } catch (Exception e) {
-                            log.error("Error processing vendor {}: {}", dto.getVendorNumber(), e.getMessage(), e);
-                            throw new ExcelProcessingException("Error processing vendor data: " + e.getMessage());
+                            stage.get(ENQUEUE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                            break;
+                        } catch (TimeoutException e) {
+                            // A failed worker may leave the others blocked on a queue
+                            checkWorkers();
                         }
-                    });
+                    }
+                }
+            } finally {
+                // Stops the workers if the import failed; finished workers are unaffected
+                stages.forEach(stage -> stage.cancel(true));
+                workerThreads.release(workers);
+            }
+        }
+        
+        /**
+         * Hands a row to the map stage, waiting while the queue is full as long as no worker
+         * has failed.
+         *
+         * @throws ExecutionException with the failure of a worker that stopped
+         */
+        private void enqueue(RawRow row) throws InterruptedException, ExecutionException {
+            checkWorkers();
+            while (!rowQueue.offer(row, ENQUEUE_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                checkWorkers();
+            }
+        }
+        
+        /**
+         * @throws ExecutionException with the failure of a worker that stopped
+         */
+        private void checkWorkers() throws InterruptedException, ExecutionException {
+            for (Future<?> stage : stages) {
+                if (stage.isDone()) {
+                    // Throws if the worker failed; a mapper that took an END marker just returned
+                    stage.get();
+                }
+            }
+        }
+        
+        private void readStage(SheetSource source) throws IOException {
+            source.read((rowIndex, values) -> {
+                int rowNumber = rowIndex + 1;
+                if (rowIndex == 0 || rowNumber <= resumeAfterRow) {
+                    return; // Skip header and rows committed by an earlier run
+                }
+                track(rowNumber);
+                try {
+                    enqueue(new RawRow(rowNumber, values));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new ExcelProcessingException("Processing interrupted", e);
+                } catch (ExecutionException e) {
+                    throw new ExcelProcessingException("Import worker failed: " + e.getCause().getMessage(), e.getCause());
+                }
+                totalRows.incrementAndGet();
+                readRows.increment();
+            });
+            log.info("Read {} rows from sheet", totalRows.get());
+        }
+        
+        private void mapStage() {
+            List<ParsedRow> chunk = new ArrayList<>(batchSize);
+            try {
+                while (true) {
+                    RawRow raw = rowQueue.take();
+                    if (raw == RawRow.END) {
+                        break;
+                    }
                     
-                    // If we reach here, the transaction was successful
-                    break;
-                } catch (Exception e) {
-                    attempt++;
-                    if (attempt >= MAX_RETRIES) {
-                        log.error("Failed to process vendor {} after {} attempts: {}", 
-                                dto.getVendorNumber(), MAX_RETRIES, e.getMessage());
-                        errors.add(String.format("Row %d: Failed to process vendor %s: %s", 
-                                row.getRowNum() + 1, dto.getVendorNumber(), e.getMessage()));
-                        failureCount.incrementAndGet();
-                    } else {
-                        try {
-                            Thread.sleep(RETRY_DELAY_MS * (attempt + 1));
-                        } catch (InterruptedException ie) {
-                            Thread.currentThread().interrupt();
-                            throw new ExcelProcessingException("Processing interrupted", ie);
+                    ParsedRow parsed = mapTimer.record(() -> parseRow(raw.rowNumber(), raw.values()));
+                    mappedRows.increment();
+                    if (!parsed.isValid()) {
+                        errors.addAll(parsed.getErrors());
+                        finish(Collections.singletonMap(parsed.getRowNumber(),
+                                new RowOutcome(String.join(", ", parsed.getErrors()))));
+                        continue;
+                    }
+                    
+                    chunk.add(parsed);
+                    if (chunk.size() >= batchSize) {
+                        chunkQueue.put(chunk);
+                        chunk = new ArrayList<>(batchSize);
+                    }
+                }
+                if (!chunk.isEmpty()) {
+                    chunkQueue.put(chunk);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ExcelProcessingException("Processing interrupted", e);
+            } finally {
+                // The last mapper to finish stops the persist stage
+                if (activeMappers.decrementAndGet() == 0) {
+                    signalEndOfChunks();
+                }
+            }
+        }
+        
+        private void signalEndOfChunks() {
+            try {
+                for (int i = 0; i < persistThreads; i++) {
+                    chunkQueue.put(END_OF_CHUNKS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        
+        private void persistStage() {
+            try {
+                while (true) {
+                    List<ParsedRow> chunk = chunkQueue.take();
+                    if (chunk == END_OF_CHUNKS) {
+                        break;
+                    }
+                    if (checkpointFailure != null) {
+                        throw checkpointFailure;
+                    }
+                    
+                    Map<Integer, String> rowErrors;
+                    try {
+                        rowErrors = persistTimer.record(() -> upsertChunk(chunk));
+                    } catch (RuntimeException e) {
+                        // Keep consuming so upstream stages never block on a dead worker
+                        log.error("Error persisting chunk of {} vendors: {}", chunk.size(), e.getMessage(), e);
+                        rowErrors = new LinkedHashMap<>();
+                        for (ParsedRow row : chunk) {
+                            rowErrors.put(row.getRowNumber(), String.format("Row %d: Failed to process vendor %s: %s",
+                                    row.getRowNumber(), row.getDto().getVendorNumber(), e.getMessage()));
                         }
                     }
+                    
+                    Map<Integer, RowOutcome> outcomes = new HashMap<>();
+                    for (ParsedRow row : chunk) {
+                        String error = rowErrors.get(row.getRowNumber());
+                        outcomes.put(row.getRowNumber(), error == null ? RowOutcome.SAVED : new RowOutcome(error));
+                    }
+                    successCount.addAndGet(chunk.size() - rowErrors.size());
+                    errors.addAll(rowErrors.values());
+                    persistedRows.increment(chunk.size());
+                    finish(outcomes);
                 }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ExcelProcessingException("Processing interrupted", e);
+            }
+        }
+        
+        private void track(int rowNumber) {
+            synchronized (pendingRows) {
+                pendingRows.addLast(rowNumber);
             }
-            
-        } catch (Exception e) {
-            String errorMsg = String.format("Error processing row %d (vendor ID: %s): %s",
-                    row.getRowNum() + 1, vendorId, e.getMessage());
-            errors.add(errorMsg);
-            failureCount.incrementAndGet();
-            log.error(errorMsg, e);
         }
+        
+        /**
+         * Records finished rows and reports a checkpoint if the oldest pending rows are now done.
+         *
+         * @throws RuntimeException the checkpoint listener's failure, which aborts the import
+         */
+        private void finish(Map<Integer, RowOutcome> outcomes) {
+            synchronized (pendingRows) {
+                finishedRows.putAll(outcomes);
+                
+                int lastCommittedRow = -1;
+                int rows = 0;
+                int succeeded = 0;
+                List<String> rowErrors = new ArrayList<>();
+                while (!pendingRows.isEmpty()) {
+                    RowOutcome outcome = finishedRows.remove(pendingRows.peekFirst());
+                    if (outcome == null) {
+                        break;
+                    }
+                    lastCommittedRow = pendingRows.pollFirst();
+                    rows++;
+                    if (outcome.error() == null) {
+                        succeeded++;
+                    } else {
+                        rowErrors.add(outcome.error());
+                    }
+                }
+                
+                if (rows > 0) {
+                    try {
+                        checkpointListener.onCheckpoint(new ImportCheckpointListener.Checkpoint(
+                                lastCommittedRow, rows, succeeded, rowErrors));
+                    } catch (RuntimeException e) {
+                        // E.g. the job's lease was lost; the other persist workers stop before their next chunk
+                        log.warn("Failed to record import checkpoint at row {}, stopping import: {}",
+                                lastCommittedRow, e.getMessage());
+                        checkpointFailure = e;
+                        throw e;
+                    }
+                }
+            }
+        }
+    }
+    
+    private Counter stageCounter(String stage) {
+        return Counter.builder("vendor.import.pipeline.rows")
+                .description("Rows processed by each vendor import pipeline stage")
+                .tag("stage", stage)
+                .register(meterRegistry);
+    }
+    
+    private Timer stageTimer(String stage) {
+        return Timer.builder("vendor.import.pipeline.stage.time")
+                .description("Time spent in each vendor import pipeline stage")
+                .tag("stage", stage)
+                .register(meterRegistry);
     }
     
-    private String getCellValue(Row row, int cellNum, DataFormatter formatter) {
-        return getCellValue(row, cellNum, formatter, "");
+    /**
+     * Cell values of a sheet row as handed from the read stage to the map stage.
+     */
+    private record RawRow(int rowNumber, List<String> values) {
+        static final RawRow END = new RawRow(-1, Collections.emptyList());
     }
     
-    private String getCellValue(Row row, int cellNum, DataFormatter formatter, String defaultValue) {
-        if (row == null) return defaultValue;
-        Cell cell = row.getCell(cellNum, Row.MissingCellPolicy.RETURN_BLANK_AS_NULL);
-        return cell != null ? formatter.formatCellValue(cell).trim() : defaultValue;
+    /**
+     * Streams the rows of the sheet being imported into the pipeline's read stage.
+     */
+    @FunctionalInterface
+    private interface SheetSource {
+        void read(StreamingExcelReader.RowCallback callback) throws IOException;
     }
     
-    @Data
-    public static class BatchResult {
-        private final int successCount;
+    /**
+     * Final state of a row, kept until every earlier row has finished too.
+     */
+    private record RowOutcome(String error) {
+        static final RowOutcome SAVED = new RowOutcome(null);
+    }
+    
+    /**
+     * A parsed sheet row: either a validated DTO or the errors that made it invalid.
+     */
+    @Getter
+    @AllArgsConstructor(access = AccessLevel.PRIVATE)
+    private static class ParsedRow {
+        private final int rowNumber;
+        private final VendorImportDTO dto;
         private final List<String> errors;
         
-        public BatchResult(int successCount, List<String> errors) {
-            this.successCount = successCount;
-            this.errors = errors != null ? new ArrayList<>(errors) : new ArrayList<>();
-        }
-        
-        public int getSuccessCount() {
-            return successCount;
+        static ParsedRow valid(int rowNumber, VendorImportDTO dto) {
+            return new ParsedRow(rowNumber, dto, Collections.emptyList());
         }
         
-        public List<String> getErrors() {
-            return new ArrayList<>(errors);
+        static ParsedRow invalid(int rowNumber, String error) {
+            return new ParsedRow(rowNumber, null, Collections.singletonList(error));
         }
         
-        public int getFailureCount() {
-            return errors.size();
+        boolean isValid() {
+            return dto != null;
         }
     }
 }
@@ -0,0 +1,165 @@
+package com.shanthigear.service;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.shanthigear.model.Vendor;
+import com.shanthigear.repository.VendorRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Vendor lookups by vendor number, shared by the payment ingestion paths.
+ * <p>
+ * Entries are bounded in number and expire after a fixed time, so vendors changed outside
+ * this application are picked up eventually; changes made through {@link VendorService} and the
+ * vendor imports evict the vendor straight away. Unknown vendor numbers are not cached, so a vendor created after a
+ * failed lookup is found on the next one.
+ * <p>
+ * Cached vendors are detached entities shared between callers and must not be modified. A
+ * caller that changes a vendor works on a copy ({@code toBuilder().build()}), saves it and
+ * {@link #put}s the saved vendor; inside a transaction it is only cached once the transaction
+ * commits, so a rollback never leaves a vendor in the cache that the database does not have.
+ */
+@Slf4j
+@Service
+public class VendorCache {
+
+    private final VendorRepository vendorRepository;
+    private final LoadingCache<String, Vendor> vendors;
+
+    public VendorCache(VendorRepository vendorRepository,
+                       MeterRegistry meterRegistry,
+                       @Value("${app.vendor-cache.maximum-size:10000}") long maximumSize,
+                       @Value("${app.vendor-cache.expire-after-write:10m}") Duration expireAfterWrite) {
+        this.vendorRepository = vendorRepository;
+        this.vendors = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build(new VendorLoader());
+
+        CaffeineCacheMetrics.monitor(meterRegistry, vendors, "vendors");
+        Gauge.builder("vendor.cache.hit.ratio", vendors, cache -> cache.stats().hitRate())
+                .description("Fraction of vendor lookups served from the cache")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return the vendor with the given number, loading it on a miss
+     */
+    public Optional<Vendor> get(String vendorNumber) {
+        if (vendorNumber == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(vendors.get(vendorNumber));
+    }
+
+    /**
+     * Looks up a batch of vendors, loading all misses with a single query.
+     *
+     * @return the vendors found, keyed by vendor number; unknown numbers are absent
+     */
+    public Map<String, Vendor> getAll(Collection<String> vendorNumbers) {
+        Set<String> keys = vendorNumbers.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (keys.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return vendors.getAll(keys);
+    }
+
+    public boolean exists(String vendorNumber) {
+        return get(vendorNumber).isPresent();
+    }
+
+    /**
+     * Caches a vendor that has just been saved. Inside a transaction the vendor is evicted now
+     * and cached after commit; after a rollback it is loaded again on the next lookup.
+     */
+    public void put(Vendor vendor) {
+        if (vendor == null || vendor.getVendorNumber() == null) {
+            return;
+        }
+        // Cache a copy, so the caller's instance can be changed without touching the cache
+        String vendorNumber = vendor.getVendorNumber();
+        Vendor cached = vendor.toBuilder().build();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            vendors.invalidate(vendorNumber);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    vendors.put(vendorNumber, cached);
+                }
+            });
+        } else {
+            vendors.put(vendorNumber, cached);
+        }
+    }
+
+    /**
+     * Evicts a vendor after it has been changed or deleted.
+     * <p>
+     * Inside a transaction the vendor is evicted again after commit, so a lookup that ran
+     * concurrently cannot leave the pre-commit row in the cache.
+     */
+    public void invalidate(String vendorNumber) {
+        if (vendorNumber != null) {
+            invalidateAll(List.of(vendorNumber));
+        }
+    }
+
+    /**
+     * Evicts a batch of vendors, as {@link #invalidate} does for one.
+     */
+    public void invalidateAll(Collection<String> vendorNumbers) {
+        List<String> keys = vendorNumbers.stream()
+                .filter(Objects::nonNull)
+                .toList();
+        if (keys.isEmpty()) {
+            return;
+        }
+        vendors.invalidateAll(keys);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    vendors.invalidateAll(keys);
+                }
+            });
+        }
+        log.debug("Evicted {} vendor(s) from cache", keys.size());
+    }
+
+    private class VendorLoader implements CacheLoader<String, Vendor> {
+
+        @Override
+        public Vendor load(String vendorNumber) {
+            return vendorRepository.findByVendorNumber(vendorNumber).orElse(null);
+        }
+
+        @Override
+        public Map<String, Vendor> loadAll(Set<? extends String> vendorNumbers) {
+            return vendorRepository.findByVendorNumberIn(Set.copyOf(vendorNumbers)).stream()
+                    .collect(Collectors.toMap(Vendor::getVendorNumber, Function.identity(), (first, second) -> first));
+        }
+    }
+}
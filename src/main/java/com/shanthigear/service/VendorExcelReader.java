@@ -1,10 +1,15 @@
 package com.shanthigear.service;
 
 import com.shanthigear.model.Vendor;
+import com.shanthigear.util.MappedTextReader;
+import com.shanthigear.util.StreamingExcelReader;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.ss.usermodel.DateUtil;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -14,10 +19,18 @@ import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 
 /**
  * Service for reading vendor data from Excel files.
+ * <p>
+ * The reader is stateless: header positions and the formula evaluator live in a
+ * per-call {@link ParseContext}, so concurrent imports do not interfere with each other.
+ * Cell values are extracted sequentially (POI workbooks are not thread-safe) and the
+ * extracted rows are then mapped to {@link Vendor} objects in parallel on a bounded
+ * fork-join pool, keeping the original row order.
  */
 @Service
 @Slf4j
@@ -50,19 +63,46 @@ public class VendorExcelReader {
     };
     
     /**
-     * Map to store header names to column indices (case-insensitive)
+     * Date formatter for parsing dates
      */
-    private final Map<String, Integer> headerMap = new HashMap<>();
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE;
     
     /**
-     * Workbook instance for formula evaluation
+     * Number of rows extracted before they are handed to the parallel mapping stage
      */
-    private Workbook workbook;
+    private static final int MAPPING_CHUNK_SIZE = 1000;
     
     /**
-     * Date formatter for parsing dates
+     * Bounded pool used to map extracted rows to vendors; shared by all concurrent imports
      */
-    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE;
+    private final ForkJoinPool mappingPool;
+    
+    /**
+     * Column widths of fixed-width (.txt) vendor exports; blank if they are not accepted
+     */
+    @Value("${app.import.fixed-width.vendors:}")
+    private String fixedWidthColumns;
+    
+    public VendorExcelReader() {
+        this(0);
+    }
+    
+    /**
+     * @param mappingParallelism number of threads used to map rows to vendors;
+     *                           0 or less means one per available processor
+     */
+    @Autowired
+    public VendorExcelReader(@Value("${vendor.import.mapping-parallelism:0}") int mappingParallelism) {
+        int parallelism = mappingParallelism > 0
+                ? mappingParallelism
+                : Runtime.getRuntime().availableProcessors();
+        this.mappingPool = new ForkJoinPool(parallelism);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        mappingPool.shutdown();
+    }
     
 
     /**
@@ -79,102 +119,188 @@ public class VendorExcelReader {
         }
         
         log.info("Starting to read vendor data from file: {}", file.getOriginalFilename());
+        if (MappedTextReader.isTextFile(file.getOriginalFilename())) {
+            return readVendorsFromText(file);
+        }
+        
         List<Vendor> vendors = new ArrayList<>();
         
-        try (InputStream inputStream = file.getInputStream()) {
-            // Initialize workbook and store it in the instance variable for formula evaluation
-            this.workbook = new XSSFWorkbook(inputStream);
+        try (InputStream inputStream = file.getInputStream();
+             Workbook workbook = new XSSFWorkbook(inputStream)) {
+            Sheet sheet = workbook.getSheetAt(0);
+            if (sheet == null) {
+                throw new IllegalArgumentException("The Excel file does not contain any sheets");
+            }
             
-            try {
-                Sheet sheet = workbook.getSheetAt(0);
-                if (sheet == null) {
-                    throw new IllegalArgumentException("The Excel file does not contain any sheets");
-                }
-                
-                // Get header row
-                Row headerRow = sheet.getRow(0);
-                if (headerRow == null) {
-                    throw new IllegalArgumentException("The Excel file is empty");
-                }
-                
-                // Initialize header map with column indices
-                headerMap.clear();
-                for (Cell cell : headerRow) {
-                    if (cell != null && cell.getCellType() == CellType.STRING) {
-                        String headerName = cell.getStringCellValue().trim();
-                        if (!headerName.isEmpty()) {
-                            headerMap.put(headerName.toLowerCase(), cell.getColumnIndex());
-                        }
-                    }
-                }
-                
-                // Validate headers
-                validateHeaders(headerRow);
-                
-                log.info("Processing {} data rows in the Excel file", sheet.getLastRowNum());
-                int validRows = 0;
-                int skippedRows = 0;
-                
-                // Process data rows
-                for (int i = 1; i <= sheet.getLastRowNum(); i++) {
-                    Row row = sheet.getRow(i);
-                    if (row == null || isRowEmpty(row)) {
-                        log.debug("Skipping empty row {}", i + 1);
-                        skippedRows++;
-                        continue;
-                    }
-                    
-                    try {
-                        Vendor vendor = mapRowToVendor(row);
-                        if (vendor != null) {
-                            vendors.add(vendor);
-                            validRows++;
-                        } else {
-                            log.debug("Skipping row {}: No vendor data found", i + 1);
-                            skippedRows++;
-                        }
-                    } catch (Exception e) {
-                        log.warn("Error processing row {}: {}", i + 1, e.getMessage());
-                        skippedRows++;
-                    }
-                    
-                    // Log progress for large files
-                    if (i > 0 && i % 100 == 0) {
-                        log.info("Processed {} rows ({} valid, {} skipped)", i, validRows, skippedRows);
-                    }
+            // Get header row
+            Row headerRow = sheet.getRow(0);
+            if (headerRow == null) {
+                throw new IllegalArgumentException("The Excel file is empty");
+            }
+            
+            // Validate headers
+            List<String> headerNames = headerNames(headerRow);
+            validateHeaders(headerNames);
+            
+            ParseContext context = new ParseContext(buildHeaderMap(headerNames),
+                    workbook.getCreationHelper().createFormulaEvaluator());
+            
+            log.info("Processing {} data rows in the Excel file", sheet.getLastRowNum());
+            int validRows = 0;
+            int skippedRows = 0;
+            
+            // Extract rows in chunks and map each chunk in parallel
+            List<RowValues> chunk = new ArrayList<>(MAPPING_CHUNK_SIZE);
+            for (int i = 1; i <= sheet.getLastRowNum(); i++) {
+                Row row = sheet.getRow(i);
+                if (row == null || isRowEmpty(row)) {
+                    log.debug("Skipping empty row {}", i + 1);
+                    skippedRows++;
+                    continue;
                 }
                 
-                log.info("Completed processing: {} total rows, {} valid vendors, {} skipped rows", 
-                        sheet.getLastRowNum(), validRows, skippedRows);
-                
-                return vendors;
+                chunk.add(extractRowValues(row, context));
                 
-            } finally {
-                // Ensure workbook is closed properly
-                try {
-                    if (workbook != null) {
-                        workbook.close();
-                    }
-                } catch (IOException e) {
-                    log.warn("Error closing workbook: {}", e.getMessage());
-                } finally {
-                    this.workbook = null;
+                if (chunk.size() == MAPPING_CHUNK_SIZE) {
+                    int mapped = mapChunk(chunk, context, vendors);
+                    validRows += mapped;
+                    skippedRows += chunk.size() - mapped;
+                    chunk.clear();
+                    log.info("Processed {} rows ({} valid, {} skipped)", i, validRows, skippedRows);
                 }
             }
             
+            if (!chunk.isEmpty()) {
+                int mapped = mapChunk(chunk, context, vendors);
+                validRows += mapped;
+                skippedRows += chunk.size() - mapped;
+            }
+            
+            log.info("Completed processing: {} total rows, {} valid vendors, {} skipped rows", 
+                    sheet.getLastRowNum(), validRows, skippedRows);
+            
+            return vendors;
+            
         } catch (Exception e) {
             log.error("Error reading Excel file: {}", e.getMessage(), e);
             throw new IOException("Failed to read Excel file: " + e.getMessage(), e);
         }
     }
     
+    /**
+     * Reads vendor data from a CSV or fixed-width export with the same header row as the sheet.
+     * <p>
+     * Only the columns named in the header map are decoded; rows are mapped in parallel
+     * chunks as for workbooks.
+     */
+    private List<Vendor> readVendorsFromText(MultipartFile file) throws IOException {
+        try {
+            TextImport textImport = new TextImport(
+                    MappedTextReader.Layout.forFile(file.getOriginalFilename(), fixedWidthColumns));
+            MappedTextReader.read(file, textImport.layout, textImport);
+            return textImport.finish();
+        } catch (Exception e) {
+            log.error("Error reading text file: {}", e.getMessage(), e);
+            throw new IOException("Failed to read file: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Maps a chunk of extracted rows to vendors on the mapping pool and appends the
+     * non-null results to {@code vendors} in row order.
+     *
+     * @return the number of vendors added
+     */
+    private int mapChunk(List<RowValues> chunk, ParseContext context, List<Vendor> vendors) 
+            throws InterruptedException, ExecutionException {
+        List<Vendor> mapped = mappingPool.submit(() -> chunk.parallelStream()
+                .map(rowValues -> mapValuesToVendor(rowValues, context))
+                .collect(Collectors.toList()))
+                .get();
+        
+        int added = 0;
+        for (Vendor vendor : mapped) {
+            if (vendor != null) {
+                vendors.add(vendor);
+                added++;
+            }
+        }
+        return added;
+    }
+    
+    /**
+     * Reads the header row into header names by column index; non-text cells become empty names.
+     */
+    private List<String> headerNames(Row headerRow) {
+        List<String> names = new ArrayList<>();
+        for (Cell cell : headerRow) {
+            while (names.size() < cell.getColumnIndex()) {
+                names.add("");
+            }
+            names.add(cell.getCellType() == CellType.STRING ? cell.getStringCellValue().trim() : "");
+        }
+        return names;
+    }
+    
+    /**
+     * Builds the case-insensitive header name to column index map for a header row.
+     */
+    private Map<String, Integer> buildHeaderMap(List<String> headerNames) {
+        Map<String, Integer> headerMap = new HashMap<>();
+        for (int i = 0; i < headerNames.size(); i++) {
+            String headerName = headerNames.get(i);
+            if (!headerName.isEmpty()) {
+                headerMap.put(headerName.toLowerCase(), i);
+            }
+        }
+        return headerMap;
+    }
+    
+    /**
+     * Reads the cells of the mapped columns of a row into plain strings.
+     * Runs on the calling thread since workbook access is not thread-safe.
+     */
+    private RowValues extractRowValues(Row row, ParseContext context) {
+        Map<Integer, String> values = new HashMap<>();
+        for (Integer colIndex : context.headerMap().values()) {
+            try {
+                Cell cell = row.getCell(colIndex, Row.MissingCellPolicy.RETURN_BLANK_AS_NULL);
+                if (cell != null) {
+                    String value = getStringValue(cell, context.evaluator());
+                    if (!value.isEmpty()) {
+                        values.put(colIndex, value);
+                    }
+                }
+            } catch (Exception e) {
+                log.warn("Error getting value in row {} column {}: {}", row.getRowNum() + 1, colIndex, e.getMessage());
+            }
+        }
+        return new RowValues(row.getRowNum(), values);
+    }
+    
+    /**
+     * Picks the values of the mapped columns out of a text row.
+     */
+    private RowValues extractRowValues(int rowNum, List<String> cells, ParseContext context) {
+        Map<Integer, String> values = new HashMap<>();
+        for (Integer colIndex : context.headerMap().values()) {
+            if (colIndex < cells.size()) {
+                String value = cells.get(colIndex);
+                if (!value.isEmpty()) {
+                    values.put(colIndex, value);
+                }
+            }
+        }
+        return new RowValues(rowNum, values);
+    }
+    
     /**
      * Validates the header row against the expected headers.
-     * @param headerRow The header row to validate
+     * @param headerNames The header names of the file, by column index
      * @throws IllegalArgumentException If required headers are missing
      */
-    private void validateHeaders(Row headerRow) {
-        if (headerRow == null) {
+    private void validateHeaders(List<String> headerNames) {
+        if (headerNames == null || headerNames.isEmpty()) {
             throw new IllegalArgumentException("The Excel file is empty or has an invalid format");
         }
         
@@ -195,12 +321,9 @@ public class VendorExcelReader {
         Set<String> foundHeaders = new HashSet<>();
         
         // Process the header row
-        for (Cell cell : headerRow) {
-            if (cell != null && cell.getCellType() == CellType.STRING) {
-                String headerName = cell.getStringCellValue().trim();
-                if (!headerName.isEmpty()) {
-                    foundHeaders.add(headerName.toLowerCase());
-                }
+        for (String headerName : headerNames) {
+            if (!headerName.isEmpty()) {
+                foundHeaders.add(headerName.toLowerCase());
             }
         }
         
@@ -310,9 +433,10 @@ public class VendorExcelReader {
     /**
      * Gets the string value from a cell, handling different cell types.
      * @param cell The cell to get the value from
+     * @param evaluator The formula evaluator of the cell's workbook
      * @return The string value of the cell, or empty string if the cell is null or empty
      */
-    private String getStringValue(Cell cell) {
+    private String getStringValue(Cell cell, FormulaEvaluator evaluator) {
         if (cell == null) {
             return "";
         }
@@ -343,9 +467,7 @@ public class VendorExcelReader {
                 case FORMULA:
                     try {
                         // Evaluate the formula and get its value
-                        CellValue cellValue = workbook.getCreationHelper()
-                                .createFormulaEvaluator()
-                                .evaluate(cell);
+                        CellValue cellValue = evaluator.evaluate(cell);
                                 
                         if (cellValue != null) {
                             switch (cellValue.getCellType()) {
@@ -384,45 +506,31 @@ public class VendorExcelReader {
     }
     
     /**
-     * Gets the value from a row based on the header name.
-     * @param row The row to get the value from
+     * Gets the value from an extracted row based on the header name.
+     * @param row The extracted row values
      * @param headerName The header name to look up (case-insensitive)
+     * @param context The parsing context holding the header positions
      * @return The string value of the cell, or null if not found
      */
-    private String getValueByHeader(Row row, String headerName) {
+    private String getValueByHeader(RowValues row, String headerName, ParseContext context) {
         if (row == null || headerName == null || headerName.trim().isEmpty()) {
             return null;
         }
         
-        // Normalize the header name for case-insensitive lookup
-        String normalizedHeaderName = headerName.trim().toLowerCase();
-        
         // Find the column index for the header (case-insensitive match)
-        Integer colIndex = headerMap.get(normalizedHeaderName);
+        Integer colIndex = context.headerMap().get(headerName.trim().toLowerCase());
         
         if (colIndex == null) {
             log.trace("Header '{}' not found in header map", headerName);
             return null;
         }
         
-        // Get the cell and return its string value
-        try {
-            Cell cell = row.getCell(colIndex, Row.MissingCellPolicy.RETURN_BLANK_AS_NULL);
-            if (cell == null) {
-                return null;
-            }
-            
-            String value = getStringValue(cell);
-            return value.isEmpty() ? null : value;
-            
-        } catch (Exception e) {
-            log.warn("Error getting value for header '{}': {}", headerName, e.getMessage());
-            return null;
-        }
+        return row.values().get(colIndex);
     }
     
     /**
-     * Maps a row from the Excel file to a Vendor object.
+     * Maps a row from the Excel file to a Vendor object, assuming the columns are laid out
+     * in the order of the expected headers.
      * @param row The row to map
      * @return A Vendor object, or null if the row is invalid
      */
@@ -431,18 +539,36 @@ public class VendorExcelReader {
             return null;
         }
         
+        Map<String, Integer> headerMap = new HashMap<>();
+        for (int i = 0; i < EXPECTED_HEADERS.length; i++) {
+            headerMap.put(EXPECTED_HEADERS[i].toLowerCase(), i);
+        }
+        FormulaEvaluator evaluator = row.getSheet() != null
+                ? row.getSheet().getWorkbook().getCreationHelper().createFormulaEvaluator()
+                : null;
+        ParseContext context = new ParseContext(headerMap, evaluator);
+        return mapValuesToVendor(extractRowValues(row, context), context);
+    }
+    
+    /**
+     * Maps extracted row values to a Vendor object. Safe to call concurrently.
+     * @param row The extracted row values
+     * @param context The parsing context of the current file
+     * @return A Vendor object, or null if the row is invalid
+     */
+    private Vendor mapValuesToVendor(RowValues row, ParseContext context) {
         try {
             // Required fields for H2H payments
-            String vendorNumber = getValueByHeader(row, "Vendor Number");
-            String vendorName = getValueByHeader(row, "Vendor Name");
-            String bankAccountNum = getValueByHeader(row, "Bank Account Num");
-            String bankName = getValueByHeader(row, "Bank Name");
-            String ifscCode = getValueByHeader(row, "IFSC Code");
+            String vendorNumber = getValueByHeader(row, "Vendor Number", context);
+            String vendorName = getValueByHeader(row, "Vendor Name", context);
+            String bankAccountNum = getValueByHeader(row, "Bank Account Num", context);
+            String bankName = getValueByHeader(row, "Bank Name", context);
+            String ifscCode = getValueByHeader(row, "IFSC Code", context);
             
             // Validate required fields
             if (vendorNumber == null || vendorName == null || bankAccountNum == null || 
                 bankName == null || ifscCode == null) {
-                log.warn("Skipping row {}: Missing required fields", row.getRowNum() + 1);
+                log.warn("Skipping row {}: Missing required fields", row.rowNum() + 1);
                 return null;
             }
             
@@ -456,21 +582,21 @@ public class VendorExcelReader {
                 .ifscCode(ifscCode);
             
             // Set recommended fields for H2H
-            String payGroup = getValueByHeader(row, "Pay Group");
-            String email = getValueByHeader(row, "Email Address");
-            String bankAccountName = getValueByHeader(row, "Bank Account Name");
-            String branch = getValueByHeader(row, "Branch");
+            String payGroup = getValueByHeader(row, "Pay Group", context);
+            String email = getValueByHeader(row, "Email Address", context);
+            String bankAccountName = getValueByHeader(row, "Bank Account Name", context);
+            String branch = getValueByHeader(row, "Branch", context);
             
             if (payGroup != null && !payGroup.trim().isEmpty()) {
                 vendorBuilder.payGroup(payGroup.trim());
             } else {
-                log.warn("Row {}: Missing Pay Group - recommended for H2H payments", row.getRowNum() + 1);
+                log.warn("Row {}: Missing Pay Group - recommended for H2H payments", row.rowNum() + 1);
             }
             
             if (email != null && !email.trim().isEmpty()) {
                 vendorBuilder.emailAddress(email.trim());
             } else {
-                log.warn("Row {}: Missing Email Address - recommended for H2H notifications", row.getRowNum() + 1);
+                log.warn("Row {}: Missing Email Address - recommended for H2H notifications", row.rowNum() + 1);
             }
             
             if (bankAccountName != null && !bankAccountName.trim().isEmpty()) {
@@ -482,36 +608,36 @@ public class VendorExcelReader {
             }
             
             // Map vendor details
-            vendorBuilder.vendorSite(getValueByHeader(row, "Vendor Site"));
+            vendorBuilder.vendorSite(getValueByHeader(row, "Vendor Site", context));
             
             // Address details
-            vendorBuilder.addressLine1(getValueByHeader(row, "Address Line1"));
-            vendorBuilder.addressLine2(getValueByHeader(row, "Address Line2"));
-            vendorBuilder.addressLine3(getValueByHeader(row, "Address line 3"));
-            vendorBuilder.city(getValueByHeader(row, "City"));
-            vendorBuilder.state(getValueByHeader(row, "State"));
-            vendorBuilder.pincode(getValueByHeader(row, "Pincode"));
+            vendorBuilder.addressLine1(getValueByHeader(row, "Address Line1", context));
+            vendorBuilder.addressLine2(getValueByHeader(row, "Address Line2", context));
+            vendorBuilder.addressLine3(getValueByHeader(row, "Address line 3", context));
+            vendorBuilder.city(getValueByHeader(row, "City", context));
+            vendorBuilder.state(getValueByHeader(row, "State", context));
+            vendorBuilder.pincode(getValueByHeader(row, "Pincode", context));
             
             // Vendor type and start date
-            vendorBuilder.vendorType(getValueByHeader(row, "Vendor Type"));
+            vendorBuilder.vendorType(getValueByHeader(row, "Vendor Type", context));
             
-            String startDateStr = getValueByHeader(row, "Start Date Activity");
+            String startDateStr = getValueByHeader(row, "Start Date Activity", context);
             if (startDateStr != null && !startDateStr.trim().isEmpty()) {
                 try {
                     LocalDate startDate = LocalDate.parse(startDateStr.trim(), DATE_FORMATTER);
                     vendorBuilder.startDateActivity(startDate);
                 } catch (DateTimeParseException e) {
-                    log.warn("Row {}: Invalid date format for Start Date Activity: {}", row.getRowNum() + 1, startDateStr);
+                    log.warn("Row {}: Invalid date format for Start Date Activity: {}", row.rowNum() + 1, startDateStr);
                 }
             }
             
             // Set additional attributes
-            vendorBuilder.attribute12(getValueByHeader(row, "Attribute12"));
-            vendorBuilder.attribute13(getValueByHeader(row, "Attribute13"));
-            vendorBuilder.attribute2(getValueByHeader(row, "Attribute2"));
-            vendorBuilder.attribute3(getValueByHeader(row, "Attribute3"));
-            vendorBuilder.freightTermsLookupCode(getValueByHeader(row, "Freight Terms Lookup Code"));
-            vendorBuilder.paymentMethodLookupCode(getValueByHeader(row, "Payment Method Lookup Code"));
+            vendorBuilder.attribute12(getValueByHeader(row, "Attribute12", context));
+            vendorBuilder.attribute13(getValueByHeader(row, "Attribute13", context));
+            vendorBuilder.attribute2(getValueByHeader(row, "Attribute2", context));
+            vendorBuilder.attribute3(getValueByHeader(row, "Attribute3", context));
+            vendorBuilder.freightTermsLookupCode(getValueByHeader(row, "Freight Terms Lookup Code", context));
+            vendorBuilder.paymentMethodLookupCode(getValueByHeader(row, "Payment Method Lookup Code", context));
             
             // Validate required fields (already validated above, but checking again for completeness)
             List<String> validationWarnings = new ArrayList<>();
@@ -551,24 +677,101 @@ public class VendorExcelReader {
             }
             
             // Map additional fields
-            String operatingUnit = getValueByHeader(row, "Ou");
+            String operatingUnit = getValueByHeader(row, "Ou", context);
             if (operatingUnit != null && !operatingUnit.trim().isEmpty()) {
                 vendor.setOperatingUnit(operatingUnit.trim());
             }
             
             // Set attribute3 if needed
-            String attribute3 = getValueByHeader(row, "Attribute3");
+            String attribute3 = getValueByHeader(row, "Attribute3", context);
             if (attribute3 != null && !attribute3.trim().isEmpty()) {
                 vendor.setAttribute3(attribute3.trim());
             }
-            vendor.setFreightTermsLookupCode(getValueByHeader(row, "Freight Terms Lookup Code"));
-            vendor.setPaymentMethodLookupCode(getValueByHeader(row, "Payment Method Lookup Code"));
+            vendor.setFreightTermsLookupCode(getValueByHeader(row, "Freight Terms Lookup Code", context));
+            vendor.setPaymentMethodLookupCode(getValueByHeader(row, "Payment Method Lookup Code", context));
             
             return vendor;
             
         } catch (Exception e) {
-            log.error("Error mapping row {} to Vendor: {}", row.getRowNum() + 1, e.getMessage(), e);
+            log.error("Error mapping row {} to Vendor: {}", row.rowNum() + 1, e.getMessage(), e);
             return null;
         }
     }
+    
+    /**
+     * Row callback for a text import: takes the first line as the header, then maps the
+     * data rows in chunks of {@link #MAPPING_CHUNK_SIZE}.
+     */
+    private class TextImport implements StreamingExcelReader.RowCallback {
+        private final MappedTextReader.Layout layout;
+        private final List<Vendor> vendors = new ArrayList<>();
+        private final List<RowValues> chunk = new ArrayList<>(MAPPING_CHUNK_SIZE);
+        private ParseContext context;
+        private int validRows;
+        private int skippedRows;
+        
+        private TextImport(MappedTextReader.Layout layout) {
+            this.layout = layout;
+        }
+        
+        @Override
+        public void onRow(int rowNum, List<String> values) {
+            if (context == null) {
+                validateHeaders(values);
+                context = new ParseContext(buildHeaderMap(values), null);
+                return;
+            }
+            
+            RowValues rowValues = extractRowValues(rowNum, values, context);
+            if (rowValues.values().isEmpty()) {
+                log.debug("Skipping empty row {}", rowNum + 1);
+                skippedRows++;
+                return;
+            }
+            
+            chunk.add(rowValues);
+            if (chunk.size() == MAPPING_CHUNK_SIZE) {
+                flushChunk();
+                log.info("Processed {} rows ({} valid, {} skipped)", rowNum, validRows, skippedRows);
+            }
+        }
+        
+        List<Vendor> finish() {
+            if (context == null) {
+                throw new IllegalArgumentException("The file is empty");
+            }
+            if (!chunk.isEmpty()) {
+                flushChunk();
+            }
+            log.info("Completed processing: {} valid vendors, {} skipped rows", validRows, skippedRows);
+            return vendors;
+        }
+        
+        private void flushChunk() {
+            try {
+                int mapped = mapChunk(chunk, context, vendors);
+                validRows += mapped;
+                skippedRows += chunk.size() - mapped;
+                chunk.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Vendor import interrupted", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause().getMessage(), e.getCause());
+            }
+        }
+    }
+    
+    /**
+     * Per-call parsing state: header positions and the formula evaluator of the workbook being read
+     * (null for text files).
+     */
+    private record ParseContext(Map<String, Integer> headerMap, FormulaEvaluator evaluator) {
+    }
+    
+    /**
+     * Cell values of a single data row, keyed by column index.
+     */
+    private record RowValues(int rowNum, Map<Integer, String> values) {
+    }
 }
@@ -23,6 +23,7 @@ public class VendorImportService {
     
     private final VendorExcelReader vendorExcelReader;
     private final VendorRepository vendorRepository;
+    private final VendorCache vendorCache;
     
     /**
      * Import vendors from an Excel file.
@@ -83,6 +84,7 @@ public class VendorImportService {
                     existingVendor -> updateExistingVendor(existingVendor, vendor),
                     () -> vendorRepository.save(vendor)
                 );
+            vendorCache.invalidate(vendor.getVendorNumber());
         } catch (DataIntegrityViolationException e) {
             throw new ImportException("Data integrity violation for vendor " + vendor.getVendorNumber() + ": " + e.getMessage());
         }
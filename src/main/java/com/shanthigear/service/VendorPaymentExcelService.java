@@ -2,11 +2,17 @@ package com.shanthigear.service;
 
 import com.shanthigear.exception.BatchProcessingException;
 import com.shanthigear.exception.ExcelProcessingException;
+import com.shanthigear.exception.PaymentNotFoundException;
+import com.shanthigear.model.PaymentStatus;
 import com.shanthigear.model.VendorPayment;
+import com.shanthigear.repository.VendorPaymentRepository;
+import com.shanthigear.util.PaymentCellFormatter;
+import com.shanthigear.util.StreamingExcelReader;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -14,11 +20,15 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.math.BigDecimal;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -27,6 +37,10 @@ public class VendorPaymentExcelService {
 
     private final OracleHostToHostService paymentService;
     private final VendorService vendorService;
+    private final VendorPaymentRepository vendorPaymentRepository;
+    
+    @Value("${app.import.job.payment-chunk-size:100}")
+    private int jobChunkSize;
 
     public List<VendorPayment> processExcelFile(MultipartFile file) throws BatchProcessingException {
         try (InputStream inputStream = file.getInputStream();
@@ -63,13 +77,49 @@ public class VendorPaymentExcelService {
         }
     }
     
+    /**
+     * Imports payments from a workbook on disk in chunks, for asynchronous import jobs.
+     * <p>
+     * Rows are streamed instead of loading the workbook. Every
+     * {@code app.import.job.payment-chunk-size} rows the mapped payments are submitted to
+     * Oracle H2H and a checkpoint is reported, so a job restarted with {@code resumeAfterRow}
+     * only repeats the chunk that was in flight when it stopped. Unlike {@link #processExcelFile(MultipartFile)},
+     * a row that cannot be mapped is reported as an error instead of failing the whole file.
+     * <p>
+     * Each payment gets a reference derived from the job id and its row, and is recorded as
+     * {@code PENDING} before it is submitted. When the chunk in flight is repeated, payments
+     * already recorded are only resubmitted if Oracle H2H does not know their reference, so a
+     * restart never pays a row twice.
+     *
+     * @param jobId          id of the import job, used to derive stable payment references
+     * @param file           path to the .xlsx file
+     * @param resumeAfterRow 1-based sheet row of the last checkpoint, or 0 to start from the top
+     * @param listener       receives a checkpoint after each submitted chunk
+     * @return the number of payments submitted by this run
+     * @throws BatchProcessingException if Oracle H2H rejects a chunk; earlier chunks stay checkpointed
+     */
+    public int processExcelFile(String jobId, Path file, int resumeAfterRow, ImportCheckpointListener listener)
+            throws IOException, BatchProcessingException {
+        PaymentChunk chunk = new PaymentChunk(jobId, listener);
+        StreamingExcelReader.readFirstSheet(file, new PaymentCellFormatter(), (rowIndex, values) -> {
+            int rowNumber = rowIndex + 1;
+            if (rowIndex == 0 || rowNumber <= resumeAfterRow) {
+                return; // Skip header and rows submitted by an earlier run
+            }
+            chunk.add(rowNumber, values);
+            if (chunk.rows >= jobChunkSize) {
+                chunk.submit();
+            }
+        });
+        chunk.submit();
+        return chunk.submitted;
+    }
+    
     private VendorPayment mapRowToPayment(Row row) {
         if (isRowEmpty(row)) {
             return null;
         }
         
-        VendorPayment payment = new VendorPayment();
-        
         // Map Excel columns to VendorPayment fields
         String vendorCode = getStringValue(row.getCell(0));
         String invoiceNumber = getStringValue(row.getCell(1));
@@ -77,8 +127,29 @@ public class VendorPaymentExcelService {
         String currency = getStringValue(row.getCell(3));
         LocalDate dueDate = row.getCell(4).getLocalDateTimeCellValue().toLocalDate();
         
+        return toPayment(generatePaymentReference(), vendorCode, invoiceNumber, amount, currency, dueDate);
+    }
+    
+    private VendorPayment mapValuesToPayment(String paymentReference, List<String> values) {
+        if (values.stream().allMatch(String::isEmpty)) {
+            return null;
+        }
+        
+        String vendorCode = valueAt(values, 0);
+        String invoiceNumber = valueAt(values, 1);
+        BigDecimal amount = new BigDecimal(valueAt(values, 2));
+        String currency = valueAt(values, 3);
+        LocalDate dueDate = LocalDate.parse(valueAt(values, 4));
+        
+        return toPayment(paymentReference, vendorCode, invoiceNumber, amount, currency, dueDate);
+    }
+    
+    private VendorPayment toPayment(String paymentReference, String vendorCode, String invoiceNumber, BigDecimal amount,
+                                    String currency, LocalDate dueDate) {
+        VendorPayment payment = new VendorPayment();
+        
         // Set payment details
-        payment.setPaymentReference(generatePaymentReference());
+        payment.setPaymentReference(paymentReference);
         payment.setInvoiceNumber(invoiceNumber);
         payment.setAmount(amount);
         payment.setPaymentDate(dueDate); // Using dueDate as payment date
@@ -92,10 +163,21 @@ public class VendorPaymentExcelService {
         return payment;
     }
     
+    private String valueAt(List<String> values, int index) {
+        return index < values.size() ? values.get(index) : "";
+    }
+    
     private String generatePaymentReference() {
         return "PAY-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
     }
     
+    /**
+     * Reference of the payment imported from a job row; the same on every run of the job.
+     */
+    static String jobPaymentReference(String jobId, int rowNumber) {
+        return "IMP-" + jobId + "-" + rowNumber;
+    }
+    
     private String getStringValue(Cell cell) {
         if (cell == null) {
             return "";
@@ -132,6 +214,93 @@ public class VendorPaymentExcelService {
         return true;
     }
     
+    /**
+     * Rows read since the last checkpoint and the payments mapped from them.
+     */
+    private class PaymentChunk {
+        private final String jobId;
+        private final ImportCheckpointListener listener;
+        private final List<VendorPayment> payments = new ArrayList<>();
+        private final List<String> errors = new ArrayList<>();
+        private int rows;
+        private int lastRow;
+        private int submitted;
+        
+        PaymentChunk(String jobId, ImportCheckpointListener listener) {
+            this.jobId = jobId;
+            this.listener = listener;
+        }
+        
+        void add(int rowNumber, List<String> values) {
+            try {
+                VendorPayment payment = mapValuesToPayment(jobPaymentReference(jobId, rowNumber), values);
+                if (payment != null) {
+                    payment.setBatchId(jobId);
+                    payments.add(payment);
+                }
+            } catch (Exception e) {
+                log.warn("Error processing row {}: {}", rowNumber, e.getMessage());
+                errors.add("Error in row " + rowNumber + ": " + e.getMessage());
+            }
+            rows++;
+            lastRow = rowNumber;
+        }
+        
+        void submit() {
+            if (rows == 0) {
+                return;
+            }
+            List<VendorPayment> unsubmitted = unsubmitted();
+            if (!unsubmitted.isEmpty()) {
+                // Record the intent first so a restart can tell which rows already reached the bank
+                List<VendorPayment> recorded = vendorPaymentRepository.saveAll(unsubmitted);
+                vendorPaymentRepository.saveAll(paymentService.processBatchPayments(recorded));
+            }
+            listener.onCheckpoint(new ImportCheckpointListener.Checkpoint(
+                    lastRow, rows, payments.size(), new ArrayList<>(errors)));
+            
+            submitted += payments.size();
+            payments.clear();
+            errors.clear();
+            rows = 0;
+        }
+        
+        /**
+         * The chunk's payments that Oracle H2H has not received yet. Payments recorded by an
+         * earlier run are skipped unless they are still {@code PENDING} and unknown to Oracle H2H,
+         * i.e. the run stopped between recording and submitting them.
+         */
+        private List<VendorPayment> unsubmitted() {
+            Map<String, VendorPayment> recorded = vendorPaymentRepository.findByPaymentReferenceIn(
+                    payments.stream().map(VendorPayment::getPaymentReference).toList())
+                .stream()
+                .collect(Collectors.toMap(VendorPayment::getPaymentReference, Function.identity()));
+            
+            List<VendorPayment> unsubmitted = new ArrayList<>();
+            for (VendorPayment payment : payments) {
+                VendorPayment existing = recorded.get(payment.getPaymentReference());
+                if (existing == null) {
+                    unsubmitted.add(payment);
+                } else if (existing.getStatus() == PaymentStatus.PENDING && !knownToBank(existing)) {
+                    unsubmitted.add(existing);
+                } else {
+                    log.info("Skipping payment {} of import job {}; it was submitted by an earlier run",
+                            existing.getPaymentReference(), jobId);
+                }
+            }
+            return unsubmitted;
+        }
+        
+        private boolean knownToBank(VendorPayment payment) {
+            try {
+                paymentService.checkPaymentStatus(payment.getPaymentReference());
+                return true;
+            } catch (PaymentNotFoundException e) {
+                return false;
+            }
+        }
+    }
+    
     public byte[] generateTemplate() throws IOException {
         try (Workbook workbook = new XSSFWorkbook();
              ByteArrayOutputStream out = new ByteArrayOutputStream()) {
@@ -4,7 +4,6 @@ import com.shanthigear.model.PaymentStatus;
 import com.shanthigear.model.Vendor;
 import com.shanthigear.model.VendorPayment;
 import com.shanthigear.repository.VendorPaymentRepository;
-import com.shanthigear.repository.VendorRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.scheduling.annotation.Async;
@@ -30,16 +29,16 @@ public class VendorPaymentProcessor {
 
     private static final Logger logger = LoggerFactory.getLogger(VendorPaymentProcessor.class);
     
-    private final VendorRepository vendorRepository;
+    private final VendorCache vendorCache;
     private final VendorPaymentRepository paymentRepository;
     private final OracleHostToHostService oracleHostToHostService;
     private final VendorService vendorService;
 
-    public VendorPaymentProcessor(VendorRepository vendorRepository,
+    public VendorPaymentProcessor(VendorCache vendorCache,
                                VendorPaymentRepository paymentRepository,
                                OracleHostToHostService oracleHostToHostService,
                                VendorService vendorService) {
-        this.vendorRepository = vendorRepository;
+        this.vendorCache = vendorCache;
         this.paymentRepository = paymentRepository;
         this.oracleHostToHostService = oracleHostToHostService;
         this.vendorService = vendorService;
@@ -60,7 +59,7 @@ public class VendorPaymentProcessor {
                                             String invoiceNumber,
                                             String description) {
         // Find the vendor by vendor number
-        Vendor vendor = vendorRepository.findByVendorNumber(vendorNumber)
+        Vendor vendor = vendorCache.get(vendorNumber)
             .orElseThrow(() -> new ResourceNotFoundException("Vendor not found with number: " + vendorNumber));
             
         // Check if vendor is eligible for H2H based on required fields
@@ -162,7 +161,7 @@ public class VendorPaymentProcessor {
      */
     public List<VendorPayment> getPaymentsByVendor(String vendorNumber) {
         // First find the vendor by vendor number
-        Vendor vendor = vendorRepository.findByVendorNumber(vendorNumber)
+        Vendor vendor = vendorCache.get(vendorNumber)
             .orElseThrow(() -> new IllegalArgumentException("Vendor not found with number: " + vendorNumber));
         // Then find payments by vendor ID
         return paymentRepository.findByVendorIdOrderByCreatedAtDesc(vendor.getVendorNumber());
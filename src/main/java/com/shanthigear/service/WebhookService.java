@@ -19,6 +19,7 @@ public class WebhookService {
     
     private final VendorPaymentRepository paymentRepository;
     private final EmailNotificationService emailNotificationService;
+    private final PaymentStatusPoller paymentStatusPoller;
 
     @Transactional
     public void processPaymentWebhook(WebhookPayload payload) {
@@ -42,9 +43,11 @@ public class WebhookService {
             switch (payload.getStatus().toUpperCase()) {
                 case "SUCCESS":
                     handleSuccessfulPayment(payment, payload);
+                    stopPolling(payment, payload);
                     break;
                 case "FAILED":
                     handleFailedPayment(payment, payload);
+                    stopPolling(payment, payload);
                     break;
                 case "PENDING":
                     handlePendingPayment(payment, payload);
@@ -59,6 +62,16 @@ public class WebhookService {
         }
     }
     
+    /**
+     * The payment is resolved, so the bank no longer needs to be polled for it.
+     */
+    private void stopPolling(VendorPayment payment, WebhookPayload payload) {
+        paymentStatusPoller.resolved(payload.getTransactionId());
+        if (payment.getTransactionId() != null && !payment.getTransactionId().equals(payload.getTransactionId())) {
+            paymentStatusPoller.resolved(payment.getTransactionId());
+        }
+    }
+    
     private void handleSuccessfulPayment(VendorPayment payment, WebhookPayload payload) {
         logger.info("Payment successful - ID: {}, Amount: {}", 
             payment.getPaymentReference(), 
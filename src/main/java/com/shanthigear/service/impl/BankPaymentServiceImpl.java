@@ -2,6 +2,10 @@ package com.shanthigear.service.impl;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.shanthigear.config.BankApiConfig;
+import com.shanthigear.config.BankCallPolicy;
+import com.shanthigear.dto.BankBulkPaymentRequestDTO;
+import com.shanthigear.dto.BankBulkPaymentResponseDTO;
+import com.shanthigear.dto.BankBulkStatusRequestDTO;
 import com.shanthigear.dto.BankPaymentRequestDTO;
 import com.shanthigear.dto.BankPaymentResponseDTO;
 import com.shanthigear.exception.BankApiException;
@@ -14,13 +18,9 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.*;
-import org.springframework.retry.annotation.Backoff;
-import org.springframework.retry.annotation.Retryable;
-import org.springframework.retry.support.RetryTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.HttpServerErrorException;
-import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 import org.apache.commons.lang3.StringUtils;
@@ -29,12 +29,22 @@ import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Base64;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * Implementation of BankPaymentService for processing bank payments with retry and error handling.
+ * Every call to the bank runs under the {@link BankCallPolicy}, its only retry layer.
  */
 @Slf4j
 @Service
@@ -45,18 +55,14 @@ public class BankPaymentServiceImpl implements BankPaymentService {
     private final RestTemplate restTemplate;
     private final BankApiConfig bankApiConfig;
     private final ObjectMapper objectMapper;
-    private final RetryTemplate retryTemplate;
+    private final BankCallPolicy bankCallPolicy;
+    // Resolved by name; caps the bulk chunks in flight at the bank
+    private final Executor bankBulkExecutor;
     
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE;
     private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
     
     @Override
-    @Retryable(
-        retryFor = { ResourceAccessException.class, HttpServerErrorException.class },
-        maxAttemptsExpression = "${bank.api.retry.max-attempts:3}",
-        backoff = @Backoff(delayExpression = "${bank.api.retry.initial-delay:1000}",
-                          multiplierExpression = "${bank.api.retry.multiplier:2}")
-    )
     public PaymentResponse processPayment(PaymentRequest paymentRequest) {
         try {
             // Log the payment request (masking sensitive data)
@@ -86,28 +92,27 @@ public class BankPaymentServiceImpl implements BankPaymentService {
                     SecureLoggingUtils.maskSensitiveData(objectMapper.writeValueAsString(bankRequest)));
             }
             
-            // Make the API call with retry template
-            ResponseEntity<BankPaymentResponseDTO> response = retryTemplate.execute(context -> {
-                try {
-                    return restTemplate.exchange(
-                        url,
-                        HttpMethod.POST,
-                        requestEntity,
-                        BankPaymentResponseDTO.class
-                    );
-                } catch (HttpClientErrorException | HttpServerErrorException e) {
-                    // Log the error response from the bank
-                    String responseBody = e.getResponseBodyAsString();
-                    log.error("Bank API error: {} - {}", e.getStatusCode(), responseBody);
-                    throw new BankApiException(
-                        String.format("Bank API error: %s - %s", e.getStatusCode(), responseBody),
-                        e.getStatusCode()
-                    );
-                } catch (RestClientException e) {
-                    log.error("Error calling bank API: {}", e.getMessage(), e);
-                    throw new PaymentProcessingException("Error processing payment with bank", e);
-                }
-            });
+            // Make the API call under the bank call policy
+            ResponseEntity<BankPaymentResponseDTO> response;
+            try {
+                response = bankCallPolicy.execute("payments.process", () -> restTemplate.exchange(
+                    url,
+                    HttpMethod.POST,
+                    requestEntity,
+                    BankPaymentResponseDTO.class
+                ));
+            } catch (HttpClientErrorException | HttpServerErrorException e) {
+                // Log the error response from the bank
+                String responseBody = e.getResponseBodyAsString();
+                log.error("Bank API error: {} - {}", e.getStatusCode(), responseBody);
+                throw new BankApiException(
+                    String.format("Bank API error: %s - %s", e.getStatusCode(), responseBody),
+                    e.getStatusCode()
+                );
+            } catch (RestClientException e) {
+                log.error("Error calling bank API: {}", e.getMessage(), e);
+                throw new PaymentProcessingException("Error processing payment with bank", e);
+            }
             
             // Process the response
             return processBankResponse(response.getBody());
@@ -119,12 +124,6 @@ public class BankPaymentServiceImpl implements BankPaymentService {
     }
 
     @Override
-    @Retryable(
-        retryFor = { ResourceAccessException.class, HttpServerErrorException.class },
-        maxAttemptsExpression = "${bank.api.retry.max-attempts:3}",
-        backoff = @Backoff(delayExpression = "${bank.api.retry.initial-delay:1000}",
-                          multiplierExpression = "${bank.api.retry.multiplier:2}")
-    )
     public PaymentResponse getPaymentStatus(String paymentId) {
         try {
             SecureLoggingUtils.info(log, "Fetching payment status for payment ID: {}", paymentId);
@@ -151,30 +150,29 @@ public class BankPaymentServiceImpl implements BankPaymentService {
                 log.debug("Fetching payment status from: {}", url);
             }
             
-            // Make the API call with retry template
-            ResponseEntity<BankPaymentResponseDTO> response = retryTemplate.execute(context -> {
-                try {
-                    return restTemplate.exchange(
-                        url,
-                        HttpMethod.GET,
-                        requestEntity,
-                        BankPaymentResponseDTO.class
-                    );
-                } catch (HttpClientErrorException.NotFound e) {
-                    log.warn("Payment not found with ID: {}", paymentId);
-                    throw new PaymentProcessingException("Payment not found with ID: " + paymentId, e);
-                } catch (HttpClientErrorException | HttpServerErrorException e) {
-                    String responseBody = e.getResponseBodyAsString();
-                    log.error("Bank API error during status check: {} - {}", e.getStatusCode(), responseBody);
-                    throw new BankApiException(
-                        String.format("Bank API error: %s - %s", e.getStatusCode(), responseBody),
-                        e.getStatusCode()
-                    );
-                } catch (RestClientException e) {
-                    log.error("Error calling bank API for status check: {}", e.getMessage(), e);
-                    throw new PaymentProcessingException("Error checking payment status with bank", e);
-                }
-            });
+            // Make the API call under the bank call policy
+            ResponseEntity<BankPaymentResponseDTO> response;
+            try {
+                response = bankCallPolicy.execute("payments.status", () -> restTemplate.exchange(
+                    url,
+                    HttpMethod.GET,
+                    requestEntity,
+                    BankPaymentResponseDTO.class
+                ));
+            } catch (HttpClientErrorException.NotFound e) {
+                log.warn("Payment not found with ID: {}", paymentId);
+                throw new PaymentProcessingException("Payment not found with ID: " + paymentId, e);
+            } catch (HttpClientErrorException | HttpServerErrorException e) {
+                String responseBody = e.getResponseBodyAsString();
+                log.error("Bank API error during status check: {} - {}", e.getStatusCode(), responseBody);
+                throw new BankApiException(
+                    String.format("Bank API error: %s - %s", e.getStatusCode(), responseBody),
+                    e.getStatusCode()
+                );
+            } catch (RestClientException e) {
+                log.error("Error calling bank API for status check: {}", e.getMessage(), e);
+                throw new PaymentProcessingException("Error checking payment status with bank", e);
+            }
             
             // Process the response
             return processBankResponse(response.getBody());
@@ -185,6 +183,218 @@ public class BankPaymentServiceImpl implements BankPaymentService {
         }
     }
     
+    @Override
+    public List<PaymentResponse> processPayments(List<PaymentRequest> paymentRequests) {
+        if (paymentRequests == null || paymentRequests.isEmpty()) {
+            return Collections.emptyList();
+        }
+        
+        int chunkSize = Math.max(1, bankApiConfig.getBulk().getChunkSize());
+        String url = String.format("%s%s", bankApiConfig.getBaseUrl(), bankApiConfig.getBulk().getEndpoint());
+        log.info("Submitting {} payments to the bank in chunks of {}", paymentRequests.size(), chunkSize);
+        
+        // Every chunk fills in the responses of its own payments
+        PaymentResponse[] responses = new PaymentResponse[paymentRequests.size()];
+        List<CompletableFuture<Void>> chunks = new ArrayList<>();
+        for (int start = 0; start < paymentRequests.size(); start += chunkSize) {
+            List<PaymentRequest> chunk = paymentRequests.subList(start, Math.min(paymentRequests.size(), start + chunkSize));
+            int offset = start;
+            chunks.add(CompletableFuture.runAsync(() -> submitChunk(url, chunk, offset, responses), bankBulkExecutor));
+        }
+        CompletableFuture.allOf(chunks.toArray(CompletableFuture[]::new)).join();
+        
+        return Arrays.asList(responses);
+    }
+    
+    /**
+     * Submits one chunk of payments to the bank's bulk endpoint and maps the bank's result of
+     * each payment back to its position.
+     * <p>
+     * Only a 4xx response means the bank refused the chunk, so only then are its payments
+     * {@code FAILED}. After a timeout, I/O error or 5xx response the bank may still have accepted
+     * the chunk; its payments are left {@code PENDING} with the transaction reference sent as their
+     * payment ID, to be settled by a status lookup rather than resubmitted.
+     */
+    private void submitChunk(String url, List<PaymentRequest> chunk, int offset, PaymentResponse[] responses) {
+        // Positions of the payments submitted, by the transaction reference the bank echoes
+        Map<String, Integer> submitted = new LinkedHashMap<>();
+        List<BankPaymentRequestDTO> payments = new ArrayList<>();
+        List<String> idempotencyKeys = new ArrayList<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            PaymentRequest paymentRequest = chunk.get(i);
+            try {
+                BankPaymentRequestDTO bankRequest = convertToBankRequest(paymentRequest);
+                bankRequest.setIdempotencyKey(generateBulkIdempotencyKey(paymentRequest, offset + i));
+                payments.add(bankRequest);
+                idempotencyKeys.add(bankRequest.getIdempotencyKey());
+                submitted.put(bankRequest.getTransactionReference(), i);
+            } catch (RuntimeException e) {
+                responses[offset + i] = failedResponse(paymentRequest, "Invalid payment request: " + e.getMessage());
+            }
+        }
+        if (payments.isEmpty()) {
+            return;
+        }
+        
+        BankBulkPaymentRequestDTO bulkRequest = BankBulkPaymentRequestDTO.builder()
+            .batchReference(generateTransactionReference())
+            .payments(payments)
+            .build();
+        
+        // The chunk's key is derived from its payments' keys, so a resubmitted chunk is recognised
+        HttpHeaders headers = createHeaders();
+        headers.add(IDEMPOTENCY_KEY_HEADER, UUID.nameUUIDFromBytes(
+            String.join(",", idempotencyKeys).getBytes(StandardCharsets.UTF_8)).toString());
+        HttpEntity<BankBulkPaymentRequestDTO> requestEntity = new HttpEntity<>(bulkRequest, headers);
+        
+        try {
+            ResponseEntity<BankBulkPaymentResponseDTO> response;
+            try {
+                response = bankCallPolicy.execute("payments.bulk", () -> restTemplate.exchange(
+                    url,
+                    HttpMethod.POST,
+                    requestEntity,
+                    BankBulkPaymentResponseDTO.class
+                ));
+            } catch (HttpClientErrorException | HttpServerErrorException e) {
+                String responseBody = e.getResponseBodyAsString();
+                log.error("Bank API error during bulk submission: {} - {}", e.getStatusCode(), responseBody);
+                throw new BankApiException(
+                    String.format("Bank API error: %s - %s", e.getStatusCode(), responseBody),
+                    e.getStatusCode()
+                );
+            } catch (RestClientException e) {
+                log.error("Error calling bank API for bulk submission: {}", e.getMessage(), e);
+                throw new PaymentProcessingException("Error submitting payments to bank", e);
+            }
+            
+            BankBulkPaymentResponseDTO body = response.getBody();
+            if (body != null && body.getResults() != null) {
+                for (BankPaymentResponseDTO result : body.getResults()) {
+                    Integer index = result.getTransactionReference() != null
+                        ? submitted.remove(result.getTransactionReference()) : null;
+                    if (index != null) {
+                        PaymentResponse paymentResponse = processBankResponse(result);
+                        paymentResponse.setPaymentReference(chunk.get(index).getPaymentReference());
+                        responses[offset + index] = paymentResponse;
+                    }
+                }
+            }
+            submitted.values().forEach(index ->
+                responses[offset + index] = failedResponse(chunk.get(index), "No result from bank for payment"));
+            
+        } catch (BankApiException e) {
+            SecureLoggingUtils.error(log, "Failed to submit bulk payment chunk of " + payments.size() + " payments", e);
+            boolean refused = e.getStatusCode() != null && e.getStatusCode().is4xxClientError();
+            submitted.forEach((reference, index) -> responses[offset + index] = refused
+                ? failedResponse(chunk.get(index), "Failed to process payment: " + e.getMessage())
+                : unknownResponse(chunk.get(index), reference, e.getMessage()));
+        } catch (Exception e) {
+            SecureLoggingUtils.error(log, "Outcome of bulk payment chunk of " + payments.size() + " payments is unknown", e);
+            submitted.forEach((reference, index) ->
+                responses[offset + index] = unknownResponse(chunk.get(index), reference, e.getMessage()));
+        }
+    }
+    
+    /**
+     * Creates the response of a payment the bank may or may not have accepted. Without a
+     * transaction ID from the bank, the transaction reference sent to it stands in as the payment
+     * ID, so the payment can be polled like any other until the bank resolves it.
+     */
+    private PaymentResponse unknownResponse(PaymentRequest request, String transactionReference, String error) {
+        PaymentResponse response = failedResponse(request, "Outcome unknown, check status before resubmitting: " + error);
+        response.setStatus("PENDING");
+        response.setPaymentId(transactionReference);
+        response.setReference(transactionReference);
+        return response;
+    }
+    
+    /**
+     * Creates the response of a payment that the bank did not accept a result for.
+     */
+    private PaymentResponse failedResponse(PaymentRequest request, String message) {
+        PaymentResponse response = new PaymentResponse();
+        response.setStatus("FAILED");
+        response.setMessage(message);
+        response.setTimestamp(LocalDateTime.now());
+        if (request != null) {
+            response.setPaymentReference(request.getPaymentReference());
+            response.setAmount(request.getAmount());
+            response.setCurrency(request.getCurrency());
+        }
+        return response;
+    }
+    
+    @Override
+    public Map<String, PaymentResponse> getPaymentStatuses(Collection<String> paymentIds) {
+        if (paymentIds == null || paymentIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        
+        Map<String, PaymentResponse> statuses = new HashMap<>();
+        if (StringUtils.isBlank(bankApiConfig.getBulk().getStatusEndpoint())) {
+            // The bank has no bulk status lookup
+            for (String paymentId : paymentIds) {
+                try {
+                    statuses.put(paymentId, getPaymentStatus(paymentId));
+                } catch (PaymentProcessingException e) {
+                    log.warn("Could not get status of payment {}: {}", paymentId, e.getMessage());
+                }
+            }
+            return statuses;
+        }
+        
+        String url = String.format("%s%s", bankApiConfig.getBaseUrl(), bankApiConfig.getBulk().getStatusEndpoint());
+        HttpEntity<BankBulkStatusRequestDTO> requestEntity = new HttpEntity<>(
+            BankBulkStatusRequestDTO.builder().transactionIds(new ArrayList<>(paymentIds)).build(),
+            createHeaders());
+        
+        try {
+            log.debug("Fetching status of {} payments from: {}", paymentIds.size(), url);
+            ResponseEntity<BankBulkPaymentResponseDTO> response;
+            try {
+                response = bankCallPolicy.execute("payments.bulk-status", () -> restTemplate.exchange(
+                    url,
+                    HttpMethod.POST,
+                    requestEntity,
+                    BankBulkPaymentResponseDTO.class
+                ));
+            } catch (HttpClientErrorException | HttpServerErrorException e) {
+                String responseBody = e.getResponseBodyAsString();
+                log.error("Bank API error during bulk status check: {} - {}", e.getStatusCode(), responseBody);
+                throw new BankApiException(
+                    String.format("Bank API error: %s - %s", e.getStatusCode(), responseBody),
+                    e.getStatusCode()
+                );
+            } catch (RestClientException e) {
+                log.error("Error calling bank API for bulk status check: {}", e.getMessage(), e);
+                throw new PaymentProcessingException("Error checking payment statuses with bank", e);
+            }
+            
+            BankBulkPaymentResponseDTO body = response.getBody();
+            if (body != null && body.getResults() != null) {
+                for (BankPaymentResponseDTO result : body.getResults()) {
+                    // Payments of unknown outcome were asked for by their transaction reference
+                    String paymentId = requested(paymentIds, result.getTransactionId()) ? result.getTransactionId()
+                        : requested(paymentIds, result.getTransactionReference()) ? result.getTransactionReference()
+                        : null;
+                    if (paymentId != null) {
+                        statuses.put(paymentId, processBankResponse(result));
+                    }
+                }
+            }
+            return statuses;
+            
+        } catch (Exception e) {
+            SecureLoggingUtils.error(log, "Failed to get status of " + paymentIds.size() + " payments", e);
+            throw new PaymentProcessingException("Failed to get payment statuses: " + e.getMessage(), e);
+        }
+    }
+    
+    private static boolean requested(Collection<String> paymentIds, String id) {
+        return id != null && paymentIds.contains(id);
+    }
+    
     /**
      * Converts the application's PaymentRequest to the bank's specific DTO.
      */
@@ -310,4 +520,19 @@ public class BankPaymentServiceImpl implements BankPaymentService {
         
         return UUID.nameUUIDFromBytes(uniqueId.getBytes(StandardCharsets.UTF_8)).toString();
     }
+    
+    /**
+     * Generates the idempotency key of a payment in a bulk submission. The payment reference,
+     * or failing that the payment's position in the submission, keeps equal payments to the
+     * same beneficiary apart.
+     */
+    private String generateBulkIdempotencyKey(PaymentRequest request, int position) {
+        String uniqueId = String.format("%s-%s-%s-%s",
+            request.getDebitAccountNumber(),
+            request.getBeneficiaryAccountNumber(),
+            request.getAmount().toString(),
+            request.getPaymentReference() != null ? request.getPaymentReference() : "#" + position);
+        
+        return UUID.nameUUIDFromBytes(uniqueId.getBytes(StandardCharsets.UTF_8)).toString();
+    }
 }
@@ -33,9 +33,12 @@ public class OracleHostToHostServiceImpl implements OracleHostToHostService {
             // 1. Validate payment details
             validatePayment(payment);
             
-            // 2. Generate payment reference
-            String paymentReference = "H2H-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-            payment.setPaymentReference(paymentReference);
+            // 2. Generate payment reference unless the caller supplied a stable one
+            String paymentReference = payment.getPaymentReference();
+            if (paymentReference == null || paymentReference.isBlank()) {
+                paymentReference = "H2H-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+                payment.setPaymentReference(paymentReference);
+            }
             
             // 3. Process payment through Oracle H2H
             // In a real implementation, this would call the Oracle H2H web service
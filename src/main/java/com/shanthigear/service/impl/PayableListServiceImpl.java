@@ -3,15 +3,20 @@ package com.shanthigear.service.impl;
 import com.shanthigear.dto.PayableItemDTO;
 import com.shanthigear.exception.PaymentProcessingException;
 import com.shanthigear.exception.PaymentValidationException;
+import com.shanthigear.mapper.PayableItemMapper;
 import com.shanthigear.model.PaymentDetails;
+import com.shanthigear.model.Vendor;
 import com.shanthigear.repository.PaymentDetailsRepository;
-import com.shanthigear.repository.VendorRepository;
 import com.shanthigear.service.PayableListService;
+import com.shanthigear.service.VendorCache;
+import com.shanthigear.util.MappedTextReader;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
-import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
@@ -27,8 +32,17 @@ import java.util.stream.Collectors;
 public class PayableListServiceImpl implements PayableListService {
 
     private final PaymentDetailsRepository paymentDetailsRepository;
-    private final VendorRepository vendorRepository;
-    private final ModelMapper modelMapper;
+    private final VendorCache vendorCache;
+    private final PayableItemMapper payableItemMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${app.import.fixed-width.payables:}")
+    private String fixedWidthColumns;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int saveBatchSize;
 
     @Override
     @Transactional
@@ -44,6 +58,10 @@ public class PayableListServiceImpl implements PayableListService {
     }
 
     private List<PayableItemDTO> parseExcelFile(MultipartFile file) throws IOException {
+        if (MappedTextReader.isTextFile(file.getOriginalFilename())) {
+            return parseTextFile(file);
+        }
+        
         List<PayableItemDTO> payableItems = new ArrayList<>();
         
         try (Workbook workbook = new XSSFWorkbook(file.getInputStream())) {
@@ -75,14 +93,52 @@ public class PayableListServiceImpl implements PayableListService {
         return payableItems;
     }
     
+    /**
+     * Parses a CSV or fixed-width export with the same columns as the payable list sheet.
+     */
+    private List<PayableItemDTO> parseTextFile(MultipartFile file) throws IOException {
+        MappedTextReader.Layout layout;
+        try {
+            layout = MappedTextReader.Layout.forFile(file.getOriginalFilename(), fixedWidthColumns);
+        } catch (IllegalArgumentException e) {
+            throw new PaymentValidationException(e.getMessage());
+        }
+        
+        List<PayableItemDTO> payableItems = new ArrayList<>();
+        MappedTextReader.read(file, layout, (rowIndex, values) -> {
+            // Skip header row
+            if (rowIndex == 0 || values.stream().allMatch(String::isEmpty)) {
+                return;
+            }
+            
+            PayableItemDTO item = new PayableItemDTO();
+            item.setVendorNumber(valueAt(values, 0));
+            item.setVendorName(valueAt(values, 1));
+            item.setVendorSite(valueAt(values, 2));
+            item.setPayGroup(valueAt(values, 3));
+            item.setAmountToPay(parseAmount(valueAt(values, 4)));
+            
+            payableItems.add(item);
+        });
+        
+        return payableItems;
+    }
+    
+    /**
+     * Validates all items in memory against the vendors they reference, which are resolved
+     * with one lookup for the whole list.
+     */
     private void validatePayableItems(List<PayableItemDTO> payableItems) {
         List<String> errors = new ArrayList<>();
+        Map<String, Vendor> vendors = vendorCache.getAll(payableItems.stream()
+                .map(PayableItemDTO::getVendorNumber)
+                .collect(Collectors.toSet()));
         
         for (int i = 0; i < payableItems.size(); i++) {
             PayableItemDTO item = payableItems.get(i);
             int rowNum = i + 2; // 1-based index + header row
             
-            if (!vendorRepository.existsByVendorNumber(item.getVendorNumber())) {
+            if (!vendors.containsKey(item.getVendorNumber())) {
                 errors.add(String.format("Row %d: Vendor with number %s not found", rowNum, item.getVendorNumber()));
             }
             
@@ -96,15 +152,27 @@ public class PayableListServiceImpl implements PayableListService {
         }
     }
     
+    /**
+     * Saves the items in slices of the JDBC batch size. Each slice is flushed as batched
+     * inserts and then cleared from the persistence context, so a large list does not keep
+     * every entity managed until commit.
+     */
     private List<PaymentDetails> savePaymentDetails(List<PayableItemDTO> payableItems, String currentUser) {
-        return payableItems.stream()
-            .map(item -> {
-                PaymentDetails details = modelMapper.map(item, PaymentDetails.class);
-                details.setAmount(item.getAmountToPay());
-                details.setCreatedBy(currentUser);
-                return paymentDetailsRepository.save(details);
-            })
-            .collect(Collectors.toList());
+        List<PaymentDetails> saved = new ArrayList<>(payableItems.size());
+        int batchSize = Math.max(saveBatchSize, 1);
+        
+        for (int start = 0; start < payableItems.size(); start += batchSize) {
+            List<PaymentDetails> batch = payableItems.subList(start, Math.min(start + batchSize, payableItems.size()))
+                .stream()
+                .map(item -> payableItemMapper.toPaymentDetails(item, currentUser))
+                .collect(Collectors.toList());
+            saved.addAll(paymentDetailsRepository.saveAll(batch));
+            entityManager.flush();
+            entityManager.clear();
+        }
+        
+        log.info("Saved {} payment details in batches of {}", saved.size(), batchSize);
+        return saved;
     }
     
     // Helper methods for Excel parsing
@@ -151,6 +219,19 @@ public class PayableListServiceImpl implements PayableListService {
         }
     }
 
+    private String valueAt(List<String> values, int index) {
+        return index < values.size() ? values.get(index) : null;
+    }
+    
+    private BigDecimal parseAmount(String value) {
+        if (value == null || value.isEmpty()) return null;
+        try {
+            return new BigDecimal(value.replace(",", ""));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
     @Override
     public List<PaymentDetails> getPaymentDetailsByVendor(String vendorNumber) {
         return paymentDetailsRepository.findByVendorNumber(vendorNumber);
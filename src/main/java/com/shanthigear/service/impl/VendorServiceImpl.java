@@ -7,6 +7,7 @@ import com.shanthigear.exception.VendorAlreadyExistsException;
 import com.shanthigear.exception.InvalidVendorDataException;
 import com.shanthigear.model.Vendor;
 import com.shanthigear.repository.VendorRepository;
+import com.shanthigear.service.VendorCache;
 import com.shanthigear.service.VendorService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -33,6 +34,7 @@ public class VendorServiceImpl implements VendorService {
 
     private final VendorRepository vendorRepository;
     private final ModelMapper modelMapper;
+    private final VendorCache vendorCache;
     
     private static final String VENDOR_NUMBER_PATTERN = "^[A-Za-z0-9-]+$";
     private static final String EMAIL_PATTERN = "^[A-Za-z0-9+_.-]+@(.+)$";
@@ -158,6 +160,7 @@ public class VendorServiceImpl implements VendorService {
         
         // Save updated vendor
         Vendor updatedVendor = vendorRepository.save(existingVendor);
+        vendorCache.invalidate(vendorNumber);
         log.info("Updated vendor with number: {}", vendorNumber);
         
         return modelMapper.map(updatedVendor, VendorResponseDTO.class);
@@ -198,6 +201,7 @@ public class VendorServiceImpl implements VendorService {
             throw new ResourceNotFoundException("Vendor not found with number: " + vendorNumber);
         }
         vendorRepository.deleteByVendorNumber(vendorNumber);
+        vendorCache.invalidate(vendorNumber);
         log.info("Deleted vendor with number: {}", vendorNumber);
     }
     
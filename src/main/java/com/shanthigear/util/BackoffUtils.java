@@ -0,0 +1,28 @@
+package com.shanthigear.util;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Retry delays shared by the email retry scheduler and the payment status poller.
+ */
+public final class BackoffUtils {
+
+    private BackoffUtils() {
+        // Utility class, prevent instantiation
+    }
+
+    /**
+     * Exponential backoff with "equal jitter": a random delay between half and all of
+     * {@code base * 2^(retry - 1)}, capped at {@code max}.
+     * @param base Delay before the first retry
+     * @param max Longest delay
+     * @param retry 1-based number of the retry
+     * @return The delay in milliseconds
+     */
+    public static long jitteredBackoffMillis(Duration base, Duration max, int retry) {
+        long ceiling = Math.min(base.toMillis() << Math.min(Math.max(retry - 1, 0), 20), max.toMillis());
+        long half = ceiling / 2;
+        return half + ThreadLocalRandom.current().nextLong(ceiling - half + 1);
+    }
+}
@@ -0,0 +1,389 @@
+package com.shanthigear.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.Arrays;
+
+/**
+ * Reader for CSV and fixed-width text exports, the plain-text counterpart of
+ * {@link StreamingExcelReader}.
+ * <p>
+ * The file is memory-mapped and scanned byte by byte; a delimited row only records the start and
+ * end offsets of its fields. Cell values are decoded (UTF-8, trimmed) when a caller asks for them,
+ * so columns the mapping never reads never become {@code String}s. Fixed-width widths count
+ * characters, not bytes, so a fixed-width line is decoded as a whole and its columns are sliced
+ * from the decoded line. Rows are handed to the same
+ * {@link StreamingExcelReader.RowCallback} as sheet rows, which lets the existing row mapping
+ * and validation run unchanged on either format.
+ * <p>
+ * Row views stay valid after the callback returns and may be read from other threads.
+ */
+@Slf4j
+public final class MappedTextReader {
+
+    private static final byte QUOTE = '"';
+    private static final byte CR = '\r';
+    private static final byte LF = '\n';
+
+    // Deletes spooled uploads once their mapping, which row views may still read, is unreachable
+    private static final Cleaner TEMP_FILES = Cleaner.create();
+
+    private MappedTextReader() {
+        // Utility class
+    }
+
+    /**
+     * How fields are laid out on a line: separated by a delimiter (with RFC 4180 quoting),
+     * or in fixed-width columns.
+     */
+    public static final class Layout {
+
+        private final byte delimiter;
+        private final int[] widths;
+
+        private Layout(byte delimiter, int[] widths) {
+            this.delimiter = delimiter;
+            this.widths = widths;
+        }
+
+        public static Layout csv() {
+            return delimited(',');
+        }
+
+        public static Layout delimited(char delimiter) {
+            return new Layout((byte) delimiter, null);
+        }
+
+        public static Layout fixedWidth(int... widths) {
+            if (widths.length == 0 || Arrays.stream(widths).anyMatch(width -> width <= 0)) {
+                throw new IllegalArgumentException("Fixed-width columns must have positive widths");
+            }
+            return new Layout((byte) 0, widths.clone());
+        }
+
+        /**
+         * Chooses the layout for an upload by its extension: {@code .csv} files are
+         * comma-separated and {@code .txt} files use the given fixed-width column spec.
+         *
+         * @param filename    the original file name
+         * @param widthsSpec  comma-separated column widths, e.g. {@code "10,40,12"}; may be blank
+         * @throws IllegalArgumentException if the file is not a text export, or is fixed-width
+         *                                  and no column widths are configured
+         */
+        public static Layout forFile(String filename, String widthsSpec) {
+            String name = filename != null ? filename.toLowerCase() : "";
+            if (name.endsWith(".csv")) {
+                return csv();
+            }
+            if (name.endsWith(".txt")) {
+                if (widthsSpec == null || widthsSpec.isBlank()) {
+                    throw new IllegalArgumentException("Fixed-width files are not configured for this import");
+                }
+                return fixedWidth(Arrays.stream(widthsSpec.split(","))
+                        .map(String::trim)
+                        .mapToInt(Integer::parseInt)
+                        .toArray());
+            }
+            throw new IllegalArgumentException("Unsupported text file: " + filename);
+        }
+
+        private boolean isFixedWidth() {
+            return widths != null;
+        }
+    }
+
+    /**
+     * @return true if the file name denotes a CSV or fixed-width text export
+     */
+    public static boolean isTextFile(String filename) {
+        if (filename == null) {
+            return false;
+        }
+        String name = filename.toLowerCase();
+        return name.endsWith(".csv") || name.endsWith(".txt");
+    }
+
+    /**
+     * Reads an uploaded text export.
+     * <p>
+     * The upload is spooled to a temporary file first so that it can be mapped. The file is
+     * deleted once the mapping is released, after the last row view of it is gone.
+     *
+     * @param file     the uploaded file
+     * @param layout   field layout of each line
+     * @param callback receives each line in file order; row numbers are 0-based
+     * @throws IOException if the file cannot be read
+     */
+    public static void read(MultipartFile file, Layout layout, StreamingExcelReader.RowCallback callback)
+            throws IOException {
+        Path tempFile = Files.createTempFile("text_import_", ".tmp");
+        MappedByteBuffer buffer;
+        try {
+            file.transferTo(tempFile);
+            buffer = map(tempFile);
+        } catch (IOException | RuntimeException e) {
+            deleteTempFile(tempFile);
+            throw e;
+        }
+        TEMP_FILES.register(buffer, () -> deleteTempFile(tempFile));
+        read(buffer, layout, callback);
+    }
+
+    private static void deleteTempFile(Path tempFile) {
+        try {
+            Files.deleteIfExists(tempFile);
+        } catch (IOException e) {
+            log.warn("Failed to delete temporary file: {}", tempFile, e);
+        }
+    }
+
+    /**
+     * Reads the text export at the given path.
+     *
+     * @param path     path to the file
+     * @param layout   field layout of each line
+     * @param callback receives each line in file order; row numbers are 0-based
+     * @throws IOException if the file cannot be read or is larger than 2 GB
+     */
+    public static void read(Path path, Layout layout, StreamingExcelReader.RowCallback callback) throws IOException {
+        read(map(path), layout, callback);
+    }
+
+    private static MappedByteBuffer map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("File is too large to import: " + size + " bytes");
+            }
+            // The mapping outlives the channel, so rows can still be decoded after it is closed
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+    }
+
+    private static void read(MappedByteBuffer buffer, Layout layout, StreamingExcelReader.RowCallback callback) {
+        int limit = buffer.limit();
+        int pos = skipByteOrderMark(buffer, limit);
+        int rowNum = 0;
+        while (pos < limit) {
+            if (layout.isFixedWidth()) {
+                int next = lineEnd(buffer, pos, limit);
+                callback.onRow(rowNum++, new FixedWidthRow(decodeLine(buffer, pos, next), layout.widths));
+                pos = next;
+            } else {
+                FieldBounds fields = new FieldBounds();
+                pos = scanDelimitedLine(buffer, pos, limit, layout.delimiter, fields);
+                callback.onRow(rowNum++, new RowView(buffer, fields));
+            }
+        }
+    }
+
+    private static int skipByteOrderMark(ByteBuffer buffer, int limit) {
+        if (limit >= 3 && buffer.get(0) == (byte) 0xEF && buffer.get(1) == (byte) 0xBB && buffer.get(2) == (byte) 0xBF) {
+            return 3;
+        }
+        return 0;
+    }
+
+    /**
+     * Records the fields of the delimited line starting at {@code pos}.
+     * Quoted fields may contain delimiters, line breaks and doubled quotes.
+     *
+     * @return the position after the line's terminator
+     */
+    private static int scanDelimitedLine(ByteBuffer buffer, int pos, int limit, byte delimiter, FieldBounds fields) {
+        int i = pos;
+        while (true) {
+            int start;
+            int end;
+            boolean quoted = i < limit && buffer.get(i) == QUOTE;
+            if (quoted) {
+                start = ++i;
+                while (i < limit) {
+                    if (buffer.get(i) == QUOTE) {
+                        if (i + 1 < limit && buffer.get(i + 1) == QUOTE) {
+                            i += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    i++;
+                }
+                end = i;
+                // Skip the closing quote and anything before the next delimiter
+                while (i < limit && buffer.get(i) != delimiter && buffer.get(i) != LF) {
+                    i++;
+                }
+            } else {
+                start = i;
+                while (i < limit && buffer.get(i) != delimiter && buffer.get(i) != LF) {
+                    i++;
+                }
+                end = i;
+                if (end > start && buffer.get(end - 1) == CR && (i == limit || buffer.get(i) == LF)) {
+                    end--;
+                }
+            }
+            fields.add(start, end, quoted);
+
+            if (i >= limit) {
+                return limit;
+            }
+            if (buffer.get(i) == LF) {
+                return i + 1;
+            }
+            i++; // Delimiter
+        }
+    }
+
+    /**
+     * @return the position after the terminator of the line starting at {@code pos}
+     */
+    private static int lineEnd(ByteBuffer buffer, int pos, int limit) {
+        int i = pos;
+        while (i < limit && buffer.get(i) != LF) {
+            i++;
+        }
+        return i < limit ? i + 1 : limit;
+    }
+
+    /**
+     * Decodes the line between {@code pos} and {@code next}, without its terminator.
+     */
+    private static String decodeLine(ByteBuffer buffer, int pos, int next) {
+        int end = next;
+        if (end > pos && buffer.get(end - 1) == LF) {
+            end--;
+        }
+        if (end > pos && buffer.get(end - 1) == CR) {
+            end--;
+        }
+        byte[] bytes = new byte[end - pos];
+        buffer.get(pos, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Start offset, end offset and quoted flag of each field of a line.
+     */
+    private static final class FieldBounds {
+        private int[] bounds = new int[3 * 16];
+        private int size;
+
+        void add(int start, int end, boolean quoted) {
+            int offset = size * 3;
+            if (offset + 3 > bounds.length) {
+                bounds = Arrays.copyOf(bounds, bounds.length * 2);
+            }
+            bounds[offset] = start;
+            bounds[offset + 1] = end;
+            bounds[offset + 2] = quoted ? 1 : 0;
+            size++;
+        }
+    }
+
+    /**
+     * A fixed-width line as a list of cell values, sliced from the decoded line on access;
+     * columns past the end of a short line are empty.
+     */
+    private static final class FixedWidthRow extends AbstractList<String> {
+        private final String line;
+        private final int[] widths;
+
+        private FixedWidthRow(String line, int[] widths) {
+            this.line = line;
+            this.widths = widths;
+        }
+
+        @Override
+        public String get(int index) {
+            if (index < 0 || index >= widths.length) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + widths.length);
+            }
+            int start = 0;
+            for (int i = 0; i < index; i++) {
+                start += widths[i];
+            }
+            int fieldStart = Math.min(start, line.length());
+            int fieldEnd = Math.min(start + widths[index], line.length());
+            return line.substring(fieldStart, fieldEnd).trim();
+        }
+
+        @Override
+        public int size() {
+            return widths.length;
+        }
+    }
+
+    /**
+     * A line of the mapped file as a list of cell values, decoded on access.
+     */
+    private static final class RowView extends AbstractList<String> {
+        private final ByteBuffer buffer;
+        private final int[] bounds;
+        private final int size;
+
+        private RowView(ByteBuffer buffer, FieldBounds fields) {
+            this.buffer = buffer;
+            this.bounds = fields.bounds;
+            this.size = fields.size;
+        }
+
+        @Override
+        public String get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            int start = bounds[index * 3];
+            int end = bounds[index * 3 + 1];
+            boolean quoted = bounds[index * 3 + 2] == 1;
+
+            // Trim without decoding: ASCII whitespace and control bytes never start a UTF-8 sequence
+            while (start < end && (buffer.get(start) & 0xFF) <= ' ') {
+                start++;
+            }
+            while (end > start && (buffer.get(end - 1) & 0xFF) <= ' ') {
+                end--;
+            }
+            if (start == end) {
+                return "";
+            }
+
+            byte[] bytes = new byte[end - start];
+            buffer.get(start, bytes);
+            int length = quoted ? unescapeQuotes(bytes) : bytes.length;
+            return new String(bytes, 0, length, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Collapses doubled quotes in place.
+         *
+         * @return the new length
+         */
+        private static int unescapeQuotes(byte[] bytes) {
+            int out = 0;
+            for (int in = 0; in < bytes.length; in++) {
+                bytes[out++] = bytes[in];
+                if (bytes[in] == QUOTE && in + 1 < bytes.length && bytes[in + 1] == QUOTE) {
+                    in++;
+                }
+            }
+            return out;
+        }
+    }
+}
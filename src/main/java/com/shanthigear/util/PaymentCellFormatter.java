@@ -0,0 +1,24 @@
+package com.shanthigear.util;
+
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+
+/**
+ * Formats numeric cells of payment sheets for the {@link StreamingExcelReader}: ISO dates,
+ * whole numbers without decimals and other numbers to 2 places, matching how the workbook
+ * based readers render the same cells.
+ */
+public class PaymentCellFormatter extends DataFormatter {
+
+    @Override
+    public String formatRawCellContents(double value, int formatIndex, String formatString,
+                                        boolean use1904Windowing) {
+        if (DateUtil.isADateFormat(formatIndex, formatString) && DateUtil.isValidExcelDate(value)) {
+            return DateUtil.getLocalDateTime(value, use1904Windowing).toLocalDate().toString();
+        }
+        if (value == (long) value) {
+            return String.valueOf((long) value);
+        }
+        return String.format("%.2f", value);
+    }
+}
@@ -0,0 +1,218 @@
+package com.shanthigear.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.springframework.web.multipart.MultipartFile;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Streaming reader for .xlsx files built on POI's event (SAX) API.
+ * <p>
+ * Unlike {@code new XSSFWorkbook(...)}, the sheet XML is never materialised as a DOM:
+ * rows are parsed one at a time and handed to a {@link RowCallback}, so heap usage
+ * stays flat regardless of the number of rows in the sheet. Only the shared strings
+ * table and the styles table are held in memory.
+ */
+@Slf4j
+public final class StreamingExcelReader {
+
+    private StreamingExcelReader() {
+        // Utility class
+    }
+
+    /**
+     * Receives the formatted cell values of a single row.
+     */
+    @FunctionalInterface
+    public interface RowCallback {
+        /**
+         * @param rowNum 0-based row index as stored in the sheet
+         * @param values cell values by column index; missing cells are empty strings
+         */
+        void onRow(int rowNum, List<String> values);
+    }
+
+    /**
+     * Streams the first sheet of an uploaded workbook.
+     * <p>
+     * The upload is spooled to a temporary file first so that the zip package can be
+     * opened with random access instead of being inflated into memory.
+     *
+     * @param file      the uploaded .xlsx file
+     * @param formatter formatter used to render numeric and date cells
+     * @param callback  receives each row in sheet order
+     * @throws IOException if the file cannot be read or is not a valid .xlsx package
+     */
+    public static void readFirstSheet(MultipartFile file, DataFormatter formatter, RowCallback callback)
+            throws IOException {
+        Path tempFile = Files.createTempFile("xlsx_stream_", ".xlsx");
+        try {
+            file.transferTo(tempFile);
+            readFirstSheet(tempFile, formatter, callback);
+        } finally {
+            try {
+                Files.deleteIfExists(tempFile);
+            } catch (IOException e) {
+                log.warn("Failed to delete temporary file: {}", tempFile, e);
+            }
+        }
+    }
+
+    /**
+     * Streams the first sheet of the workbook at the given path.
+     *
+     * @param path      path to the .xlsx file
+     * @param formatter formatter used to render numeric and date cells
+     * @param callback  receives each row in sheet order
+     * @throws IOException if the file cannot be read or is not a valid .xlsx package
+     */
+    public static void readFirstSheet(Path path, DataFormatter formatter, RowCallback callback) throws IOException {
+        try (OPCPackage pkg = OPCPackage.open(path.toFile(), PackageAccess.READ)) {
+            ReadOnlySharedStringsTable sharedStrings = new ReadOnlySharedStringsTable(pkg);
+            XSSFReader reader = new XSSFReader(pkg);
+            StylesTable styles = reader.getStylesTable();
+
+            Iterator<InputStream> sheets = reader.getSheetsData();
+            if (!sheets.hasNext()) {
+                throw new IOException("Excel file must contain at least one sheet");
+            }
+
+            try (InputStream sheet = sheets.next()) {
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(new XSSFSheetXMLHandler(
+                        styles, sharedStrings, new RowCollector(callback), formatter, false));
+                parser.parse(new InputSource(sheet));
+            }
+        } catch (SAXException e) {
+            // Surface exceptions raised by the row callback unchanged
+            if (e.getException() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IOException("Failed to parse Excel file: " + e.getMessage(), e);
+        } catch (OpenXML4JException | ParserConfigurationException e) {
+            throw new IOException("Failed to parse Excel file: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Returns the last row index declared in the first sheet's {@code <dimension>} element.
+     * <p>
+     * The element precedes the sheet data, so parsing stops before any row is read. This makes
+     * it a cheap row-count estimate for progress reporting; it is not authoritative, since
+     * writers may omit or misstate the dimension.
+     *
+     * @param path path to the .xlsx file
+     * @return the 0-based index of the last row, or -1 if the sheet declares no dimension
+     * @throws IOException if the file cannot be read or is not a valid .xlsx package
+     */
+    public static int lastRowIndex(Path path) throws IOException {
+        try (OPCPackage pkg = OPCPackage.open(path.toFile(), PackageAccess.READ)) {
+            Iterator<InputStream> sheets = new XSSFReader(pkg).getSheetsData();
+            if (!sheets.hasNext()) {
+                return -1;
+            }
+
+            DimensionHandler handler = new DimensionHandler();
+            try (InputStream sheet = sheets.next()) {
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(handler);
+                parser.parse(new InputSource(sheet));
+            } catch (StopParsingException e) {
+                // Expected: the handler stops as soon as it reaches the sheet data
+            }
+            return handler.lastRow;
+        } catch (SAXException | OpenXML4JException | ParserConfigurationException e) {
+            throw new IOException("Failed to parse Excel file: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Captures the sheet dimension and aborts the parse before the rows.
+     */
+    private static final class DimensionHandler extends DefaultHandler {
+
+        private int lastRow = -1;
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes)
+                throws SAXException {
+            if ("dimension".equals(localName)) {
+                String ref = attributes.getValue("ref");
+                if (ref != null && !ref.isBlank()) {
+                    lastRow = CellRangeAddress.valueOf(ref).getLastRow();
+                }
+                throw new StopParsingException();
+            }
+            if ("sheetData".equals(localName)) {
+                throw new StopParsingException();
+            }
+        }
+    }
+
+    private static final class StopParsingException extends SAXException {
+        private static final long serialVersionUID = 1L;
+    }
+
+    /**
+     * Collects the cells of the current row into a positional list and emits it on row end.
+     */
+    private static final class RowCollector implements XSSFSheetXMLHandler.SheetContentsHandler {
+
+        private final RowCallback callback;
+        private List<String> currentRow = new ArrayList<>();
+        private int currentColumn = -1;
+
+        private RowCollector(RowCallback callback) {
+            this.callback = callback;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            currentRow = new ArrayList<>();
+            currentColumn = -1;
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            callback.onRow(rowNum, currentRow);
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            int column = cellReference != null
+                    ? new CellReference(cellReference).getCol()
+                    : currentColumn + 1;
+
+            // Pad gaps left by blank cells so values stay aligned with column indexes
+            while (currentRow.size() < column) {
+                currentRow.add("");
+            }
+            currentRow.add(formattedValue != null ? formattedValue.trim() : "");
+            currentColumn = column;
+        }
+    }
+}
@@ -0,0 +1,4 @@
+-- Outbox messages held to be sent as one digest per vendor
+ALTER TABLE email_outbox ADD COLUMN IF NOT EXISTS digest_key VARCHAR(400);
+
+CREATE INDEX IF NOT EXISTS idx_email_outbox_digest ON email_outbox(digest_key, status);
@@ -0,0 +1,47 @@
+-- Payment exceptions and action items for the internal notification reports; both tables carry
+-- the day a row was written, which leads their indexes and is the unit the retention job drops
+CREATE SEQUENCE IF NOT EXISTS payment_exceptions_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS payment_exceptions (
+    id BIGINT PRIMARY KEY,
+    payment_reference VARCHAR(100),
+    vendor_name VARCHAR(255),
+    vendor_id VARCHAR(50),
+    error_code VARCHAR(100),
+    error_message VARCHAR(2000),
+    recorded_at TIMESTAMP,
+    recorded_day DATE NOT NULL,
+    severity VARCHAR(20),
+    module VARCHAR(50),
+    suggested_action VARCHAR(1000),
+    assigned_to VARCHAR(320),
+    status VARCHAR(20),
+    reported BOOLEAN DEFAULT FALSE NOT NULL
+);
+
+-- Range queries by day, status and severity
+CREATE INDEX IF NOT EXISTS idx_payment_exc_day ON payment_exceptions(recorded_day, status, severity);
+-- The exception report reads unreported exceptions in id order
+CREATE INDEX IF NOT EXISTS idx_payment_exc_unreported ON payment_exceptions(reported, id);
+
+CREATE TABLE IF NOT EXISTS action_items (
+    id VARCHAR(36) PRIMARY KEY,
+    title VARCHAR(500),
+    description VARCHAR(2000),
+    assigned_to VARCHAR(320),
+    assigned_by VARCHAR(320),
+    status VARCHAR(20),
+    priority VARCHAR(20),
+    due_date DATE,
+    completed_date DATE,
+    created_day DATE NOT NULL,
+    related_payment_id VARCHAR(100),
+    related_vendor_id VARCHAR(50),
+    category VARCHAR(50),
+    comments VARCHAR(2000)
+);
+
+-- Reminders read open items due by a date, assignee by assignee
+CREATE INDEX IF NOT EXISTS idx_action_items_open ON action_items(status, due_date);
+CREATE INDEX IF NOT EXISTS idx_action_items_assignee ON action_items(assigned_to, id);
+CREATE INDEX IF NOT EXISTS idx_action_items_day ON action_items(created_day, status);
@@ -0,0 +1,19 @@
+-- Payment counts and amounts by creation day, batch, vendor and status, maintained as payments
+-- change so summaries read these rows instead of the payments. A missing batch or vendor is '-'.
+CREATE SEQUENCE IF NOT EXISTS payment_summary_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS payment_summary_aggregates (
+    id BIGINT PRIMARY KEY,
+    summary_day DATE NOT NULL,
+    batch_id VARCHAR(50) NOT NULL,
+    vendor_id VARCHAR(20) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    payment_count BIGINT DEFAULT 0 NOT NULL,
+    total_amount DECIMAL(19, 2) DEFAULT 0 NOT NULL,
+    updated_at TIMESTAMP,
+    CONSTRAINT uk_payment_summary_key UNIQUE (summary_day, batch_id, vendor_id, status)
+);
+
+-- Batch summaries group a batch's rows by status; vendor dashboards read a vendor's days
+CREATE INDEX IF NOT EXISTS idx_payment_summary_batch ON payment_summary_aggregates(batch_id, status);
+CREATE INDEX IF NOT EXISTS idx_payment_summary_vendor ON payment_summary_aggregates(vendor_id, summary_day);
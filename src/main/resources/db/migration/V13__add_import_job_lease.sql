@@ -0,0 +1,4 @@
+-- Instance running an import job and its last heartbeat; another instance only takes the job
+-- over once the heartbeat is older than the lease timeout
+ALTER TABLE import_jobs ADD COLUMN IF NOT EXISTS lease_owner VARCHAR(255);
+ALTER TABLE import_jobs ADD COLUMN IF NOT EXISTS heartbeat_at TIMESTAMP;
@@ -0,0 +1,23 @@
+-- Asynchronous sheet imports and their resume checkpoints
+CREATE TABLE IF NOT EXISTS import_jobs (
+    id VARCHAR(36) PRIMARY KEY,
+    job_type VARCHAR(30) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    file_name VARCHAR(255),
+    stored_file VARCHAR(1000) NOT NULL,
+    total_rows INTEGER DEFAULT 0 NOT NULL,
+    processed_rows INTEGER DEFAULT 0 NOT NULL,
+    success_count INTEGER DEFAULT 0 NOT NULL,
+    failure_count INTEGER DEFAULT 0 NOT NULL,
+    last_committed_row INTEGER DEFAULT 0 NOT NULL,
+    errors TEXT,
+    message VARCHAR(1000),
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL,
+    run_started_at TIMESTAMP,
+    run_start_rows INTEGER DEFAULT 0 NOT NULL,
+    updated_at TIMESTAMP,
+    completed_at TIMESTAMP
+);
+
+-- Unfinished jobs are looked up by status on startup
+CREATE INDEX IF NOT EXISTS idx_import_jobs_status ON import_jobs(status);
@@ -0,0 +1,4 @@
+-- Sequence ids for payment_details so payable list rows can be inserted in JDBC batches.
+-- Increment matches the entity's allocationSize.
+CREATE SEQUENCE IF NOT EXISTS payment_details_seq INCREMENT BY 50;
+SELECT setval('payment_details_seq', COALESCE((SELECT MAX(id) FROM payment_details), 0) + 1);
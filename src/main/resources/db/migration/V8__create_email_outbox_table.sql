@@ -0,0 +1,21 @@
+-- Emails queued in the same transaction as the payment change that triggers them
+CREATE SEQUENCE IF NOT EXISTS email_outbox_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS email_outbox (
+    id BIGINT PRIMARY KEY,
+    status VARCHAR(20) NOT NULL,
+    recipient VARCHAR(320) NOT NULL,
+    subject VARCHAR(500) NOT NULL,
+    template_name VARCHAR(200) NOT NULL,
+    template_variables TEXT,
+    message_key VARCHAR(200) UNIQUE,
+    attempts INTEGER DEFAULT 0 NOT NULL,
+    next_attempt_at TIMESTAMP NOT NULL,
+    claimed_at TIMESTAMP,
+    last_error VARCHAR(1000),
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL,
+    sent_at TIMESTAMP
+);
+
+-- The dispatcher polls for due messages by status and next attempt time
+CREATE INDEX IF NOT EXISTS idx_email_outbox_due ON email_outbox(status, next_attempt_at);
@@ -0,0 +1,4 @@
+-- Per-domain email rate limit; NULL falls back to app.email.default-config.rate-limit-per-second
+ALTER TABLE email_domain_config ADD COLUMN IF NOT EXISTS rate_limit_per_second INTEGER;
+
+COMMENT ON COLUMN email_domain_config.rate_limit_per_second IS 'Maximum emails per second sent to this domain';
@@ -0,0 +1,159 @@
+package com.shanthigear.bank;
+
+import com.shanthigear.config.BankApiConfig;
+import com.shanthigear.config.BankCallPolicy;
+import com.shanthigear.exception.BankApiException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.ContentType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BankApiClientTest {
+
+    @Mock
+    private CloseableHttpAsyncClient httpClient;
+
+    private BankApiConfig bankApiConfig;
+
+    // Requests sent to the bank and the exchanges started for them
+    private final List<SimpleHttpRequest> requests = new ArrayList<>();
+    private final List<CompletableFuture<SimpleHttpResponse>> exchanges = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        bankApiConfig = new BankApiConfig();
+        bankApiConfig.setBaseUrl("https://api.bank.com");
+        bankApiConfig.setApiKey("api-key");
+        bankApiConfig.setClientId("client-id");
+        bankApiConfig.getRetry().setMaxAttempts(3);
+        bankApiConfig.getRetry().setInitialInterval(1);
+        bankApiConfig.getRetry().setMaxInterval(1);
+    }
+
+    @Test
+    void initiatePayment_ReturnsTransactionIdAndSendsIdempotencyKey() throws Exception {
+        BankApiClient client = client(callback -> callback.completed(response(200, "{\"transactionId\":\"TXN-1\"}")));
+
+        assertEquals("TXN-1", client.initiatePayment("9876543210", 1000.0, "PAY-1").get(5, TimeUnit.SECONDS));
+        client.initiatePayment("9876543210", 1000.0, "PAY-1").get(5, TimeUnit.SECONDS);
+        client.initiatePayment("9876543210", 1000.0, "PAY-2").get(5, TimeUnit.SECONDS);
+
+        String key = requests.get(0).getFirstHeader("Idempotency-Key").getValue();
+        // A resubmission of the same payment reuses its key
+        assertEquals(key, requests.get(1).getFirstHeader("Idempotency-Key").getValue());
+        assertNotEquals(key, requests.get(2).getFirstHeader("Idempotency-Key").getValue());
+        assertEquals("https://api.bank.com/payments", requests.get(0).getUri().toString());
+    }
+
+    @Test
+    void initiatePayment_MapsRejectionToBankApiExceptionWithoutRetrying() {
+        BankApiClient client = client(callback -> callback.completed(response(422, "{\"error\":\"Invalid account\"}")));
+
+        ExecutionException failure = assertThrows(ExecutionException.class,
+            () -> client.initiatePayment("9876543210", 1000.0, "PAY-1").get(5, TimeUnit.SECONDS));
+
+        BankApiException cause = assertInstanceOf(BankApiException.class, failure.getCause());
+        assertEquals(422, cause.getStatusCode().value());
+        assertTrue(cause.getMessage().contains("Invalid account"));
+        assertEquals(1, requests.size());
+    }
+
+    @Test
+    void checkPaymentStatus_RetriesServerErrors() throws Exception {
+        List<SimpleHttpResponse> responses = new ArrayList<>(List.of(
+            response(503, "Unavailable"),
+            response(200, "{\"status\":\"COMPLETED\"}")));
+        BankApiClient client = client(callback -> callback.completed(responses.remove(0)));
+
+        assertEquals(BankPaymentStatus.COMPLETED, client.checkPaymentStatus("TXN-1").get(5, TimeUnit.SECONDS));
+        assertEquals(2, requests.size());
+        assertEquals("https://api.bank.com/payments/TXN-1", requests.get(0).getUri().toString());
+    }
+
+    @Test
+    void checkPaymentStatus_FailsWithResourceAccessExceptionWhenRequestsTimeOut() {
+        BankApiClient client = client(callback -> callback.failed(new SocketTimeoutException("Read timed out")));
+
+        ExecutionException failure = assertThrows(ExecutionException.class,
+            () -> client.checkPaymentStatus("TXN-1").get(5, TimeUnit.SECONDS));
+
+        assertInstanceOf(ResourceAccessException.class, failure.getCause());
+        assertEquals(3, requests.size());
+    }
+
+    @Test
+    void checkPaymentStatus_AbortsRequestWhenBankDoesNotAnswerBeforeDeadline() {
+        bankApiConfig.setDeadline(100);
+        // The bank never answers
+        BankApiClient client = client(callback -> { });
+
+        ExecutionException failure = assertThrows(ExecutionException.class,
+            () -> client.checkPaymentStatus("TXN-1").get(5, TimeUnit.SECONDS));
+
+        assertInstanceOf(ResourceAccessException.class, failure.getCause());
+        assertTrue(failure.getCause().getMessage().contains("Deadline"));
+        assertEquals(1, requests.size());
+        // Cancelled once the deadline passes, possibly just after the call fails
+        assertThrows(CancellationException.class, () -> exchanges.get(0).get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void checkPaymentStatus_CancellingTheCallAbortsTheRequest() {
+        BankApiClient client = client(callback -> { });
+
+        CompletableFuture<BankPaymentStatus> status = client.checkPaymentStatus("TXN-1");
+        status.cancel(true);
+
+        assertTrue(exchanges.get(0).isCancelled());
+        assertEquals(1, requests.size());
+    }
+
+    @Test
+    void checkPaymentStatus_FailsWithoutRetryingWhenClientCancelsRequest() {
+        BankApiClient client = client(FutureCallback::cancelled);
+
+        assertThrows(CancellationException.class, () -> client.checkPaymentStatus("TXN-1").get(5, TimeUnit.SECONDS));
+        assertEquals(1, requests.size());
+    }
+
+    /**
+     * Creates a client whose bank answers every request through the given callback handler.
+     */
+    @SuppressWarnings("unchecked")
+    private BankApiClient client(Consumer<FutureCallback<SimpleHttpResponse>> bank) {
+        when(httpClient.execute(any(SimpleHttpRequest.class), any(FutureCallback.class))).thenAnswer(invocation -> {
+            requests.add(invocation.getArgument(0));
+            CompletableFuture<SimpleHttpResponse> exchange = new CompletableFuture<>();
+            exchanges.add(exchange);
+            bank.accept(invocation.getArgument(1));
+            return exchange;
+        });
+        return new BankApiClient(httpClient, bankApiConfig, new BankCallPolicy(bankApiConfig, new SimpleMeterRegistry()));
+    }
+
+    private static SimpleHttpResponse response(int code, String body) {
+        return SimpleHttpResponse.create(code, body, ContentType.APPLICATION_JSON);
+    }
+}
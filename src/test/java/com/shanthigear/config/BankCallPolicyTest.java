@@ -0,0 +1,116 @@
+package com.shanthigear.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BankCallPolicyTest {
+
+    private BankApiConfig bankApiConfig;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        bankApiConfig = new BankApiConfig();
+        bankApiConfig.getRetry().setMaxAttempts(3);
+        bankApiConfig.getRetry().setInitialInterval(1);
+        bankApiConfig.getRetry().setMaxInterval(1);
+        bankApiConfig.getCircuitBreaker().setSlidingWindowSize(4);
+        bankApiConfig.getCircuitBreaker().setMinimumNumberOfCalls(4);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void execute_RetriesTransientFailuresWithinOneBudget() {
+        BankCallPolicy policy = new BankCallPolicy(bankApiConfig, meterRegistry);
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = policy.execute("payments.process", () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE);
+            }
+            return "OK";
+        });
+
+        assertEquals("OK", result);
+        assertEquals(3, attempts.get());
+        assertEquals(1, meterRegistry.get("bank.api.calls")
+            .tag("endpoint", "payments.process").tag("outcome", "success").timer().count());
+    }
+
+    @Test
+    void execute_DoesNotRetryRejectedRequestsOrNestedCalls() {
+        BankCallPolicy policy = new BankCallPolicy(bankApiConfig, meterRegistry);
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(HttpClientErrorException.class, () -> policy.execute("payments.process", () -> {
+            attempts.incrementAndGet();
+            throw new HttpClientErrorException(HttpStatus.BAD_REQUEST);
+        }));
+        assertEquals(1, attempts.get());
+
+        // The inner call gets no attempts of its own, so an outage costs 3 attempts, not 9
+        attempts.set(0);
+        assertThrows(ResourceAccessException.class, () -> policy.execute("payments.bulk-status", () ->
+            policy.execute("payments.status", () -> {
+                assertTrue(BankCallPolicy.timeLeft().isPresent());
+                attempts.incrementAndGet();
+                throw new ResourceAccessException("Connection refused");
+            })));
+        assertEquals(3, attempts.get());
+        assertTrue(BankCallPolicy.timeLeft().isEmpty());
+    }
+
+    @Test
+    void execute_StopsRetryingOnceDeadlinePassed() {
+        bankApiConfig.setDeadline(50);
+        BankCallPolicy policy = new BankCallPolicy(bankApiConfig, meterRegistry);
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(ResourceAccessException.class, () -> policy.execute("payments.process", () -> {
+            attempts.incrementAndGet();
+            sleep(100);
+            throw new ResourceAccessException("Read timed out");
+        }));
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    void execute_RejectsCallsWhileCircuitIsOpen() {
+        bankApiConfig.getRetry().setMaxAttempts(1);
+        BankCallPolicy policy = new BankCallPolicy(bankApiConfig, meterRegistry);
+        AtomicInteger attempts = new AtomicInteger();
+
+        for (int i = 0; i < 4; i++) {
+            assertThrows(HttpServerErrorException.class, () -> policy.execute("payments.status", () -> {
+                attempts.incrementAndGet();
+                throw new HttpServerErrorException(HttpStatus.BAD_GATEWAY);
+            }));
+        }
+        ResourceAccessException rejected = assertThrows(ResourceAccessException.class,
+            () -> policy.execute("payments.status", () -> "OK"));
+
+        assertTrue(rejected.getMessage().contains("payments.status"));
+        assertEquals(4, attempts.get());
+        assertEquals(1, meterRegistry.get("bank.api.calls")
+            .tag("endpoint", "payments.status").tag("outcome", "rejected").timer().count());
+        // Other endpoints keep their own circuit
+        assertEquals("OK", policy.execute("payments.process", () -> "OK"));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
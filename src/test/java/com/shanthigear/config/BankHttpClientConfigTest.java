@@ -0,0 +1,46 @@
+package com.shanthigear.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.ssl.SSLConnectionSocketFactory;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.ssl.SSLContexts;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BankHttpClientConfigTest {
+
+    @Test
+    void connectionManager_AppliesPoolAndRouteLimits() throws Exception {
+        BankApiConfig bankApiConfig = new BankApiConfig();
+        bankApiConfig.getHttpClient().setMaxConnections(50);
+        bankApiConfig.getHttpClient().setMaxPerRoute(10);
+        bankApiConfig.getHttpClient().setRoutes(Map.of("https://api.hdfcbank.com", 30, "not a url", 5));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        try (PoolingHttpClientConnectionManager connectionManager = BankHttpClientConfig.connectionManager("bank",
+                new SSLConnectionSocketFactory(SSLContexts.createDefault()), bankApiConfig, meterRegistry)) {
+            assertEquals(50, connectionManager.getMaxTotal());
+            assertEquals(10, connectionManager.getDefaultMaxPerRoute());
+            assertEquals(30, connectionManager.getMaxPerRoute(
+                new HttpRoute(new HttpHost("https", "api.hdfcbank.com", 443), null, true)));
+
+            assertEquals(50, meterRegistry.get("bank.http.pool.max").tag("pool", "bank").gauge().value());
+            assertEquals(0, meterRegistry.get("bank.http.pool.leased").tag("pool", "bank").gauge().value());
+            assertEquals(0, meterRegistry.get("bank.http.pool.pending").tag("pool", "bank").gauge().value());
+            assertEquals(0, meterRegistry.get("bank.http.pool.available").tag("pool", "bank").gauge().value());
+        }
+    }
+
+    @Test
+    void route_FillsInDefaultPort() throws Exception {
+        assertEquals(new HttpRoute(new HttpHost("https", "bank.example.com", 443), null, true),
+            BankHttpClientConfig.route("https://bank.example.com"));
+        assertEquals(new HttpRoute(new HttpHost("http", "localhost", 8080), null, false),
+            BankHttpClientConfig.route("http://localhost:8080"));
+    }
+}
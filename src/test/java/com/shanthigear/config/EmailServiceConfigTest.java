@@ -0,0 +1,72 @@
+package com.shanthigear.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmailServiceConfigTest {
+
+    private final EmailServiceConfig config = new EmailServiceConfig();
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void emailTaskExecutor_UsesVirtualThreadsWhenEnabled() throws Exception {
+        Executor executor = config.emailTaskExecutor(1, 2, 10, true, meterRegistry);
+
+        assertInstanceOf(SimpleAsyncTaskExecutor.class, executor);
+        CompletableFuture<Boolean> virtual = CompletableFuture.supplyAsync(
+            () -> Thread.currentThread().isVirtual(), executor);
+        assertTrue(virtual.get(5, TimeUnit.SECONDS));
+        assertTaskRecorded("email-task", "virtual");
+    }
+
+    @Test
+    void emailSendExecutor_SendsOnPlatformThreads() throws Exception {
+        // SMTP sends would pin virtual threads to their carriers
+        Executor executor = config.emailSendExecutor(meterRegistry);
+
+        assertInstanceOf(ThreadPoolTaskExecutor.class, executor);
+        CompletableFuture<Boolean> virtual = CompletableFuture.supplyAsync(
+            () -> Thread.currentThread().isVirtual(), executor);
+        assertFalse(virtual.get(5, TimeUnit.SECONDS));
+        assertTaskRecorded("email-send", "platform");
+        ((ThreadPoolTaskExecutor) executor).shutdown();
+    }
+
+    @Test
+    void emailTaskExecutor_UsesPlatformPoolByDefault() throws Exception {
+        Executor executor = config.emailTaskExecutor(1, 2, 10, false, meterRegistry);
+
+        assertInstanceOf(ThreadPoolTaskExecutor.class, executor);
+        CompletableFuture<Boolean> virtual = CompletableFuture.supplyAsync(
+            () -> Thread.currentThread().isVirtual(), executor);
+        assertFalse(virtual.get(5, TimeUnit.SECONDS));
+        assertTaskRecorded("email-task", "platform");
+        ((ThreadPoolTaskExecutor) executor).shutdown();
+    }
+
+    private void assertTaskRecorded(String executor, String mode) {
+        // The timer is recorded after the task body completes the future
+        long deadline = System.currentTimeMillis() + 5000;
+        while (meterRegistry.get("email.executor.task").tags("executor", executor, "mode", mode).timer().count() == 0
+                && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertEquals(1, meterRegistry.get("email.executor.task").tags("executor", executor, "mode", mode).timer().count());
+        assertEquals(1, meterRegistry.get("email.executor.queue.wait").tags("executor", executor, "mode", mode).timer().count());
+    }
+}
@@ -0,0 +1,100 @@
+package com.shanthigear.service;
+
+import com.shanthigear.config.EmailConfig;
+import com.shanthigear.entity.EmailDomainConfig;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EmailDomainRateLimiterTest {
+
+    @Mock
+    private EmailDomainService emailDomainService;
+
+    private EmailConfig emailConfig;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        emailConfig = new EmailConfig();
+        emailConfig.getDefaultConfig().setRateLimitPerSecond(2);
+        meterRegistry = new SimpleMeterRegistry();
+        lenient().when(emailDomainService.getConfigByDomain(anyString())).thenReturn(Optional.empty());
+    }
+
+    @Test
+    void tryAcquire_LimitsEachDomainSeparately() {
+        EmailDomainRateLimiter limiter = createLimiter(100);
+
+        assertTrue(limiter.tryAcquire("slow.example.com"));
+        assertTrue(limiter.tryAcquire("SLOW.example.com"));
+        assertFalse(limiter.tryAcquire("slow.example.com"));
+        assertTrue(limiter.tryAcquire("fast.example.com"));
+
+        assertEquals(1.0, meterRegistry.get("email.rate.limit.domain.rejected")
+            .tag("domain", "slow.example.com").gauge().value());
+        assertEquals(0.0, meterRegistry.get("email.rate.limit.domain.available")
+            .tag("domain", "slow.example.com").gauge().value());
+        assertEquals(1.0, meterRegistry.get("email.rate.limit.domain.available")
+            .tag("domain", "fast.example.com").gauge().value());
+    }
+
+    @Test
+    void tryAcquire_UsesDomainConfigBeforeDefault() {
+        EmailDomainConfig config = new EmailDomainConfig();
+        config.setDomain("partner.com");
+        config.setRateLimitPerSecond(1);
+        when(emailDomainService.getConfigByDomain("partner.com")).thenReturn(Optional.of(config));
+        EmailDomainRateLimiter limiter = createLimiter(100);
+
+        assertTrue(limiter.tryAcquire("partner.com"));
+        assertFalse(limiter.tryAcquire("partner.com"));
+        verify(emailDomainService, times(1)).getConfigByDomain("partner.com");
+    }
+
+    @Test
+    void tryAcquire_RespectsGlobalCeiling() {
+        EmailDomainRateLimiter limiter = createLimiter(1);
+
+        assertTrue(limiter.tryAcquire("a.com"));
+        assertFalse(limiter.tryAcquire("b.com"));
+        assertEquals(1.0, meterRegistry.get("email.rate.limit.global.rejected").gauge().value());
+    }
+
+    @Test
+    void tryAcquire_KeepsReservedShareFromBulkSends() {
+        emailConfig.getDefaultConfig().setRateLimitPerSecond(4);
+        EmailDomainRateLimiter limiter = createLimiter(100);
+
+        assertTrue(limiter.tryAcquire("a.com", EmailPriority.BULK));
+        assertTrue(limiter.tryAcquire("a.com", EmailPriority.BULK));
+        assertFalse(limiter.tryAcquire("a.com", EmailPriority.BULK));
+        assertTrue(limiter.tryAcquire("a.com", EmailPriority.TRANSACTIONAL));
+        assertTrue(limiter.tryAcquire("a.com", EmailPriority.TRANSACTIONAL));
+        assertEquals(1.0, meterRegistry.get("email.rate.limit.bulk.deferred").gauge().value());
+    }
+
+    private EmailDomainRateLimiter createLimiter(int globalPerSecond) {
+        RateLimiter global = RateLimiter.of("email-rate-limiter", RateLimiterConfig.custom()
+            .limitForPeriod(globalPerSecond)
+            .limitRefreshPeriod(Duration.ofMinutes(1))
+            .timeoutDuration(Duration.ZERO)
+            .build());
+        return new EmailDomainRateLimiter(global, emailConfig, emailDomainService, meterRegistry,
+            Duration.ofMinutes(30), 100, 0.5);
+    }
+}
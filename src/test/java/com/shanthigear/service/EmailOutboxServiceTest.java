@@ -0,0 +1,226 @@
+package com.shanthigear.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shanthigear.exception.EmailRateLimitedException;
+import com.shanthigear.model.EmailOutboxMessage;
+import com.shanthigear.repository.EmailOutboxRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.MessagingException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EmailOutboxServiceTest {
+
+    @Mock
+    private EmailOutboxRepository emailOutboxRepository;
+
+    @Mock
+    private EmailService emailService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private EmailOutboxService outboxService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        outboxService = new EmailOutboxService(emailOutboxRepository, emailService, transactionTemplate,
+            new ObjectMapper(), meterRegistry);
+        ReflectionTestUtils.setField(outboxService, "dispatchEnabled", true);
+        ReflectionTestUtils.setField(outboxService, "batchSize", 10);
+        ReflectionTestUtils.setField(outboxService, "dispatchThreads", 2);
+        ReflectionTestUtils.setField(outboxService, "maxAttempts", 3);
+        ReflectionTestUtils.setField(outboxService, "retryDelayMs", 1000L);
+        ReflectionTestUtils.setField(outboxService, "claimTimeoutMs", 60000L);
+        outboxService.init();
+
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+            ((TransactionCallback<?>) invocation.getArgument(0)).doInTransaction(null));
+        lenient().doAnswer(invocation -> {
+            invocation.<Consumer<Object>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        lenient().when(emailOutboxRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @AfterEach
+    void tearDown() {
+        outboxService.shutdown();
+    }
+
+    @Test
+    void enqueue_StoresMessageWithSerializedVariables() {
+        when(emailOutboxRepository.existsByMessageKey("payment-notification:PAY001")).thenReturn(false);
+        when(emailOutboxRepository.insertIfAbsent(any())).thenReturn(true);
+
+        assertTrue(outboxService.enqueue("vendor@example.com", "Payment Credited", "payment-notification",
+            Map.of("vendorName", "Test Vendor"), "payment-notification:PAY001"));
+
+        ArgumentCaptor<EmailOutboxMessage> captor = ArgumentCaptor.forClass(EmailOutboxMessage.class);
+        verify(emailOutboxRepository).insertIfAbsent(captor.capture());
+        EmailOutboxMessage saved = captor.getValue();
+        assertEquals(EmailOutboxMessage.Status.PENDING, saved.getStatus());
+        assertEquals("vendor@example.com", saved.getRecipient());
+        assertEquals("{\"vendorName\":\"Test Vendor\"}", saved.getTemplateVariables());
+        assertEquals(1.0, meterRegistry.get("email.outbox.queued").counter().count());
+    }
+
+    @Test
+    void enqueue_SkipsAlreadyQueuedMessageKey() {
+        when(emailOutboxRepository.existsByMessageKey("payment-notification:PAY001")).thenReturn(true);
+
+        assertFalse(outboxService.enqueue("vendor@example.com", "Payment Credited", "payment-notification",
+            Map.of(), "payment-notification:PAY001"));
+
+        verify(emailOutboxRepository, never()).insertIfAbsent(any());
+    }
+
+    @Test
+    void enqueue_WhenMessageKeyQueuedConcurrently_ReportsAlreadyQueued() {
+        when(emailOutboxRepository.existsByMessageKey("payment-notification:PAY001")).thenReturn(false);
+        when(emailOutboxRepository.insertIfAbsent(any())).thenReturn(false);
+
+        assertFalse(outboxService.enqueue("vendor@example.com", "Payment Credited", "payment-notification",
+            Map.of(), "payment-notification:PAY001"));
+
+        assertEquals(0.0, meterRegistry.counter("email.outbox.queued").count());
+    }
+
+    @Test
+    void dispatchDueMessages_RecordsSentRetriedAndDeadMessages() throws MessagingException {
+        EmailOutboxMessage sent = pending(1L, "ok@example.com", 0);
+        EmailOutboxMessage retried = pending(2L, "retry@example.com", 0);
+        EmailOutboxMessage dead = pending(3L, "dead@example.com", 2);
+        List<EmailOutboxMessage> batch = List.of(sent, retried, dead);
+
+        when(emailOutboxRepository.findDueIds(any(), any(), any())).thenReturn(List.of(1L, 2L, 3L));
+        when(emailOutboxRepository.lockByIdIn(List.of(1L, 2L, 3L))).thenReturn(batch);
+        when(emailOutboxRepository.findAllById(anyCollection())).thenReturn(batch);
+        doAnswer(invocation -> {
+            if (!"ok@example.com".equals(invocation.getArgument(0))) {
+                throw new MessagingException("Mailbox unavailable");
+            }
+            return null;
+        }).when(emailService).sendTemplatedEmailNow(anyString(), anyString(), anyString(), anyMap());
+
+        outboxService.dispatchDueMessages();
+
+        assertEquals(EmailOutboxMessage.Status.SENT, sent.getStatus());
+        assertNotNull(sent.getSentAt());
+        assertEquals(EmailOutboxMessage.Status.PENDING, retried.getStatus());
+        assertEquals(1, retried.getAttempts());
+        assertTrue(retried.getNextAttemptAt().isAfter(LocalDateTime.now()));
+        assertEquals("Mailbox unavailable", retried.getLastError());
+        assertEquals(EmailOutboxMessage.Status.DEAD, dead.getStatus());
+        assertEquals(3, dead.getAttempts());
+        assertEquals(1.0, meterRegistry.get("email.outbox.sent").counter().count());
+        assertEquals(1.0, meterRegistry.get("email.outbox.retried").counter().count());
+        assertEquals(1.0, meterRegistry.get("email.outbox.dead").counter().count());
+    }
+
+    @Test
+    void dispatchDueMessages_ReschedulesThrottledMessageWithoutCountingAttempt() throws MessagingException {
+        EmailOutboxMessage throttled = pending(1L, "vendor@example.com", 2);
+
+        when(emailOutboxRepository.findDueIds(any(), any(), any())).thenReturn(List.of(1L));
+        when(emailOutboxRepository.lockByIdIn(List.of(1L))).thenReturn(List.of(throttled));
+        when(emailOutboxRepository.findAllById(anyCollection())).thenReturn(List.of(throttled));
+        doThrow(new EmailRateLimitedException("Rate limit exceeded for domain: example.com", Duration.ofMillis(400)))
+            .when(emailService).sendTemplatedEmailNow(anyString(), anyString(), anyString(), anyMap());
+
+        LocalDateTime before = LocalDateTime.now();
+        outboxService.dispatchDueMessages();
+
+        assertEquals(EmailOutboxMessage.Status.PENDING, throttled.getStatus());
+        assertEquals(2, throttled.getAttempts());
+        assertNull(throttled.getLastError());
+        assertFalse(throttled.getNextAttemptAt().isBefore(before.plus(Duration.ofMillis(400))));
+        assertTrue(throttled.getNextAttemptAt().isBefore(LocalDateTime.now().plusSeconds(1)));
+        assertEquals(1.0, meterRegistry.get("email.outbox.throttled").counter().count());
+    }
+
+    @Test
+    void enqueueDigestItem_HoldsItemForDigestWindow() {
+        ReflectionTestUtils.setField(outboxService, "digestWindowMs", 120000L);
+
+        assertTrue(outboxService.enqueueDigestItem("vendor@example.com", "Payments Credited", "payment-notification",
+            Map.of("payment", Map.of("paymentReference", "PAY001")), "payment-notification:PAY001",
+            "payment-notification:vendor@example.com"));
+
+        ArgumentCaptor<EmailOutboxMessage> captor = ArgumentCaptor.forClass(EmailOutboxMessage.class);
+        verify(emailOutboxRepository).insertIfAbsent(captor.capture());
+        assertEquals("payment-notification:vendor@example.com", captor.getValue().getDigestKey());
+        assertTrue(captor.getValue().getNextAttemptAt().isAfter(LocalDateTime.now().plusSeconds(60)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void dispatchDueMessages_SendsDigestItemsAsOneEmail() throws MessagingException {
+        EmailOutboxMessage first = digestItem(1L, "PAY001", LocalDateTime.now().minusMinutes(3));
+        EmailOutboxMessage second = digestItem(2L, "PAY002", LocalDateTime.now().minusMinutes(1));
+
+        when(emailOutboxRepository.findDueIds(any(), any(), any())).thenReturn(List.of(1L));
+        when(emailOutboxRepository.lockByIdIn(List.of(1L))).thenReturn(List.of(first));
+        when(emailOutboxRepository.lockPendingByDigestKeyIn(Set.of("payment-notification:vendor@example.com")))
+            .thenReturn(List.of(first, second));
+        when(emailOutboxRepository.findAllById(anyCollection())).thenReturn(List.of(first, second));
+
+        outboxService.dispatchDueMessages();
+
+        ArgumentCaptor<Map<String, Object>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(emailService, times(1)).sendTemplatedEmailNow(eq("vendor@example.com"), eq("Payments Credited"),
+            eq("payment-notification"), captor.capture());
+        List<Map<String, Object>> payments = (List<Map<String, Object>>) captor.getValue().get("payments");
+        assertEquals(List.of("PAY001", "PAY002"), payments.stream().map(item -> item.get("paymentReference")).toList());
+        assertFalse(captor.getValue().containsKey("payment"));
+        assertEquals("Test Vendor", captor.getValue().get("vendorName"));
+        assertEquals(EmailOutboxMessage.Status.SENT, first.getStatus());
+        assertEquals(EmailOutboxMessage.Status.SENT, second.getStatus());
+    }
+
+    private static EmailOutboxMessage digestItem(Long id, String paymentReference, LocalDateTime createdAt) {
+        EmailOutboxMessage message = pending(id, "vendor@example.com", 0);
+        message.setSubject("Payments Credited");
+        message.setDigestKey("payment-notification:vendor@example.com");
+        message.setTemplateVariables("{\"vendorName\":\"Test Vendor\",\"payment\":{\"paymentReference\":\""
+            + paymentReference + "\"}}");
+        message.setCreatedAt(createdAt);
+        return message;
+    }
+
+    private static EmailOutboxMessage pending(Long id, String recipient, int attempts) {
+        return EmailOutboxMessage.builder()
+            .id(id)
+            .status(EmailOutboxMessage.Status.PENDING)
+            .recipient(recipient)
+            .subject("Payment Credited")
+            .templateName("payment-notification")
+            .templateVariables("{\"vendorName\":\"Test Vendor\"}")
+            .attempts(attempts)
+            .nextAttemptAt(LocalDateTime.now().minusMinutes(1))
+            .build();
+    }
+}
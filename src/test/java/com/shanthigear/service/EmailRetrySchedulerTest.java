@@ -0,0 +1,97 @@
+package com.shanthigear.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmailRetrySchedulerTest {
+
+    private static final EmailRetryScheduler.RetryPolicy POLICY = new EmailRetryScheduler.RetryPolicy(
+        3, Duration.ofMillis(2), Duration.ofMillis(10), 5);
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private EmailRetryScheduler retryScheduler;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        retryScheduler = new EmailRetryScheduler(Runnable::run, meterRegistry, Duration.ofMillis(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        retryScheduler.shutdown();
+    }
+
+    @Test
+    void execute_RetriesFailedAttemptsUntilSuccess() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+
+        CompletableFuture<String> result = retryScheduler.execute("test", () -> {
+            if (calls.incrementAndGet() < 3) {
+                throw new IllegalStateException("SMTP unavailable");
+            }
+            return "sent";
+        }, POLICY);
+
+        assertEquals("sent", result.get(5, TimeUnit.SECONDS));
+        assertEquals(3, calls.get());
+        assertEquals(2.0, meterRegistry.get("email.retry").tag("outcome", "retried").counter().count());
+    }
+
+    @Test
+    void execute_FailsWithLastErrorWhenAttemptsAreUsedUp() {
+        AtomicInteger calls = new AtomicInteger();
+
+        CompletableFuture<String> result = retryScheduler.execute("test", () -> {
+            throw new IllegalStateException("failure " + calls.incrementAndGet());
+        }, POLICY);
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+        assertEquals("failure 3", error.getCause().getMessage());
+        assertEquals(1.0, meterRegistry.get("email.retry").tag("outcome", "exhausted").counter().count());
+    }
+
+    @Test
+    void execute_ThrottledAttemptsDoNotUseUpAttempts() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+
+        CompletableFuture<String> result = retryScheduler.execute("test", () -> {
+            if (calls.incrementAndGet() <= 4) {
+                throw new EmailRetryScheduler.ThrottledException("Rate limit exceeded");
+            }
+            return "sent";
+        }, POLICY);
+
+        assertEquals("sent", result.get(5, TimeUnit.SECONDS));
+        assertEquals(4.0, meterRegistry.get("email.retry").tag("outcome", "throttled").counter().count());
+    }
+
+    @Test
+    void execute_ParksAttemptsRejectedByAFullLane() throws Exception {
+        AtomicInteger rejections = new AtomicInteger();
+        Executor fullLane = task -> {
+            if (rejections.incrementAndGet() <= 2) {
+                throw new RejectedExecutionException("Lane full");
+            }
+            task.run();
+        };
+
+        CompletableFuture<String> result = retryScheduler.execute("test", () -> "sent", POLICY, fullLane);
+
+        assertEquals("sent", result.get(5, TimeUnit.SECONDS));
+        assertEquals(2.0, meterRegistry.get("email.retry").tag("outcome", "lane_full").counter().count());
+    }
+}
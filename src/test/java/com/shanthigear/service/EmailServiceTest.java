@@ -2,8 +2,8 @@ package com.shanthigear.service;
 
 import com.shanthigear.config.EmailConfig;
 import com.shanthigear.model.VendorPayment;
-import io.github.resilience4j.ratelimiter.RateLimiter;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -11,18 +11,31 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.thymeleaf.TemplateEngine;
 import org.thymeleaf.context.Context;
 
+import jakarta.mail.Address;
+import jakarta.mail.Message;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.internet.InternetAddress;
 import jakarta.mail.internet.MimeMessage;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -44,7 +57,7 @@ class EmailServiceTest {
     private MeterRegistry meterRegistry;
     
     @Mock
-    private RateLimiter rateLimiter;
+    private EmailDomainRateLimiter domainRateLimiter;
     
     @Mock
     private MimeMessage mimeMessage;
@@ -84,10 +97,12 @@ class EmailServiceTest {
         when(emailSenderFactory.getMailSender(anyString())).thenReturn(mailSender);
         
         // Mock rate limiter to always allow
-        when(rateLimiter.acquirePermission(anyInt())).thenReturn(true);
+        when(domainRateLimiter.tryAcquire(anyString(), any(EmailPriority.class))).thenReturn(true);
         
         // Initialize the EmailService with mocks
-        emailService = new EmailService(emailSenderFactory, templateEngine, emailConfig, emailDomainService, meterRegistry, rateLimiter);
+        EmailTemplateRenderer templateRenderer = new EmailTemplateRenderer(templateEngine, new SimpleMeterRegistry(), Map.of(), true);
+        emailService = new EmailService(emailSenderFactory, templateRenderer, emailConfig, emailDomainService, meterRegistry,
+            domainRateLimiter, Runnable::run, Runnable::run, Runnable::run);
     }
 
     @Test
@@ -201,4 +216,123 @@ class EmailServiceTest {
         assertEquals(2, results.size());
         assertTrue(results.stream().allMatch(com.shanthigear.model.EmailSendingResult::isSuccess));
     }
+    
+    @Test
+    void sendBulkEmail_AfterPartialBccFailure_RetriesOnlyUnsentRecipients() throws Exception {
+        // Given
+        EmailConfig.DefaultConfig defaultConfig = new EmailConfig.DefaultConfig();
+        defaultConfig.setFrom("payments@shanthigear.com");
+        EmailConfig.BulkConfig bulkConfig = new EmailConfig.BulkConfig();
+        bulkConfig.setBccChunkSize(3);
+        when(emailConfig.getDefaultConfig()).thenReturn(defaultConfig);
+        when(emailConfig.getBulk()).thenReturn(bulkConfig);
+        when(templateEngine.process(anyString(), any(Context.class)))
+            .thenReturn("<html>Test email content</html>");
+        
+        // The server sends to the first recipient, fails the second and rejects the third
+        List<List<String>> sentTo = new ArrayList<>();
+        doAnswer(invocation -> {
+            MimeMessage message = invocation.getArgument(0);
+            sentTo.add(Arrays.stream(message.getRecipients(Message.RecipientType.BCC)).map(Address::toString).toList());
+            if (sentTo.size() == 1) {
+                throw new MailSendException(Map.of(message, new SendFailedException("Partially sent", null,
+                    new Address[]{new InternetAddress("vendor1@example.com")},
+                    new Address[]{new InternetAddress("vendor2@example.com")},
+                    new Address[]{new InternetAddress("vendor3@example.com")})));
+            }
+            return null;
+        }).when(mailSender).send(any(MimeMessage.class));
+        
+        EmailTemplateRenderer templateRenderer = new EmailTemplateRenderer(templateEngine, new SimpleMeterRegistry(), Map.of(), true);
+        EmailService bulkEmailService = new EmailService(emailSenderFactory, templateRenderer, emailConfig, emailDomainService,
+                new SimpleMeterRegistry(), domainRateLimiter, Runnable::run, Runnable::run, Runnable::run) {
+            @Override
+            protected long getRetryDelayMs() {
+                return 1;
+            }
+        };
+        
+        // When
+        bulkEmailService.sendBulkEmail(List.of("vendor1@example.com", "vendor2@example.com", "vendor3@example.com"),
+            "Payment notice", "email/payment-notice", Map.of(), 10, EmailPriority.BULK).get(5, TimeUnit.SECONDS);
+        
+        // Then
+        assertEquals(List.of(
+            List.of("vendor1@example.com", "vendor2@example.com", "vendor3@example.com"),
+            List.of("vendor2@example.com")), sentTo);
+    }
+
+    @Test
+    void sendBulkEmail_SendsDomainsConcurrentlyAndIsolatesFailures() throws Exception {
+        // Given
+        EmailConfig.DefaultConfig defaultConfig = new EmailConfig.DefaultConfig();
+        defaultConfig.setFrom("payments@shanthigear.com");
+        when(emailConfig.getDefaultConfig()).thenReturn(defaultConfig);
+        List<Context> rendered = Collections.synchronizedList(new ArrayList<>());
+        when(templateEngine.process(anyString(), any(Context.class))).thenAnswer(invocation -> {
+            rendered.add(invocation.getArgument(1));
+            return "<html>Test email content</html>";
+        });
+        
+        // The relay of slow.example holds its send until released, then fails it
+        CountDownLatch release = new CountDownLatch(1);
+        JavaMailSender slowSender = mock(JavaMailSender.class);
+        when(slowSender.createMimeMessage()).thenReturn(mimeMessage);
+        doAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            throw new MailSendException("Relay down");
+        }).when(slowSender).send(any(MimeMessage.class));
+        when(emailSenderFactory.getMailSender("vendor@slow.example")).thenReturn(slowSender);
+        
+        ExecutorService bulkLane = Executors.newFixedThreadPool(3);
+        EmailTemplateRenderer templateRenderer = new EmailTemplateRenderer(templateEngine, new SimpleMeterRegistry(), Map.of(), true);
+        EmailService concurrentEmailService = new EmailService(emailSenderFactory, templateRenderer, emailConfig, emailDomainService,
+                new SimpleMeterRegistry(), domainRateLimiter, Runnable::run, Runnable::run, bulkLane);
+        
+        try {
+            // When
+            CompletableFuture<List<com.shanthigear.model.EmailSendingResult>> future = concurrentEmailService.sendBulkEmail(List.of(
+                bulkPayment("vendor@slow.example", "S1"),
+                bulkPayment("vendor@fast.example", "F1"),
+                bulkPayment("other@other.example", "O1"),
+                bulkPayment("vendor@fast.example", "F2"),
+                bulkPayment("vendor@fast.example", "F3")));
+            
+            // Then the other domains are sent while slow.example is still waiting on its relay
+            verify(mailSender, timeout(5000).times(2)).send(any(MimeMessage.class));
+            assertFalse(future.isDone());
+            release.countDown();
+            
+            List<com.shanthigear.model.EmailSendingResult> results = future.get(5, TimeUnit.SECONDS);
+            assertEquals(3, results.size());
+            Map<String, com.shanthigear.model.EmailSendingResult> byRecipient = results.stream()
+                .collect(Collectors.toMap(com.shanthigear.model.EmailSendingResult::getEmail, result -> result));
+            assertTrue(byRecipient.get("vendor@fast.example").isSuccess());
+            assertTrue(byRecipient.get("other@other.example").isSuccess());
+            assertFalse(byRecipient.get("vendor@slow.example").isSuccess());
+            assertTrue(byRecipient.get("vendor@slow.example").getErrorDetails().contains("Relay down"));
+            
+            // Payments of a domain keep their order in its notification
+            List<Object> fastReferences = rendered.stream()
+                .map(context -> (List<?>) context.getVariable("payments"))
+                .filter(items -> items.size() == 3)
+                .flatMap(List::stream)
+                .map(item -> ((Map<?, ?>) item).get("paymentReference"))
+                .collect(Collectors.toList());
+            assertEquals(List.of("F1", "F2", "F3"), fastReferences);
+        } finally {
+            release.countDown();
+            bulkLane.shutdownNow();
+        }
+    }
+    
+    private static VendorPayment bulkPayment(String email, String paymentReference) {
+        VendorPayment payment = new VendorPayment();
+        payment.setVendorEmail(email);
+        payment.setVendorName("Vendor " + paymentReference);
+        payment.setPaymentDate(LocalDate.now());
+        payment.setAmount(BigDecimal.valueOf(100));
+        payment.setPaymentReference(paymentReference);
+        return payment;
+    }
 }
@@ -0,0 +1,64 @@
+package com.shanthigear.service;
+
+import com.shanthigear.config.EmailConfig;
+import com.shanthigear.config.EmailTemplateConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Locale;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmailTemplateRendererTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private EmailTemplateRenderer renderer;
+
+    @BeforeEach
+    void setUp() {
+        EmailConfig emailConfig = new EmailConfig();
+        emailConfig.getTemplate().setCache(true);
+        meterRegistry = new SimpleMeterRegistry();
+        renderer = new EmailTemplateRenderer(new EmailTemplateConfig().emailTemplateEngine(emailConfig), meterRegistry,
+            Map.of("companyName", "Acme Gears", "bankName", "Acme Bank", "accountNumber", "000111222"), true);
+    }
+
+    @Test
+    void render_InsertsStaticBlocksAndRecipientVariables() {
+        String html = renderer.render("payment-notification", Map.of("vendor", "Test Vendor", "referenceNumber", "PMT-42"));
+
+        assertTrue(html.contains("Test Vendor"));
+        assertTrue(html.contains("PMT-42"));
+        assertTrue(html.contains("Acme Bank"));
+        assertTrue(html.contains("000111222"));
+        assertFalse(html.contains("staticBlocks"));
+    }
+
+    @Test
+    void render_RendersStaticBlocksOncePerLocale() {
+        renderer.render("payment-notification", Map.of("vendor", "Vendor A"), Locale.UK);
+        renderer.render("payment-notification", Map.of("vendor", "Vendor B"), Locale.UK);
+        renderer.render("payment-notification", Map.of("vendor", "Vendor C"), Locale.FRANCE);
+
+        // Two blocks per template, rendered for each of the two locales
+        assertEquals(4.0, fragmentGets("miss"));
+        assertEquals(2.0, fragmentGets("hit"));
+    }
+
+    @Test
+    void render_ResolvesTemplatesFromEmailTemplateLocations() {
+        String html = renderer.render("payment-confirmation", Map.of("vendorName", "Test Vendor"));
+
+        assertTrue(html.contains("Payment Confirmation"));
+        assertTrue(html.contains("Test Vendor"));
+    }
+
+    private double fragmentGets(String result) {
+        return meterRegistry.get("cache.gets")
+            .tags("cache", "email.template.fragments", "result", result)
+            .functionCounter().count();
+    }
+}
@@ -0,0 +1,186 @@
+package com.shanthigear.service;
+
+import com.shanthigear.exception.ExcelProcessingException;
+import com.shanthigear.model.Vendor;
+import com.shanthigear.model.VendorPayment;
+import com.shanthigear.repository.VendorPaymentRepository;
+import com.shanthigear.repository.VendorRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ExcelProcessingServiceTest {
+
+    private static final String[] HEADERS = {
+        "Vendor ID", "Vendor Name", "Email", "Amount", "Payment Date",
+        "Bank Account", "IFSC Code", "Bank Branch", "Invoice Number", "Vendor Type"
+    };
+
+    @Mock
+    private VendorRepository vendorRepository;
+
+    @Mock
+    private VendorPaymentRepository vendorPaymentRepository;
+
+    @Mock
+    private EmailService emailService;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private ExcelProcessingService excelProcessingService;
+
+    @BeforeEach
+    void setUp() {
+        VendorCache vendorCache = new VendorCache(vendorRepository, new SimpleMeterRegistry(), 100, Duration.ofMinutes(5));
+        excelProcessingService = new ExcelProcessingService(vendorRepository, vendorPaymentRepository, emailService, vendorCache);
+        ReflectionTestUtils.setField(excelProcessingService, "entityManager", entityManager);
+        ReflectionTestUtils.setField(excelProcessingService, "flushBatchSize", 50);
+    }
+
+    @Test
+    void processVendorPaymentsStreaming_WithValidFile_ProcessesRows() throws IOException {
+        Vendor vendor = Vendor.builder()
+            .vendorNumber("VEND001")
+            .vendorName("Test Vendor")
+            .emailAddress("vendor@test.com")
+            .build();
+        when(vendorRepository.findByVendorNumber(anyString())).thenReturn(Optional.of(vendor));
+        // The row's bank details fill in the vendor's missing ones
+        when(vendorRepository.save(any(Vendor.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(vendorPaymentRepository.save(any(VendorPayment.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        MultipartFile file = createWorkbook(HEADERS, new Object[] {
+            "VEND001", "Test Vendor", "vendor@test.com", 1000.5, "2024-01-15",
+            "1234567890", "TEST0123456", "Main Branch", "INV-001", "SUPPLIER"
+        });
+
+        List<ExcelProcessingService.PaymentProcessingResult> results =
+            excelProcessingService.processVendorPaymentsStreaming(file);
+
+        assertEquals(1, results.size());
+        VendorPayment payment = results.get(0).getPayment();
+        assertEquals(0, new BigDecimal("1000.50").compareTo(payment.getAmount()));
+        assertEquals(LocalDate.of(2024, 1, 15), payment.getPaymentDate());
+        assertEquals("INV-001", payment.getPaymentReference());
+        verify(vendorPaymentRepository).save(any(VendorPayment.class));
+    }
+
+    @Test
+    void processVendorPaymentsStreaming_WithInvalidHeader_Throws() throws IOException {
+        String[] headers = HEADERS.clone();
+        headers[3] = "Total";
+        MultipartFile file = createWorkbook(headers, new Object[] {"VEND001"});
+
+        ExcelProcessingException ex = assertThrows(ExcelProcessingException.class,
+            () -> excelProcessingService.processVendorPaymentsStreaming(file));
+
+        assertTrue(ex.getMessage().contains("Invalid header in column 4"));
+        verifyNoInteractions(vendorPaymentRepository);
+    }
+
+    @Test
+    void processVendorPaymentsStreaming_WithInvalidAmount_ReportsRowNumber() throws IOException {
+        MultipartFile file = createWorkbook(HEADERS, new Object[] {
+            "VEND001", "Test Vendor", "vendor@test.com", "abc", "2024-01-15",
+            "1234567890", "TEST0123456", "Main Branch", "INV-001", "SUPPLIER"
+        });
+
+        ExcelProcessingException ex = assertThrows(ExcelProcessingException.class,
+            () -> excelProcessingService.processVendorPaymentsStreaming(file));
+
+        assertTrue(ex.getMessage().contains("row 2"));
+        assertTrue(ex.getMessage().contains("Invalid amount format"));
+    }
+
+    @Test
+    void processVendorPaymentsStreaming_FlushesAndClearsEveryBatchOfRows() {
+        ReflectionTestUtils.setField(excelProcessingService, "flushBatchSize", 2);
+        Vendor vendor = Vendor.builder()
+            .vendorNumber("VEND001")
+            .vendorName("Test Vendor")
+            .emailAddress("vendor@test.com")
+            .build();
+        when(vendorRepository.findByVendorNumber(anyString())).thenReturn(Optional.of(vendor));
+        // The row's bank details fill in the vendor's missing ones
+        when(vendorRepository.save(any(Vendor.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(vendorPaymentRepository.save(any(VendorPayment.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        StringBuilder csv = new StringBuilder(String.join(",", HEADERS)).append('\n');
+        for (int i = 1; i <= 5; i++) {
+            csv.append("VEND001,Test Vendor,vendor@test.com,100").append(i)
+                .append(",2024-01-15,1234567890,TEST0123456,Main Branch,INV-00").append(i).append(",SUPPLIER\n");
+        }
+        MultipartFile file = new MockMultipartFile("payments.csv", "payments.csv", "text/csv",
+            csv.toString().getBytes(StandardCharsets.UTF_8));
+
+        List<ExcelProcessingService.PaymentProcessingResult> results =
+            excelProcessingService.processVendorPaymentsStreaming(file);
+
+        assertEquals(5, results.size());
+        // After rows 2 and 4; the final partial batch is flushed on commit
+        InOrder inOrder = inOrder(vendorPaymentRepository, entityManager);
+        for (int batch = 0; batch < 2; batch++) {
+            inOrder.verify(vendorPaymentRepository, times(2)).save(any(VendorPayment.class));
+            inOrder.verify(entityManager).flush();
+            inOrder.verify(entityManager).clear();
+        }
+        inOrder.verify(vendorPaymentRepository).save(any(VendorPayment.class));
+        inOrder.verifyNoMoreInteractions();
+    }
+
+    private MultipartFile createWorkbook(String[] headers, Object[] data) throws IOException {
+        try (Workbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet("Vendor Payments");
+
+            Row headerRow = sheet.createRow(0);
+            for (int i = 0; i < headers.length; i++) {
+                headerRow.createCell(i).setCellValue(headers[i]);
+            }
+
+            Row dataRow = sheet.createRow(1);
+            for (int i = 0; i < data.length; i++) {
+                if (data[i] instanceof Number number) {
+                    dataRow.createCell(i).setCellValue(number.doubleValue());
+                } else {
+                    dataRow.createCell(i).setCellValue(String.valueOf(data[i]));
+                }
+            }
+
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            workbook.write(outputStream);
+
+            return new MockMultipartFile(
+                "payments.xlsx",
+                "payments.xlsx",
+                "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet",
+                outputStream.toByteArray()
+            );
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.shanthigear.service;
+
+import com.shanthigear.config.NotificationConfig;
+import com.shanthigear.model.ActionItem;
+import com.shanthigear.model.PaymentException;
+import com.shanthigear.model.PaymentStatus;
+import com.shanthigear.model.PaymentSummary;
+import com.shanthigear.model.VendorPayment;
+import com.shanthigear.repository.ActionItemRepository;
+import com.shanthigear.repository.PaymentExceptionRepository;
+import com.shanthigear.repository.VendorPaymentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InternalNotificationServiceTest {
+
+    @Mock
+    private NotificationService notificationService;
+
+    @Mock
+    private VendorPaymentRepository vendorPaymentRepository;
+
+    @Mock
+    private PaymentExceptionRepository paymentExceptionRepository;
+
+    @Mock
+    private ActionItemRepository actionItemRepository;
+
+    @Mock
+    private PaymentSummaryService paymentSummaryService;
+
+    private NotificationConfig notificationConfig;
+
+    private InternalNotificationService internalNotificationService;
+
+    @BeforeEach
+    void setUp() {
+        notificationConfig = new NotificationConfig();
+        notificationConfig.getStore().setPageSize(2);
+        internalNotificationService = new InternalNotificationService(notificationService, notificationConfig,
+            vendorPaymentRepository, paymentExceptionRepository, actionItemRepository, paymentSummaryService);
+    }
+
+    @Test
+    void sendActionItemReminders_SendsOneReminderPerAssigneeAcrossPages() {
+        ActionItem first = actionItem("1", "alice@example.com");
+        ActionItem second = actionItem("2", "alice@example.com");
+        ActionItem third = actionItem("3", "bob@example.com");
+        when(actionItemRepository.findDue(anyCollection(), any(LocalDate.class), any()))
+            .thenReturn(List.of(first, second));
+        when(actionItemRepository.findDueAfter(anyCollection(), any(LocalDate.class), eq("alice@example.com"), eq("2"), any()))
+            .thenReturn(List.of(third));
+
+        internalNotificationService.sendActionItemReminders();
+
+        verify(notificationService).sendActionItems(List.of(first, second), List.of("alice@example.com"));
+        verify(notificationService).sendActionItems(List.of(third), List.of("bob@example.com"));
+        verifyNoMoreInteractions(notificationService);
+    }
+
+    @Test
+    void sendScheduledExceptionReport_ReadsUnreportedPagesAndMarksThemReported() {
+        notificationConfig.getExceptionReport().setMaxExceptionsPerReport(3);
+        PaymentException first = exception(1L);
+        PaymentException second = exception(2L);
+        PaymentException third = exception(3L);
+        when(paymentExceptionRepository.findUnreportedAfter(eq(0L), any())).thenReturn(List.of(first, second));
+        when(paymentExceptionRepository.findUnreportedAfter(eq(2L), any())).thenReturn(List.of(third));
+
+        internalNotificationService.sendScheduledExceptionReport();
+
+        verify(notificationService).sendExceptionReport(eq(List.of(first, second, third)), anyList());
+        verify(paymentExceptionRepository).markReported(List.of(1L, 2L, 3L));
+    }
+
+    @Test
+    void sendPaymentSummary_TakesTotalsFromAggregatesAndListsOnlyMaxPayments() {
+        notificationConfig.getPaymentSummary().setMaxPaymentsToShow(1);
+        when(paymentSummaryService.summarizeBatch("BATCH-1")).thenReturn(Map.of(
+            "COMPLETED", new PaymentSummaryService.Totals(3, new BigDecimal("300.00")),
+            "FAILED", new PaymentSummaryService.Totals(1, new BigDecimal("50.00"))));
+        VendorPayment payment = new VendorPayment();
+        payment.setAmount(new BigDecimal("100.00"));
+        payment.setStatus(PaymentStatus.COMPLETED);
+        when(vendorPaymentRepository.findByBatchIdAfter(eq("BATCH-1"), eq(0L), any())).thenReturn(List.of(payment));
+
+        internalNotificationService.sendPaymentSummary("BATCH-1");
+
+        ArgumentCaptor<PaymentSummary> summary = ArgumentCaptor.forClass(PaymentSummary.class);
+        verify(notificationService).sendPaymentSummary(summary.capture(), anyList());
+        assertEquals(4, summary.getValue().getTotalPayments());
+        assertEquals(new BigDecimal("350.00"), summary.getValue().getTotalAmount());
+        assertEquals(3, summary.getValue().getStatusCounts().get("COMPLETED"));
+        assertEquals(1, summary.getValue().getPaymentDetails().size());
+        verify(vendorPaymentRepository, never()).findByBatchId(anyString());
+    }
+
+    private static ActionItem actionItem(String id, String assignee) {
+        ActionItem item = new ActionItem();
+        item.setId(id);
+        item.setAssignedTo(assignee);
+        item.setStatus("OPEN");
+        item.setDueDate(LocalDate.now());
+        return item;
+    }
+
+    private static PaymentException exception(Long id) {
+        PaymentException exception = new PaymentException();
+        exception.setId(id);
+        exception.setSeverity("HIGH");
+        exception.setStatus("OPEN");
+        return exception;
+    }
+}
@@ -0,0 +1,144 @@
+package com.shanthigear.service;
+
+import com.shanthigear.config.BankApiConfig;
+import com.shanthigear.exception.PaymentProcessingException;
+import com.shanthigear.model.PaymentStatus;
+import com.shanthigear.model.VendorPayment;
+import com.shanthigear.payload.response.PaymentResponse;
+import com.shanthigear.repository.VendorPaymentRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentStatusPollerTest {
+
+    @Mock
+    private BankPaymentService bankPaymentService;
+
+    @Mock
+    private VendorPaymentRepository paymentRepository;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    private PaymentStatusPoller poller;
+
+    @BeforeEach
+    void setUp() {
+        BankApiConfig bankApiConfig = new BankApiConfig();
+        bankApiConfig.getStatusPolling().setBatchSize(3);
+        bankApiConfig.getStatusPolling().setBatchWindow(50);
+        bankApiConfig.getStatusPolling().setInitialDelay(10);
+        bankApiConfig.getStatusPolling().setMaxDelay(20);
+        bankApiConfig.getStatusPolling().setMaxAttempts(5);
+        bankApiConfig.getStatusPolling().setAwaitTimeout(200);
+        poller = new PaymentStatusPoller(bankPaymentService, paymentRepository, executor, bankApiConfig,
+            new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        poller.shutdown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void getStatus_SharesLookupsAndBatchesPayments() throws Exception {
+        when(bankPaymentService.getPaymentStatuses(anyCollection())).thenAnswer(invocation ->
+            statuses(invocation.getArgument(0), id -> "TXN-3".equals(id) ? null : "SUCCESS"));
+
+        CompletableFuture<PaymentResponse> first = poller.getStatus("TXN-1");
+        CompletableFuture<PaymentResponse> again = poller.getStatus("TXN-1");
+        CompletableFuture<PaymentResponse> second = poller.getStatus("TXN-2");
+        CompletableFuture<PaymentResponse> unknown = poller.getStatus("TXN-3");
+
+        assertSame(first, again);
+        assertEquals("SUCCESS", first.get(5, TimeUnit.SECONDS).getStatus());
+        assertEquals("SUCCESS", second.get(5, TimeUnit.SECONDS).getStatus());
+        ExecutionException error = assertThrows(ExecutionException.class, () -> unknown.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(PaymentProcessingException.class, error.getCause());
+        verify(bankPaymentService, times(1)).getPaymentStatuses(List.of("TXN-1", "TXN-2", "TXN-3"));
+    }
+
+    @Test
+    void watch_PollsPendingPaymentUntilBankResolvesIt() throws Exception {
+        when(bankPaymentService.getPaymentStatuses(anyCollection()))
+            .thenAnswer(invocation -> statuses(invocation.getArgument(0), id -> "PENDING"))
+            .thenAnswer(invocation -> statuses(invocation.getArgument(0), id -> "PENDING"))
+            .thenAnswer(invocation -> statuses(invocation.getArgument(0), id -> "FAILED"));
+        CompletableFuture<PaymentResponse> resolution = new CompletableFuture<>();
+
+        poller.watch("TXN-1", resolution::complete);
+
+        assertEquals("FAILED", resolution.get(5, TimeUnit.SECONDS).getStatus());
+        verify(bankPaymentService, times(3)).getPaymentStatuses(anyCollection());
+    }
+
+    @Test
+    void watch_StopsOnceWebhookResolvedPayment() throws Exception {
+        VendorPayment payment = new VendorPayment();
+        payment.setStatus(PaymentStatus.COMPLETED);
+        CountDownLatch checked = new CountDownLatch(1);
+        when(paymentRepository.findByTransactionId("TXN-1")).thenAnswer(invocation -> {
+            checked.countDown();
+            return Optional.of(payment);
+        });
+
+        poller.watch("TXN-1", resolved -> fail("Resolved by webhook, not by polling"));
+
+        assertTrue(checked.await(5, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        verify(bankPaymentService, never()).getPaymentStatuses(any());
+    }
+
+    @Test
+    void awaitStatus_GivesUpWhenBankDoesNotAnswerInTime() throws Exception {
+        CountDownLatch bankAnswers = new CountDownLatch(1);
+        when(bankPaymentService.getPaymentStatuses(anyCollection())).thenAnswer(invocation -> {
+            bankAnswers.await(5, TimeUnit.SECONDS);
+            return statuses(invocation.getArgument(0), id -> "SUCCESS");
+        });
+
+        PaymentProcessingException error = assertThrows(PaymentProcessingException.class,
+            () -> poller.awaitStatus("TXN-1"));
+        assertTrue(error.getMessage().contains("Timed out"));
+
+        // The lookup itself carries on and completes for the callers still sharing it
+        CompletableFuture<PaymentResponse> shared = poller.getStatus("TXN-1");
+        bankAnswers.countDown();
+        assertEquals("SUCCESS", shared.get(5, TimeUnit.SECONDS).getStatus());
+    }
+
+    private static Map<String, PaymentResponse> statuses(Collection<String> paymentIds, Function<String, String> status) {
+        return paymentIds.stream()
+            .filter(id -> status.apply(id) != null)
+            .collect(Collectors.toMap(Function.identity(), id -> {
+                PaymentResponse response = new PaymentResponse();
+                response.setPaymentId(id);
+                response.setStatus(status.apply(id));
+                return response;
+            }));
+    }
+}
@@ -0,0 +1,168 @@
+package com.shanthigear.service;
+
+import com.shanthigear.model.PaymentStatus;
+import com.shanthigear.model.PaymentSummaryAggregate;
+import com.shanthigear.repository.PaymentSummaryAggregateRepository;
+import com.shanthigear.repository.VendorPaymentRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentSummaryServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 1);
+
+    @Mock
+    private PaymentSummaryAggregateRepository aggregateRepository;
+
+    @Mock
+    private VendorPaymentRepository vendorPaymentRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private PaymentSummaryService paymentSummaryService;
+
+    @BeforeEach
+    void setUp() {
+        paymentSummaryService = new PaymentSummaryService(aggregateRepository, vendorPaymentRepository,
+            transactionManager, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void recordChange_AppliesTransactionChangesOnceAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        PaymentSummaryAggregate.Contribution pending = contribution("PENDING", "100.00");
+        PaymentSummaryAggregate.Contribution processing = contribution("PROCESSING", "100.00");
+        PaymentSummaryAggregate.Contribution completed = contribution("COMPLETED", "100.00");
+        when(aggregateRepository.increment(any(), any(), any(), any(), anyLong(), any(), any())).thenReturn(1);
+
+        paymentSummaryService.recordChange(pending, processing);
+        paymentSummaryService.recordChange(processing, completed);
+        verifyNoInteractions(aggregateRepository);
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        assertEquals(1, synchronizations.size());
+        synchronizations.get(0).afterCommit();
+        synchronizations.get(0).afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+
+        // PROCESSING nets out to nothing, so only the rows actually changed are written
+        verify(aggregateRepository).increment(eq(DAY), eq("BATCH-1"), eq("V001"), eq("PENDING"),
+            eq(-1L), eq(new BigDecimal("-100.00")), any());
+        verify(aggregateRepository).increment(eq(DAY), eq("BATCH-1"), eq("V001"), eq("COMPLETED"),
+            eq(1L), eq(new BigDecimal("100.00")), any());
+        verifyNoMoreInteractions(aggregateRepository);
+    }
+
+    @Test
+    void recordChange_CreatesMissingRowOutsideTransaction() {
+        when(aggregateRepository.increment(any(), any(), any(), any(), anyLong(), any(), any())).thenReturn(0);
+
+        paymentSummaryService.recordChange(null, contribution("PENDING", "250.00"));
+
+        ArgumentCaptor<PaymentSummaryAggregate> row = ArgumentCaptor.forClass(PaymentSummaryAggregate.class);
+        verify(aggregateRepository).saveAndFlush(row.capture());
+        assertEquals("PENDING", row.getValue().getStatus());
+        assertEquals(1, row.getValue().getPaymentCount());
+        assertEquals(new BigDecimal("250.00"), row.getValue().getTotalAmount());
+    }
+
+    @Test
+    void rebuild_RecountsEachDayFromPayments() {
+        when(vendorPaymentRepository.summarizeCreatedBetween(DAY.atStartOfDay(), DAY.plusDays(1).atStartOfDay()))
+            .thenReturn(List.<Object[]>of(
+                new Object[]{"BATCH-1", "V001", PaymentStatus.COMPLETED, 2L, new BigDecimal("200.00")},
+                new Object[]{null, "V001", PaymentStatus.FAILED, 1L, new BigDecimal("75.00")}));
+        when(vendorPaymentRepository.summarizeCreatedBetween(DAY.plusDays(1).atStartOfDay(), DAY.plusDays(2).atStartOfDay()))
+            .thenReturn(List.of());
+
+        int rows = paymentSummaryService.rebuild(DAY, DAY.plusDays(1));
+
+        assertEquals(2, rows);
+        verify(aggregateRepository).deleteDay(DAY);
+        verify(aggregateRepository).deleteDay(DAY.plusDays(1));
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<PaymentSummaryAggregate>> saved = ArgumentCaptor.forClass(List.class);
+        verify(aggregateRepository, times(2)).saveAll(saved.capture());
+        List<PaymentSummaryAggregate> firstDay = saved.getAllValues().get(0);
+        assertEquals(2, firstDay.size());
+        assertTrue(firstDay.stream().anyMatch(row -> PaymentSummaryAggregate.NONE.equals(row.getBatchId())
+            && "FAILED".equals(row.getStatus()) && row.getPaymentCount() == 1));
+    }
+
+    @Test
+    void backfillIfEmpty_SummarizesPaymentsRecordedBeforeAggregatesExisted() {
+        // Aggregate rows written by the backfill, read back by the summary queries
+        List<PaymentSummaryAggregate> aggregates = new ArrayList<>();
+        when(aggregateRepository.count()).thenReturn(0L);
+        when(aggregateRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            aggregates.addAll(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+        when(aggregateRepository.summarizeBatch("BATCH-1")).thenAnswer(invocation -> aggregates.stream()
+            .filter(row -> "BATCH-1".equals(row.getBatchId()))
+            .collect(Collectors.groupingBy(PaymentSummaryAggregate::getStatus))
+            .entrySet().stream()
+            .map(entry -> new Object[]{entry.getKey(),
+                entry.getValue().stream().mapToLong(PaymentSummaryAggregate::getPaymentCount).sum(),
+                entry.getValue().stream().map(PaymentSummaryAggregate::getTotalAmount)
+                    .reduce(BigDecimal.ZERO, BigDecimal::add)})
+            .toList());
+        when(vendorPaymentRepository.findEarliestCreatedAt()).thenReturn(DAY.atTime(9, 30));
+        when(vendorPaymentRepository.summarizeCreatedBetween(any(), any())).thenReturn(List.of());
+        when(vendorPaymentRepository.summarizeCreatedBetween(DAY.atStartOfDay(), DAY.plusDays(1).atStartOfDay()))
+            .thenReturn(List.<Object[]>of(
+                new Object[]{"BATCH-1", "V001", PaymentStatus.COMPLETED, 2L, new BigDecimal("200.00")},
+                new Object[]{"BATCH-1", "V002", PaymentStatus.COMPLETED, 1L, new BigDecimal("50.00")},
+                new Object[]{"BATCH-1", "V002", PaymentStatus.FAILED, 1L, new BigDecimal("75.00")}));
+
+        paymentSummaryService.backfillIfEmpty();
+
+        Map<String, PaymentSummaryService.Totals> summary = paymentSummaryService.summarizeBatch("BATCH-1");
+        assertEquals(new PaymentSummaryService.Totals(3, new BigDecimal("250.00")), summary.get("COMPLETED"));
+        assertEquals(new PaymentSummaryService.Totals(1, new BigDecimal("75.00")), summary.get("FAILED"));
+    }
+
+    @Test
+    void backfillIfEmpty_WithExistingAggregates_DoesNothing() {
+        when(aggregateRepository.count()).thenReturn(12L);
+
+        paymentSummaryService.backfillIfEmpty();
+
+        verifyNoInteractions(vendorPaymentRepository);
+        verify(aggregateRepository, never()).saveAll(anyList());
+    }
+
+    private static PaymentSummaryAggregate.Contribution contribution(String status, String amount) {
+        return new PaymentSummaryAggregate.Contribution(
+            new PaymentSummaryAggregate.Key(DAY, "BATCH-1", "V001", status), new BigDecimal(amount));
+    }
+}
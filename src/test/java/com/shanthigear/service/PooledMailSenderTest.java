@@ -0,0 +1,119 @@
+package com.shanthigear.service;
+
+import com.shanthigear.config.EmailConfig;
+import jakarta.mail.Address;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailSendException;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class PooledMailSenderTest {
+
+    private EmailConfig.SmtpPoolConfig settings;
+
+    private final Deque<Transport> queued = new ArrayDeque<>();
+
+    private final List<Transport> opened = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        settings = new EmailConfig.SmtpPoolConfig();
+        settings.setMaxConnections(2);
+        settings.setMaxMessagesPerConnection(100);
+        settings.setIdleTimeout(60000);
+        settings.setValidateAfterIdle(60000);
+        settings.setBorrowTimeout(1000);
+    }
+
+    @Test
+    void send_ReusesOneConnectionAcrossBatchesAndSends() throws Exception {
+        PooledMailSender sender = createSender();
+
+        sender.send(message(sender, "a@example.com"), message(sender, "b@example.com"), message(sender, "c@example.com"));
+        sender.send(message(sender, "d@example.com"));
+
+        assertEquals(1, opened.size());
+        verify(opened.get(0), times(4)).sendMessage(any(MimeMessage.class), any(Address[].class));
+        assertEquals(4, sender.getMessagesSent());
+        assertEquals(1, sender.getIdleConnections());
+        assertEquals(0, sender.getActiveConnections());
+    }
+
+    @Test
+    void send_RetiresConnectionAfterMaxMessages() throws Exception {
+        settings.setMaxMessagesPerConnection(2);
+        PooledMailSender sender = createSender();
+
+        sender.send(message(sender, "a@example.com"), message(sender, "b@example.com"), message(sender, "c@example.com"));
+
+        assertEquals(2, opened.size());
+        verify(opened.get(0)).close();
+        verify(opened.get(1), never()).close();
+        assertEquals(1, sender.getIdleConnections());
+    }
+
+    @Test
+    void send_DiscardsBrokenConnectionAndContinuesOnNewOne() throws Exception {
+        PooledMailSender sender = createSender();
+        MimeMessage failing = message(sender, "a@example.com");
+        MimeMessage next = message(sender, "b@example.com");
+        Transport broken = mock(Transport.class);
+        doThrow(new MessagingException("Connection reset")).when(broken).sendMessage(eq(failing), any(Address[].class));
+        queued.add(broken);
+
+        MailSendException error = assertThrows(MailSendException.class, () -> sender.send(failing, next));
+
+        assertEquals(1, error.getFailedMessages().size());
+        assertTrue(error.getFailedMessages().containsKey(failing));
+        verify(broken).close();
+        assertEquals(2, opened.size());
+        verify(opened.get(1)).sendMessage(eq(next), any(Address[].class));
+    }
+
+    @Test
+    void evictIdle_ClosesConnectionsIdleLongerThanTimeout() throws Exception {
+        settings.setIdleTimeout(1);
+        PooledMailSender sender = createSender();
+        sender.send(message(sender, "a@example.com"));
+        Thread.sleep(5);
+
+        assertEquals(1, sender.evictIdle());
+
+        assertEquals(0, sender.getIdleConnections());
+        verify(opened.get(0)).close();
+    }
+
+    private PooledMailSender createSender() {
+        PooledMailSender sender = new PooledMailSender(settings) {
+            @Override
+            protected Transport connectTransport() {
+                Transport transport = queued.isEmpty() ? mock(Transport.class) : queued.poll();
+                opened.add(transport);
+                return transport;
+            }
+        };
+        sender.setHost("smtp.example.com");
+        return sender;
+    }
+
+    private MimeMessage message(PooledMailSender sender, String to) throws MessagingException {
+        MimeMessage message = sender.createMimeMessage();
+        message.setFrom("payments@shanthigear.com");
+        message.setRecipients(jakarta.mail.Message.RecipientType.TO, to);
+        message.setSubject("Payment notification");
+        message.setText("Payment processed");
+        return message;
+    }
+}
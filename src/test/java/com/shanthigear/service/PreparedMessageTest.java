@@ -0,0 +1,60 @@
+package com.shanthigear.service;
+
+import jakarta.mail.Address;
+import jakarta.mail.Message;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.javamail.MimeMessageHelper;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PreparedMessageTest {
+
+    @Test
+    void copyFor_StampsRecipientsOnSharedBody() throws Exception {
+        PreparedMessage prepared = PreparedMessage.of(message("<p>Payments processed today</p>"));
+
+        MimeMessage first = prepared.copyFor(null, Message.RecipientType.TO, new InternetAddress("a@example.com"));
+        MimeMessage second = prepared.copyFor(null, Message.RecipientType.TO, new InternetAddress("b@example.com"));
+        first.saveChanges();
+        second.saveChanges();
+
+        assertArrayEquals(new Address[]{new InternetAddress("a@example.com")}, first.getAllRecipients());
+        assertArrayEquals(new Address[]{new InternetAddress("b@example.com")}, second.getAllRecipients());
+        assertEquals("Payment summary", first.getSubject());
+        assertNotNull(first.getMessageID());
+        assertNotEquals(first.getMessageID(), second.getMessageID());
+        assertTrue(encode(first).contains("Payments processed today"));
+        assertTrue(encode(second).contains("Payments processed today"));
+    }
+
+    @Test
+    void copyFor_AddressesBccChunkWithoutToHeader() throws Exception {
+        PreparedMessage prepared = PreparedMessage.of(message("<p>Summary</p>"));
+
+        MimeMessage copy = prepared.copyFor(null, Message.RecipientType.BCC,
+            new InternetAddress("a@example.com"), new InternetAddress("b@example.com"));
+
+        assertNull(copy.getRecipients(Message.RecipientType.TO));
+        assertEquals(2, copy.getAllRecipients().length);
+    }
+
+    private static MimeMessage message(String html) throws Exception {
+        MimeMessage message = new MimeMessage((jakarta.mail.Session) null);
+        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+        helper.setFrom("payments@shanthigear.com");
+        helper.setSubject("Payment summary");
+        helper.setText(html, true);
+        return message;
+    }
+
+    private static String encode(MimeMessage message) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        message.writeTo(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
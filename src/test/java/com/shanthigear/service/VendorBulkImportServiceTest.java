@@ -0,0 +1,271 @@
+package com.shanthigear.service;
+
+import com.shanthigear.dto.BulkImportResponse;
+import com.shanthigear.exception.ImportException;
+import com.shanthigear.model.Vendor;
+import com.shanthigear.repository.VendorRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class VendorBulkImportServiceTest {
+
+    @Mock
+    private VendorRepository vendorRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private VendorCache vendorCache;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private ThreadPoolTaskExecutor importExecutor;
+
+    private VendorBulkImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        importExecutor = new ThreadPoolTaskExecutor();
+        importExecutor.setCorePoolSize(4);
+        importExecutor.setMaxPoolSize(4);
+        importExecutor.initialize();
+        importService = createImportService(importExecutor);
+
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+            ((TransactionCallback<?>) invocation.getArgument(0)).doInTransaction(null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        importExecutor.shutdown();
+    }
+
+    @Test
+    void processBulkImport_UpsertsValidRowsInChunksAndReportsInvalidRows() throws IOException {
+        Vendor existing = Vendor.builder().vendorNumber("10005").vendorName("Old Name").build();
+        when(vendorRepository.findByVendorNumberIn(anyCollection()))
+            .thenAnswer(invocation -> invocation.<Collection<String>>getArgument(0).contains("10005")
+                ? List.of(existing) : Collections.emptyList());
+        when(entityManager.merge(any(Vendor.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        MultipartFile file = createVendorFile(new String[][] {
+            validRow("10005"),
+            validRow("10006"),
+            {"10007", "Missing Everything"},
+            validRow("10008"),
+            validRow("10009"),
+            validRow("10010")
+        });
+
+        BulkImportResponse response = importService.processBulkImport(file);
+
+        assertEquals(6, response.getTotalRecords());
+        assertEquals(5, response.getSuccessCount());
+        assertEquals(1, response.getFailureCount());
+        assertTrue(response.getErrors().get(0).startsWith("Row 4:"));
+
+        verify(entityManager, times(1)).merge(any(Vendor.class));
+        verify(entityManager, times(4)).persist(any(Vendor.class));
+        verify(vendorRepository, never()).findByVendorNumber(any());
+        assertEquals(6.0, meterRegistry.get("vendor.import.pipeline.rows").tag("stage", "read").counter().count());
+        assertEquals(5.0, meterRegistry.get("vendor.import.pipeline.rows").tag("stage", "persist").counter().count());
+    }
+
+    @Test
+    void processBulkImport_WhenChunkFails_FallsBackToRowByRow() throws IOException {
+        when(vendorRepository.findByVendorNumberIn(anyCollection())).thenReturn(Collections.emptyList());
+        doThrow(new IllegalStateException("batch failed")).when(entityManager).flush();
+        when(vendorRepository.findByVendorNumber(any())).thenReturn(Optional.empty());
+        when(vendorRepository.save(any(Vendor.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        MultipartFile file = createVendorFile(new String[][] {validRow("10005"), validRow("10006")});
+
+        BulkImportResponse response = importService.processBulkImport(file);
+
+        assertEquals(2, response.getSuccessCount());
+        assertEquals(0, response.getFailureCount());
+        verify(vendorRepository, times(2)).save(any(Vendor.class));
+    }
+
+    @Test
+    void processBulkImport_WithCheckpoint_SkipsCommittedRowsAndReportsContiguousCheckpoints(@TempDir Path tempDir)
+            throws IOException {
+        when(vendorRepository.findByVendorNumberIn(anyCollection())).thenReturn(Collections.emptyList());
+        
+        MultipartFile upload = createVendorFile(new String[][] {
+            validRow("10005"),
+            validRow("10006"),
+            validRow("10007"),
+            {"10008", "Missing Everything"},
+            validRow("10009"),
+            validRow("10010")
+        });
+        Path file = tempDir.resolve("vendors.xlsx");
+        Files.write(file, upload.getBytes());
+        
+        List<ImportCheckpointListener.Checkpoint> checkpoints = new ArrayList<>();
+        BulkImportResponse response = importService.processBulkImport(file, 3, checkpoints::add);
+        
+        // Rows 2 and 3 were committed by the earlier run
+        assertEquals(4, response.getTotalRecords());
+        assertEquals(3, response.getSuccessCount());
+        verify(entityManager, times(3)).persist(any(Vendor.class));
+        
+        int previousRow = 3;
+        for (ImportCheckpointListener.Checkpoint checkpoint : checkpoints) {
+            assertTrue(checkpoint.lastCommittedRow() > previousRow);
+            previousRow = checkpoint.lastCommittedRow();
+        }
+        assertEquals(7, previousRow);
+        assertEquals(4, checkpoints.stream().mapToInt(ImportCheckpointListener.Checkpoint::rows).sum());
+        assertEquals(3, checkpoints.stream().mapToInt(ImportCheckpointListener.Checkpoint::succeeded).sum());
+        assertEquals(1, checkpoints.stream().mapToInt(checkpoint -> checkpoint.errors().size()).sum());
+    }
+    
+    @Test
+    void processBulkImport_WhenWorkersFail_StopsReadingInsteadOfBlocking() throws IOException {
+        ThreadPoolTaskExecutor failingExecutor = new ThreadPoolTaskExecutor() {
+            @Override
+            public Future<?> submit(Runnable task) {
+                return CompletableFuture.failedFuture(new IllegalStateException("worker died"));
+            }
+        };
+        importService = createImportService(failingExecutor);
+
+        // More rows than the row queue holds, so the reader has to wait for the dead mappers
+        MultipartFile file = createVendorFile(new String[][] {
+            validRow("10005"), validRow("10006"), validRow("10007"), validRow("10008"), validRow("10009")
+        });
+
+        RuntimeException e = assertTimeoutPreemptively(Duration.ofSeconds(10),
+            () -> assertThrows(RuntimeException.class, () -> importService.processBulkImport(file)));
+        assertTrue(e.getMessage().contains("worker died"), e.getMessage());
+    }
+
+    @Test
+    void processBulkImport_WhenCheckpointListenerFails_StopsImport(@TempDir Path tempDir) throws IOException {
+        when(vendorRepository.findByVendorNumberIn(anyCollection())).thenReturn(Collections.emptyList());
+
+        String[][] rows = new String[40][];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = validRow(String.valueOf(10005 + i));
+        }
+        Path file = tempDir.resolve("vendors.xlsx");
+        Files.write(file, createVendorFile(rows).getBytes());
+
+        AtomicInteger checkpoints = new AtomicInteger();
+        ImportCheckpointListener listener = checkpoint -> {
+            checkpoints.incrementAndGet();
+            throw new ImportException("Import job 1 was taken over by another instance");
+        };
+
+        RuntimeException e = assertTimeoutPreemptively(Duration.ofSeconds(10),
+            () -> assertThrows(RuntimeException.class, () -> importService.processBulkImport(file, 0, listener)));
+        assertTrue(e.getMessage().contains("taken over"), e.getMessage());
+
+        // Each persist worker stops at its first failed checkpoint, and the rest of the sheet is never saved
+        assertTrue(checkpoints.get() <= 2, "checkpoints after failure: " + checkpoints.get());
+        verify(entityManager, atMost(rows.length / 2)).persist(any(Vendor.class));
+    }
+
+    @Test
+    void init_WithFewerThreadsThanOneImportNeeds_Fails() {
+        ReflectionTestUtils.setField(importService, "maxThreads", 3);
+
+        assertThrows(IllegalStateException.class, () -> importService.init());
+    }
+
+    private VendorBulkImportService createImportService(ThreadPoolTaskExecutor executor) {
+        VendorBulkImportService service = new VendorBulkImportService(
+            vendorRepository, transactionTemplate, meterRegistry, vendorCache, executor);
+        ReflectionTestUtils.setField(service, "entityManager", entityManager);
+        ReflectionTestUtils.setField(service, "batchSize", 2);
+        ReflectionTestUtils.setField(service, "maxThreads", 4);
+        ReflectionTestUtils.setField(service, "mapThreads", 2);
+        ReflectionTestUtils.setField(service, "persistThreads", 2);
+        ReflectionTestUtils.setField(service, "queueCapacity", 2);
+        ReflectionTestUtils.setField(service, "chunkQueueCapacity", 1);
+        service.init();
+        return service;
+    }
+
+    private String[] validRow(String vendorNumber) {
+        String[] row = new String[22];
+        Arrays.fill(row, "");
+        row[0] = vendorNumber;
+        row[1] = "Vendor " + vendorNumber;
+        row[2] = "SITE1";
+        row[3] = "PAYGROUP1";
+        row[10] = "1234567890";
+        row[11] = "Test Bank";
+        row[12] = "HDFC0001234";
+        row[21] = "EFT";
+        return row;
+    }
+
+    private MultipartFile createVendorFile(String[][] rows) throws IOException {
+        try (Workbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet("Vendors");
+            Row headerRow = sheet.createRow(0);
+            headerRow.createCell(0).setCellValue("Vendor Number");
+
+            for (int r = 0; r < rows.length; r++) {
+                Row row = sheet.createRow(r + 1);
+                for (int c = 0; c < rows[r].length; c++) {
+                    if (!rows[r][c].isEmpty()) {
+                        row.createCell(c).setCellValue(rows[r][c]);
+                    }
+                }
+            }
+
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            workbook.write(outputStream);
+            return new MockMultipartFile("vendors.xlsx", "vendors.xlsx",
+                "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet",
+                outputStream.toByteArray());
+        }
+    }
+}
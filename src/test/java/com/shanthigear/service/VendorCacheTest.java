@@ -0,0 +1,114 @@
+package com.shanthigear.service;
+
+import com.shanthigear.model.Vendor;
+import com.shanthigear.repository.VendorRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class VendorCacheTest {
+
+    @Mock
+    private VendorRepository vendorRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private VendorCache vendorCache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        vendorCache = new VendorCache(vendorRepository, meterRegistry, 100, Duration.ofMinutes(5));
+    }
+
+    @Test
+    void get_CachesVendorUntilInvalidated() {
+        Vendor vendor = Vendor.builder().vendorNumber("VEND001").vendorName("Test Vendor").build();
+        when(vendorRepository.findByVendorNumber("VEND001")).thenReturn(Optional.of(vendor));
+
+        assertEquals(vendor, vendorCache.get("VEND001").orElseThrow());
+        assertEquals(vendor, vendorCache.get("VEND001").orElseThrow());
+        verify(vendorRepository, times(1)).findByVendorNumber("VEND001");
+
+        vendorCache.invalidate("VEND001");
+        vendorCache.get("VEND001");
+        verify(vendorRepository, times(2)).findByVendorNumber("VEND001");
+        assertEquals(1.0 / 3, meterRegistry.get("vendor.cache.hit.ratio").gauge().value(), 1e-9);
+    }
+
+    @Test
+    void get_DoesNotCacheUnknownVendor() {
+        when(vendorRepository.findByVendorNumber("VEND404")).thenReturn(Optional.empty());
+
+        assertTrue(vendorCache.get("VEND404").isEmpty());
+        assertFalse(vendorCache.exists("VEND404"));
+        verify(vendorRepository, times(2)).findByVendorNumber("VEND404");
+    }
+
+    @Test
+    void getAll_LoadsMissesWithOneQuery() {
+        Vendor cached = Vendor.builder().vendorNumber("VEND001").build();
+        Vendor loaded = Vendor.builder().vendorNumber("VEND002").build();
+        vendorCache.put(cached);
+        when(vendorRepository.findByVendorNumberIn(anyCollection())).thenReturn(List.of(loaded));
+
+        Map<String, Vendor> vendors = vendorCache.getAll(List.of("VEND001", "VEND002", "VEND404"));
+
+        assertEquals(Map.of("VEND001", cached, "VEND002", loaded), vendors);
+        verify(vendorRepository).findByVendorNumberIn(Set.of("VEND002", "VEND404"));
+        verifyNoMoreInteractions(vendorRepository);
+    }
+
+    @Test
+    void put_InTransaction_CachesVendorOnlyAfterCommit() {
+        Vendor saved = Vendor.builder().vendorNumber("VEND001").vendorName("Saved").build();
+        when(vendorRepository.findByVendorNumber("VEND001")).thenReturn(Optional.empty());
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            vendorCache.put(saved);
+            // Rolled back: the vendor was never committed, so it must not be served
+            TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertTrue(vendorCache.get("VEND001").isEmpty());
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            vendorCache.put(saved);
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertEquals(saved, vendorCache.get("VEND001").orElseThrow());
+    }
+
+    @Test
+    void put_CachesCopyOfVendor() {
+        Vendor saved = Vendor.builder().vendorNumber("VEND001").vendorName("Saved").build();
+        vendorCache.put(saved);
+
+        saved.setVendorName("Changed after put");
+
+        assertEquals("Saved", vendorCache.get("VEND001").orElseThrow().getVendorName());
+        verifyNoInteractions(vendorRepository);
+    }
+}
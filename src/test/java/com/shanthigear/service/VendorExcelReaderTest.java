@@ -14,6 +14,7 @@ import org.springframework.web.multipart.MultipartFile;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -93,6 +94,20 @@ class VendorExcelReaderTest {
         }
     }
     
+    @Test
+    void readVendors_ConcurrentImports_KeepRowOrderPerFile() throws Exception {
+        MultipartFile first = createVendorFile("A", 2500);
+        MultipartFile second = createVendorFile("B", 1800);
+        
+        // Test
+        CompletableFuture<List<Vendor>> firstImport = CompletableFuture.supplyAsync(() -> readQuietly(first));
+        CompletableFuture<List<Vendor>> secondImport = CompletableFuture.supplyAsync(() -> readQuietly(second));
+        
+        // Verify
+        assertVendorSequence(firstImport.get(), "A", 2500);
+        assertVendorSequence(secondImport.get(), "B", 1800);
+    }
+    
     @Test
     void mapRowToVendor_WithValidData_ReturnsVendor() {
         // Setup mock row with cells
@@ -134,4 +149,45 @@ class VendorExcelReaderTest {
         when(cell.getStringCellValue()).thenReturn(value);
         return cell;
     }
+
+    private List<Vendor> readQuietly(MultipartFile file) {
+        try {
+            return vendorExcelReader.readVendors(file);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private void assertVendorSequence(List<Vendor> vendors, String prefix, int count) {
+        assertEquals(count, vendors.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals(prefix + i, vendors.get(i).getVendorNumber());
+        }
+    }
+    
+    private MultipartFile createVendorFile(String prefix, int rows) throws IOException {
+        try (Workbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet("Vendors");
+            String[] headers = {"Vendor Number", "Vendor Name", "Bank Account Num", "Bank Name", "IFSC Code"};
+            Row headerRow = sheet.createRow(0);
+            for (int i = 0; i < headers.length; i++) {
+                headerRow.createCell(i).setCellValue(headers[i]);
+            }
+            
+            for (int r = 0; r < rows; r++) {
+                Row row = sheet.createRow(r + 1);
+                row.createCell(0).setCellValue(prefix + r);
+                row.createCell(1).setCellValue("Vendor " + prefix + r);
+                row.createCell(2).setCellValue("ACC" + r);
+                row.createCell(3).setCellValue("Test Bank");
+                row.createCell(4).setCellValue("TEST0123456");
+            }
+            
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            workbook.write(outputStream);
+            return new MockMultipartFile(prefix + ".xlsx", prefix + ".xlsx",
+                "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet",
+                outputStream.toByteArray());
+        }
+    }
 }
@@ -31,6 +31,9 @@ class VendorImportServiceTest {
     @Mock
     private VendorExcelReader vendorExcelReader;
 
+    @Mock
+    private VendorCache vendorCache;
+
     @Mock
     private VendorUtils vendorUtils;
 
@@ -0,0 +1,171 @@
+package com.shanthigear.service;
+
+import com.shanthigear.exception.PaymentNotFoundException;
+import com.shanthigear.model.PaymentStatus;
+import com.shanthigear.model.Vendor;
+import com.shanthigear.model.VendorPayment;
+import com.shanthigear.repository.VendorPaymentRepository;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class VendorPaymentExcelServiceTest {
+
+    private static final String JOB_ID = "job-1";
+
+    @Mock
+    private OracleHostToHostService paymentService;
+
+    @Mock
+    private VendorService vendorService;
+
+    @Mock
+    private VendorPaymentRepository vendorPaymentRepository;
+
+    @TempDir
+    Path tempDir;
+
+    /** Payments recorded in VENDOR_PAYMENT, by reference. */
+    private final Map<String, VendorPayment> recorded = new ConcurrentHashMap<>();
+
+    /** References the bank received, in submission order. */
+    private final List<String> submitted = new ArrayList<>();
+
+    private VendorPaymentExcelService excelService;
+
+    @BeforeEach
+    void setUp() {
+        excelService = new VendorPaymentExcelService(paymentService, vendorService, vendorPaymentRepository);
+        ReflectionTestUtils.setField(excelService, "jobChunkSize", 2);
+
+        when(vendorService.findByVendorNumber(anyString()))
+            .thenReturn(Optional.of(Vendor.builder().vendorNumber("10005").vendorName("Vendor").build()));
+        when(vendorPaymentRepository.findByPaymentReferenceIn(anyCollection())).thenAnswer(invocation ->
+            invocation.<Collection<String>>getArgument(0).stream()
+                .map(recorded::get)
+                .filter(payment -> payment != null)
+                .toList());
+        when(vendorPaymentRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<VendorPayment> payments = invocation.getArgument(0);
+            payments.forEach(payment -> recorded.put(payment.getPaymentReference(), payment));
+            return payments;
+        });
+        lenient().when(paymentService.processBatchPayments(anyList())).thenAnswer(invocation -> {
+            List<VendorPayment> payments = invocation.getArgument(0);
+            for (VendorPayment payment : payments) {
+                submitted.add(payment.getPaymentReference());
+                payment.setStatus(PaymentStatus.COMPLETED);
+            }
+            return payments;
+        });
+        lenient().when(paymentService.checkPaymentStatus(anyString())).thenAnswer(invocation -> {
+            String reference = invocation.getArgument(0);
+            if (!submitted.contains(reference)) {
+                throw new PaymentNotFoundException("Payment not found: " + reference);
+            }
+            return recorded.get(reference);
+        });
+    }
+
+    @Test
+    void processExcelFile_ResumedAfterCrashBeforeCheckpoint_DoesNotResubmitPayments() throws IOException {
+        Path file = createPaymentFile(5);
+
+        // The first chunk (rows 2-3) is checkpointed; the process dies before checkpointing the second
+        List<ImportCheckpointListener.Checkpoint> checkpoints = new ArrayList<>();
+        ImportCheckpointListener crashingListener = checkpoint -> {
+            if (!checkpoints.isEmpty()) {
+                throw new IllegalStateException("simulated crash");
+            }
+            checkpoints.add(checkpoint);
+        };
+        assertThrows(IllegalStateException.class,
+            () -> excelService.processExcelFile(JOB_ID, file, 0, crashingListener));
+        assertEquals(3, checkpoints.get(0).lastCommittedRow());
+        assertEquals(4, submitted.size());
+
+        int resubmitted = excelService.processExcelFile(JOB_ID, file, 3, ImportCheckpointListener.NONE);
+
+        assertEquals(3, resubmitted);
+        assertEquals(5, submitted.size());
+        assertEquals(5, new HashSet<>(submitted).size(), "a payment was submitted twice: " + submitted);
+        assertTrue(submitted.contains(VendorPaymentExcelService.jobPaymentReference(JOB_ID, 6)));
+    }
+
+    @Test
+    void processExcelFile_ResumedAfterCrashBeforeSubmit_SubmitsRecordedPayments() throws IOException {
+        Path file = createPaymentFile(2);
+
+        // The payments are recorded, but the process dies before the bank receives them
+        when(paymentService.processBatchPayments(anyList()))
+            .thenThrow(new IllegalStateException("simulated crash"))
+            .thenAnswer(invocation -> {
+                List<VendorPayment> payments = invocation.getArgument(0);
+                payments.forEach(payment -> submitted.add(payment.getPaymentReference()));
+                return payments;
+            });
+        assertThrows(IllegalStateException.class,
+            () -> excelService.processExcelFile(JOB_ID, file, 0, ImportCheckpointListener.NONE));
+        assertEquals(2, recorded.size());
+
+        excelService.processExcelFile(JOB_ID, file, 0, ImportCheckpointListener.NONE);
+
+        Set<String> expected = Set.of(
+            VendorPaymentExcelService.jobPaymentReference(JOB_ID, 2),
+            VendorPaymentExcelService.jobPaymentReference(JOB_ID, 3));
+        assertEquals(expected, new HashSet<>(submitted));
+        assertEquals(2, submitted.size());
+        verify(paymentService, times(2)).checkPaymentStatus(any());
+    }
+
+    private Path createPaymentFile(int rows) throws IOException {
+        Path file = tempDir.resolve("payments.xlsx");
+        try (Workbook workbook = new XSSFWorkbook(); OutputStream out = Files.newOutputStream(file)) {
+            Sheet sheet = workbook.createSheet("Vendor Payments");
+            String[] headers = {"Vendor Code", "Invoice Number", "Amount", "Currency", "Due Date"};
+            Row header = sheet.createRow(0);
+            for (int i = 0; i < headers.length; i++) {
+                header.createCell(i).setCellValue(headers[i]);
+            }
+            for (int i = 1; i <= rows; i++) {
+                Row row = sheet.createRow(i);
+                row.createCell(0).setCellValue("10005");
+                row.createCell(1).setCellValue("INV-" + i);
+                row.createCell(2).setCellValue("100.00");
+                row.createCell(3).setCellValue("INR");
+                row.createCell(4).setCellValue("2026-01-15");
+            }
+            workbook.write(out);
+        }
+        return file;
+    }
+}
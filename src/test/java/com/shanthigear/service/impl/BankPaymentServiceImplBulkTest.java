@@ -0,0 +1,240 @@
+package com.shanthigear.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shanthigear.config.BankApiConfig;
+import com.shanthigear.config.BankCallPolicy;
+import com.shanthigear.dto.BankBulkPaymentRequestDTO;
+import com.shanthigear.dto.BankBulkPaymentResponseDTO;
+import com.shanthigear.dto.BankBulkStatusRequestDTO;
+import com.shanthigear.dto.BankPaymentRequestDTO;
+import com.shanthigear.dto.BankPaymentResponseDTO;
+import com.shanthigear.payload.request.PaymentRequest;
+import com.shanthigear.payload.response.PaymentResponse;
+import com.shanthigear.repository.VendorPaymentRepository;
+import com.shanthigear.service.PaymentStatusPoller;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BankPaymentServiceImplBulkTest {
+
+    private static final String BULK_URL = "https://api.bank.com/v1/payments/bulk";
+    private static final String STATUS_URL = "https://api.bank.com/v1/payments/status";
+
+    @Mock
+    private RestTemplate restTemplate;
+
+    @Mock
+    private VendorPaymentRepository paymentRepository;
+
+    private BankApiConfig bankApiConfig;
+
+    private final List<BankBulkPaymentRequestDTO> submitted = new ArrayList<>();
+
+    private BankPaymentServiceImpl bankPaymentService;
+
+    @BeforeEach
+    void setUp() {
+        bankApiConfig = new BankApiConfig();
+        bankApiConfig.setBaseUrl("https://api.bank.com");
+        bankApiConfig.getBulk().setEndpoint("/v1/payments/bulk");
+        bankApiConfig.getBulk().setStatusEndpoint("/v1/payments/status");
+        bankApiConfig.getBulk().setChunkSize(2);
+        bankApiConfig.getRetry().setMaxAttempts(1);
+
+        bankPaymentService = new BankPaymentServiceImpl(restTemplate, bankApiConfig, new ObjectMapper(),
+            new BankCallPolicy(bankApiConfig, new SimpleMeterRegistry()), Runnable::run);
+    }
+
+    @Test
+    void processPayments_ChunksRequestsAndMapsResultsBackInOrder() {
+        // The bank accepts every payment except PAY-3, for which it returns no result
+        when(restTemplate.exchange(eq(BULK_URL), eq(HttpMethod.POST), any(HttpEntity.class),
+                eq(BankBulkPaymentResponseDTO.class)))
+            .thenAnswer(invocation -> respond(invocation.getArgument(2), "PAY-3"));
+
+        List<PaymentResponse> responses = bankPaymentService.processPayments(requests(5));
+
+        assertEquals(3, submitted.size());
+        assertEquals(List.of(2, 2, 1), submitted.stream().map(chunk -> chunk.getPayments().size()).toList());
+        assertEquals(List.of("PAY-1", "PAY-2", "PAY-3", "PAY-4", "PAY-5"),
+            responses.stream().map(PaymentResponse::getPaymentReference).toList());
+        assertEquals(List.of("SUCCESS", "SUCCESS", "FAILED", "SUCCESS", "SUCCESS"),
+            responses.stream().map(PaymentResponse::getStatus).toList());
+
+        // Equal payments to the same beneficiary still get keys of their own
+        Set<String> keys = submitted.stream().flatMap(chunk -> chunk.getPayments().stream())
+            .map(BankPaymentRequestDTO::getIdempotencyKey)
+            .collect(Collectors.toSet());
+        assertEquals(5, keys.size());
+    }
+
+    @Test
+    void processPayments_FailsOnlyPaymentsOfRefusedChunk() {
+        AtomicInteger calls = new AtomicInteger();
+        when(restTemplate.exchange(eq(BULK_URL), eq(HttpMethod.POST), any(HttpEntity.class),
+                eq(BankBulkPaymentResponseDTO.class)))
+            .thenAnswer(invocation -> {
+                if (calls.incrementAndGet() == 2) {
+                    throw new HttpClientErrorException(HttpStatus.BAD_REQUEST, "Bad Request");
+                }
+                return respond(invocation.getArgument(2), null);
+            });
+
+        List<PaymentResponse> responses = bankPaymentService.processPayments(requests(4));
+
+        assertEquals(List.of("SUCCESS", "SUCCESS", "FAILED", "FAILED"),
+            responses.stream().map(PaymentResponse::getStatus).toList());
+        assertTrue(responses.get(2).getMessage().contains("400"));
+    }
+
+    @Test
+    void processPayments_LeavesPaymentsPendingWhenChunkOutcomeIsUnknown() {
+        AtomicInteger calls = new AtomicInteger();
+        when(restTemplate.exchange(eq(BULK_URL), eq(HttpMethod.POST), any(HttpEntity.class),
+                eq(BankBulkPaymentResponseDTO.class)))
+            .thenAnswer(invocation -> {
+                HttpEntity<BankBulkPaymentRequestDTO> request = invocation.getArgument(2);
+                switch (calls.incrementAndGet()) {
+                    case 2 -> {
+                        submitted.add(request.getBody());
+                        throw new ResourceAccessException("Read timed out");
+                    }
+                    case 3 -> throw new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE, "Unavailable");
+                    default -> {
+                        return respond(request, null);
+                    }
+                }
+            });
+
+        List<PaymentResponse> responses = bankPaymentService.processPayments(requests(6));
+
+        assertEquals(List.of("SUCCESS", "SUCCESS", "PENDING", "PENDING", "PENDING", "PENDING"),
+            responses.stream().map(PaymentResponse::getStatus).toList());
+        // The reference sent to the bank is kept, so the payment can be looked up instead of resubmitted
+        assertEquals(submitted.get(1).getPayments().get(0).getTransactionReference(), responses.get(2).getReference());
+        assertTrue(responses.get(2).getMessage().startsWith("Outcome unknown"));
+    }
+
+    @Test
+    void processPayments_PaymentOfUnknownOutcomeCanBePolledToFinalStatus() throws Exception {
+        when(restTemplate.exchange(eq(BULK_URL), eq(HttpMethod.POST), any(HttpEntity.class),
+                eq(BankBulkPaymentResponseDTO.class)))
+            .thenThrow(new ResourceAccessException("Read timed out"));
+
+        PaymentResponse pending = bankPaymentService.processPayments(requests(1)).get(0);
+
+        assertEquals("PENDING", pending.getStatus());
+        assertEquals(pending.getReference(), pending.getPaymentId());
+
+        // The bank did take the payment: it is still processing at the first lookup, then completed
+        List<String> bankStatuses = new ArrayList<>(List.of("PROCESSING", "COMPLETED"));
+        when(restTemplate.exchange(eq(STATUS_URL), eq(HttpMethod.POST), any(HttpEntity.class),
+                eq(BankBulkPaymentResponseDTO.class)))
+            .thenAnswer(invocation -> {
+                HttpEntity<BankBulkStatusRequestDTO> request = invocation.getArgument(2);
+                assertEquals(List.of(pending.getPaymentId()), request.getBody().getTransactionIds());
+                return ResponseEntity.ok(BankBulkPaymentResponseDTO.builder()
+                    .results(List.of(BankPaymentResponseDTO.createSuccessResponse(
+                        "TXN-PAY-1", pending.getReference(), bankStatuses.remove(0))))
+                    .build());
+            });
+        bankApiConfig.getStatusPolling().setBatchWindow(10);
+        bankApiConfig.getStatusPolling().setInitialDelay(10);
+        bankApiConfig.getStatusPolling().setMaxDelay(20);
+        PaymentStatusPoller poller = new PaymentStatusPoller(bankPaymentService, paymentRepository, Runnable::run,
+            bankApiConfig, new SimpleMeterRegistry());
+
+        CompletableFuture<PaymentResponse> resolved = new CompletableFuture<>();
+        poller.watch(pending.getPaymentId(), resolved::complete);
+
+        PaymentResponse status = resolved.get(5, TimeUnit.SECONDS);
+        assertEquals("SUCCESS", status.getStatus());
+        assertEquals("TXN-PAY-1", status.getPaymentId());
+        assertTrue(bankStatuses.isEmpty());
+    }
+
+    @Test
+    void processPayments_GivesEqualPaymentsWithoutReferenceKeysOfTheirOwn() {
+        when(restTemplate.exchange(eq(BULK_URL), eq(HttpMethod.POST), any(HttpEntity.class),
+                eq(BankBulkPaymentResponseDTO.class)))
+            .thenAnswer(invocation -> respond(invocation.getArgument(2), null));
+        List<PaymentRequest> requests = requests(2);
+        requests.forEach(request -> request.setPaymentReference(null));
+
+        bankPaymentService.processPayments(requests);
+        bankPaymentService.processPayments(requests);
+
+        List<String> keys = submitted.stream().flatMap(chunk -> chunk.getPayments().stream())
+            .map(BankPaymentRequestDTO::getIdempotencyKey)
+            .toList();
+        assertNotEquals(keys.get(0), keys.get(1));
+        // A resubmission of the same payments reuses their keys
+        assertEquals(keys.subList(0, 2), keys.subList(2, 4));
+    }
+
+    @Test
+    void processPayments_ReturnsEmptyListForNoRequests() {
+        assertTrue(bankPaymentService.processPayments(List.of()).isEmpty());
+        verifyNoInteractions(restTemplate);
+    }
+
+    private ResponseEntity<BankBulkPaymentResponseDTO> respond(HttpEntity<BankBulkPaymentRequestDTO> request,
+                                                               String omittedReference) {
+        BankBulkPaymentRequestDTO chunk = request.getBody();
+        submitted.add(chunk);
+        assertNotNull(request.getHeaders().getFirst("Idempotency-Key"));
+        List<BankPaymentResponseDTO> results = chunk.getPayments().stream()
+            .filter(payment -> !payment.getPaymentDetails().equals(omittedReference))
+            .map(payment -> BankPaymentResponseDTO.createSuccessResponse(
+                "TXN-" + payment.getPaymentDetails(), payment.getTransactionReference(), "COMPLETED"))
+            .toList();
+        return ResponseEntity.ok(BankBulkPaymentResponseDTO.builder()
+            .batchReference(chunk.getBatchReference())
+            .results(results)
+            .build());
+    }
+
+    private static List<PaymentRequest> requests(int count) {
+        return IntStream.rangeClosed(1, count).mapToObj(i -> {
+            PaymentRequest request = new PaymentRequest();
+            request.setPaymentReference("PAY-" + i);
+            request.setAmount(new BigDecimal("1000.00"));
+            request.setCurrency("INR");
+            request.setDebitAccountNumber("1234567890");
+            request.setBeneficiaryAccountNumber("9876543210");
+            request.setBeneficiaryName("Test Beneficiary");
+            request.setBeneficiaryBankCode("HDFC0001234");
+            // Echoed back as the payment details, so the stub can tell the payments apart
+            request.setDescription("PAY-" + i);
+            return request;
+        }).toList();
+    }
+}
@@ -2,6 +2,7 @@ package com.shanthigear.service.impl;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.shanthigear.config.BankApiConfig;
+import com.shanthigear.config.BankCallPolicy;
 import com.shanthigear.dto.BankPaymentResponseDTO;
 import com.shanthigear.exception.BankApiException;
 import com.shanthigear.exception.PaymentProcessingException;
@@ -14,7 +15,6 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.*;
-import org.springframework.retry.support.RetryTemplate;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.HttpServerErrorException;
 import org.springframework.web.client.ResourceAccessException;
@@ -39,7 +39,7 @@ class BankPaymentServiceImplTest {
     private ObjectMapper objectMapper;
 
     @Mock
-    private RetryTemplate retryTemplate;
+    private BankCallPolicy bankCallPolicy;
 
     @InjectMocks
     private BankPaymentServiceImpl bankPaymentService;
@@ -71,7 +71,7 @@ class BankPaymentServiceImplTest {
     @Test
     void processPayment_Success() throws Throwable {
         // Given
-        when(retryTemplate.execute(any())).thenAnswer(invocation -> {
+        when(bankCallPolicy.execute(anyString(), any())).thenAnswer(invocation -> {
             return ResponseEntity.ok(successResponse);
         });
 
@@ -88,7 +88,7 @@ class BankPaymentServiceImplTest {
     @Test
     void processPayment_Pending() throws Throwable {
         // Given
-        when(retryTemplate.execute(any())).thenAnswer(invocation -> {
+        when(bankCallPolicy.execute(anyString(), any())).thenAnswer(invocation -> {
             return ResponseEntity.status(HttpStatus.ACCEPTED).body(pendingResponse);
         });
 
@@ -104,7 +104,7 @@ class BankPaymentServiceImplTest {
     @Test
     void processPayment_BankApiError() throws Throwable {
         // Given
-        when(retryTemplate.execute(any()))
+        when(bankCallPolicy.execute(anyString(), any()))
             .thenThrow(new BankApiException("Bank API error", HttpStatus.BAD_REQUEST));
 
         // When / Then
@@ -116,7 +116,7 @@ class BankPaymentServiceImplTest {
     @Test
     void processPayment_NetworkError() throws Throwable {
         // Given
-        when(retryTemplate.execute(any()))
+        when(bankCallPolicy.execute(anyString(), any()))
             .thenThrow(new ResourceAccessException("Connection timeout"));
 
         // When / Then
@@ -129,7 +129,7 @@ class BankPaymentServiceImplTest {
     void getPaymentStatus_Success() throws Throwable {
         // Given
         String paymentId = "TXN1234567890";
-        when(retryTemplate.execute(any())).thenAnswer(invocation -> {
+        when(bankCallPolicy.execute(anyString(), any())).thenAnswer(invocation -> {
             return ResponseEntity.ok(successResponse);
         });
 
@@ -146,7 +146,7 @@ class BankPaymentServiceImplTest {
     void getPaymentStatus_NotFound() throws Throwable {
         // Given
         String paymentId = "NON_EXISTENT";
-        when(retryTemplate.execute(any()))
+        when(bankCallPolicy.execute(anyString(), any()))
             .thenThrow(new HttpClientErrorException(HttpStatus.NOT_FOUND, "Payment not found"));
 
         // When / Then
@@ -159,7 +159,7 @@ class BankPaymentServiceImplTest {
     void getPaymentStatus_ServerError() throws Throwable {
         // Given
         String paymentId = "TXN1234567890";
-        when(retryTemplate.execute(any()))
+        when(bankCallPolicy.execute(anyString(), any()))
             .thenThrow(new HttpServerErrorException(HttpStatus.INTERNAL_SERVER_ERROR, "Server error"));
 
         // When / Then
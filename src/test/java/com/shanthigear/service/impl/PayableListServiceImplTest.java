@@ -0,0 +1,122 @@
+package com.shanthigear.service.impl;
+
+import com.shanthigear.dto.PayableItemDTO;
+import com.shanthigear.exception.PaymentValidationException;
+import com.shanthigear.mapper.PayableItemMapper;
+import com.shanthigear.model.PaymentDetails;
+import com.shanthigear.model.Vendor;
+import com.shanthigear.repository.PaymentDetailsRepository;
+import com.shanthigear.service.VendorCache;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PayableListServiceImplTest {
+
+    @Mock
+    private PaymentDetailsRepository paymentDetailsRepository;
+
+    @Mock
+    private VendorCache vendorCache;
+
+    @Mock
+    private PayableItemMapper payableItemMapper;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private PayableListServiceImpl payableListService;
+
+    // Sizes of the saveAll batches, in call order
+    private final List<Integer> batchSizes = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        payableListService = new PayableListServiceImpl(paymentDetailsRepository, vendorCache, payableItemMapper);
+        ReflectionTestUtils.setField(payableListService, "entityManager", entityManager);
+        ReflectionTestUtils.setField(payableListService, "saveBatchSize", 2);
+
+        Vendor vendor = new Vendor();
+        vendor.setVendorNumber("V001");
+        lenient().when(vendorCache.getAll(anyCollection())).thenReturn(Map.of("V001", vendor));
+        lenient().when(payableItemMapper.toPaymentDetails(any(PayableItemDTO.class), eq("tester")))
+            .thenAnswer(invocation -> {
+                PayableItemDTO item = invocation.getArgument(0);
+                PaymentDetails details = new PaymentDetails();
+                details.setVendorNumber(item.getVendorNumber());
+                details.setAmount(item.getAmountToPay());
+                details.setCreatedBy(invocation.getArgument(1));
+                return details;
+            });
+        lenient().when(paymentDetailsRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<PaymentDetails> batch = invocation.getArgument(0);
+            batchSizes.add(batch.size());
+            return batch;
+        });
+    }
+
+    @Test
+    void processPayableList_SavesInBatchesAndFlushesAndClearsAfterEach() {
+        List<PaymentDetails> saved = payableListService.processPayableList(csv(5), "tester");
+
+        // Two full batches and a final partial one
+        assertEquals(List.of(2, 2, 1), batchSizes);
+        assertEquals(List.of("100", "101", "102", "103", "104"),
+            saved.stream().map(details -> details.getAmount().toPlainString()).collect(Collectors.toList()));
+        assertTrue(saved.stream().allMatch(details -> "tester".equals(details.getCreatedBy())));
+
+        InOrder inOrder = inOrder(paymentDetailsRepository, entityManager);
+        for (int batch = 0; batch < 3; batch++) {
+            inOrder.verify(paymentDetailsRepository).saveAll(anyList());
+            inOrder.verify(entityManager).flush();
+            inOrder.verify(entityManager).clear();
+        }
+        inOrder.verifyNoMoreInteractions();
+    }
+
+    @Test
+    void processPayableList_WithExactMultipleOfBatchSize_LeavesNoEmptyBatch() {
+        payableListService.processPayableList(csv(4), "tester");
+
+        assertEquals(List.of(2, 2), batchSizes);
+        verify(entityManager, times(2)).flush();
+        verify(entityManager, times(2)).clear();
+    }
+
+    @Test
+    void processPayableList_WithUnknownVendor_SavesNothing() {
+        MockMultipartFile file = new MockMultipartFile("file", "payables.csv", "text/csv",
+            ("Vendor Number,Vendor Name,Vendor Site,Pay Group,Amount\n"
+                + "V999,Unknown,Site,MSME,100\n").getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(PaymentValidationException.class, () -> payableListService.processPayableList(file, "tester"));
+
+        verifyNoInteractions(paymentDetailsRepository, entityManager);
+    }
+
+    private static MockMultipartFile csv(int rows) {
+        String content = "Vendor Number,Vendor Name,Vendor Site,Pay Group,Amount\n"
+            + IntStream.range(0, rows)
+                .mapToObj(i -> "V001,Acme,Chennai,MSME," + (100 + i) + "\n")
+                .collect(Collectors.joining());
+        return new MockMultipartFile("file", "payables.csv", "text/csv", content.getBytes(StandardCharsets.UTF_8));
+    }
+}
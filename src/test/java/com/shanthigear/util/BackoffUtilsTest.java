@@ -0,0 +1,19 @@
+package com.shanthigear.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BackoffUtilsTest {
+
+    @Test
+    void jitteredBackoffMillis_IsJitteredAndCapped() {
+        for (int retry = 1; retry <= 10; retry++) {
+            long ceiling = Math.min(100L << (retry - 1), 1000L);
+            long delay = BackoffUtils.jitteredBackoffMillis(Duration.ofMillis(100), Duration.ofMillis(1000), retry);
+            assertTrue(delay >= ceiling / 2 && delay <= ceiling, "delay " + delay + " for retry " + retry);
+        }
+    }
+}
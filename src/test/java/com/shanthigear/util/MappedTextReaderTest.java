@@ -0,0 +1,91 @@
+package com.shanthigear.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedTextReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void read_Csv_HandlesQuotesCrLfAndByteOrderMark() throws IOException {
+        Path file = write("\uFEFFVendor Number,Vendor Name,Amount\r\n"
+                + "V001,\"Acme, Inc.\",1000.50\r\n"
+                + "V002,\"Say \"\"Hi\"\"\nLtd\",  42 \r\n"
+                + "V003,,\n");
+
+        List<List<String>> rows = readAll(file, MappedTextReader.Layout.csv());
+
+        assertEquals(4, rows.size());
+        assertEquals(List.of("Vendor Number", "Vendor Name", "Amount"), rows.get(0));
+        assertEquals(List.of("V001", "Acme, Inc.", "1000.50"), rows.get(1));
+        assertEquals(List.of("V002", "Say \"Hi\"\nLtd", "42"), rows.get(2));
+        assertEquals(List.of("V003", "", ""), rows.get(3));
+    }
+
+    @Test
+    void read_FixedWidth_SplitsColumnsAndPadsShortLines() throws IOException {
+        Path file = write("V001      Acme      1000.50\n"
+                + "V002      Beta\n");
+
+        List<List<String>> rows = readAll(file, MappedTextReader.Layout.fixedWidth(10, 10, 8));
+
+        assertEquals(List.of("V001", "Acme", "1000.50"), rows.get(0));
+        assertEquals(List.of("V002", "Beta", ""), rows.get(1));
+    }
+
+    @Test
+    void read_FixedWidth_CountsWidthsInCharacters() throws IOException {
+        // The accented letters take two bytes each in UTF-8
+        Path file = write("V001      Café Ünï  1000.50\n"
+                + "V002      Müller    200\n");
+
+        List<List<String>> rows = readAll(file, MappedTextReader.Layout.fixedWidth(10, 10, 8));
+
+        assertEquals(List.of("V001", "Café Ünï", "1000.50"), rows.get(0));
+        assertEquals(List.of("V002", "Müller", "200"), rows.get(1));
+    }
+
+    @Test
+    void read_Upload_KeepsRowsReadableAfterReturning() throws IOException {
+        MockMultipartFile upload = new MockMultipartFile("file", "export.csv", "text/csv",
+                "V001,Acme\nV002,Beta\n".getBytes(StandardCharsets.UTF_8));
+        List<List<String>> views = new ArrayList<>();
+
+        MappedTextReader.read(upload, MappedTextReader.Layout.csv(), (rowNum, values) -> views.add(values));
+
+        // Row views still decode from the mapping of the spooled upload
+        assertEquals(List.of("V001", "Acme"), new ArrayList<>(views.get(0)));
+        assertEquals(List.of("V002", "Beta"), new ArrayList<>(views.get(1)));
+    }
+
+    @Test
+    void layoutForFile_TxtWithoutWidths_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> MappedTextReader.Layout.forFile("payables.txt", ""));
+        assertThrows(IllegalArgumentException.class, () -> MappedTextReader.Layout.forFile("payables.xlsx", "10,20"));
+        assertNotNull(MappedTextReader.Layout.forFile("payables.txt", "10, 20"));
+    }
+
+    private Path write(String content) throws IOException {
+        Path file = tempDir.resolve("export.txt");
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private List<List<String>> readAll(Path file, MappedTextReader.Layout layout) throws IOException {
+        List<List<String>> rows = new ArrayList<>();
+        MappedTextReader.read(file, layout, (rowNum, values) -> rows.add(new ArrayList<>(values)));
+        return rows;
+    }
+}